@@ -0,0 +1,66 @@
+/*
+  $Id$
+
+  Copyright (C) 2003-2014 Virginia Tech.
+  All rights reserved.
+
+  SEE LICENSE FOR MORE INFORMATION
+
+  Author:  Middleware Services
+  Email:   middleware@vt.edu
+  Version: $Revision$
+  Updated: $Date$
+*/
+package org.ldaptive.beans;
+
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.results.format.ResultFormatType;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.options.ChainedOptionsBuilder;
+import org.openjdk.jmh.runner.options.CommandLineOptions;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+/**
+ * Runs the JMH benchmarks with the GC profiler enabled, so that every result
+ * reports allocation rate next to throughput and average time. Results are
+ * written as JSON to {@link #DEFAULT_RESULT} unless a result file or format
+ * is given on the command line. All standard JMH options are accepted.
+ *
+ * @author  Middleware Services
+ * @version  $Revision$ $Date$
+ */
+public final class BenchmarkRunner
+{
+
+  /** Default result file. */
+  public static final String DEFAULT_RESULT = "jmh-result.json";
+
+
+  /** Default constructor. */
+  private BenchmarkRunner() {}
+
+
+  /**
+   * Runs the benchmarks selected by the supplied JMH command line.
+   *
+   * @param  args  JMH command line options
+   *
+   * @throws  Exception  if the command line is invalid or a benchmark fails
+   */
+  public static void main(final String[] args)
+    throws Exception
+  {
+    final CommandLineOptions cmd = new CommandLineOptions(args);
+    if (cmd.shouldHelp() || cmd.shouldList() || cmd.shouldListProfilers() ||
+        cmd.shouldListResultFormats() || cmd.shouldListWithParams()) {
+      org.openjdk.jmh.Main.main(args);
+      return;
+    }
+    final ChainedOptionsBuilder options = new OptionsBuilder().parent(cmd)
+      .addProfiler(GCProfiler.class);
+    if (!cmd.getResultFormat().hasValue() && !cmd.getResult().hasValue()) {
+      options.resultFormat(ResultFormatType.JSON).result(DEFAULT_RESULT);
+    }
+    new Runner(options.build()).run();
+  }
+}
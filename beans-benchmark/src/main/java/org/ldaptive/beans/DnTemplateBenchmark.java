@@ -0,0 +1,102 @@
+/*
+  $Id$
+
+  Copyright (C) 2003-2014 Virginia Tech.
+  All rights reserved.
+
+  SEE LICENSE FOR MORE INFORMATION
+
+  Author:  Middleware Services
+  Email:   middleware@vt.edu
+  Version: $Revision$
+  Updated: $Date$
+*/
+package org.ldaptive.beans;
+
+import java.util.concurrent.TimeUnit;
+import org.ldaptive.DnParser;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Compares building and decomposing DNs with a compiled {@link DnTemplate}
+ * against string concatenation, which is what beans did in their DN getter,
+ * and the general purpose {@link DnParser}.
+ *
+ * @author  Middleware Services
+ * @version  $Revision$ $Date$
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class DnTemplateBenchmark
+{
+
+  /** Compiled template. */
+  private final DnTemplate template = DnTemplate.compile(
+    "uid={uid},ou={ou},dc=ldaptive,dc=org");
+
+  // not final, so the JIT cannot fold the concatenation into a constant
+
+  /** Uid value. */
+  private String uid = "jdoe";
+
+  /** Ou value. */
+  private String ou = "people";
+
+  /** DN to decompose. */
+  private String dn = "uid=jdoe,ou=people,dc=ldaptive,dc=org";
+
+
+  /**
+   * @return  DN formatted by the template
+   */
+  @Benchmark
+  public String formatTemplate()
+  {
+    return template.format(uid, ou);
+  }
+
+
+  /**
+   * @return  DN built by concatenation without escaping
+   */
+  @Benchmark
+  public String formatConcat()
+  {
+    return "uid=" + uid + ",ou=" + ou + ",dc=ldaptive,dc=org";
+  }
+
+
+  /**
+   * @return  values parsed by the template
+   */
+  @Benchmark
+  public String[] parseTemplate()
+  {
+    return template.parse(dn);
+  }
+
+
+  /**
+   * @return  values parsed by the DN parser
+   */
+  @Benchmark
+  public String[] parseDnParser()
+  {
+    return new String[] {
+      DnParser.getValue(dn, "uid"),
+      DnParser.getValue(dn, "ou"),
+    };
+  }
+}
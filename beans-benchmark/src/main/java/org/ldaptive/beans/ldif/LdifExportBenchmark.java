@@ -0,0 +1,188 @@
+/*
+  $Id$
+
+  Copyright (C) 2003-2014 Virginia Tech.
+  All rights reserved.
+
+  SEE LICENSE FOR MORE INFORMATION
+
+  Author:  Middleware Services
+  Email:   middleware@vt.edu
+  Version: $Revision$
+  Updated: $Date$
+*/
+package org.ldaptive.beans.ldif;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.ByteBuffer;
+import java.nio.channels.GatheringByteChannel;
+import java.nio.charset.StandardCharsets;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import org.ldaptive.LdapEntry;
+import org.ldaptive.SearchResult;
+import org.ldaptive.beans.reflect.BenchmarkObjects;
+import org.ldaptive.beans.reflect.DefaultLdapEntryMapper;
+import org.ldaptive.io.LdifWriter;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Measures exporting each of the custom object test beans as LDIF with an
+ * {@link LdifExporter} against mapping each bean to an ldap entry and writing
+ * it with an {@link LdifWriter}. Output is discarded. Scores are per bean.
+ *
+ * @author  Middleware Services
+ * @version  $Revision$ $Date$
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class LdifExportBenchmark
+{
+
+  /** Number of beans exported per invocation. */
+  private static final int COUNT = 1000;
+
+  /** Test bean to export. */
+  @Param({"binary", "char", "int", "integer", "string"})
+  private String bean;
+
+  /** Beans to export. */
+  private List<Object> objects;
+
+  /** Exporter under test. */
+  private LdifExporter exporter;
+
+  /** Mapper used with the ldif writer. */
+  private DefaultLdapEntryMapper<Object> mapper;
+
+  /** Channel that discards its input. */
+  private final GatheringByteChannel channel = new NullChannel();
+
+  /** Writer that discards its input after encoding it. */
+  private final Writer writer = new BufferedWriter(
+    new OutputStreamWriter(
+      new OutputStream() {
+        /** {@inheritDoc} */
+        @Override
+        public void write(final int b) {}
+
+
+        /** {@inheritDoc} */
+        @Override
+        public void write(final byte[] b, final int off, final int len) {}
+      },
+      StandardCharsets.UTF_8),
+    64 * 1024);
+
+
+  /** Prepares the beans, exporter and mapper. */
+  @Setup
+  public void setup()
+  {
+    objects = Collections.nCopies(
+      COUNT, BenchmarkObjects.createFixture(bean)[0]);
+    exporter = new LdifExporter(
+      DefaultLdapEntryMapper.getClassDescriptorRegistry());
+    mapper = new DefaultLdapEntryMapper<Object>(false);
+  }
+
+
+  /**
+   * @return  export result
+   *
+   * @throws  IOException  never
+   */
+  @Benchmark
+  @OperationsPerInvocation(COUNT)
+  public LdifExporter.Result exporter()
+    throws IOException
+  {
+    return exporter.export(objects, channel);
+  }
+
+
+  /**
+   * @throws  IOException  never
+   */
+  @Benchmark
+  @OperationsPerInvocation(COUNT)
+  public void mapperAndWriter()
+    throws IOException
+  {
+    final LdifWriter ldifWriter = new LdifWriter(writer);
+    for (Object object : objects) {
+      final LdapEntry entry = new LdapEntry();
+      mapper.map(object, entry);
+      ldifWriter.write(new SearchResult(entry));
+    }
+  }
+
+
+  /** Gathering channel that discards everything written to it. */
+  private static class NullChannel implements GatheringByteChannel
+  {
+
+
+    /** {@inheritDoc} */
+    @Override
+    public long write(final ByteBuffer[] srcs, final int offset, final int len)
+    {
+      long n = 0;
+      for (int i = offset; i < offset + len; i++) {
+        n += write(srcs[i]);
+      }
+      return n;
+    }
+
+
+    /** {@inheritDoc} */
+    @Override
+    public long write(final ByteBuffer[] srcs)
+    {
+      return write(srcs, 0, srcs.length);
+    }
+
+
+    /** {@inheritDoc} */
+    @Override
+    public int write(final ByteBuffer src)
+    {
+      final int n = src.remaining();
+      src.position(src.limit());
+      return n;
+    }
+
+
+    /** {@inheritDoc} */
+    @Override
+    public boolean isOpen()
+    {
+      return true;
+    }
+
+
+    /** {@inheritDoc} */
+    @Override
+    public void close() {}
+  }
+}
@@ -0,0 +1,127 @@
+/*
+  $Id$
+
+  Copyright (C) 2003-2014 Virginia Tech.
+  All rights reserved.
+
+  SEE LICENSE FOR MORE INFORMATION
+
+  Author:  Middleware Services
+  Email:   middleware@vt.edu
+  Version: $Revision$
+  Updated: $Date$
+*/
+package org.ldaptive.beans.reflect;
+
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.Set;
+
+/**
+ * Creates populated test beans for use as benchmark fixtures. Values match the
+ * data providers of the mapper unit tests.
+ *
+ * @author  Middleware Services
+ * @version  $Revision$ $Date$
+ */
+public final class BenchmarkObjects
+{
+
+
+  /** Default constructor. */
+  private BenchmarkObjects() {}
+
+
+  /**
+   * Returns a populated string custom object.
+   *
+   * @return  string custom object
+   */
+  public static StringCustomObject createStringCustomObject()
+  {
+    final Set<String> s1 = new HashSet<String>();
+    s1.add("tsv1");
+    s1.add("tsv2");
+
+    final StringCustomObject o = new StringCustomObject();
+    o.setType1("tv1");
+    o.writeType2("tv2");
+    o.setType3("tv3");
+    o.setTypeArray1(new String[] {"tav1", "tav2"});
+    o.writeTypeArray2(new String[] {"tav1", "tav2"});
+    o.setCol1(Arrays.asList("cv1", "cv2"));
+    o.writeCol2(Arrays.asList("cv1", "cv2"));
+    o.setTypeCol1(Arrays.asList("tcv1", "tcv2"));
+    o.writeTypeCol2(Arrays.asList("tcv1", "tcv2"));
+    o.setTypeSet1(s1);
+    o.writeTypeSet2(s1);
+    o.setTypeList1(Arrays.asList("tlv1", "tlv2"));
+    o.writeTypeList2(Arrays.asList("tlv1", "tlv2"));
+    return o;
+  }
+
+
+  /**
+   * Returns a populated int custom object.
+   *
+   * @return  int custom object
+   */
+  public static IntCustomObject createIntCustomObject()
+  {
+    final Set<Integer> s1 = new HashSet<Integer>();
+    s1.add(601);
+    s1.add(602);
+
+    final IntCustomObject o = new IntCustomObject();
+    o.setType1(100);
+    o.writeType2(200);
+    o.setType3(300);
+    o.setTypeArray1(new int[] {301, 302});
+    o.writeTypeArray2(new int[] {301, 302});
+    o.setCol1(Arrays.asList("401", "402"));
+    o.writeCol2(Arrays.asList("401", "402"));
+    o.setTypeCol1(Arrays.asList(501, 502));
+    o.writeTypeCol2(Arrays.asList(501, 502));
+    o.setTypeSet1(s1);
+    o.writeTypeSet2(s1);
+    o.setTypeList1(Arrays.asList(701, 702));
+    o.writeTypeList2(Arrays.asList(701, 702));
+    return o;
+  }
+
+
+  /**
+   * Returns a custom object and its matching ldap entry from the data provider
+   * of the mapper unit test for the supplied bean.
+   *
+   * @param  bean  one of binary, char, int, integer or string
+   *
+   * @return  array containing the custom object and the ldap entry
+   *
+   * @throws  IllegalArgumentException  if bean is unknown
+   */
+  public static Object[] createFixture(final String bean)
+  {
+    final Object[][] data;
+    switch (bean) {
+    case "binary":
+      data = new BinaryLdapEntryMapperTest().createCustomObjects();
+      break;
+    case "char":
+      data = new CharLdapEntryMapperTest().createCustomObjects();
+      break;
+    case "int":
+      data = new IntLdapEntryMapperTest().createCustomObjects();
+      break;
+    case "integer":
+      data = new IntegerLdapEntryMapperTest().createCustomObjects();
+      break;
+    case "string":
+      data = new StringLdapEntryMapperTest().createCustomObjects();
+      break;
+    default:
+      throw new IllegalArgumentException("Unknown bean: " + bean);
+    }
+    return data[0];
+  }
+}
@@ -0,0 +1,118 @@
+/*
+  $Id$
+
+  Copyright (C) 2003-2014 Virginia Tech.
+  All rights reserved.
+
+  SEE LICENSE FOR MORE INFORMATION
+
+  Author:  Middleware Services
+  Email:   middleware@vt.edu
+  Version: $Revision$
+  Updated: $Date$
+*/
+package org.ldaptive.beans.reflect;
+
+import java.beans.Introspector;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.util.Collections;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Measures initializing a {@link DefaultClassDescriptor} for each of the
+ * custom object test beans by introspection and from a {@link
+ * ClassDescriptorSnapshot}. The introspector cache is flushed before every
+ * invocation to approximate the first mapping of a type in a new JVM.
+ *
+ * @author  Middleware Services
+ * @version  $Revision$ $Date$
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ClassDescriptorBenchmark
+{
+
+  /** Test bean to describe. */
+  @Param({"binary", "char", "int", "integer", "string"})
+  private String bean;
+
+  /** Type of the test bean. */
+  private Class<?> type;
+
+  /** Accessor factory shared by both descriptors. */
+  private PropertyAccessorFactory accessorFactory;
+
+  /** Snapshot of the test bean, read back from its serialized form. */
+  private ClassDescriptorSnapshot snapshot;
+
+
+  /**
+   * Prepares the type and snapshot.
+   *
+   * @throws  IOException  if the snapshot cannot be serialized
+   */
+  @Setup
+  public void setup()
+    throws IOException
+  {
+    type = BenchmarkObjects.createFixture(bean)[0].getClass();
+    accessorFactory = new MethodHandlePropertyAccessorFactory();
+    final ByteArrayOutputStream out = new ByteArrayOutputStream();
+    ClassDescriptorSnapshot.create(
+      Collections.<Class<?>>singletonList(type)).write(out);
+    snapshot = ClassDescriptorSnapshot.read(
+      new ByteArrayInputStream(out.toByteArray()));
+  }
+
+
+  /** Discards introspection results cached by previous invocations. */
+  @Setup(Level.Invocation)
+  public void flushCaches()
+  {
+    Introspector.flushCaches();
+  }
+
+
+  /**
+   * @return  descriptor initialized by introspection
+   */
+  @Benchmark
+  public DefaultClassDescriptor introspect()
+  {
+    final DefaultClassDescriptor descriptor = new DefaultClassDescriptor(
+      accessorFactory);
+    descriptor.initialize(type);
+    return descriptor;
+  }
+
+
+  /**
+   * @return  descriptor initialized from the snapshot
+   */
+  @Benchmark
+  public DefaultClassDescriptor snapshot()
+  {
+    final DefaultClassDescriptor descriptor = new DefaultClassDescriptor(
+      accessorFactory, snapshot);
+    descriptor.initialize(type);
+    return descriptor;
+  }
+}
@@ -0,0 +1,98 @@
+/*
+  $Id$
+
+  Copyright (C) 2003-2014 Virginia Tech.
+  All rights reserved.
+
+  SEE LICENSE FOR MORE INFORMATION
+
+  Author:  Middleware Services
+  Email:   middleware@vt.edu
+  Version: $Revision$
+  Updated: $Date$
+*/
+package org.ldaptive.beans.reflect;
+
+import java.util.concurrent.TimeUnit;
+import org.ldaptive.LdapEntry;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Measures {@link DefaultLdapEntryMapper} mapping each of the custom object
+ * test beans to an ldap entry and back.
+ *
+ * @author  Middleware Services
+ * @version  $Revision$ $Date$
+ */
+@State(Scope.Thread)
+@BenchmarkMode({Mode.Throughput, Mode.AverageTime})
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class LdapEntryMapperBenchmark
+{
+
+  /** Test bean to map. */
+  @Param({"binary", "char", "int", "integer", "string"})
+  private String bean;
+
+  /** Mapper under test. */
+  private DefaultLdapEntryMapper<CustomObject> mapper;
+
+  /** Populated bean. */
+  private CustomObject object;
+
+  /** Entry that matches the bean. */
+  private LdapEntry entry;
+
+
+  /** Prepares the mapper and fixtures. */
+  @Setup
+  public void setup()
+  {
+    final Object[] fixture = BenchmarkObjects.createFixture(bean);
+    object = (CustomObject) fixture[0];
+    entry = (LdapEntry) fixture[1];
+    mapper = new DefaultLdapEntryMapper<CustomObject>();
+    // initialize the class descriptor outside of the measurement
+    mapper.map(object, new LdapEntry());
+  }
+
+
+  /**
+   * @return  entry mapped from the bean
+   */
+  @Benchmark
+  public LdapEntry mapObjectToEntry()
+  {
+    final LdapEntry e = new LdapEntry();
+    mapper.map(object, e);
+    return e;
+  }
+
+
+  /**
+   * @return  bean mapped from the entry
+   *
+   * @throws  Exception  if the bean cannot be instantiated
+   */
+  @Benchmark
+  public CustomObject mapEntryToObject()
+    throws Exception
+  {
+    final CustomObject o = object.getClass().newInstance();
+    mapper.map(entry, o);
+    return o;
+  }
+}
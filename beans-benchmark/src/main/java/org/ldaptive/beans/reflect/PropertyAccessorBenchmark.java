@@ -0,0 +1,275 @@
+/*
+  $Id$
+
+  Copyright (C) 2003-2014 Virginia Tech.
+  All rights reserved.
+
+  SEE LICENSE FOR MORE INFORMATION
+
+  Author:  Middleware Services
+  Email:   middleware@vt.edu
+  Version: $Revision$
+  Updated: $Date$
+*/
+package org.ldaptive.beans.reflect;
+
+import java.util.concurrent.TimeUnit;
+import org.ldaptive.LdapEntry;
+import org.ldaptive.beans.AbstractLdapEntryMapper;
+import org.ldaptive.beans.ClassDescriptor;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Compares {@link ReflectionPropertyAccessorFactory} with {@link
+ * MethodHandlePropertyAccessorFactory} on the {@link StringCustomObject} and
+ * {@link IntCustomObject} test beans, both for single property access and for
+ * mapping a whole bean.
+ *
+ * @author  Middleware Services
+ * @version  $Revision$ $Date$
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class PropertyAccessorBenchmark
+{
+
+  /** Accessor strategy to benchmark. */
+  @Param({"reflection", "methodHandle"})
+  private String accessor;
+
+  /** Accessor for the StringCustomObject type2 field. */
+  private PropertyAccessor stringField;
+
+  /** Accessor for the StringCustomObject type1 methods. */
+  private PropertyAccessor stringMethod;
+
+  /** Accessor for the IntCustomObject type2 field. */
+  private PropertyAccessor intField;
+
+  /** Accessor for the IntCustomObject type1 methods. */
+  private PropertyAccessor intMethod;
+
+  /** String bean to access. */
+  private StringCustomObject stringObject;
+
+  /** Int bean to access. */
+  private IntCustomObject intObject;
+
+  /** Mapper for the string bean. */
+  private DescriptorLdapEntryMapper stringMapper;
+
+  /** Mapper for the int bean. */
+  private DescriptorLdapEntryMapper intMapper;
+
+  /** Entry mapped from the string bean. */
+  private LdapEntry stringEntry;
+
+  /** Entry mapped from the int bean. */
+  private LdapEntry intEntry;
+
+  /** Counter to vary the values that are set. */
+  private int counter;
+
+
+  /**
+   * Prepares accessors and beans.
+   *
+   * @throws  Exception  if the test beans cannot be introspected
+   */
+  @Setup
+  public void setup()
+    throws Exception
+  {
+    final PropertyAccessorFactory factory = "reflection".equals(accessor) ?
+      new ReflectionPropertyAccessorFactory() :
+      new MethodHandlePropertyAccessorFactory();
+    stringField = factory.createPropertyAccessor(
+      StringCustomObject.class.getDeclaredField("type2"));
+    stringMethod = factory.createPropertyAccessor(
+      StringCustomObject.class.getMethod("getType1"),
+      StringCustomObject.class.getMethod("setType1", String.class));
+    intField = factory.createPropertyAccessor(
+      IntCustomObject.class.getDeclaredField("type2"));
+    intMethod = factory.createPropertyAccessor(
+      IntCustomObject.class.getMethod("getType1"),
+      IntCustomObject.class.getMethod("setType1", int.class));
+
+    stringObject = BenchmarkObjects.createStringCustomObject();
+    intObject = BenchmarkObjects.createIntCustomObject();
+
+    stringMapper = new DescriptorLdapEntryMapper(
+      factory, StringCustomObject.class);
+    intMapper = new DescriptorLdapEntryMapper(factory, IntCustomObject.class);
+    stringEntry = new LdapEntry();
+    stringMapper.map(stringObject, stringEntry);
+    intEntry = new LdapEntry();
+    intMapper.map(intObject, intEntry);
+  }
+
+
+  /**
+   * @return  field value
+   */
+  @Benchmark
+  public Object getStringField()
+  {
+    return stringField.getValue(stringObject);
+  }
+
+
+  /** Sets a field value. */
+  @Benchmark
+  public void setStringField()
+  {
+    stringField.setValue(stringObject, "tv2");
+  }
+
+
+  /**
+   * @return  getter value
+   */
+  @Benchmark
+  public Object getStringMethod()
+  {
+    return stringMethod.getValue(stringObject);
+  }
+
+
+  /** Invokes a setter. */
+  @Benchmark
+  public void setStringMethod()
+  {
+    stringMethod.setValue(stringObject, "tv1");
+  }
+
+
+  /**
+   * @return  field value
+   */
+  @Benchmark
+  public Object getIntField()
+  {
+    return intField.getValue(intObject);
+  }
+
+
+  /** Sets a field value. */
+  @Benchmark
+  public void setIntField()
+  {
+    intField.setValue(intObject, counter++ & 0xFF);
+  }
+
+
+  /**
+   * @return  getter value
+   */
+  @Benchmark
+  public Object getIntMethod()
+  {
+    return intMethod.getValue(intObject);
+  }
+
+
+  /** Invokes a setter. */
+  @Benchmark
+  public void setIntMethod()
+  {
+    intMethod.setValue(intObject, counter++ & 0xFF);
+  }
+
+
+  /**
+   * @return  entry mapped from the string bean
+   */
+  @Benchmark
+  public LdapEntry mapStringObjectToEntry()
+  {
+    final LdapEntry entry = new LdapEntry();
+    stringMapper.map(stringObject, entry);
+    return entry;
+  }
+
+
+  /**
+   * @return  string bean mapped from an entry
+   */
+  @Benchmark
+  public StringCustomObject mapEntryToStringObject()
+  {
+    final StringCustomObject o = new StringCustomObject();
+    stringMapper.map(stringEntry, o);
+    return o;
+  }
+
+
+  /**
+   * @return  entry mapped from the int bean
+   */
+  @Benchmark
+  public LdapEntry mapIntObjectToEntry()
+  {
+    final LdapEntry entry = new LdapEntry();
+    intMapper.map(intObject, entry);
+    return entry;
+  }
+
+
+  /**
+   * @return  int bean mapped from an entry
+   */
+  @Benchmark
+  public IntCustomObject mapEntryToIntObject()
+  {
+    final IntCustomObject o = new IntCustomObject();
+    intMapper.map(intEntry, o);
+    return o;
+  }
+
+
+  /** Maps a single type with a descriptor using a specific accessor factory. */
+  private static class DescriptorLdapEntryMapper
+    extends AbstractLdapEntryMapper<CustomObject>
+  {
+
+    /** Descriptor for the mapped type. */
+    private final ClassDescriptor descriptor;
+
+
+    /**
+     * Creates a new descriptor ldap entry mapper.
+     *
+     * @param  factory  for creating property accessors
+     * @param  type  to map
+     */
+    DescriptorLdapEntryMapper(
+      final PropertyAccessorFactory factory,
+      final Class<?> type)
+    {
+      descriptor = new DefaultClassDescriptor(factory);
+      descriptor.initialize(type);
+    }
+
+
+    /** {@inheritDoc} */
+    @Override
+    protected ClassDescriptor getClassDescriptor(final CustomObject object)
+    {
+      return descriptor;
+    }
+  }
+}
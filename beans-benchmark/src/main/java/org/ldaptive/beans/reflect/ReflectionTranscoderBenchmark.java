@@ -0,0 +1,160 @@
+/*
+  $Id$
+
+  Copyright (C) 2003-2014 Virginia Tech.
+  All rights reserved.
+
+  SEE LICENSE FOR MORE INFORMATION
+
+  Author:  Middleware Services
+  Email:   middleware@vt.edu
+  Version: $Revision$
+  Updated: $Date$
+*/
+package org.ldaptive.beans.reflect;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+import org.ldaptive.LdapUtils;
+import org.ldaptive.io.IntegerValueTranscoder;
+import org.ldaptive.io.StringValueTranscoder;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Measures each {@link ReflectionTranscoder} implementation encoding and
+ * decoding string and int values.
+ *
+ * @author  Middleware Services
+ * @version  $Revision$ $Date$
+ */
+@State(Scope.Thread)
+@BenchmarkMode({Mode.Throughput, Mode.AverageTime})
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ReflectionTranscoderBenchmark
+{
+
+  /** Number of values transcoded by the multi-valued transcoders. */
+  private static final int VALUE_COUNT = 4;
+
+  /** Reflection transcoder to benchmark. */
+  @Param({"single", "array", "list", "set"})
+  private String transcoder;
+
+  /** Type of the values. */
+  @Param({"string", "int"})
+  private String element;
+
+  /** Transcoder under test. */
+  private ReflectionTranscoder reflectionTranscoder;
+
+  /** Object to encode. */
+  private Object value;
+
+  /** String values to decode. */
+  private Collection<String> stringValues;
+
+  /** Binary values to decode. */
+  private Collection<byte[]> binaryValues;
+
+
+  /** Prepares the transcoder and values. */
+  @Setup
+  public void setup()
+  {
+    final SingleValueReflectionTranscoder<?> single;
+    if ("string".equals(element)) {
+      single = new SingleValueReflectionTranscoder<String>(
+        new StringValueTranscoder());
+    } else {
+      // collections hold boxed integers, single values primitives
+      single = new SingleValueReflectionTranscoder<Integer>(
+        new IntegerValueTranscoder("single".equals(transcoder)));
+    }
+    switch (transcoder) {
+    case "single":
+      reflectionTranscoder = single;
+      break;
+    case "array":
+      if ("string".equals(element)) {
+        reflectionTranscoder = new ArrayReflectionTranscoder(single);
+      } else {
+        reflectionTranscoder = new IntArrayReflectionTranscoder();
+      }
+      break;
+    case "list":
+      reflectionTranscoder = new ListReflectionTranscoder(List.class, single);
+      break;
+    case "set":
+      reflectionTranscoder = new SetReflectionTranscoder(Set.class, single);
+      break;
+    default:
+      throw new IllegalArgumentException("Unknown transcoder: " + transcoder);
+    }
+
+    final int count = "single".equals(transcoder) ? 1 : VALUE_COUNT;
+    stringValues = new ArrayList<String>(count);
+    binaryValues = new ArrayList<byte[]>(count);
+    for (int i = 0; i < count; i++) {
+      final String s = "string".equals(element) ? "value" + i : "10" + i;
+      stringValues.add(s);
+      binaryValues.add(LdapUtils.utf8Encode(s));
+    }
+    value = reflectionTranscoder.decodeStringValues(stringValues);
+  }
+
+
+  /**
+   * @return  decoded object
+   */
+  @Benchmark
+  public Object decodeStringValues()
+  {
+    return reflectionTranscoder.decodeStringValues(stringValues);
+  }
+
+
+  /**
+   * @return  decoded object
+   */
+  @Benchmark
+  public Object decodeBinaryValues()
+  {
+    return reflectionTranscoder.decodeBinaryValues(binaryValues);
+  }
+
+
+  /**
+   * @return  encoded values
+   */
+  @Benchmark
+  public Collection<String> encodeStringValues()
+  {
+    return reflectionTranscoder.encodeStringValues(value);
+  }
+
+
+  /**
+   * @return  encoded values
+   */
+  @Benchmark
+  public Collection<byte[]> encodeBinaryValues()
+  {
+    return reflectionTranscoder.encodeBinaryValues(value);
+  }
+}
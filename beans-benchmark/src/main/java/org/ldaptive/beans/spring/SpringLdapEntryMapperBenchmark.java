@@ -0,0 +1,113 @@
+/*
+  $Id$
+
+  Copyright (C) 2003-2014 Virginia Tech.
+  All rights reserved.
+
+  SEE LICENSE FOR MORE INFORMATION
+
+  Author:  Middleware Services
+  Email:   middleware@vt.edu
+  Version: $Revision$
+  Updated: $Date$
+*/
+package org.ldaptive.beans.spring;
+
+import java.util.concurrent.TimeUnit;
+import org.ldaptive.LdapEntry;
+import org.ldaptive.beans.LdapEntryMapper;
+import org.ldaptive.beans.reflect.DefaultLdapEntryMapper;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.expression.spel.SpelCompilerMode;
+
+/**
+ * Compares {@link DefaultLdapEntryMapper} with {@link SpringLdapEntryMapper},
+ * interpreted and compiled, on the {@link SpringCustomObject} test bean. The
+ * default mapper treats the SpEL dn as a literal, so it measures the cost of
+ * attribute mapping without expression evaluation.
+ *
+ * @author  Middleware Services
+ * @version  $Revision$ $Date$
+ */
+@State(Scope.Thread)
+@BenchmarkMode({Mode.Throughput, Mode.AverageTime})
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class SpringLdapEntryMapperBenchmark
+{
+
+  /** Mapper implementation to benchmark. */
+  @Param({"default", "spring", "springCompiled"})
+  private String mapper;
+
+  /** Mapper under test. */
+  private LdapEntryMapper<SpringCustomObject> entryMapper;
+
+  /** Populated bean. */
+  private SpringCustomObject object;
+
+  /** Entry that matches the bean. */
+  private LdapEntry entry;
+
+
+  /** Prepares the mapper and fixtures. */
+  @Setup
+  public void setup()
+  {
+    switch (mapper) {
+    case "default":
+      entryMapper = new DefaultLdapEntryMapper<SpringCustomObject>();
+      break;
+    case "spring":
+      entryMapper = new SpringLdapEntryMapper<SpringCustomObject>();
+      break;
+    case "springCompiled":
+      entryMapper = new SpringLdapEntryMapper<SpringCustomObject>(
+        SpelCompilerMode.MIXED);
+      break;
+    default:
+      throw new IllegalArgumentException("Unknown mapper: " + mapper);
+    }
+    final SpringLdapEntryMapperTest test = new SpringLdapEntryMapperTest();
+    object = test.createCustomObject("dfisher");
+    entry = test.createLdapEntry("dfisher");
+    // initialize the class descriptor outside of the measurement
+    entryMapper.map(object, new LdapEntry());
+  }
+
+
+  /**
+   * @return  entry mapped from the bean
+   */
+  @Benchmark
+  public LdapEntry mapObjectToEntry()
+  {
+    final LdapEntry e = new LdapEntry();
+    entryMapper.map(object, e);
+    return e;
+  }
+
+
+  /**
+   * @return  bean mapped from the entry
+   */
+  @Benchmark
+  public SpringCustomObject mapEntryToObject()
+  {
+    final SpringCustomObject o = new SpringCustomObject();
+    entryMapper.map(entry, o);
+    return o;
+  }
+}
@@ -0,0 +1,168 @@
+/*
+  $Id$
+
+  Copyright (C) 2003-2014 Virginia Tech.
+  All rights reserved.
+
+  SEE LICENSE FOR MORE INFORMATION
+
+  Author:  Middleware Services
+  Email:   middleware@vt.edu
+  Version: $Revision$
+  Updated: $Date$
+*/
+package org.ldaptive.io;
+
+import java.util.concurrent.TimeUnit;
+import org.ldaptive.LdapUtils;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Measures each {@link ValueTranscoder} in this package encoding and decoding
+ * a single representative value.
+ *
+ * @author  Middleware Services
+ * @version  $Revision$ $Date$
+ */
+@State(Scope.Thread)
+@BenchmarkMode({Mode.Throughput, Mode.AverageTime})
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ValueTranscoderBenchmark
+{
+
+  /** Value transcoder to benchmark. */
+  @Param({
+    "boolean",
+    "byteArray",
+    "charArray",
+    "double",
+    "float",
+    "integer",
+    "long",
+    "object",
+    "short",
+    "string",
+  })
+  private String type;
+
+  /** Transcoder under test. */
+  private ValueTranscoder<Object> valueTranscoder;
+
+  /** Object to encode. */
+  private Object value;
+
+  /** String value to decode. */
+  private String stringValue;
+
+  /** Binary value to decode. */
+  private byte[] binaryValue;
+
+
+  /** Prepares the transcoder and values. */
+  @Setup
+  @SuppressWarnings("unchecked")
+  public void setup()
+  {
+    final ValueTranscoder<?> transcoder;
+    switch (type) {
+    case "boolean":
+      transcoder = new BooleanValueTranscoder();
+      stringValue = "TRUE";
+      break;
+    case "byteArray":
+      transcoder = new ByteArrayValueTranscoder();
+      stringValue = "test value";
+      break;
+    case "charArray":
+      transcoder = new CharArrayValueTranscoder();
+      stringValue = "test value";
+      break;
+    case "double":
+      transcoder = new DoubleValueTranscoder();
+      stringValue = "1234.5678";
+      break;
+    case "float":
+      transcoder = new FloatValueTranscoder();
+      stringValue = "1234.5";
+      break;
+    case "integer":
+      transcoder = new IntegerValueTranscoder();
+      stringValue = "123456";
+      break;
+    case "long":
+      transcoder = new LongValueTranscoder();
+      stringValue = "1234567890123";
+      break;
+    case "object":
+      transcoder = new ObjectValueTranscoder();
+      stringValue = "test value";
+      break;
+    case "short":
+      transcoder = new ShortValueTranscoder();
+      stringValue = "1234";
+      break;
+    case "string":
+      transcoder = new StringValueTranscoder();
+      stringValue = "test value";
+      break;
+    default:
+      throw new IllegalArgumentException("Unknown type: " + type);
+    }
+    valueTranscoder = (ValueTranscoder<Object>) transcoder;
+    value = valueTranscoder.decodeStringValue(stringValue);
+    binaryValue = valueTranscoder.encodeBinaryValue(value);
+  }
+
+
+  /**
+   * @return  decoded value
+   */
+  @Benchmark
+  public Object decodeStringValue()
+  {
+    return valueTranscoder.decodeStringValue(stringValue);
+  }
+
+
+  /**
+   * @return  decoded value
+   */
+  @Benchmark
+  public Object decodeBinaryValue()
+  {
+    return valueTranscoder.decodeBinaryValue(binaryValue);
+  }
+
+
+  /**
+   * @return  encoded value
+   */
+  @Benchmark
+  public String encodeStringValue()
+  {
+    return valueTranscoder.encodeStringValue(value);
+  }
+
+
+  /**
+   * @return  encoded value
+   */
+  @Benchmark
+  public byte[] encodeBinaryValue()
+  {
+    return valueTranscoder.encodeBinaryValue(value);
+  }
+}
@@ -14,7 +14,8 @@
 package org.ldaptive.beans;
 
 import java.util.Collection;
-import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Locale;
 import java.util.Map;
 import org.ldaptive.LdapAttribute;
 import org.ldaptive.LdapUtils;
@@ -24,7 +25,11 @@ import org.slf4j.LoggerFactory;
 
 /**
  * Base implementation of a class descriptor. Stores a map of {@link
- * AttributeValueMutator} and a {@link DnValueMutator}.
+ * AttributeValueMutator} and a {@link DnValueMutator}. Attribute names are
+ * case insensitive. The first time the mutators are read they are compiled
+ * into an immutable index, which iterates in the order mutators were added
+ * and looks up names without allocating; adding a mutator discards the index.
+ * Descriptors must not be modified once they are shared between threads.
  *
  * @author  Middleware Services
  * @version  $Revision$ $Date$
@@ -35,9 +40,12 @@ public abstract class AbstractClassDescriptor implements ClassDescriptor
   /** Logger for this class. */
   protected final Logger logger = LoggerFactory.getLogger(getClass());
 
-  /** Attribute value mutators for this class. */
+  /** Attribute value mutators for this class by lower case name. */
   private final Map<String, AttributeValueMutator> attributeMutators =
-    new HashMap<String, AttributeValueMutator>();
+    new LinkedHashMap<String, AttributeValueMutator>();
+
+  /** Index of attribute value mutators, null until first read. */
+  private volatile AttributeValueMutatorIndex attributeMutatorIndex;
 
   /** Dn value mutator for this class. */
   private DnValueMutator dnMutator;
@@ -64,11 +72,13 @@ public abstract class AbstractClassDescriptor implements ClassDescriptor
    */
   protected void addAttributeValueMutator(final AttributeValueMutator mutator)
   {
-    if (attributeMutators.containsKey(mutator.getName())) {
+    final String key = mutator.getName().toLowerCase(Locale.ENGLISH);
+    if (attributeMutators.containsKey(key)) {
       throw new IllegalStateException(
         "Found duplicate attribute name '" + mutator.getName() + "'");
     }
-    attributeMutators.put(mutator.getName(), mutator);
+    attributeMutators.put(key, mutator);
+    attributeMutatorIndex = null;
   }
 
 
@@ -98,15 +108,39 @@ public abstract class AbstractClassDescriptor implements ClassDescriptor
   @Override
   public Collection<AttributeValueMutator> getAttributeValueMutators()
   {
-    return attributeMutators.values();
+    return getAttributeValueMutatorIndex().getMutators();
   }
 
 
-  /** {@inheritDoc} */
+  /**
+   * Returns the attribute value mutator for the attribute with the supplied
+   * name, ignoring case.
+   *
+   * @param  name  of the attribute
+   *
+   * @return  value mutator or null if the attribute is not mapped
+   */
   @Override
   public AttributeValueMutator getAttributeValueMutator(final String name)
   {
-    return attributeMutators.get(name);
+    return getAttributeValueMutatorIndex().get(name);
+  }
+
+
+  /**
+   * Returns the index of attribute value mutators, creating it if any
+   * mutators were added since it was last created.
+   *
+   * @return  attribute value mutator index
+   */
+  private AttributeValueMutatorIndex getAttributeValueMutatorIndex()
+  {
+    AttributeValueMutatorIndex index = attributeMutatorIndex;
+    if (index == null) {
+      index = new AttributeValueMutatorIndex(attributeMutators.values());
+      attributeMutatorIndex = index;
+    }
+    return index;
   }
 
 
@@ -118,7 +152,7 @@ public abstract class AbstractClassDescriptor implements ClassDescriptor
       "[%s@%d::dnMutator=%s, attributeMutators=%s]",
       getClass().getName(),
       hashCode(), dnMutator,
-      attributeMutators);
+      attributeMutators.values());
   }
 
 
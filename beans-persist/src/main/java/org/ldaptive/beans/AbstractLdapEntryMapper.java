@@ -13,7 +13,12 @@
 */
 package org.ldaptive.beans;
 
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import org.ldaptive.LdapAttribute;
 import org.ldaptive.LdapEntry;
+import org.ldaptive.beans.metrics.MappingMetrics;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -27,12 +32,22 @@ import org.slf4j.LoggerFactory;
  * @version  $Revision$ $Date$
  */
 public abstract class AbstractLdapEntryMapper<T>
-  implements LdapEntryMapper<T>
+  implements LdapEntryMapper<T>, AttributeNameProvider<T>
 {
 
   /** Logger for this class. */
   protected final Logger logger = LoggerFactory.getLogger(getClass());
 
+  /** Maps collections with this mapper. */
+  private final BulkLdapEntryMapper<T> bulkMapper =
+    new BulkLdapEntryMapper<T>(this);
+
+  /** Samples mappings, null if mappings are not traced. */
+  private volatile MappingTracer mappingTracer;
+
+  /** Records mapping measurements, null if no metrics are kept. */
+  private volatile MappingMetrics mappingMetrics;
+
 
   /**
    * Returns the class descriptor.
@@ -44,6 +59,51 @@ public abstract class AbstractLdapEntryMapper<T>
   protected abstract ClassDescriptor getClassDescriptor(final T object);
 
 
+  /**
+   * Returns the tracer that samples mappings.
+   *
+   * @return  mapping tracer or null if mappings are not traced
+   */
+  public MappingTracer getMappingTracer()
+  {
+    return mappingTracer;
+  }
+
+
+  /**
+   * Sets the tracer that samples mappings.
+   *
+   * @param  tracer  to sample mappings with or null to disable tracing
+   */
+  public void setMappingTracer(final MappingTracer tracer)
+  {
+    mappingTracer = tracer;
+  }
+
+
+  /**
+   * Returns the metrics that mappings are recorded to.
+   *
+   * @return  mapping metrics or null if no metrics are kept
+   */
+  public MappingMetrics getMappingMetrics()
+  {
+    return mappingMetrics;
+  }
+
+
+  /**
+   * Sets the metrics that mappings are recorded to. Every mapping and every
+   * attribute is timed while metrics are set.
+   *
+   * @param  metrics  to record to or null to disable metrics
+   */
+  public void setMappingMetrics(final MappingMetrics metrics)
+  {
+    mappingMetrics = metrics;
+  }
+
+
   /** {@inheritDoc} */
   @Override
   public String getDn(final T object)
@@ -54,11 +114,34 @@ public abstract class AbstractLdapEntryMapper<T>
   }
 
 
+  /** {@inheritDoc} */
+  @Override
+  public String[] getAttributeNames(final T object)
+  {
+    final ClassDescriptor descriptor = getClassDescriptor(object);
+    final List<String> names = new ArrayList<String>();
+    for (AttributeValueMutator mutator :
+         descriptor.getAttributeValueMutators()) {
+      if (mutator != null) {
+        names.add(mutator.getName());
+      }
+    }
+    return names.toArray(new String[names.size()]);
+  }
+
+
   /** {@inheritDoc} */
   @Override
   public void map(final T source, final LdapEntry dest)
   {
-    logger.debug("map {} to {}", source, dest);
+    final Class<?> type = source.getClass();
+    final MappingTracer tracer = mappingTracer;
+    final MappingMetrics metrics = mappingMetrics;
+    final MappingTrace trace = tracer != null ?
+      tracer.start(type, MappingDirection.OBJECT_TO_ENTRY) : null;
+    final boolean timed =
+      metrics != null || (trace != null && trace.getTimeMutators());
+    final long start = metrics != null ? System.nanoTime() : 0;
     final ClassDescriptor descriptor = getClassDescriptor(source);
     final DnValueMutator dnMutator = descriptor.getDnValueMutator();
     if (dnMutator != null) {
@@ -66,19 +149,40 @@ public abstract class AbstractLdapEntryMapper<T>
     }
     for (AttributeValueMutator mutator :
          descriptor.getAttributeValueMutators()) {
-      logger.debug("using mutator {}", mutator);
       if (mutator != null) {
-        final org.ldaptive.LdapAttribute attr = new org.ldaptive.LdapAttribute(
-          mutator.getSortBehavior(), mutator.isBinary());
-        attr.setName(mutator.getName());
-        if (attr.isBinary()) {
-          attr.addBinaryValues(mutator.getBinaryValues(source));
+        if (timed) {
+          final long mutatorStart = System.nanoTime();
+          final LdapAttribute attr;
+          try {
+            attr = encode(mutator, source);
+          } catch (RuntimeException e) {
+            if (metrics != null) {
+              metrics.recordFailure(
+                type, mutator.getName(), MappingDirection.OBJECT_TO_ENTRY, e);
+            }
+            throw e;
+          }
+          dest.addAttribute(attr);
+          recordAttribute(
+            trace,
+            metrics,
+            type,
+            mutator.getName(),
+            MappingDirection.OBJECT_TO_ENTRY,
+            System.nanoTime() - mutatorStart,
+            attr.size());
         } else {
-          attr.addStringValues(mutator.getStringValues(source));
+          dest.addAttribute(encode(mutator, source));
         }
-        dest.addAttribute(attr);
       }
     }
+    if (metrics != null) {
+      metrics.recordMapping(
+        type, MappingDirection.OBJECT_TO_ENTRY, System.nanoTime() - start);
+    }
+    if (trace != null) {
+      tracer.end(trace, dest);
+    }
   }
 
 
@@ -86,23 +190,169 @@ public abstract class AbstractLdapEntryMapper<T>
   @Override
   public void map(final LdapEntry source, final T dest)
   {
-    logger.debug("map {} to {}", source, dest);
+    final Class<?> type = dest.getClass();
+    final MappingTracer tracer = mappingTracer;
+    final MappingMetrics metrics = mappingMetrics;
+    final MappingTrace trace = tracer != null ?
+      tracer.start(type, MappingDirection.ENTRY_TO_OBJECT) : null;
+    final boolean timed =
+      metrics != null || (trace != null && trace.getTimeMutators());
+    final long start = metrics != null ? System.nanoTime() : 0;
     final ClassDescriptor descriptor = getClassDescriptor(dest);
     final DnValueMutator dnMutator = descriptor.getDnValueMutator();
     if (dnMutator != null) {
       dnMutator.setValue(dest, source.getDn());
     }
-    for (org.ldaptive.LdapAttribute attr : source.getAttributes()) {
+    for (LdapAttribute attr : source.getAttributes()) {
       final AttributeValueMutator mutator = descriptor.getAttributeValueMutator(
         attr.getName());
-      logger.debug("using mutator {} for attribute {}", mutator, attr);
       if (mutator != null) {
-        if (attr.isBinary()) {
-          mutator.setBinaryValues(dest, attr.getBinaryValues());
+        if (timed) {
+          final long mutatorStart = System.nanoTime();
+          try {
+            decode(mutator, attr, dest);
+          } catch (RuntimeException e) {
+            if (metrics != null) {
+              metrics.recordFailure(
+                type, mutator.getName(), MappingDirection.ENTRY_TO_OBJECT, e);
+            }
+            throw e;
+          }
+          recordAttribute(
+            trace,
+            metrics,
+            type,
+            mutator.getName(),
+            MappingDirection.ENTRY_TO_OBJECT,
+            System.nanoTime() - mutatorStart,
+            attr.size());
         } else {
-          mutator.setStringValues(dest, attr.getStringValues());
+          decode(mutator, attr, dest);
         }
       }
     }
+    if (metrics != null) {
+      metrics.recordMapping(
+        type, MappingDirection.ENTRY_TO_OBJECT, System.nanoTime() - start);
+    }
+    if (trace != null) {
+      tracer.end(trace, source);
+    }
+  }
+
+
+  /**
+   * Creates an ldap attribute containing the values of the supplied mutator.
+   *
+   * @param  mutator  to read values from
+   * @param  source  object to read values of
+   *
+   * @return  ldap attribute
+   */
+  private LdapAttribute encode(
+    final AttributeValueMutator mutator,
+    final T source)
+  {
+    final LdapAttribute attr = new LdapAttribute(
+      mutator.getSortBehavior(), mutator.isBinary());
+    attr.setName(mutator.getName());
+    if (attr.isBinary()) {
+      attr.addBinaryValues(mutator.getBinaryValues(source));
+    } else {
+      attr.addStringValues(mutator.getStringValues(source));
+    }
+    return attr;
+  }
+
+
+  /**
+   * Sets the values of the supplied ldap attribute with the supplied mutator.
+   *
+   * @param  mutator  to write values with
+   * @param  attr  to read values from
+   * @param  dest  object to write values to
+   */
+  private void decode(
+    final AttributeValueMutator mutator,
+    final LdapAttribute attr,
+    final T dest)
+  {
+    if (attr.isBinary()) {
+      mutator.setBinaryValues(dest, attr.getBinaryValues());
+    } else {
+      mutator.setStringValues(dest, attr.getStringValues());
+    }
+  }
+
+
+  /**
+   * Records the mapping of an attribute with the supplied trace and metrics.
+   *
+   * @param  trace  of the mapping or null
+   * @param  metrics  to record to or null
+   * @param  type  of object mapped
+   * @param  name  of the attribute
+   * @param  direction  of the mapping
+   * @param  time  spent mapping the attribute in nanoseconds
+   * @param  valueCount  number of attribute values
+   */
+  private static void recordAttribute(
+    final MappingTrace trace,
+    final MappingMetrics metrics,
+    final Class<?> type,
+    final String name,
+    final MappingDirection direction,
+    final long time,
+    final int valueCount)
+  {
+    if (trace != null) {
+      trace.addMutatorTime(name, time);
+    }
+    if (metrics != null) {
+      metrics.recordAttribute(type, name, direction, time, valueCount);
+    }
+  }
+
+
+  /**
+   * Returns the bulk mapper used by the map all methods, which can be used to
+   * configure how collections are split across threads.
+   *
+   * @return  bulk ldap entry mapper
+   */
+  public BulkLdapEntryMapper<T> getBulkLdapEntryMapper()
+  {
+    return bulkMapper;
+  }
+
+
+  /**
+   * Maps each of the supplied entries onto a new instance of the supplied
+   * type. See {@link BulkLdapEntryMapper#mapAll(Collection, Class)}.
+   *
+   * @param  entries  to map
+   * @param  type  of object to create for each entry
+   *
+   * @return  mapped objects in the order of the entries
+   */
+  public List<T> mapAll(
+    final Collection<LdapEntry> entries,
+    final Class<? extends T> type)
+  {
+    return bulkMapper.mapAll(entries, type);
+  }
+
+
+  /**
+   * Maps each of the supplied objects onto a new ldap entry. See {@link
+   * BulkLdapEntryMapper#mapAll(Collection)}.
+   *
+   * @param  objects  to map
+   *
+   * @return  mapped entries in the order of the objects
+   */
+  public List<LdapEntry> mapAll(final Collection<? extends T> objects)
+  {
+    return bulkMapper.mapAll(objects);
   }
 }
@@ -0,0 +1,39 @@
+/*
+  $Id$
+
+  Copyright (C) 2003-2014 Virginia Tech.
+  All rights reserved.
+
+  SEE LICENSE FOR MORE INFORMATION
+
+  Author:  Middleware Services
+  Email:   middleware@vt.edu
+  Version: $Revision$
+  Updated: $Date$
+*/
+package org.ldaptive.beans;
+
+/**
+ * Optional interface for ldap entry mappers that know which LDAP attributes
+ * they map. Ldap entry managers use it to request only those attributes, and
+ * request all attributes from mappers that do not implement it.
+ *
+ * @param  <T>  type of object to map
+ *
+ * @author  Middleware Services
+ * @version  $Revision$ $Date$
+ */
+public interface AttributeNameProvider<T>
+{
+
+  /**
+   * Returns the names of the LDAP attributes mapped for the supplied object.
+   * These are the only attributes that need to be requested from the server
+   * in order to map an entry onto the object.
+   *
+   * @param  object  to retrieve the attribute names for
+   *
+   * @return  attribute names
+   */
+  String[] getAttributeNames(T object);
+}
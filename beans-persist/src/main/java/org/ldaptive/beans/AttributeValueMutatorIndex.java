@@ -0,0 +1,131 @@
+/*
+  $Id$
+
+  Copyright (C) 2003-2014 Virginia Tech.
+  All rights reserved.
+
+  SEE LICENSE FOR MORE INFORMATION
+
+  Author:  Middleware Services
+  Email:   middleware@vt.edu
+  Version: $Revision$
+  Updated: $Date$
+*/
+package org.ldaptive.beans;
+
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Immutable set of attribute value mutators. Mutators are held in a dense
+ * array for iteration and in an open addressing hash table keyed by attribute
+ * name ignoring case, so lookups neither allocate nor depend on the case the
+ * server returns attribute names in.
+ *
+ * @author  Middleware Services
+ * @version  $Revision$ $Date$
+ */
+final class AttributeValueMutatorIndex
+{
+
+  /** Mutators in the order they were added. */
+  private final AttributeValueMutator[] mutators;
+
+  /** Unmodifiable view of mutators. */
+  private final List<AttributeValueMutator> mutatorList;
+
+  /** Hash table of mutators, at most half full. */
+  private final AttributeValueMutator[] table;
+
+  /** Mask of table indexes. */
+  private final int mask;
+
+
+  /**
+   * Creates a new attribute value mutator index.
+   *
+   * @param  c  mutators in iteration order, with names that are unique
+   * ignoring case
+   */
+  AttributeValueMutatorIndex(final Collection<AttributeValueMutator> c)
+  {
+    mutators = c.toArray(new AttributeValueMutator[c.size()]);
+    mutatorList = Collections.unmodifiableList(Arrays.asList(mutators));
+    int size = 2;
+    while (size < mutators.length * 2) {
+      size <<= 1;
+    }
+    table = new AttributeValueMutator[size];
+    mask = size - 1;
+    for (AttributeValueMutator mutator : mutators) {
+      int i = hash(mutator.getName()) & mask;
+      while (table[i] != null) {
+        i = (i + 1) & mask;
+      }
+      table[i] = mutator;
+    }
+  }
+
+
+  /**
+   * Returns the mutators in the order they were added.
+   *
+   * @return  unmodifiable list of mutators
+   */
+  List<AttributeValueMutator> getMutators()
+  {
+    return mutatorList;
+  }
+
+
+  /**
+   * Returns the mutator for the supplied attribute name, ignoring case.
+   *
+   * @param  name  of the attribute
+   *
+   * @return  mutator or null if no mutator has the name
+   */
+  AttributeValueMutator get(final String name)
+  {
+    if (name == null) {
+      return null;
+    }
+    int i = hash(name) & mask;
+    AttributeValueMutator mutator = table[i];
+    while (mutator != null) {
+      if (mutator.getName().equalsIgnoreCase(name)) {
+        return mutator;
+      }
+      i = (i + 1) & mask;
+      mutator = table[i];
+    }
+    return null;
+  }
+
+
+  /**
+   * Returns a hash code of the supplied name that is equal for names that
+   * are equal ignoring case.
+   *
+   * @param  name  to hash
+   *
+   * @return  case insensitive hash code
+   */
+  static int hash(final String name)
+  {
+    int h = 0;
+    for (int i = 0; i < name.length(); i++) {
+      char c = name.charAt(i);
+      if (c >= 'A' && c <= 'Z') {
+        c += 'a' - 'A';
+      } else if (c >= 0x80) {
+        c = Character.toLowerCase(Character.toUpperCase(c));
+      }
+      h = 31 * h + c;
+    }
+    // spread the high bits, names often share a prefix
+    return h ^ (h >>> 16);
+  }
+}
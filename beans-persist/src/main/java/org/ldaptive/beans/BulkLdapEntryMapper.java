@@ -0,0 +1,470 @@
+/*
+  $Id$
+
+  Copyright (C) 2003-2014 Virginia Tech.
+  All rights reserved.
+
+  SEE LICENSE FOR MORE INFORMATION
+
+  Author:  Middleware Services
+  Email:   middleware@vt.edu
+  Version: $Revision$
+  Updated: $Date$
+*/
+package org.ldaptive.beans;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicLong;
+import org.ldaptive.LdapEntry;
+import org.ldaptive.beans.reflect.ReflectionUtils;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Maps collections of ldap entries and objects with an ldap entry mapper,
+ * splitting large collections into batches that are mapped concurrently.
+ * Collections smaller than the parallel threshold are mapped on the caller
+ * thread. Otherwise the first batch is mapped on the caller thread and the
+ * remaining batches on the executor, which defaults to a fork join pool
+ * shared by all bulk mappers. Results are always in the order of the input.
+ * Once the caller thread has mapped its batch it also maps any batch the
+ * executor has not started, so mapping completes even when the executor is
+ * saturated, rejects batches or runs them on the caller thread itself.
+ *
+ * <p>The underlying mapper must be safe for concurrent use. The mappers in
+ * this library are, provided class descriptors are not modified once they
+ * are registered.</p>
+ *
+ * @param  <T>  type of object to map
+ *
+ * @author  Middleware Services
+ * @version  $Revision$ $Date$
+ */
+public class BulkLdapEntryMapper<T>
+{
+
+  /** Default parallel threshold, value is {@value}. */
+  public static final int DEFAULT_PARALLEL_THRESHOLD = 512;
+
+  /** Default batch size, value is {@value}. */
+  public static final int DEFAULT_BATCH_SIZE = 128;
+
+  /** Logger for this class. */
+  protected final Logger logger = LoggerFactory.getLogger(getClass());
+
+  /** Mapper to map each entry and object with. */
+  private final LdapEntryMapper<T> ldapEntryMapper;
+
+  /** Executor for batches, null to use the shared pool. */
+  private volatile Executor executor;
+
+  /** Smallest collection that is mapped concurrently. */
+  private volatile int parallelThreshold = DEFAULT_PARALLEL_THRESHOLD;
+
+  /** Number of values in each batch. */
+  private volatile int batchSize = DEFAULT_BATCH_SIZE;
+
+  /** Number of batches mapped. */
+  private final AtomicLong batchCount = new AtomicLong();
+
+  /** Total time spent mapping batches. */
+  private final AtomicLong batchTime = new AtomicLong();
+
+  /** Longest time spent mapping a batch. */
+  private final AtomicLong maxBatchTime = new AtomicLong();
+
+
+  /**
+   * Creates a new bulk ldap entry mapper.
+   *
+   * @param  mapper  to map each entry and object with
+   */
+  public BulkLdapEntryMapper(final LdapEntryMapper<T> mapper)
+  {
+    if (mapper == null) {
+      throw new IllegalArgumentException("Ldap entry mapper cannot be null");
+    }
+    ldapEntryMapper = mapper;
+  }
+
+
+  /**
+   * Returns the ldap entry mapper.
+   *
+   * @return  ldap entry mapper
+   */
+  public LdapEntryMapper<T> getLdapEntryMapper()
+  {
+    return ldapEntryMapper;
+  }
+
+
+  /**
+   * Returns the executor that maps batches.
+   *
+   * @return  executor or null if the shared pool is used
+   */
+  public Executor getExecutor()
+  {
+    return executor;
+  }
+
+
+  /**
+   * Sets the executor that maps batches.
+   *
+   * @param  e  executor or null to use the shared pool
+   */
+  public void setExecutor(final Executor e)
+  {
+    executor = e;
+  }
+
+
+  /**
+   * Returns the smallest collection that is mapped concurrently.
+   *
+   * @return  parallel threshold
+   */
+  public int getParallelThreshold()
+  {
+    return parallelThreshold;
+  }
+
+
+  /**
+   * Sets the smallest collection that is mapped concurrently.
+   *
+   * @param  i  parallel threshold
+   */
+  public void setParallelThreshold(final int i)
+  {
+    if (i < 1) {
+      throw new IllegalArgumentException(
+        "Parallel threshold must be greater than zero");
+    }
+    parallelThreshold = i;
+  }
+
+
+  /**
+   * Returns the number of values in each batch.
+   *
+   * @return  batch size
+   */
+  public int getBatchSize()
+  {
+    return batchSize;
+  }
+
+
+  /**
+   * Sets the number of values in each batch.
+   *
+   * @param  i  batch size
+   */
+  public void setBatchSize(final int i)
+  {
+    if (i < 1) {
+      throw new IllegalArgumentException(
+        "Batch size must be greater than zero");
+    }
+    batchSize = i;
+  }
+
+
+  /**
+   * Maps each of the supplied entries onto a new instance of the supplied
+   * type.
+   *
+   * @param  entries  to map
+   * @param  type  of object to create for each entry, must have a public no
+   * argument constructor
+   *
+   * @return  mapped objects in the order of the entries
+   *
+   * @throws  IllegalArgumentException  if an object cannot be created
+   */
+  public List<T> mapAll(
+    final Collection<LdapEntry> entries,
+    final Class<? extends T> type)
+  {
+    if (type == null) {
+      throw new IllegalArgumentException("Type cannot be null");
+    }
+    return mapAll(
+      entries,
+      new Mapping<LdapEntry, T>() {
+        @Override
+        public T map(final LdapEntry entry)
+        {
+          final T object = newInstance(type);
+          ldapEntryMapper.map(entry, object);
+          return object;
+        }
+      });
+  }
+
+
+  /**
+   * Maps each of the supplied objects onto a new ldap entry.
+   *
+   * @param  objects  to map
+   *
+   * @return  mapped entries in the order of the objects
+   */
+  public List<LdapEntry> mapAll(final Collection<? extends T> objects)
+  {
+    return mapAll(
+      objects,
+      new Mapping<T, LdapEntry>() {
+        @Override
+        public LdapEntry map(final T object)
+        {
+          final LdapEntry entry = new LdapEntry();
+          ldapEntryMapper.map(object, entry);
+          return entry;
+        }
+      });
+  }
+
+
+  /**
+   * Maps the supplied values in batches, concurrently if there are at least
+   * as many values as the parallel threshold.
+   *
+   * @param  <S>  type of value to map
+   * @param  <D>  type of mapped value
+   * @param  values  to map
+   * @param  mapping  to map each value with
+   *
+   * @return  mapped values in the order of the supplied values
+   */
+  @SuppressWarnings("unchecked")
+  private <S, D> List<D> mapAll(
+    final Collection<? extends S> values,
+    final Mapping<S, D> mapping)
+  {
+    final Object[] sources = values.toArray();
+    final Object[] results = new Object[sources.length];
+    final int size = batchSize;
+    if (sources.length < parallelThreshold || sources.length <= size) {
+      mapBatch(mapping, sources, results, 0, sources.length);
+    } else {
+      final Executor e = executor != null ? executor : SharedPool.POOL;
+      final List<FutureTask<Void>> tasks = new ArrayList<FutureTask<Void>>(
+        (sources.length - 1) / size);
+      try {
+        for (int from = size; from < sources.length; from += size) {
+          final int start = from;
+          final int end = Math.min(from + size, sources.length);
+          final FutureTask<Void> task = new FutureTask<Void>(
+            new Callable<Void>() {
+              @Override
+              public Void call()
+              {
+                mapBatch(mapping, sources, results, start, end);
+                return null;
+              }
+            });
+          tasks.add(task);
+          try {
+            e.execute(task);
+          } catch (RejectedExecutionException ex) {
+            logger.debug("batch rejected, mapping on caller thread", ex);
+          }
+        }
+        mapBatch(mapping, sources, results, 0, size);
+        for (FutureTask<Void> task : tasks) {
+          await(task);
+        }
+      } finally {
+        for (FutureTask<Void> task : tasks) {
+          task.cancel(false);
+        }
+      }
+    }
+    final List<D> mapped = new ArrayList<D>(results.length);
+    for (Object o : results) {
+      mapped.add((D) o);
+    }
+    return mapped;
+  }
+
+
+  /**
+   * Maps a range of the supplied values and records how long it took.
+   *
+   * @param  <S>  type of value to map
+   * @param  <D>  type of mapped value
+   * @param  mapping  to map each value with
+   * @param  sources  values to map
+   * @param  results  to store mapped values in
+   * @param  from  index of the first value, inclusive
+   * @param  to  index of the last value, exclusive
+   */
+  @SuppressWarnings("unchecked")
+  private <S, D> void mapBatch(
+    final Mapping<S, D> mapping,
+    final Object[] sources,
+    final Object[] results,
+    final int from,
+    final int to)
+  {
+    final long start = System.nanoTime();
+    for (int i = from; i < to; i++) {
+      results[i] = mapping.map((S) sources[i]);
+    }
+    final long elapsed = System.nanoTime() - start;
+    batchCount.incrementAndGet();
+    batchTime.addAndGet(elapsed);
+    long max = maxBatchTime.get();
+    while (elapsed > max && !maxBatchTime.compareAndSet(max, elapsed)) {
+      max = maxBatchTime.get();
+    }
+    logger.debug("mapped batch of {} values in {}ns", to - from, elapsed);
+  }
+
+
+  /**
+   * Runs the supplied task on the caller thread if the executor has not
+   * started it, then waits for it, rethrowing any exception it threw.
+   *
+   * @param  task  to wait for
+   *
+   * @throws  IllegalStateException  if the task could not complete
+   */
+  private static void await(final FutureTask<Void> task)
+  {
+    // has no effect if the task has started or completed
+    task.run();
+    try {
+      task.get();
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      throw new IllegalStateException("Interrupted while mapping", e);
+    } catch (ExecutionException e) {
+      if (e.getCause() instanceof RuntimeException) {
+        throw (RuntimeException) e.getCause();
+      } else if (e.getCause() instanceof Error) {
+        throw (Error) e.getCause();
+      }
+      throw new IllegalStateException("Could not map batch", e.getCause());
+    }
+  }
+
+
+  /**
+   * Creates a new instance of the supplied type.
+   *
+   * @param  type  to create
+   *
+   * @return  new instance
+   *
+   * @throws  IllegalArgumentException  if the instance cannot be created
+   */
+  private T newInstance(final Class<? extends T> type)
+  {
+    return ReflectionUtils.newInstance(type);
+  }
+
+
+  /**
+   * Returns the number of batches mapped.
+   *
+   * @return  batch count
+   */
+  public long getBatchCount()
+  {
+    return batchCount.get();
+  }
+
+
+  /**
+   * Returns the total time spent mapping batches, summed across threads.
+   *
+   * @return  batch time in nanoseconds
+   */
+  public long getBatchTime()
+  {
+    return batchTime.get();
+  }
+
+
+  /**
+   * Returns the longest time spent mapping a single batch.
+   *
+   * @return  maximum batch time in nanoseconds
+   */
+  public long getMaxBatchTime()
+  {
+    return maxBatchTime.get();
+  }
+
+
+  /** Resets the batch count and batch time counters. */
+  public void resetStatistics()
+  {
+    batchCount.set(0);
+    batchTime.set(0);
+    maxBatchTime.set(0);
+  }
+
+
+  /** {@inheritDoc} */
+  @Override
+  public String toString()
+  {
+    return String.format(
+      "[%s@%d::ldapEntryMapper=%s, executor=%s, parallelThreshold=%s, " +
+      "batchSize=%s]",
+      getClass().getName(),
+      hashCode(),
+      ldapEntryMapper,
+      executor,
+      parallelThreshold,
+      batchSize);
+  }
+
+
+  /**
+   * Maps a single value.
+   *
+   * @param  <S>  type of value to map
+   * @param  <D>  type of mapped value
+   */
+  private interface Mapping<S, D>
+  {
+
+
+    /**
+     * Maps the supplied value.
+     *
+     * @param  source  to map
+     *
+     * @return  mapped value
+     */
+    D map(S source);
+  }
+
+
+  /** Holds the pool shared by bulk mappers without an executor. */
+  private static final class SharedPool
+  {
+
+    /** Pool with one thread per processor. */
+    private static final ForkJoinPool POOL = new ForkJoinPool();
+
+
+    /** Default constructor. */
+    private SharedPool() {}
+  }
+}
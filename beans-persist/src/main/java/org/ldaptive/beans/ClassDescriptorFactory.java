@@ -0,0 +1,34 @@
+/*
+  $Id$
+
+  Copyright (C) 2003-2014 Virginia Tech.
+  All rights reserved.
+
+  SEE LICENSE FOR MORE INFORMATION
+
+  Author:  Middleware Services
+  Email:   middleware@vt.edu
+  Version: $Revision$
+  Updated: $Date$
+*/
+package org.ldaptive.beans;
+
+/**
+ * Interface for creating class descriptors.
+ *
+ * @author  Middleware Services
+ * @version  $Revision$ $Date$
+ */
+public interface ClassDescriptorFactory
+{
+
+
+  /**
+   * Creates a new, uninitialized class descriptor for the supplied type.
+   *
+   * @param  type  of object to describe
+   *
+   * @return  class descriptor
+   */
+  ClassDescriptor newClassDescriptor(Class<?> type);
+}
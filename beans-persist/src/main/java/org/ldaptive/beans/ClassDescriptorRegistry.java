@@ -0,0 +1,255 @@
+/*
+  $Id$
+
+  Copyright (C) 2003-2014 Virginia Tech.
+  All rights reserved.
+
+  SEE LICENSE FOR MORE INFORMATION
+
+  Author:  Middleware Services
+  Email:   middleware@vt.edu
+  Version: $Revision$
+  Updated: $Date$
+*/
+package org.ldaptive.beans;
+
+import java.util.concurrent.atomic.AtomicLong;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Concurrent registry of initialized class descriptors. Descriptors are stored
+ * with a {@link ClassValue}, so lookups of an initialized descriptor do not
+ * lock and registered classes do not prevent their class loader from being
+ * garbage collected. Each type is initialized at most once; threads that
+ * request a type while it is being initialized wait for that initialization to
+ * complete.
+ *
+ * @author  Middleware Services
+ * @version  $Revision$ $Date$
+ */
+public class ClassDescriptorRegistry
+{
+
+  /** Logger for this class. */
+  protected final Logger logger = LoggerFactory.getLogger(getClass());
+
+  /** Factory for creating class descriptors. */
+  private final ClassDescriptorFactory descriptorFactory;
+
+  /** Holder of the class descriptor for each type. */
+  private final ClassValue<DescriptorHolder> holders =
+    new ClassValue<DescriptorHolder>() {
+      @Override
+      protected DescriptorHolder computeValue(final Class<?> type)
+      {
+        return new DescriptorHolder();
+      }
+    };
+
+  /** Whether hits should be counted. */
+  private volatile boolean countHits;
+
+  /** Number of lookups that returned an initialized descriptor. */
+  private final AtomicLong hitCount = new AtomicLong();
+
+  /** Number of lookups that initialized a descriptor. */
+  private final AtomicLong missCount = new AtomicLong();
+
+  /** Total time spent initializing descriptors in nanoseconds. */
+  private final AtomicLong initializationTime = new AtomicLong();
+
+
+  /**
+   * Creates a new class descriptor registry.
+   *
+   * @param  factory  for creating class descriptors
+   */
+  public ClassDescriptorRegistry(final ClassDescriptorFactory factory)
+  {
+    if (factory == null) {
+      throw new IllegalArgumentException("Factory cannot be null");
+    }
+    descriptorFactory = factory;
+  }
+
+
+  /**
+   * Returns the class descriptor factory.
+   *
+   * @return  class descriptor factory
+   */
+  public ClassDescriptorFactory getClassDescriptorFactory()
+  {
+    return descriptorFactory;
+  }
+
+
+  /**
+   * Returns whether lookups of initialized descriptors are counted. Hits are
+   * not counted by default, since every mapping thread would otherwise update
+   * the same counter.
+   *
+   * @return  whether hits are counted
+   */
+  public boolean getCountHits()
+  {
+    return countHits;
+  }
+
+
+  /**
+   * Sets whether lookups of initialized descriptors are counted.
+   *
+   * @param  b  whether hits are counted
+   */
+  public void setCountHits(final boolean b)
+  {
+    countHits = b;
+  }
+
+
+  /**
+   * Returns the initialized class descriptor for the supplied type, creating
+   * and initializing it if necessary.
+   *
+   * @param  type  to return the class descriptor for
+   *
+   * @return  class descriptor
+   */
+  public ClassDescriptor getClassDescriptor(final Class<?> type)
+  {
+    final DescriptorHolder holder = holders.get(type);
+    ClassDescriptor descriptor = holder.descriptor;
+    if (descriptor == null) {
+      synchronized (holder) {
+        descriptor = holder.descriptor;
+        if (descriptor == null) {
+          descriptor = initialize(type);
+          holder.descriptor = descriptor;
+          return descriptor;
+        }
+      }
+    }
+    if (countHits) {
+      hitCount.incrementAndGet();
+    }
+    return descriptor;
+  }
+
+
+  /**
+   * Returns whether an initialized class descriptor exists for the supplied
+   * type.
+   *
+   * @param  type  to check
+   *
+   * @return  whether a class descriptor has been initialized for type
+   */
+  public boolean contains(final Class<?> type)
+  {
+    return holders.get(type).descriptor != null;
+  }
+
+
+  /**
+   * Removes the class descriptor for the supplied type. The next lookup of
+   * type will initialize a new descriptor.
+   *
+   * @param  type  to remove the class descriptor for
+   */
+  public void remove(final Class<?> type)
+  {
+    holders.remove(type);
+  }
+
+
+  /**
+   * Creates and initializes a class descriptor for the supplied type.
+   *
+   * @param  type  to initialize a class descriptor for
+   *
+   * @return  initialized class descriptor
+   */
+  protected ClassDescriptor initialize(final Class<?> type)
+  {
+    final long start = System.nanoTime();
+    final ClassDescriptor descriptor = descriptorFactory.newClassDescriptor(
+      type);
+    descriptor.initialize(type);
+    final long elapsed = System.nanoTime() - start;
+    missCount.incrementAndGet();
+    initializationTime.addAndGet(elapsed);
+    logger.debug("initialized {} for {} in {}ns", descriptor, type, elapsed);
+    return descriptor;
+  }
+
+
+  /**
+   * Returns the number of lookups that returned an already initialized
+   * descriptor. Always zero unless {@link #setCountHits(boolean)} is enabled.
+   *
+   * @return  hit count
+   */
+  public long getHitCount()
+  {
+    return hitCount.get();
+  }
+
+
+  /**
+   * Returns the number of lookups that initialized a descriptor.
+   *
+   * @return  miss count
+   */
+  public long getMissCount()
+  {
+    return missCount.get();
+  }
+
+
+  /**
+   * Returns the total time spent initializing descriptors.
+   *
+   * @return  initialization time in nanoseconds
+   */
+  public long getInitializationTime()
+  {
+    return initializationTime.get();
+  }
+
+
+  /** Resets the hit, miss and initialization time counters. */
+  public void resetStatistics()
+  {
+    hitCount.set(0);
+    missCount.set(0);
+    initializationTime.set(0);
+  }
+
+
+  /** {@inheritDoc} */
+  @Override
+  public String toString()
+  {
+    return String.format(
+      "[%s@%d::descriptorFactory=%s, countHits=%s, hitCount=%s, " +
+      "missCount=%s, initializationTime=%s]",
+      getClass().getName(),
+      hashCode(),
+      descriptorFactory,
+      countHits,
+      hitCount,
+      missCount,
+      initializationTime);
+  }
+
+
+  /** Holds the class descriptor for a single type. */
+  private static class DescriptorHolder
+  {
+
+    /** Initialized class descriptor. */
+    private volatile ClassDescriptor descriptor;
+  }
+}
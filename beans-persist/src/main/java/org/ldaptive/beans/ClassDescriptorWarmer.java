@@ -0,0 +1,344 @@
+/*
+  $Id$
+
+  Copyright (C) 2003-2014 Virginia Tech.
+  All rights reserved.
+
+  SEE LICENSE FOR MORE INFORMATION
+
+  Author:  Middleware Services
+  Email:   middleware@vt.edu
+  Version: $Revision$
+  Updated: $Date$
+*/
+package org.ldaptive.beans;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.ldaptive.beans.generated.GeneratedLdapEntryMappers;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Initializes the class descriptors of entry classes ahead of their first
+ * mapping, so that introspection does not happen on a request thread.
+ * Classes are usually read from the {@link EntryIndex} written by the
+ * annotation processor. Descriptors are initialized in parallel on a pool of
+ * at most {@link #getThreadCount()} daemon threads, which is shut down once
+ * warming completes, and the time taken by each class is reported.
+ *
+ * @author  Middleware Services
+ * @version  $Revision$ $Date$
+ */
+public class ClassDescriptorWarmer
+{
+
+  /** Default maximum number of threads, value is {@value}. */
+  public static final int DEFAULT_THREAD_COUNT = 4;
+
+  /** Logger for this class. */
+  protected final Logger logger = LoggerFactory.getLogger(getClass());
+
+  /** Registry to initialize descriptors in. */
+  private final ClassDescriptorRegistry registry;
+
+  /** Maximum number of threads used to initialize descriptors. */
+  private int threadCount = DEFAULT_THREAD_COUNT;
+
+  /** Whether generated mappers are loaded as well. */
+  private boolean loadGeneratedMappers = true;
+
+
+  /**
+   * Creates a new class descriptor warmer.
+   *
+   * @param  r  registry to initialize descriptors in
+   */
+  public ClassDescriptorWarmer(final ClassDescriptorRegistry r)
+  {
+    if (r == null) {
+      throw new IllegalArgumentException("Registry cannot be null");
+    }
+    registry = r;
+  }
+
+
+  /**
+   * Returns the registry descriptors are initialized in.
+   *
+   * @return  class descriptor registry
+   */
+  public ClassDescriptorRegistry getClassDescriptorRegistry()
+  {
+    return registry;
+  }
+
+
+  /**
+   * Returns the maximum number of threads used to initialize descriptors.
+   *
+   * @return  thread count
+   */
+  public int getThreadCount()
+  {
+    return threadCount;
+  }
+
+
+  /**
+   * Sets the maximum number of threads used to initialize descriptors. A
+   * count of one initializes descriptors on the calling thread.
+   *
+   * @param  count  of threads
+   */
+  public void setThreadCount(final int count)
+  {
+    if (count < 1) {
+      throw new IllegalArgumentException("Thread count must be greater than 0");
+    }
+    threadCount = count;
+  }
+
+
+  /**
+   * Returns whether the generated mapper of each class is loaded along with
+   * its descriptor.
+   *
+   * @return  whether generated mappers are loaded
+   */
+  public boolean getLoadGeneratedMappers()
+  {
+    return loadGeneratedMappers;
+  }
+
+
+  /**
+   * Sets whether the generated mapper of each class is loaded along with its
+   * descriptor.
+   *
+   * @param  b  whether generated mappers are loaded
+   */
+  public void setLoadGeneratedMappers(final boolean b)
+  {
+    loadGeneratedMappers = b;
+  }
+
+
+  /**
+   * Initializes the descriptors of the entry classes listed in the entry
+   * index of the supplied class loader.
+   *
+   * @param  loader  to read the entry index from
+   *
+   * @return  result of warming
+   *
+   * @throws  IOException  if the entry index cannot be read
+   * @throws  InterruptedException  if the calling thread is interrupted
+   */
+  public Result warm(final ClassLoader loader)
+    throws IOException, InterruptedException
+  {
+    return warm(EntryIndex.getClasses(loader));
+  }
+
+
+  /**
+   * Initializes the descriptors of the supplied classes. Classes that fail to
+   * initialize are logged and reported in the result; they do not prevent
+   * other classes from being initialized.
+   *
+   * @param  types  to initialize descriptors for
+   *
+   * @return  result of warming
+   *
+   * @throws  InterruptedException  if the calling thread is interrupted
+   */
+  public Result warm(final Collection<Class<?>> types)
+    throws InterruptedException
+  {
+    final long start = System.nanoTime();
+    final Result result = new Result();
+    final int threads = Math.min(threadCount, types.size());
+    if (threads <= 1) {
+      for (Class<?> type : types) {
+        try {
+          result.times.put(type, initialize(type));
+        } catch (RuntimeException e) {
+          result.failures.put(type, e);
+        } catch (LinkageError e) {
+          result.failures.put(type, e);
+        }
+      }
+    } else {
+      final ExecutorService executor = createExecutor(threads);
+      try {
+        final List<Future<Long>> futures = new ArrayList<Future<Long>>(
+          types.size());
+        for (final Class<?> type : types) {
+          futures.add(
+            executor.submit(
+              new Callable<Long>() {
+                @Override
+                public Long call()
+                {
+                  return initialize(type);
+                }
+              }));
+        }
+        int i = 0;
+        for (Class<?> type : types) {
+          try {
+            result.times.put(type, futures.get(i++).get());
+          } catch (ExecutionException e) {
+            result.failures.put(type, e.getCause());
+          }
+        }
+      } finally {
+        executor.shutdownNow();
+      }
+    }
+    for (Map.Entry<Class<?>, Throwable> e : result.failures.entrySet()) {
+      logger.warn(
+        "could not initialize descriptor for {}", e.getKey(), e.getValue());
+    }
+    logger.info(
+      "initialized {} of {} entry class descriptors in {}ns",
+      result.times.size(),
+      types.size(),
+      System.nanoTime() - start);
+    return result;
+  }
+
+
+  /**
+   * Initializes the descriptor and loads the generated mapper of the supplied
+   * type.
+   *
+   * @param  type  to initialize
+   *
+   * @return  time spent in nanoseconds
+   */
+  protected long initialize(final Class<?> type)
+  {
+    final long start = System.nanoTime();
+    registry.getClassDescriptor(type);
+    if (loadGeneratedMappers) {
+      GeneratedLdapEntryMappers.getLdapEntryMapper(type);
+    }
+    final long elapsed = System.nanoTime() - start;
+    logger.debug("initialized {} in {}ns", type, elapsed);
+    return elapsed;
+  }
+
+
+  /**
+   * Creates the executor that descriptors are initialized on.
+   *
+   * @param  threads  number of threads
+   *
+   * @return  executor service
+   */
+  private static ExecutorService createExecutor(final int threads)
+  {
+    return Executors.newFixedThreadPool(threads, new ThreadFactory() {
+      private final AtomicInteger count = new AtomicInteger();
+      @Override
+      public Thread newThread(final Runnable r)
+      {
+        final Thread t = new Thread(
+          r, "class-descriptor-warmer-" + count.incrementAndGet());
+        t.setDaemon(true);
+        return t;
+      }
+    });
+  }
+
+
+  /** {@inheritDoc} */
+  @Override
+  public String toString()
+  {
+    return String.format(
+      "[%s@%d::registry=%s, threadCount=%s, loadGeneratedMappers=%s]",
+      getClass().getName(),
+      hashCode(),
+      registry,
+      threadCount,
+      loadGeneratedMappers);
+  }
+
+
+  /** Times and failures of the classes initialized by a warmer. */
+  public static class Result
+  {
+
+    /** Initialization time of each class. */
+    private final Map<Class<?>, Long> times =
+      new LinkedHashMap<Class<?>, Long>();
+
+    /** Failure of each class that could not be initialized. */
+    private final Map<Class<?>, Throwable> failures =
+      new LinkedHashMap<Class<?>, Throwable>();
+
+
+    /**
+     * Returns the time spent initializing each class, in the order the
+     * classes were supplied. A class that was already initialized reports
+     * the time of a lookup.
+     *
+     * @return  unmodifiable map of initialization times in nanoseconds
+     */
+    public Map<Class<?>, Long> getTimes()
+    {
+      return Collections.unmodifiableMap(times);
+    }
+
+
+    /**
+     * Returns the exception thrown by each class that could not be
+     * initialized.
+     *
+     * @return  unmodifiable map of failures
+     */
+    public Map<Class<?>, Throwable> getFailures()
+    {
+      return Collections.unmodifiableMap(failures);
+    }
+
+
+    /**
+     * Returns whether every class was initialized.
+     *
+     * @return  whether no class failed
+     */
+    public boolean isSuccess()
+    {
+      return failures.isEmpty();
+    }
+
+
+    /** {@inheritDoc} */
+    @Override
+    public String toString()
+    {
+      return String.format(
+        "[%s@%d::times=%s, failures=%s]",
+        getClass().getName(),
+        hashCode(),
+        times,
+        failures);
+    }
+  }
+}
@@ -0,0 +1,641 @@
+/*
+  $Id$
+
+  Copyright (C) 2003-2014 Virginia Tech.
+  All rights reserved.
+
+  SEE LICENSE FOR MORE INFORMATION
+
+  Author:  Middleware Services
+  Email:   middleware@vt.edu
+  Version: $Revision$
+  Updated: $Date$
+*/
+package org.ldaptive.beans;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Compiled DN template such as <code>uid={uid},ou=people,dc=ldaptive,
+ * dc=org</code>. Each <code>{name}</code> placeholder names a bean property
+ * and must make up an entire attribute value; literal braces are written as
+ * <code>\7B</code> and <code>\7D</code>. Templates are parsed once and are
+ * immutable and safe for use by multiple threads.
+ *
+ * <p>{@link #format(String...)} escapes property values according to RFC
+ * 4514 in a single pass into a per thread builder. {@link #parse(String)}
+ * matches a DN against the template, ignoring case and spaces around
+ * separators, and returns the placeholder values without building a general
+ * purpose DN object. Multi-valued RDNs must list their values in the same
+ * order as the template.</p>
+ *
+ * @author  Middleware Services
+ * @version  $Revision$ $Date$
+ */
+public final class DnTemplate
+{
+
+  /** Initial capacity of the per thread builder. */
+  private static final int BUILDER_CAPACITY = 128;
+
+  /** Builders larger than this are not kept for reuse. */
+  private static final int MAX_BUILDER_CAPACITY = 4096;
+
+  /** Per thread builder used to format and parse DNs. */
+  private static final ThreadLocal<StringBuilder> BUILDER =
+    new ThreadLocal<StringBuilder>() {
+      @Override
+      protected StringBuilder initialValue()
+      {
+        return new StringBuilder(BUILDER_CAPACITY);
+      }
+    };
+
+  /** Template this was compiled from. */
+  private final String template;
+
+  /** Literal text before, between and after the placeholders. */
+  private final String[] segments;
+
+  /** Property name of each placeholder. */
+  private final String[] propertyNames;
+
+  /** Attribute value assertions of the template in order. */
+  private final Ava[] avas;
+
+
+  /**
+   * Creates a new dn template.
+   *
+   * @param  t  template
+   * @param  s  literal segments
+   * @param  names  of the placeholder properties
+   * @param  a  attribute value assertions
+   */
+  private DnTemplate(
+    final String t,
+    final String[] s,
+    final String[] names,
+    final Ava[] a)
+  {
+    template = t;
+    segments = s;
+    propertyNames = names;
+    avas = a;
+  }
+
+
+  /**
+   * Returns whether the supplied DN contains placeholders and should be
+   * compiled as a template.
+   *
+   * @param  dn  to inspect
+   *
+   * @return  whether dn is a template
+   */
+  public static boolean isTemplate(final String dn)
+  {
+    return dn != null && dn.indexOf('{') >= 0;
+  }
+
+
+  /**
+   * Compiles the supplied template.
+   *
+   * @param  template  to compile
+   *
+   * @return  dn template
+   *
+   * @throws  IllegalArgumentException  if template is not a valid DN, a
+   * placeholder is not an entire attribute value or a property is used more
+   * than once
+   */
+  public static DnTemplate compile(final String template)
+  {
+    if (template == null) {
+      throw new IllegalArgumentException("DN template cannot be null");
+    }
+    final List<String> segments = new ArrayList<String>();
+    final List<String> names = new ArrayList<String>();
+    final List<Ava> avas = new ArrayList<Ava>();
+    final StringBuilder sb = new StringBuilder();
+    final int len = template.length();
+    int segmentStart = 0;
+    int pos = 0;
+    while (pos < len) {
+      pos = skipSpaces(template, pos);
+      final int eq = template.indexOf('=', pos);
+      final int typeEnd = eq < 0 ? -1 : trimEnd(template, pos, eq);
+      if (typeEnd <= pos || !isType(template, pos, typeEnd)) {
+        throw new IllegalArgumentException(
+          "Invalid attribute type in DN template '" + template + "'");
+      }
+      final String type = template.substring(pos, typeEnd);
+      pos = skipSpaces(template, eq + 1);
+      final String value;
+      final int index;
+      if (pos < len && template.charAt(pos) == '{') {
+        final int close = template.indexOf('}', pos);
+        final String name = close < 0 ?
+          "" : template.substring(pos + 1, close).trim();
+        if (name.isEmpty()) {
+          throw new IllegalArgumentException(
+            "Invalid placeholder in DN template '" + template + "'");
+        }
+        if (names.contains(name)) {
+          throw new IllegalArgumentException(
+            "Duplicate placeholder {" + name + "} in DN template '" +
+            template + "'");
+        }
+        segments.add(template.substring(segmentStart, pos));
+        segmentStart = close + 1;
+        pos = skipSpaces(template, close + 1);
+        value = null;
+        index = names.size();
+        names.add(name);
+      } else {
+        final int valueStart = pos;
+        sb.setLength(0);
+        pos = readValue(template, pos, sb);
+        if (pos < 0 || template.substring(valueStart, pos).indexOf('{') >= 0) {
+          throw new IllegalArgumentException(
+            "Invalid attribute value in DN template '" + template + "'");
+        }
+        value = sb.toString();
+        index = -1;
+      }
+      if (pos < len && !isSeparator(template.charAt(pos))) {
+        throw new IllegalArgumentException(
+          "Placeholder must be an entire attribute value in DN template '" +
+          template + "'");
+      }
+      final char separator = pos < len ? template.charAt(pos++) : 0;
+      if (separator != 0 && pos == len) {
+        throw new IllegalArgumentException(
+          "DN template '" + template + "' ends with a separator");
+      }
+      avas.add(new Ava(type, value, index, separator));
+    }
+    segments.add(template.substring(segmentStart));
+    return new DnTemplate(
+      template,
+      segments.toArray(new String[segments.size()]),
+      names.toArray(new String[names.size()]),
+      avas.toArray(new Ava[avas.size()]));
+  }
+
+
+  /**
+   * Returns the template this was compiled from.
+   *
+   * @return  template
+   */
+  public String getTemplate()
+  {
+    return template;
+  }
+
+
+  /**
+   * Returns the property name of each placeholder in template order.
+   *
+   * @return  unmodifiable list of property names
+   */
+  public List<String> getPropertyNames()
+  {
+    return Collections.unmodifiableList(Arrays.asList(propertyNames));
+  }
+
+
+  /**
+   * Returns the DN produced by substituting the supplied values for the
+   * placeholders of this template. Values are escaped according to RFC 4514.
+   *
+   * @param  values  of each placeholder in template order
+   *
+   * @return  DN or null if any value is null
+   *
+   * @throws  IllegalArgumentException  if the number of values does not
+   * match the number of placeholders
+   */
+  public String format(final String... values)
+  {
+    if (values.length != propertyNames.length) {
+      throw new IllegalArgumentException(
+        "DN template '" + template + "' requires " + propertyNames.length +
+        " values, received " + values.length);
+    }
+    for (String value : values) {
+      if (value == null) {
+        return null;
+      }
+    }
+    final StringBuilder sb = builder();
+    sb.append(segments[0]);
+    for (int i = 0; i < values.length; i++) {
+      escape(values[i], sb);
+      sb.append(segments[i + 1]);
+    }
+    return release(sb, sb.toString());
+  }
+
+
+  /**
+   * Matches the supplied DN against this template and returns the unescaped
+   * value of each placeholder. Attribute types and literal values are
+   * compared ignoring case.
+   *
+   * @param  dn  to parse
+   *
+   * @return  value of each placeholder in template order or null if dn does
+   * not match this template
+   */
+  public String[] parse(final String dn)
+  {
+    if (dn == null) {
+      return null;
+    }
+    final String[] values = new String[propertyNames.length];
+    final StringBuilder sb = builder();
+    final int len = dn.length();
+    int pos = 0;
+    for (Ava ava : avas) {
+      pos = skipSpaces(dn, pos);
+      final int eq = dn.indexOf('=', pos);
+      if (eq < 0) {
+        return release(sb, null);
+      }
+      final int typeEnd = trimEnd(dn, pos, eq);
+      if (typeEnd - pos != ava.type.length() ||
+          !dn.regionMatches(true, pos, ava.type, 0, typeEnd - pos)) {
+        return release(sb, null);
+      }
+      sb.setLength(0);
+      pos = readValue(dn, skipSpaces(dn, eq + 1), sb);
+      if (pos < 0) {
+        return release(sb, null);
+      }
+      if (ava.index >= 0) {
+        values[ava.index] = sb.toString();
+      } else if (!equalsIgnoreCase(sb, ava.value)) {
+        return release(sb, null);
+      }
+      final char separator = pos < len ? dn.charAt(pos++) : 0;
+      if (separator != ava.separator) {
+        return release(sb, null);
+      }
+    }
+    return release(sb, values);
+  }
+
+
+  /**
+   * Returns the cleared per thread builder.
+   *
+   * @return  string builder
+   */
+  private static StringBuilder builder()
+  {
+    final StringBuilder sb = BUILDER.get();
+    sb.setLength(0);
+    return sb;
+  }
+
+
+  /**
+   * Discards the supplied builder if it has grown too large to keep.
+   *
+   * @param  <T>  type of result
+   * @param  sb  per thread builder
+   * @param  result  to return
+   *
+   * @return  result
+   */
+  private static <T> T release(final StringBuilder sb, final T result)
+  {
+    if (sb.capacity() > MAX_BUILDER_CAPACITY) {
+      BUILDER.remove();
+    }
+    return result;
+  }
+
+
+  /**
+   * Appends the supplied attribute value to the builder, escaping the
+   * characters RFC 4514 requires.
+   *
+   * @param  value  to escape
+   * @param  sb  to append to
+   */
+  private static void escape(final String value, final StringBuilder sb)
+  {
+    final int last = value.length() - 1;
+    for (int i = 0; i <= last; i++) {
+      final char c = value.charAt(i);
+      switch (c) {
+      case '"':
+      case '+':
+      case ',':
+      case ';':
+      case '<':
+      case '>':
+      case '\\':
+        sb.append('\\').append(c);
+        break;
+      case ' ':
+        if (i == 0 || i == last) {
+          sb.append('\\');
+        }
+        sb.append(c);
+        break;
+      case '#':
+        if (i == 0) {
+          sb.append('\\');
+        }
+        sb.append(c);
+        break;
+      case '\u0000':
+        sb.append("\\00");
+        break;
+      default:
+        sb.append(c);
+        break;
+      }
+    }
+  }
+
+
+  /**
+   * Reads an attribute value starting at the supplied position, appending it
+   * unescaped to the builder. Unescaped trailing spaces are dropped. Values
+   * in the hex string form are not supported.
+   *
+   * @param  dn  to read from
+   * @param  start  position of the value
+   * @param  sb  to append the value to
+   *
+   * @return  position of the separator following the value, the length of
+   * dn if the value is last or -1 if the value is invalid
+   */
+  private static int readValue(
+    final String dn,
+    final int start,
+    final StringBuilder sb)
+  {
+    final int len = dn.length();
+    if (start < len && dn.charAt(start) == '#') {
+      return -1;
+    }
+    int end = sb.length();
+    int pos = start;
+    while (pos < len) {
+      final char c = dn.charAt(pos);
+      if (isSeparator(c)) {
+        break;
+      }
+      if (c == '\\') {
+        if (pos + 1 == len) {
+          return -1;
+        }
+        if (isHexPair(dn, pos + 1)) {
+          pos = readHexPairs(dn, pos, sb);
+        } else {
+          sb.append(dn.charAt(pos + 1));
+          pos += 2;
+        }
+        end = sb.length();
+      } else {
+        sb.append(c);
+        pos++;
+        if (c != ' ') {
+          end = sb.length();
+        }
+      }
+    }
+    sb.setLength(end);
+    return pos;
+  }
+
+
+  /**
+   * Decodes the run of escaped hex pairs starting at the supplied position as
+   * UTF-8 and appends it to the builder.
+   *
+   * @param  dn  to read from
+   * @param  start  position of the first backslash
+   * @param  sb  to append to
+   *
+   * @return  position following the last hex pair
+   */
+  private static int readHexPairs(
+    final String dn,
+    final int start,
+    final StringBuilder sb)
+  {
+    int pos = start;
+    boolean ascii = true;
+    while (pos + 2 < dn.length() && dn.charAt(pos) == '\\' &&
+           isHexPair(dn, pos + 1)) {
+      if (hexValue(dn, pos + 1) >= 0x80) {
+        ascii = false;
+      }
+      pos += 3;
+    }
+    if (ascii) {
+      for (int i = start; i < pos; i += 3) {
+        sb.append((char) hexValue(dn, i + 1));
+      }
+    } else {
+      final byte[] bytes = new byte[(pos - start) / 3];
+      for (int i = 0; i < bytes.length; i++) {
+        bytes[i] = (byte) hexValue(dn, start + i * 3 + 1);
+      }
+      sb.append(new String(bytes, StandardCharsets.UTF_8));
+    }
+    return pos;
+  }
+
+
+  /**
+   * Returns whether the two characters at the supplied position are hex
+   * digits.
+   *
+   * @param  s  to inspect
+   * @param  pos  of the first character
+   *
+   * @return  whether a hex pair is at pos
+   */
+  private static boolean isHexPair(final String s, final int pos)
+  {
+    return pos + 1 < s.length() &&
+      Character.digit(s.charAt(pos), 16) >= 0 &&
+      Character.digit(s.charAt(pos + 1), 16) >= 0;
+  }
+
+
+  /**
+   * Returns the value of the hex pair at the supplied position.
+   *
+   * @param  s  to read from
+   * @param  pos  of the first character
+   *
+   * @return  value between 0 and 255
+   */
+  private static int hexValue(final String s, final int pos)
+  {
+    return Character.digit(s.charAt(pos), 16) << 4 |
+      Character.digit(s.charAt(pos + 1), 16);
+  }
+
+
+  /**
+   * Returns whether the supplied character separates attribute value
+   * assertions.
+   *
+   * @param  c  to inspect
+   *
+   * @return  whether c is a comma or plus sign
+   */
+  private static boolean isSeparator(final char c)
+  {
+    return c == ',' || c == '+';
+  }
+
+
+  /**
+   * Returns whether the supplied range is a valid attribute type, which
+   * cannot contain separators or escapes.
+   *
+   * @param  s  to inspect
+   * @param  start  of the range
+   * @param  end  of the range
+   *
+   * @return  whether the range is an attribute type
+   */
+  private static boolean isType(final String s, final int start, final int end)
+  {
+    for (int i = start; i < end; i++) {
+      final char c = s.charAt(i);
+      if (isSeparator(c) || c == '\\' || c == '{') {
+        return false;
+      }
+    }
+    return true;
+  }
+
+
+  /**
+   * Returns the position of the first character that is not a space.
+   *
+   * @param  s  to inspect
+   * @param  pos  to start at
+   *
+   * @return  position of the first character that is not a space
+   */
+  private static int skipSpaces(final String s, final int pos)
+  {
+    int i = pos;
+    while (i < s.length() && s.charAt(i) == ' ') {
+      i++;
+    }
+    return i;
+  }
+
+
+  /**
+   * Returns the end of the supplied range without trailing spaces.
+   *
+   * @param  s  to inspect
+   * @param  start  of the range
+   * @param  end  of the range
+   *
+   * @return  end of the trimmed range
+   */
+  private static int trimEnd(final String s, final int start, final int end)
+  {
+    int i = end;
+    while (i > start && s.charAt(i - 1) == ' ') {
+      i--;
+    }
+    return i;
+  }
+
+
+  /**
+   * Returns whether the supplied character sequence equals the string,
+   * ignoring case.
+   *
+   * @param  cs  character sequence
+   * @param  s  string
+   *
+   * @return  whether cs and s are equal ignoring case
+   */
+  private static boolean equalsIgnoreCase(final CharSequence cs, final String s)
+  {
+    if (cs.length() != s.length()) {
+      return false;
+    }
+    for (int i = 0; i < s.length(); i++) {
+      final char c1 = cs.charAt(i);
+      final char c2 = s.charAt(i);
+      if (c1 != c2 &&
+          Character.toUpperCase(c1) != Character.toUpperCase(c2) &&
+          Character.toLowerCase(c1) != Character.toLowerCase(c2)) {
+        return false;
+      }
+    }
+    return true;
+  }
+
+
+  /** {@inheritDoc} */
+  @Override
+  public String toString()
+  {
+    return String.format(
+      "[%s@%d::template=%s, propertyNames=%s]",
+      getClass().getName(),
+      hashCode(),
+      template,
+      Arrays.toString(propertyNames));
+  }
+
+
+  /** Attribute value assertion of a template. */
+  private static final class Ava
+  {
+
+    /** Attribute type. */
+    private final String type;
+
+    /** Unescaped literal value, null for a placeholder. */
+    private final String value;
+
+    /** Placeholder index, -1 for a literal value. */
+    private final int index;
+
+    /** Separator following this assertion, zero if it is last. */
+    private final char separator;
+
+
+    /**
+     * Creates a new attribute value assertion.
+     *
+     * @param  t  attribute type
+     * @param  v  literal value
+     * @param  i  placeholder index
+     * @param  s  separator
+     */
+    Ava(final String t, final String v, final int i, final char s)
+    {
+      type = t;
+      value = v;
+      index = i;
+      separator = s;
+    }
+  }
+}
@@ -0,0 +1,120 @@
+/*
+  $Id$
+
+  Copyright (C) 2003-2014 Virginia Tech.
+  All rights reserved.
+
+  SEE LICENSE FOR MORE INFORMATION
+
+  Author:  Middleware Services
+  Email:   middleware@vt.edu
+  Version: $Revision$
+  Updated: $Date$
+*/
+package org.ldaptive.beans;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.net.URL;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Enumeration;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Index of the classes annotated with {@link Entry}, written at compile time
+ * by the beans annotation processor. Each jar or class directory compiled
+ * with the processor contains a {@link #RESOURCE_NAME} resource listing the
+ * binary names of its entry classes, one per line. Reading the index avoids
+ * scanning the class path for annotated classes.
+ *
+ * @author  Middleware Services
+ * @version  $Revision$ $Date$
+ */
+public final class EntryIndex
+{
+
+  /** Name of the index resource. */
+  public static final String RESOURCE_NAME = "META-INF/ldaptive/entry-index";
+
+  /** Logger for this class. */
+  private static final Logger LOGGER = LoggerFactory.getLogger(
+    EntryIndex.class);
+
+
+  /** Default constructor. */
+  private EntryIndex() {}
+
+
+  /**
+   * Returns the names of the entry classes listed in every index resource
+   * visible to the supplied class loader. Blank lines and lines starting with
+   * '#' are ignored.
+   *
+   * @param  loader  to read index resources from
+   *
+   * @return  binary class names in the order they are listed, without
+   * duplicates
+   *
+   * @throws  IOException  if an index resource cannot be read
+   */
+  public static List<String> getClassNames(final ClassLoader loader)
+    throws IOException
+  {
+    final Set<String> names = new LinkedHashSet<String>();
+    final Enumeration<URL> resources = loader.getResources(RESOURCE_NAME);
+    while (resources.hasMoreElements()) {
+      final URL url = resources.nextElement();
+      final BufferedReader reader = new BufferedReader(
+        new InputStreamReader(url.openStream(), StandardCharsets.UTF_8));
+      try {
+        String line = reader.readLine();
+        while (line != null) {
+          line = line.trim();
+          if (!line.isEmpty() && !line.startsWith("#")) {
+            names.add(line);
+          }
+          line = reader.readLine();
+        }
+      } finally {
+        reader.close();
+      }
+    }
+    return new ArrayList<String>(names);
+  }
+
+
+  /**
+   * Returns the entry classes listed in every index resource visible to the
+   * supplied class loader. Classes are loaded without being initialized.
+   * Classes that cannot be loaded are logged and skipped, since an index may
+   * outlive the classes it lists.
+   *
+   * @param  loader  to read index resources and load classes from
+   *
+   * @return  entry classes in the order they are listed
+   *
+   * @throws  IOException  if an index resource cannot be read
+   */
+  public static List<Class<?>> getClasses(final ClassLoader loader)
+    throws IOException
+  {
+    final List<String> names = getClassNames(loader);
+    final List<Class<?>> classes = new ArrayList<Class<?>>(names.size());
+    for (String name : names) {
+      try {
+        classes.add(Class.forName(name, false, loader));
+      } catch (ClassNotFoundException e) {
+        LOGGER.warn("could not load indexed entry class {}", name, e);
+      } catch (LinkageError e) {
+        LOGGER.warn("could not load indexed entry class {}", name, e);
+      }
+    }
+    return classes;
+  }
+}
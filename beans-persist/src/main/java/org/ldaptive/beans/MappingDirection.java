@@ -0,0 +1,29 @@
+/*
+  $Id$
+
+  Copyright (C) 2003-2014 Virginia Tech.
+  All rights reserved.
+
+  SEE LICENSE FOR MORE INFORMATION
+
+  Author:  Middleware Services
+  Email:   middleware@vt.edu
+  Version: $Revision$
+  Updated: $Date$
+*/
+package org.ldaptive.beans;
+
+/**
+ * Direction of a mapping between an object and an ldap entry.
+ *
+ * @author  Middleware Services
+ * @version  $Revision$ $Date$
+ */
+public enum MappingDirection {
+
+  /** Object mapped to an ldap entry. */
+  OBJECT_TO_ENTRY,
+
+  /** Ldap entry mapped to an object. */
+  ENTRY_TO_OBJECT
+}
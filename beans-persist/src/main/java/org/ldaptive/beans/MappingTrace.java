@@ -0,0 +1,199 @@
+/*
+  $Id$
+
+  Copyright (C) 2003-2014 Virginia Tech.
+  All rights reserved.
+
+  SEE LICENSE FOR MORE INFORMATION
+
+  Author:  Middleware Services
+  Email:   middleware@vt.edu
+  Version: $Revision$
+  Updated: $Date$
+*/
+package org.ldaptive.beans;
+
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import org.ldaptive.LdapEntry;
+
+/**
+ * Record of a single sampled mapping between an object and an ldap entry.
+ * Traces are created by a {@link MappingTracer} and are only ever touched by
+ * the thread performing the mapping until they are handed to a {@link
+ * MappingTraceListener}.
+ *
+ * @author  Middleware Services
+ * @version  $Revision$ $Date$
+ */
+public class MappingTrace
+{
+
+  /** Type of object mapped. */
+  private final Class<?> type;
+
+  /** Direction of the mapping. */
+  private final MappingDirection direction;
+
+  /** Time of each mutator, null if mutators are not timed. */
+  private final Map<String, Long> mutatorTimes;
+
+  /** System time the mapping started at. */
+  private final long startTime;
+
+  /** DN of the entry. */
+  private String dn;
+
+  /** Number of attributes in the entry. */
+  private int attributeCount;
+
+  /** Time spent mapping. */
+  private long time;
+
+
+  /**
+   * Creates a new mapping trace.
+   *
+   * @param  t  type of object mapped
+   * @param  d  direction of the mapping
+   * @param  timeMutators  whether the time of each mutator is recorded
+   */
+  public MappingTrace(
+    final Class<?> t,
+    final MappingDirection d,
+    final boolean timeMutators)
+  {
+    type = t;
+    direction = d;
+    mutatorTimes = timeMutators ? new LinkedHashMap<String, Long>() : null;
+    startTime = System.nanoTime();
+  }
+
+
+  /**
+   * Returns the type of object mapped.
+   *
+   * @return  type
+   */
+  public Class<?> getType()
+  {
+    return type;
+  }
+
+
+  /**
+   * Returns the direction of the mapping.
+   *
+   * @return  direction
+   */
+  public MappingDirection getDirection()
+  {
+    return direction;
+  }
+
+
+  /**
+   * Returns the DN of the entry.
+   *
+   * @return  dn or null if the mapping has not completed
+   */
+  public String getDn()
+  {
+    return dn;
+  }
+
+
+  /**
+   * Returns the number of attributes in the entry.
+   *
+   * @return  attribute count
+   */
+  public int getAttributeCount()
+  {
+    return attributeCount;
+  }
+
+
+  /**
+   * Returns the time spent mapping.
+   *
+   * @return  mapping time in nanoseconds
+   */
+  public long getTime()
+  {
+    return time;
+  }
+
+
+  /**
+   * Returns the time spent in each attribute value mutator, keyed by
+   * attribute name in the order the mutators ran. Empty if mutators were not
+   * timed or the mapping was performed by a generated mapper.
+   *
+   * @return  unmodifiable map of mutator times in nanoseconds
+   */
+  public Map<String, Long> getMutatorTimes()
+  {
+    if (mutatorTimes == null) {
+      return Collections.emptyMap();
+    }
+    return Collections.unmodifiableMap(mutatorTimes);
+  }
+
+
+  /**
+   * Returns whether the time spent in each mutator is recorded.
+   *
+   * @return  whether mutators are timed
+   */
+  public boolean getTimeMutators()
+  {
+    return mutatorTimes != null;
+  }
+
+
+  /**
+   * Records the time spent in a mutator. Ignored if mutators are not timed.
+   *
+   * @param  name  of the mutator attribute
+   * @param  t  time spent in the mutator in nanoseconds
+   */
+  public void addMutatorTime(final String name, final long t)
+  {
+    if (mutatorTimes != null) {
+      mutatorTimes.put(name, t);
+    }
+  }
+
+
+  /**
+   * Completes this trace with the supplied entry.
+   *
+   * @param  entry  that was mapped from or to
+   */
+  void complete(final LdapEntry entry)
+  {
+    time = System.nanoTime() - startTime;
+    dn = entry.getDn();
+    attributeCount = entry.size();
+  }
+
+
+  /** {@inheritDoc} */
+  @Override
+  public String toString()
+  {
+    return String.format(
+      "[%s@%d::type=%s, direction=%s, dn=%s, attributeCount=%s, time=%s, " +
+      "mutatorTimes=%s]",
+      getClass().getName(),
+      hashCode(),
+      type != null ? type.getName() : null,
+      direction,
+      dn,
+      attributeCount,
+      time,
+      mutatorTimes);
+  }
+}
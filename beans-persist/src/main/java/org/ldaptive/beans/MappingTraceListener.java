@@ -0,0 +1,34 @@
+/*
+  $Id$
+
+  Copyright (C) 2003-2014 Virginia Tech.
+  All rights reserved.
+
+  SEE LICENSE FOR MORE INFORMATION
+
+  Author:  Middleware Services
+  Email:   middleware@vt.edu
+  Version: $Revision$
+  Updated: $Date$
+*/
+package org.ldaptive.beans;
+
+/**
+ * Receives completed mapping traces from a {@link MappingTracer}.
+ * Implementations are invoked on the mapping thread and must be safe for
+ * concurrent use.
+ *
+ * @author  Middleware Services
+ * @version  $Revision$ $Date$
+ */
+public interface MappingTraceListener
+{
+
+
+  /**
+   * Invoked when a sampled mapping completes.
+   *
+   * @param  trace  of the mapping
+   */
+  void traceCompleted(MappingTrace trace);
+}
@@ -0,0 +1,220 @@
+/*
+  $Id$
+
+  Copyright (C) 2003-2014 Virginia Tech.
+  All rights reserved.
+
+  SEE LICENSE FOR MORE INFORMATION
+
+  Author:  Middleware Services
+  Email:   middleware@vt.edu
+  Version: $Revision$
+  Updated: $Date$
+*/
+package org.ldaptive.beans;
+
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicLong;
+import org.ldaptive.LdapEntry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Samples mappings performed by an ldap entry mapper. Each mapping is traced
+ * with a probability of one in the sample rate; the trace records the type,
+ * DN, attribute count and elapsed time of the mapping, and optionally the time
+ * spent in each attribute value mutator. Completed traces are handed to the
+ * listener, or logged at debug level if no listener is set.
+ *
+ * <p>Mappers have no tracer by default, in which case the only cost of
+ * tracing is a null check per mapping. Mappings are sampled with a thread
+ * local random number, so a mapping that is not traced touches no state
+ * shared between threads. Neither the object nor the entry is converted to a
+ * string by the tracer.</p>
+ *
+ * @author  Middleware Services
+ * @version  $Revision$ $Date$
+ */
+public class MappingTracer
+{
+
+  /** Default sample rate, value is {@value}. */
+  public static final int DEFAULT_SAMPLE_RATE = 100;
+
+  /** Logger for this class. */
+  protected final Logger logger = LoggerFactory.getLogger(getClass());
+
+  /** Trace a mapping with a probability of one in sample rate. */
+  private final int sampleRate;
+
+  /** Whether the time of each mutator is recorded. */
+  private volatile boolean timeMutators;
+
+  /** Receives completed traces, null to log them. */
+  private volatile MappingTraceListener listener;
+
+  /** Number of mappings traced. */
+  private final AtomicLong traceCount = new AtomicLong();
+
+
+  /** Creates a new mapping tracer with the default sample rate. */
+  public MappingTracer()
+  {
+    this(DEFAULT_SAMPLE_RATE);
+  }
+
+
+  /**
+   * Creates a new mapping tracer.
+   *
+   * @param  rate  trace a mapping with a probability of one in rate, 1 traces
+   * every mapping
+   */
+  public MappingTracer(final int rate)
+  {
+    if (rate < 1) {
+      throw new IllegalArgumentException("Sample rate must be greater than 0");
+    }
+    sampleRate = rate;
+  }
+
+
+  /**
+   * Returns the sample rate.
+   *
+   * @return  a mapping is traced with a probability of one in sample rate
+   */
+  public int getSampleRate()
+  {
+    return sampleRate;
+  }
+
+
+  /**
+   * Returns whether the time spent in each attribute value mutator is
+   * recorded.
+   *
+   * @return  whether mutators are timed
+   */
+  public boolean getTimeMutators()
+  {
+    return timeMutators;
+  }
+
+
+  /**
+   * Sets whether the time spent in each attribute value mutator is recorded.
+   *
+   * @param  b  whether mutators are timed
+   */
+  public void setTimeMutators(final boolean b)
+  {
+    timeMutators = b;
+  }
+
+
+  /**
+   * Returns the listener that receives completed traces.
+   *
+   * @return  listener or null if traces are logged
+   */
+  public MappingTraceListener getListener()
+  {
+    return listener;
+  }
+
+
+  /**
+   * Sets the listener that receives completed traces.
+   *
+   * @param  l  listener or null to log traces
+   */
+  public void setListener(final MappingTraceListener l)
+  {
+    listener = l;
+  }
+
+
+  /**
+   * Starts a trace of a mapping if the mapping is sampled. Mappings are not
+   * traced if no listener is set and debug logging is disabled.
+   *
+   * @param  type  of object being mapped
+   * @param  direction  of the mapping
+   *
+   * @return  trace or null if the mapping is not traced
+   */
+  public MappingTrace start(
+    final Class<?> type,
+    final MappingDirection direction)
+  {
+    if (sampleRate > 1 &&
+        ThreadLocalRandom.current().nextInt(sampleRate) != 0) {
+      return null;
+    }
+    if (listener == null && !logger.isDebugEnabled()) {
+      return null;
+    }
+    traceCount.incrementAndGet();
+    return new MappingTrace(type, direction, timeMutators);
+  }
+
+
+  /**
+   * Completes a trace started by {@link #start(Class,
+   * MappingDirection)} and hands it to the listener.
+   *
+   * @param  trace  to complete
+   * @param  entry  that was mapped from or to
+   */
+  public void end(final MappingTrace trace, final LdapEntry entry)
+  {
+    trace.complete(entry);
+    final MappingTraceListener l = listener;
+    if (l != null) {
+      l.traceCompleted(trace);
+    } else {
+      logger.debug(
+        "mapped type={} direction={} dn={} attributes={} time={}ns " +
+        "mutators={}",
+        trace.getType().getName(),
+        trace.getDirection(),
+        trace.getDn(),
+        trace.getAttributeCount(),
+        trace.getTime(),
+        trace.getMutatorTimes());
+    }
+  }
+
+
+  /**
+   * Returns the number of mappings traced.
+   *
+   * @return  trace count
+   */
+  public long getTraceCount()
+  {
+    return traceCount.get();
+  }
+
+
+  /** Resets the trace count. */
+  public void resetStatistics()
+  {
+    traceCount.set(0);
+  }
+
+
+  /** {@inheritDoc} */
+  @Override
+  public String toString()
+  {
+    return String.format(
+      "[%s@%d::sampleRate=%s, timeMutators=%s, listener=%s]",
+      getClass().getName(),
+      hashCode(),
+      sampleRate,
+      timeMutators,
+      listener);
+  }
+}
@@ -0,0 +1,68 @@
+/*
+  $Id$
+
+  Copyright (C) 2003-2014 Virginia Tech.
+  All rights reserved.
+
+  SEE LICENSE FOR MORE INFORMATION
+
+  Author:  Middleware Services
+  Email:   middleware@vt.edu
+  Version: $Revision$
+  Updated: $Date$
+*/
+package org.ldaptive.beans;
+
+import org.ldaptive.LdapAttribute;
+import org.ldaptive.LdapEntry;
+
+/**
+ * Ldap entry mapper for ldap entries themselves, so that raw entries can be
+ * used wherever a mapper is required, such as with an ldap entry manager.
+ * Mapping copies the DN and attributes of the source into the destination,
+ * replacing attributes of the same name. Attributes are shared, not copied.
+ *
+ * @author  Middleware Services
+ * @version  $Revision$ $Date$
+ */
+public class RawLdapEntryMapper
+  implements LdapEntryMapper<LdapEntry>, AttributeNameProvider<LdapEntry>
+{
+
+  /** Requests all user attributes. */
+  private static final String[] ALL_USER_ATTRIBUTES = {"*"};
+
+
+  /** {@inheritDoc} */
+  @Override
+  public String getDn(final LdapEntry object)
+  {
+    return object.getDn();
+  }
+
+
+  /**
+   * Returns the name that requests all user attributes, since the attributes
+   * of a raw entry are not known in advance.
+   *
+   * @param  object  ignored
+   *
+   * @return  all user attributes
+   */
+  @Override
+  public String[] getAttributeNames(final LdapEntry object)
+  {
+    return ALL_USER_ATTRIBUTES.clone();
+  }
+
+
+  /** {@inheritDoc} */
+  @Override
+  public void map(final LdapEntry source, final LdapEntry dest)
+  {
+    dest.setDn(source.getDn());
+    for (LdapAttribute attr : source.getAttributes()) {
+      dest.addAttribute(attr);
+    }
+  }
+}
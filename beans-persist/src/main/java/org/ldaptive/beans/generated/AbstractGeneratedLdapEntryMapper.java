@@ -0,0 +1,272 @@
+/*
+  $Id$
+
+  Copyright (C) 2003-2014 Virginia Tech.
+  All rights reserved.
+
+  SEE LICENSE FOR MORE INFORMATION
+
+  Author:  Middleware Services
+  Email:   middleware@vt.edu
+  Version: $Revision$
+  Updated: $Date$
+*/
+package org.ldaptive.beans.generated;
+
+import java.util.Collection;
+import org.ldaptive.LdapAttribute;
+import org.ldaptive.LdapEntry;
+import org.ldaptive.LdapUtils;
+import org.ldaptive.SortBehavior;
+import org.ldaptive.beans.AttributeNameProvider;
+import org.ldaptive.beans.LdapEntryMapper;
+import org.ldaptive.beans.reflect.MethodHandlePropertyAccessorFactory;
+import org.ldaptive.beans.reflect.PropertyAccessor;
+import org.ldaptive.beans.reflect.ReflectionTranscoder;
+
+/**
+ * Base class for ldap entry mappers emitted by the beans annotation processor.
+ * Provides the helper methods that generated code calls, so that generated
+ * mappers produce the same entries and objects as {@link
+ * org.ldaptive.beans.reflect.DefaultClassDescriptor}.
+ *
+ * @param  <T>  type of object to map
+ *
+ * @author  Middleware Services
+ * @version  $Revision$ $Date$
+ */
+public abstract class AbstractGeneratedLdapEntryMapper<T>
+  implements LdapEntryMapper<T>, AttributeNameProvider<T>
+{
+
+
+  /**
+   * Returns the type this mapper was generated for. Mapper class names are
+   * not unique for every type, so this is checked before the mapper is used.
+   *
+   * @return  type of object to map
+   */
+  public abstract Class<T> getType();
+
+  /**
+   * Returns an accessor for a field that generated code cannot access
+   * directly, such as a private field.
+   *
+   * @param  type  declaring the field
+   * @param  name  of the field
+   *
+   * @return  property accessor
+   *
+   * @throws  IllegalArgumentException  if the field does not exist
+   */
+  protected static PropertyAccessor createFieldAccessor(
+    final Class<?> type,
+    final String name)
+  {
+    try {
+      return new MethodHandlePropertyAccessorFactory().createPropertyAccessor(
+        type.getDeclaredField(name));
+    } catch (NoSuchFieldException e) {
+      throw new IllegalArgumentException(e);
+    }
+  }
+
+
+  /**
+   * Decodes base64 encoded values.
+   *
+   * @param  values  base64 encoded
+   *
+   * @return  decoded values
+   */
+  protected static byte[][] base64Decode(final String... values)
+  {
+    final byte[][] decoded = new byte[values.length][];
+    for (int i = 0; i < values.length; i++) {
+      decoded[i] = LdapUtils.base64Decode(values[i]);
+    }
+    return decoded;
+  }
+
+
+  /**
+   * Adds an attribute containing the values produced by the supplied
+   * transcoder to the supplied entry.
+   *
+   * @param  entry  to add the attribute to
+   * @param  name  of the attribute
+   * @param  sortBehavior  of the attribute
+   * @param  binary  whether the attribute is binary
+   * @param  transcoder  to encode the value with
+   * @param  value  to encode
+   */
+  protected static void addAttribute(
+    final LdapEntry entry,
+    final String name,
+    final SortBehavior sortBehavior,
+    final boolean binary,
+    final ReflectionTranscoder transcoder,
+    final Object value)
+  {
+    final LdapAttribute attr = new LdapAttribute(sortBehavior, binary);
+    attr.setName(name);
+    if (binary) {
+      attr.addBinaryValues(transcoder.encodeBinaryValues(value));
+    } else {
+      attr.addStringValues(transcoder.encodeStringValues(value));
+    }
+    entry.addAttribute(attr);
+  }
+
+
+  /**
+   * Adds an attribute containing a single value to the supplied entry. Binary
+   * attributes receive the UTF-8 bytes of the value.
+   *
+   * @param  entry  to add the attribute to
+   * @param  name  of the attribute
+   * @param  sortBehavior  of the attribute
+   * @param  binary  whether the attribute is binary
+   * @param  value  of the attribute
+   */
+  protected static void addAttribute(
+    final LdapEntry entry,
+    final String name,
+    final SortBehavior sortBehavior,
+    final boolean binary,
+    final String value)
+  {
+    final LdapAttribute attr = new LdapAttribute(sortBehavior, binary);
+    attr.setName(name);
+    if (binary) {
+      attr.addBinaryValue(LdapUtils.utf8Encode(value));
+    } else {
+      attr.addStringValue(value);
+    }
+    entry.addAttribute(attr);
+  }
+
+
+  /**
+   * Adds an attribute containing constant string values to the supplied entry.
+   *
+   * @param  entry  to add the attribute to
+   * @param  name  of the attribute
+   * @param  sortBehavior  of the attribute
+   * @param  values  of the attribute
+   */
+  protected static void addStringAttribute(
+    final LdapEntry entry,
+    final String name,
+    final SortBehavior sortBehavior,
+    final String... values)
+  {
+    final LdapAttribute attr = new LdapAttribute(sortBehavior, false);
+    attr.setName(name);
+    attr.addStringValue(values);
+    entry.addAttribute(attr);
+  }
+
+
+  /**
+   * Adds an attribute containing constant binary values to the supplied entry.
+   *
+   * @param  entry  to add the attribute to
+   * @param  name  of the attribute
+   * @param  sortBehavior  of the attribute
+   * @param  values  of the attribute
+   */
+  protected static void addBinaryAttribute(
+    final LdapEntry entry,
+    final String name,
+    final SortBehavior sortBehavior,
+    final byte[]... values)
+  {
+    final LdapAttribute attr = new LdapAttribute(sortBehavior, true);
+    attr.setName(name);
+    attr.addBinaryValue(values);
+    entry.addAttribute(attr);
+  }
+
+
+  /**
+   * Decodes the values of the supplied attribute with the supplied transcoder.
+   *
+   * @param  transcoder  to decode with
+   * @param  attr  containing values
+   *
+   * @return  decoded value
+   */
+  protected static Object decode(
+    final ReflectionTranscoder transcoder,
+    final LdapAttribute attr)
+  {
+    if (attr.isBinary()) {
+      return transcoder.decodeBinaryValues(attr.getBinaryValues());
+    }
+    return transcoder.decodeStringValues(attr.getStringValues());
+  }
+
+
+  /**
+   * Returns the single value of the supplied attribute as a string, for
+   * decoding into a primitive.
+   *
+   * @param  attr  containing a single value
+   *
+   * @return  attribute value
+   *
+   * @throws  IllegalArgumentException  if the attribute does not contain
+   * exactly one value
+   */
+  protected static String singleValue(final LdapAttribute attr)
+  {
+    if (attr.size() > 1) {
+      throw new IllegalArgumentException("Multiple values not supported");
+    }
+    if (attr.size() == 0) {
+      throw new IllegalArgumentException(
+        "No value for primitive attribute " + attr.getName());
+    }
+    if (attr.isBinary()) {
+      return LdapUtils.utf8Encode(attr.getBinaryValue());
+    }
+    return attr.getStringValue();
+  }
+
+
+  /**
+   * Returns the first value of the supplied values.
+   *
+   * @param  values  to read
+   *
+   * @return  first value or null if values is null or empty
+   */
+  protected static String firstValue(final Collection<String> values)
+  {
+    if (values != null && !values.isEmpty()) {
+      return values.iterator().next();
+    }
+    return null;
+  }
+
+
+  /**
+   * Fails to write a property that has a getter but no setter, as the
+   * reflection based property accessors do.
+   *
+   * @throws  IllegalArgumentException  always
+   */
+  protected static void noSetterMethod()
+  {
+    throw new IllegalArgumentException("No setter method available");
+  }
+
+
+  /** {@inheritDoc} */
+  @Override
+  public String toString()
+  {
+    return String.format("[%s@%d]", getClass().getName(), hashCode());
+  }
+}
@@ -0,0 +1,138 @@
+/*
+  $Id$
+
+  Copyright (C) 2003-2014 Virginia Tech.
+  All rights reserved.
+
+  SEE LICENSE FOR MORE INFORMATION
+
+  Author:  Middleware Services
+  Email:   middleware@vt.edu
+  Version: $Revision$
+  Updated: $Date$
+*/
+package org.ldaptive.beans.generated;
+
+import java.lang.reflect.InvocationTargetException;
+import org.ldaptive.beans.LdapEntryMapper;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Registry of ldap entry mappers generated at compile time. A generated mapper
+ * is a public {@link AbstractGeneratedLdapEntryMapper} with a no-argument
+ * constructor in the same package as the bean, named after the bean with
+ * {@link #SUFFIX} appended; nested class names are joined with an underscore.
+ * Since a nested and a top level class may then share a mapper name, a mapper
+ * is only used for the type it reports. Lookups are cached per type and do not
+ * prevent the bean class loader from being garbage collected.
+ *
+ * @author  Middleware Services
+ * @version  $Revision$ $Date$
+ */
+public final class GeneratedLdapEntryMappers
+{
+
+  /** Suffix of generated mapper class names. */
+  public static final String SUFFIX = "_LdapEntryMapper";
+
+  /** Logger for this class. */
+  private static final Logger LOGGER = LoggerFactory.getLogger(
+    GeneratedLdapEntryMappers.class);
+
+  /** Marks types without a generated mapper. */
+  private static final Object NONE = new Object();
+
+  /** Generated mapper for each type, or {@link #NONE}. */
+  private static final ClassValue<Object> MAPPERS = new ClassValue<Object>() {
+    @Override
+    protected Object computeValue(final Class<?> type)
+    {
+      final LdapEntryMapper<?> mapper = load(type);
+      return mapper != null ? mapper : NONE;
+    }
+  };
+
+
+  /** Default constructor. */
+  private GeneratedLdapEntryMappers() {}
+
+
+  /**
+   * Returns the name of the generated mapper class for the supplied type.
+   *
+   * @param  type  of bean
+   *
+   * @return  fully qualified mapper class name
+   */
+  public static String getMapperClassName(final Class<?> type)
+  {
+    return type.getName().replace('$', '_') + SUFFIX;
+  }
+
+
+  /**
+   * Returns the generated mapper for the supplied type.
+   *
+   * @param  <T>  type of bean
+   * @param  type  of bean
+   *
+   * @return  generated mapper or null if none exists
+   */
+  @SuppressWarnings("unchecked")
+  public static <T> LdapEntryMapper<T> getLdapEntryMapper(final Class<?> type)
+  {
+    final Object mapper = MAPPERS.get(type);
+    return mapper != NONE ? (LdapEntryMapper<T>) mapper : null;
+  }
+
+
+  /**
+   * Loads and instantiates the generated mapper for the supplied type.
+   *
+   * @param  type  of bean
+   *
+   * @return  generated mapper or null if none exists
+   */
+  private static LdapEntryMapper<?> load(final Class<?> type)
+  {
+    final ClassLoader loader = type.getClassLoader();
+    if (loader == null) {
+      return null;
+    }
+    final String name = getMapperClassName(type);
+    try {
+      final Class<?> c = Class.forName(name, true, loader);
+      if (!AbstractGeneratedLdapEntryMapper.class.isAssignableFrom(c)) {
+        LOGGER.warn(
+          "{} does not extend {}",
+          name,
+          AbstractGeneratedLdapEntryMapper.class);
+        return null;
+      }
+      final AbstractGeneratedLdapEntryMapper<?> mapper =
+        (AbstractGeneratedLdapEntryMapper<?>)
+          c.getDeclaredConstructor().newInstance();
+      if (mapper.getType() != type) {
+        LOGGER.debug("{} maps {}, not {}", name, mapper.getType(), type);
+        return null;
+      }
+      LOGGER.debug("using generated mapper {} for {}", mapper, type);
+      return mapper;
+    } catch (ClassNotFoundException e) {
+      return null;
+    } catch (InstantiationException e) {
+      LOGGER.warn("could not create generated mapper {}", name, e);
+      return null;
+    } catch (IllegalAccessException e) {
+      LOGGER.warn("could not create generated mapper {}", name, e);
+      return null;
+    } catch (NoSuchMethodException e) {
+      LOGGER.warn("could not create generated mapper {}", name, e);
+      return null;
+    } catch (InvocationTargetException e) {
+      LOGGER.warn("could not create generated mapper {}", name, e.getCause());
+      return null;
+    }
+  }
+}
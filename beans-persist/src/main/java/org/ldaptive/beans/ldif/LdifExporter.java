@@ -0,0 +1,661 @@
+/*
+  $Id$
+
+  Copyright (C) 2003-2014 Virginia Tech.
+  All rights reserved.
+
+  SEE LICENSE FOR MORE INFORMATION
+
+  Author:  Middleware Services
+  Email:   middleware@vt.edu
+  Version: $Revision$
+  Updated: $Date$
+*/
+package org.ldaptive.beans.ldif;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.GatheringByteChannel;
+import java.nio.channels.WritableByteChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Collection;
+import org.ldaptive.beans.AttributeValueMutator;
+import org.ldaptive.beans.ClassDescriptor;
+import org.ldaptive.beans.ClassDescriptorRegistry;
+import org.ldaptive.beans.DnValueMutator;
+
+/**
+ * Writes beans as LDIF content records directly from their class descriptors,
+ * without creating an ldap entry for each bean. Records are encoded into a
+ * ring of direct byte buffers that are written to the channel with a single
+ * gathering write once they are all full. String values that are not LDIF
+ * safe strings, and all values of binary attributes, are base64 encoded
+ * inline. Lines are not folded, and values are written in the order their
+ * mutator returns them regardless of sort behavior.
+ *
+ * <p>Buffers are allocated on first use and reused by later exports, so an
+ * exporter must not be used by more than one thread at a time.</p>
+ *
+ * @author  Middleware Services
+ * @version  $Revision$ $Date$
+ */
+public class LdifExporter
+{
+
+  /** Default size of each buffer, value is {@value}. */
+  public static final int DEFAULT_BUFFER_SIZE = 64 * 1024;
+
+  /** Default number of buffers per write, value is {@value}. */
+  public static final int DEFAULT_BUFFER_COUNT = 16;
+
+  /** Base64 alphabet. */
+  private static final byte[] BASE64 = {
+    'A', 'B', 'C', 'D', 'E', 'F', 'G', 'H', 'I', 'J', 'K', 'L', 'M',
+    'N', 'O', 'P', 'Q', 'R', 'S', 'T', 'U', 'V', 'W', 'X', 'Y', 'Z',
+    'a', 'b', 'c', 'd', 'e', 'f', 'g', 'h', 'i', 'j', 'k', 'l', 'm',
+    'n', 'o', 'p', 'q', 'r', 's', 't', 'u', 'v', 'w', 'x', 'y', 'z',
+    '0', '1', '2', '3', '4', '5', '6', '7', '8', '9', '+', '/',
+  };
+
+  /** Number of bytes per megabyte. */
+  private static final double BYTES_PER_MEGABYTE = 1024 * 1024;
+
+  /** Number of nanoseconds per second. */
+  private static final double NANOS_PER_SECOND = 1000000000;
+
+  /** Registry to read class descriptors from. */
+  private final ClassDescriptorRegistry registry;
+
+  /** Size of each buffer. */
+  private int bufferSize = DEFAULT_BUFFER_SIZE;
+
+  /** Number of buffers per write. */
+  private int bufferCount = DEFAULT_BUFFER_COUNT;
+
+  /** Buffers records are encoded into, null until the first export. */
+  private ByteBuffer[] buffers;
+
+  /** Index of the buffer being filled. */
+  private int current;
+
+  /** Buffer being filled. */
+  private ByteBuffer buffer;
+
+  /** Channel being written to. */
+  private WritableByteChannel channel;
+
+  /** Number of bytes written to the channel by the current export. */
+  private long byteCount;
+
+  /** UTF-8 encoding of the value being base64 encoded. */
+  private byte[] scratch = new byte[256];
+
+
+  /**
+   * Creates a new ldif exporter.
+   *
+   * @param  r  registry to read class descriptors from
+   */
+  public LdifExporter(final ClassDescriptorRegistry r)
+  {
+    if (r == null) {
+      throw new IllegalArgumentException("Registry cannot be null");
+    }
+    registry = r;
+  }
+
+
+  /**
+   * Returns the registry class descriptors are read from.
+   *
+   * @return  class descriptor registry
+   */
+  public ClassDescriptorRegistry getClassDescriptorRegistry()
+  {
+    return registry;
+  }
+
+
+  /**
+   * Returns the size of each buffer.
+   *
+   * @return  buffer size in bytes
+   */
+  public int getBufferSize()
+  {
+    return bufferSize;
+  }
+
+
+  /**
+   * Sets the size of each buffer.
+   *
+   * @param  size  in bytes
+   */
+  public void setBufferSize(final int size)
+  {
+    if (size < 4) {
+      throw new IllegalArgumentException("Buffer size must be at least 4");
+    }
+    bufferSize = size;
+    buffers = null;
+  }
+
+
+  /**
+   * Returns the number of buffers filled before they are written with a
+   * single gathering write.
+   *
+   * @return  buffer count
+   */
+  public int getBufferCount()
+  {
+    return bufferCount;
+  }
+
+
+  /**
+   * Sets the number of buffers filled before they are written with a single
+   * gathering write.
+   *
+   * @param  count  of buffers
+   */
+  public void setBufferCount(final int count)
+  {
+    if (count < 1) {
+      throw new IllegalArgumentException("Buffer count must be greater than 0");
+    }
+    bufferCount = count;
+    buffers = null;
+  }
+
+
+  /**
+   * Writes the supplied objects to a new file at the supplied path, replacing
+   * any existing file.
+   *
+   * @param  objects  to export
+   * @param  path  of the file to write
+   *
+   * @return  export result
+   *
+   * @throws  IOException  if the file cannot be written
+   */
+  public Result export(final Iterable<?> objects, final Path path)
+    throws IOException
+  {
+    final FileChannel fc = FileChannel.open(
+      path,
+      StandardOpenOption.CREATE,
+      StandardOpenOption.TRUNCATE_EXISTING,
+      StandardOpenOption.WRITE);
+    try {
+      return export(objects, fc);
+    } finally {
+      fc.close();
+    }
+  }
+
+
+  /**
+   * Writes the supplied objects to the supplied channel. The channel is not
+   * closed.
+   *
+   * @param  objects  to export
+   * @param  out  channel to write to
+   *
+   * @return  export result
+   *
+   * @throws  IOException  if the channel cannot be written
+   */
+  public Result export(final Iterable<?> objects, final WritableByteChannel out)
+    throws IOException
+  {
+    if (buffers == null) {
+      buffers = new ByteBuffer[bufferCount];
+      for (int i = 0; i < bufferCount; i++) {
+        buffers[i] = ByteBuffer.allocateDirect(bufferSize);
+      }
+    }
+    for (ByteBuffer b : buffers) {
+      b.clear();
+    }
+    current = 0;
+    buffer = buffers[0];
+    channel = out;
+    byteCount = 0;
+    final long start = System.nanoTime();
+    long entryCount = 0;
+    try {
+      for (Object object : objects) {
+        if (object != null) {
+          writeRecord(object);
+          entryCount++;
+        }
+      }
+      flush();
+    } finally {
+      channel = null;
+    }
+    return new Result(entryCount, byteCount, System.nanoTime() - start);
+  }
+
+
+  /**
+   * Encodes the supplied object as an LDIF record.
+   *
+   * @param  object  to encode
+   *
+   * @throws  IOException  if full buffers cannot be written
+   */
+  private void writeRecord(final Object object)
+    throws IOException
+  {
+    final ClassDescriptor descriptor = registry.getClassDescriptor(
+      object.getClass());
+    final DnValueMutator dnMutator = descriptor.getDnValueMutator();
+    final String dn = dnMutator != null ? dnMutator.getValue(object) : null;
+    if (dn == null) {
+      throw new IllegalArgumentException("No DN for " + object);
+    }
+    writeString("dn", dn);
+    for (AttributeValueMutator mutator :
+         descriptor.getAttributeValueMutators()) {
+      if (mutator.isBinary()) {
+        final Collection<byte[]> values = mutator.getBinaryValues(object);
+        if (values != null) {
+          for (byte[] value : values) {
+            if (value != null) {
+              writeAttributeName(mutator.getName(), true);
+              writeBase64(value, value.length);
+              put((byte) '\n');
+            }
+          }
+        }
+      } else {
+        final Collection<String> values = mutator.getStringValues(object);
+        if (values != null) {
+          for (String value : values) {
+            if (value != null) {
+              writeString(mutator.getName(), value);
+            }
+          }
+        }
+      }
+    }
+    put((byte) '\n');
+  }
+
+
+  /**
+   * Writes a line containing the supplied name and string value, base64
+   * encoding the value if it is not a safe string.
+   *
+   * @param  name  of the attribute
+   * @param  value  to write
+   *
+   * @throws  IOException  if full buffers cannot be written
+   */
+  private void writeString(final String name, final String value)
+    throws IOException
+  {
+    if (isSafe(value)) {
+      writeAttributeName(name, false);
+      writeAscii(value);
+    } else {
+      writeAttributeName(name, true);
+      writeBase64(scratch, encodeUtf8(value));
+    }
+    put((byte) '\n');
+  }
+
+
+  /**
+   * Writes the supplied attribute name followed by the value separator.
+   *
+   * @param  name  of the attribute
+   * @param  base64  whether the value is base64 encoded
+   *
+   * @throws  IOException  if full buffers cannot be written
+   */
+  private void writeAttributeName(final String name, final boolean base64)
+    throws IOException
+  {
+    writeAscii(name);
+    put((byte) ':');
+    if (base64) {
+      put((byte) ':');
+    }
+    put((byte) ' ');
+  }
+
+
+  /**
+   * Writes the supplied string, which must only contain ASCII characters.
+   *
+   * @param  s  to write
+   *
+   * @throws  IOException  if full buffers cannot be written
+   */
+  private void writeAscii(final String s)
+    throws IOException
+  {
+    int i = 0;
+    while (i < s.length()) {
+      if (!buffer.hasRemaining()) {
+        nextBuffer();
+      }
+      final int end = Math.min(s.length(), i + buffer.remaining());
+      for (; i < end; i++) {
+        buffer.put((byte) s.charAt(i));
+      }
+    }
+  }
+
+
+  /**
+   * Writes the base64 encoding of the supplied bytes.
+   *
+   * @param  b  bytes to encode
+   * @param  len  number of bytes to encode
+   *
+   * @throws  IOException  if full buffers cannot be written
+   */
+  private void writeBase64(final byte[] b, final int len)
+    throws IOException
+  {
+    int i = 0;
+    for (; i + 2 < len; i += 3) {
+      final int bits =
+        (b[i] & 0xff) << 16 | (b[i + 1] & 0xff) << 8 | b[i + 2] & 0xff;
+      ensureRemaining(4);
+      buffer.put(BASE64[bits >>> 18]);
+      buffer.put(BASE64[bits >>> 12 & 0x3f]);
+      buffer.put(BASE64[bits >>> 6 & 0x3f]);
+      buffer.put(BASE64[bits & 0x3f]);
+    }
+    if (i < len) {
+      final int bits = (b[i] & 0xff) << 16 |
+        (i + 1 < len ? (b[i + 1] & 0xff) << 8 : 0);
+      ensureRemaining(4);
+      buffer.put(BASE64[bits >>> 18]);
+      buffer.put(BASE64[bits >>> 12 & 0x3f]);
+      buffer.put(i + 1 < len ? BASE64[bits >>> 6 & 0x3f] : (byte) '=');
+      buffer.put((byte) '=');
+    }
+  }
+
+
+  /**
+   * Encodes the supplied string as UTF-8 into the scratch array, growing it
+   * as needed.
+   *
+   * @param  s  to encode
+   *
+   * @return  number of bytes encoded
+   */
+  private int encodeUtf8(final String s)
+  {
+    if (scratch.length < s.length() * 3) {
+      scratch = new byte[s.length() * 3];
+    }
+    int len = 0;
+    for (int i = 0; i < s.length(); i++) {
+      final char c = s.charAt(i);
+      if (c < 0x80) {
+        scratch[len++] = (byte) c;
+      } else if (c < 0x800) {
+        scratch[len++] = (byte) (0xc0 | c >> 6);
+        scratch[len++] = (byte) (0x80 | c & 0x3f);
+      } else if (Character.isHighSurrogate(c) && i + 1 < s.length() &&
+                 Character.isLowSurrogate(s.charAt(i + 1))) {
+        final int cp = Character.toCodePoint(c, s.charAt(++i));
+        scratch[len++] = (byte) (0xf0 | cp >> 18);
+        scratch[len++] = (byte) (0x80 | cp >> 12 & 0x3f);
+        scratch[len++] = (byte) (0x80 | cp >> 6 & 0x3f);
+        scratch[len++] = (byte) (0x80 | cp & 0x3f);
+      } else if (Character.isSurrogate(c)) {
+        // unpaired surrogate, encoded as '?' like String.getBytes
+        scratch[len++] = (byte) '?';
+      } else {
+        scratch[len++] = (byte) (0xe0 | c >> 12);
+        scratch[len++] = (byte) (0x80 | c >> 6 & 0x3f);
+        scratch[len++] = (byte) (0x80 | c & 0x3f);
+      }
+    }
+    return len;
+  }
+
+
+  /**
+   * Returns whether the supplied value is a safe string as defined by RFC
+   * 2849 and may be written without base64 encoding. Values with trailing
+   * spaces are not considered safe.
+   *
+   * @param  value  to check
+   *
+   * @return  whether value is a safe string
+   */
+  static boolean isSafe(final String value)
+  {
+    if (value.isEmpty()) {
+      return true;
+    }
+    final char first = value.charAt(0);
+    if (first == ' ' || first == ':' || first == '<') {
+      return false;
+    }
+    if (value.charAt(value.length() - 1) == ' ') {
+      return false;
+    }
+    for (int i = 0; i < value.length(); i++) {
+      final char c = value.charAt(i);
+      if (c == 0 || c == '\n' || c == '\r' || c > 0x7f) {
+        return false;
+      }
+    }
+    return true;
+  }
+
+
+  /**
+   * Writes a single byte.
+   *
+   * @param  b  to write
+   *
+   * @throws  IOException  if full buffers cannot be written
+   */
+  private void put(final byte b)
+    throws IOException
+  {
+    if (!buffer.hasRemaining()) {
+      nextBuffer();
+    }
+    buffer.put(b);
+  }
+
+
+  /**
+   * Moves to the next buffer if the current buffer has fewer than the
+   * supplied number of bytes remaining.
+   *
+   * @param  n  number of bytes, no more than the buffer size
+   *
+   * @throws  IOException  if full buffers cannot be written
+   */
+  private void ensureRemaining(final int n)
+    throws IOException
+  {
+    if (buffer.remaining() < n) {
+      nextBuffer();
+    }
+  }
+
+
+  /**
+   * Moves to the next buffer, writing all buffers if the last one is full.
+   *
+   * @throws  IOException  if full buffers cannot be written
+   */
+  private void nextBuffer()
+    throws IOException
+  {
+    if (current + 1 < buffers.length) {
+      buffer = buffers[++current];
+    } else {
+      flush();
+    }
+  }
+
+
+  /**
+   * Writes the filled buffers to the channel and resets them.
+   *
+   * @throws  IOException  if the buffers cannot be written
+   */
+  private void flush()
+    throws IOException
+  {
+    final int count = current + 1;
+    for (int i = 0; i < count; i++) {
+      buffers[i].flip();
+      byteCount += buffers[i].remaining();
+    }
+    if (channel instanceof GatheringByteChannel) {
+      final GatheringByteChannel gc = (GatheringByteChannel) channel;
+      while (buffers[current].hasRemaining()) {
+        gc.write(buffers, 0, count);
+      }
+    } else {
+      for (int i = 0; i < count; i++) {
+        while (buffers[i].hasRemaining()) {
+          channel.write(buffers[i]);
+        }
+      }
+    }
+    for (int i = 0; i < count; i++) {
+      buffers[i].clear();
+    }
+    current = 0;
+    buffer = buffers[0];
+  }
+
+
+  /** {@inheritDoc} */
+  @Override
+  public String toString()
+  {
+    return String.format(
+      "[%s@%d::registry=%s, bufferSize=%s, bufferCount=%s]",
+      getClass().getName(),
+      hashCode(),
+      registry,
+      bufferSize,
+      bufferCount);
+  }
+
+
+  /** Number of entries and bytes written by an export and its duration. */
+  public static class Result
+  {
+
+    /** Number of entries written. */
+    private final long entryCount;
+
+    /** Number of bytes written. */
+    private final long byteCount;
+
+    /** Duration of the export in nanoseconds. */
+    private final long time;
+
+
+    /**
+     * Creates a new result.
+     *
+     * @param  entries  number of entries written
+     * @param  bytes  number of bytes written
+     * @param  nanos  duration of the export
+     */
+    Result(final long entries, final long bytes, final long nanos)
+    {
+      entryCount = entries;
+      byteCount = bytes;
+      time = nanos;
+    }
+
+
+    /**
+     * Returns the number of entries written.
+     *
+     * @return  entry count
+     */
+    public long getEntryCount()
+    {
+      return entryCount;
+    }
+
+
+    /**
+     * Returns the number of bytes written.
+     *
+     * @return  byte count
+     */
+    public long getByteCount()
+    {
+      return byteCount;
+    }
+
+
+    /**
+     * Returns the duration of the export.
+     *
+     * @return  time in nanoseconds
+     */
+    public long getTime()
+    {
+      return time;
+    }
+
+
+    /**
+     * Returns the number of entries written per second.
+     *
+     * @return  entry throughput
+     */
+    public double getEntriesPerSecond()
+    {
+      return time > 0 ? entryCount * NANOS_PER_SECOND / time : 0;
+    }
+
+
+    /**
+     * Returns the number of megabytes written per second.
+     *
+     * @return  byte throughput in MB/s
+     */
+    public double getMegabytesPerSecond()
+    {
+      return time > 0 ?
+        byteCount / BYTES_PER_MEGABYTE * NANOS_PER_SECOND / time : 0;
+    }
+
+
+    /** {@inheritDoc} */
+    @Override
+    public String toString()
+    {
+      return String.format(
+        "[%s@%d::entryCount=%s, byteCount=%s, time=%s, " +
+        "entriesPerSecond=%.1f, megabytesPerSecond=%.2f]",
+        getClass().getName(),
+        hashCode(),
+        entryCount,
+        byteCount,
+        time,
+        getEntriesPerSecond(),
+        getMegabytesPerSecond());
+    }
+  }
+}
@@ -0,0 +1,169 @@
+/*
+  $Id$
+
+  Copyright (C) 2003-2014 Virginia Tech.
+  All rights reserved.
+
+  SEE LICENSE FOR MORE INFORMATION
+
+  Author:  Middleware Services
+  Email:   middleware@vt.edu
+  Version: $Revision$
+  Updated: $Date$
+*/
+package org.ldaptive.beans.metrics;
+
+import java.util.concurrent.atomic.AtomicLong;
+import org.ldaptive.beans.MappingDirection;
+
+/**
+ * Base class for the timings and failures recorded for a mapped type or
+ * attribute.
+ *
+ * @author  Middleware Services
+ * @version  $Revision$ $Date$
+ */
+public abstract class AbstractMetrics implements MetricsMXBean
+{
+
+  /** Encode times. */
+  private final Histogram encodeTimes = new Histogram();
+
+  /** Decode times. */
+  private final Histogram decodeTimes = new Histogram();
+
+  /** Number of failures. */
+  private final AtomicLong failureCount = new AtomicLong();
+
+
+  /**
+   * Returns the histogram of times for the supplied direction.
+   *
+   * @param  direction  of the mappings
+   *
+   * @return  encode times for {@link MappingDirection#OBJECT_TO_ENTRY},
+   * otherwise decode times
+   */
+  public Histogram getTimes(final MappingDirection direction)
+  {
+    return direction == MappingDirection.OBJECT_TO_ENTRY ?
+      encodeTimes : decodeTimes;
+  }
+
+
+  /**
+   * Records the time of a mapping.
+   *
+   * @param  direction  of the mapping
+   * @param  time  in nanoseconds
+   */
+  public void recordTime(final MappingDirection direction, final long time)
+  {
+    getTimes(direction).record(time);
+  }
+
+
+  /** Records a failed mapping. */
+  public void recordFailure()
+  {
+    failureCount.incrementAndGet();
+  }
+
+
+  /** {@inheritDoc} */
+  @Override
+  public long getEncodeCount()
+  {
+    return encodeTimes.getCount();
+  }
+
+
+  /** {@inheritDoc} */
+  @Override
+  public double getEncodeMeanTime()
+  {
+    return encodeTimes.getMean();
+  }
+
+
+  /** {@inheritDoc} */
+  @Override
+  public long getEncodeMedianTime()
+  {
+    return encodeTimes.getValueAtPercentile(50);
+  }
+
+
+  /** {@inheritDoc} */
+  @Override
+  public long getEncode99thPercentileTime()
+  {
+    return encodeTimes.getValueAtPercentile(99);
+  }
+
+
+  /** {@inheritDoc} */
+  @Override
+  public long getEncodeMaxTime()
+  {
+    return encodeTimes.getMax();
+  }
+
+
+  /** {@inheritDoc} */
+  @Override
+  public long getDecodeCount()
+  {
+    return decodeTimes.getCount();
+  }
+
+
+  /** {@inheritDoc} */
+  @Override
+  public double getDecodeMeanTime()
+  {
+    return decodeTimes.getMean();
+  }
+
+
+  /** {@inheritDoc} */
+  @Override
+  public long getDecodeMedianTime()
+  {
+    return decodeTimes.getValueAtPercentile(50);
+  }
+
+
+  /** {@inheritDoc} */
+  @Override
+  public long getDecode99thPercentileTime()
+  {
+    return decodeTimes.getValueAtPercentile(99);
+  }
+
+
+  /** {@inheritDoc} */
+  @Override
+  public long getDecodeMaxTime()
+  {
+    return decodeTimes.getMax();
+  }
+
+
+  /** {@inheritDoc} */
+  @Override
+  public long getFailureCount()
+  {
+    return failureCount.get();
+  }
+
+
+  /** {@inheritDoc} */
+  @Override
+  public void reset()
+  {
+    encodeTimes.reset();
+    decodeTimes.reset();
+    failureCount.set(0);
+  }
+}
@@ -0,0 +1,146 @@
+/*
+  $Id$
+
+  Copyright (C) 2003-2014 Virginia Tech.
+  All rights reserved.
+
+  SEE LICENSE FOR MORE INFORMATION
+
+  Author:  Middleware Services
+  Email:   middleware@vt.edu
+  Version: $Revision$
+  Updated: $Date$
+*/
+package org.ldaptive.beans.metrics;
+
+/**
+ * Metrics recorded for an attribute of a mapped type.
+ *
+ * @author  Middleware Services
+ * @version  $Revision$ $Date$
+ */
+public class AttributeMetrics extends AbstractMetrics
+  implements AttributeMetricsMXBean
+{
+
+  /** Mapped type. */
+  private final Class<?> type;
+
+  /** Attribute name. */
+  private final String attributeName;
+
+  /** Number of values per mapping. */
+  private final Histogram valueCounts = new Histogram();
+
+
+  /**
+   * Creates new attribute metrics.
+   *
+   * @param  t  mapped type
+   * @param  name  of the attribute
+   */
+  public AttributeMetrics(final Class<?> t, final String name)
+  {
+    type = t;
+    attributeName = name;
+  }
+
+
+  /**
+   * Returns the mapped type.
+   *
+   * @return  type
+   */
+  public Class<?> getType()
+  {
+    return type;
+  }
+
+
+  /** {@inheritDoc} */
+  @Override
+  public String getTypeName()
+  {
+    return type.getName();
+  }
+
+
+  /** {@inheritDoc} */
+  @Override
+  public String getAttributeName()
+  {
+    return attributeName;
+  }
+
+
+  /**
+   * Returns the histogram of the number of values per mapping.
+   *
+   * @return  value counts
+   */
+  public Histogram getValueCounts()
+  {
+    return valueCounts;
+  }
+
+
+  /**
+   * Records the number of values in a mapping.
+   *
+   * @param  count  of values
+   */
+  public void recordValueCount(final int count)
+  {
+    valueCounts.record(count);
+  }
+
+
+  /** {@inheritDoc} */
+  @Override
+  public double getMeanValueCount()
+  {
+    return valueCounts.getMean();
+  }
+
+
+  /** {@inheritDoc} */
+  @Override
+  public long getValueCount99thPercentile()
+  {
+    return valueCounts.getValueAtPercentile(99);
+  }
+
+
+  /** {@inheritDoc} */
+  @Override
+  public long getMaxValueCount()
+  {
+    return valueCounts.getMax();
+  }
+
+
+  /** {@inheritDoc} */
+  @Override
+  public void reset()
+  {
+    super.reset();
+    valueCounts.reset();
+  }
+
+
+  /** {@inheritDoc} */
+  @Override
+  public String toString()
+  {
+    return String.format(
+      "[%s@%d::type=%s, attributeName=%s, encodeCount=%s, decodeCount=%s, " +
+      "failureCount=%s]",
+      getClass().getName(),
+      hashCode(),
+      type,
+      attributeName,
+      getEncodeCount(),
+      getDecodeCount(),
+      getFailureCount());
+  }
+}
@@ -0,0 +1,65 @@
+/*
+  $Id$
+
+  Copyright (C) 2003-2014 Virginia Tech.
+  All rights reserved.
+
+  SEE LICENSE FOR MORE INFORMATION
+
+  Author:  Middleware Services
+  Email:   middleware@vt.edu
+  Version: $Revision$
+  Updated: $Date$
+*/
+package org.ldaptive.beans.metrics;
+
+/**
+ * Management interface of the metrics recorded for an attribute of a mapped
+ * type. Times are the time spent transcoding the attribute values.
+ *
+ * @author  Middleware Services
+ * @version  $Revision$ $Date$
+ */
+public interface AttributeMetricsMXBean extends MetricsMXBean
+{
+
+
+  /**
+   * Returns the name of the mapped type.
+   *
+   * @return  type name
+   */
+  String getTypeName();
+
+
+  /**
+   * Returns the name of the attribute.
+   *
+   * @return  attribute name
+   */
+  String getAttributeName();
+
+
+  /**
+   * Returns the mean number of values per mapping.
+   *
+   * @return  mean value count
+   */
+  double getMeanValueCount();
+
+
+  /**
+   * Returns the 99th percentile number of values per mapping.
+   *
+   * @return  99th percentile value count
+   */
+  long getValueCount99thPercentile();
+
+
+  /**
+   * Returns the largest number of values in a mapping.
+   *
+   * @return  max value count
+   */
+  long getMaxValueCount();
+}
@@ -0,0 +1,141 @@
+/*
+  $Id$
+
+  Copyright (C) 2003-2014 Virginia Tech.
+  All rights reserved.
+
+  SEE LICENSE FOR MORE INFORMATION
+
+  Author:  Middleware Services
+  Email:   middleware@vt.edu
+  Version: $Revision$
+  Updated: $Date$
+*/
+package org.ldaptive.beans.metrics;
+
+import java.util.Collection;
+import java.util.Collections;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * Metrics recorded for a mapped type, and for each of its attributes.
+ *
+ * @author  Middleware Services
+ * @version  $Revision$ $Date$
+ */
+public class ClassMetrics extends AbstractMetrics implements ClassMetricsMXBean
+{
+
+  /** Mapped type. */
+  private final Class<?> type;
+
+  /** Metrics of each attribute. */
+  private final ConcurrentMap<String, AttributeMetrics> attributes =
+    new ConcurrentHashMap<String, AttributeMetrics>();
+
+
+  /**
+   * Creates new class metrics.
+   *
+   * @param  t  mapped type
+   */
+  public ClassMetrics(final Class<?> t)
+  {
+    type = t;
+  }
+
+
+  /**
+   * Returns the mapped type.
+   *
+   * @return  type
+   */
+  public Class<?> getType()
+  {
+    return type;
+  }
+
+
+  /** {@inheritDoc} */
+  @Override
+  public String getTypeName()
+  {
+    return type.getName();
+  }
+
+
+  /** {@inheritDoc} */
+  @Override
+  public String[] getAttributeNames()
+  {
+    return attributes.keySet().toArray(new String[0]);
+  }
+
+
+  /**
+   * Returns the metrics of the supplied attribute.
+   *
+   * @param  name  of the attribute
+   *
+   * @return  attribute metrics or null if none have been recorded
+   */
+  public AttributeMetrics getAttributeMetrics(final String name)
+  {
+    return attributes.get(name);
+  }
+
+
+  /**
+   * Returns the metrics of all attributes.
+   *
+   * @return  unmodifiable collection of attribute metrics
+   */
+  public Collection<AttributeMetrics> getAttributeMetrics()
+  {
+    return Collections.unmodifiableCollection(attributes.values());
+  }
+
+
+  /**
+   * Adds the supplied attribute metrics if none exist for its attribute.
+   *
+   * @param  metrics  to add
+   *
+   * @return  existing metrics of the attribute or null if metrics was added
+   */
+  AttributeMetrics putAttributeMetricsIfAbsent(final AttributeMetrics metrics)
+  {
+    return attributes.putIfAbsent(metrics.getAttributeName(), metrics);
+  }
+
+
+  /**
+   * Resets the values recorded for this type and each of its attributes.
+   */
+  @Override
+  public void reset()
+  {
+    super.reset();
+    for (AttributeMetrics metrics : attributes.values()) {
+      metrics.reset();
+    }
+  }
+
+
+  /** {@inheritDoc} */
+  @Override
+  public String toString()
+  {
+    return String.format(
+      "[%s@%d::type=%s, encodeCount=%s, decodeCount=%s, failureCount=%s, " +
+      "attributes=%s]",
+      getClass().getName(),
+      hashCode(),
+      type,
+      getEncodeCount(),
+      getDecodeCount(),
+      getFailureCount(),
+      attributes.keySet());
+  }
+}
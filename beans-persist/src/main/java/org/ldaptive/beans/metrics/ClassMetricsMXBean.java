@@ -0,0 +1,40 @@
+/*
+  $Id$
+
+  Copyright (C) 2003-2014 Virginia Tech.
+  All rights reserved.
+
+  SEE LICENSE FOR MORE INFORMATION
+
+  Author:  Middleware Services
+  Email:   middleware@vt.edu
+  Version: $Revision$
+  Updated: $Date$
+*/
+package org.ldaptive.beans.metrics;
+
+/**
+ * Management interface of the metrics recorded for a mapped type.
+ *
+ * @author  Middleware Services
+ * @version  $Revision$ $Date$
+ */
+public interface ClassMetricsMXBean extends MetricsMXBean
+{
+
+
+  /**
+   * Returns the name of the mapped type.
+   *
+   * @return  type name
+   */
+  String getTypeName();
+
+
+  /**
+   * Returns the names of the attributes that metrics have been recorded for.
+   *
+   * @return  attribute names
+   */
+  String[] getAttributeNames();
+}
@@ -0,0 +1,192 @@
+/*
+  $Id$
+
+  Copyright (C) 2003-2014 Virginia Tech.
+  All rights reserved.
+
+  SEE LICENSE FOR MORE INFORMATION
+
+  Author:  Middleware Services
+  Email:   middleware@vt.edu
+  Version: $Revision$
+  Updated: $Date$
+*/
+package org.ldaptive.beans.metrics;
+
+import java.util.Collection;
+import java.util.Collections;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import org.ldaptive.beans.MappingDirection;
+
+/**
+ * Mapping metrics that keep a {@link ClassMetrics} for each mapped type and an
+ * {@link AttributeMetrics} for each of its attributes. Recording a
+ * measurement costs two hash lookups and a few atomic updates; metrics are
+ * created the first time a type or attribute is seen and are never removed.
+ *
+ * @author  Middleware Services
+ * @version  $Revision$ $Date$
+ */
+public class DefaultMappingMetrics implements MappingMetrics
+{
+
+  /** Metrics of each mapped type. */
+  private final ConcurrentMap<Class<?>, ClassMetrics> classes =
+    new ConcurrentHashMap<Class<?>, ClassMetrics>();
+
+
+  /** {@inheritDoc} */
+  @Override
+  public void recordMapping(
+    final Class<?> type,
+    final MappingDirection direction,
+    final long time)
+  {
+    getOrCreateClassMetrics(type).recordTime(direction, time);
+  }
+
+
+  /** {@inheritDoc} */
+  @Override
+  public void recordAttribute(
+    final Class<?> type,
+    final String attribute,
+    final MappingDirection direction,
+    final long time,
+    final int valueCount)
+  {
+    final AttributeMetrics metrics = getOrCreateAttributeMetrics(
+      getOrCreateClassMetrics(type), attribute);
+    metrics.recordTime(direction, time);
+    metrics.recordValueCount(valueCount);
+  }
+
+
+  /** {@inheritDoc} */
+  @Override
+  public void recordFailure(
+    final Class<?> type,
+    final String attribute,
+    final MappingDirection direction,
+    final RuntimeException e)
+  {
+    final ClassMetrics metrics = getOrCreateClassMetrics(type);
+    metrics.recordFailure();
+    if (attribute != null) {
+      getOrCreateAttributeMetrics(metrics, attribute).recordFailure();
+    }
+  }
+
+
+  /**
+   * Returns the metrics of the supplied type.
+   *
+   * @param  type  mapped type
+   *
+   * @return  class metrics or null if none have been recorded
+   */
+  public ClassMetrics getClassMetrics(final Class<?> type)
+  {
+    return classes.get(type);
+  }
+
+
+  /**
+   * Returns the metrics of all mapped types.
+   *
+   * @return  unmodifiable collection of class metrics
+   */
+  public Collection<ClassMetrics> getClassMetrics()
+  {
+    return Collections.unmodifiableCollection(classes.values());
+  }
+
+
+  /** Resets the values recorded for all types and attributes. */
+  public void reset()
+  {
+    for (ClassMetrics metrics : classes.values()) {
+      metrics.reset();
+    }
+  }
+
+
+  /**
+   * Invoked once when the metrics of a type are created, on the thread that
+   * created them.
+   *
+   * @param  metrics  that were created
+   */
+  protected void classMetricsCreated(final ClassMetrics metrics) {}
+
+
+  /**
+   * Invoked once when the metrics of an attribute are created, on the thread
+   * that created them.
+   *
+   * @param  metrics  that were created
+   */
+  protected void attributeMetricsCreated(final AttributeMetrics metrics) {}
+
+
+  /**
+   * Returns the metrics of the supplied type, creating them if necessary.
+   *
+   * @param  type  mapped type
+   *
+   * @return  class metrics
+   */
+  private ClassMetrics getOrCreateClassMetrics(final Class<?> type)
+  {
+    ClassMetrics metrics = classes.get(type);
+    if (metrics == null) {
+      final ClassMetrics created = new ClassMetrics(type);
+      metrics = classes.putIfAbsent(type, created);
+      if (metrics == null) {
+        metrics = created;
+        classMetricsCreated(created);
+      }
+    }
+    return metrics;
+  }
+
+
+  /**
+   * Returns the metrics of the supplied attribute, creating them if
+   * necessary.
+   *
+   * @param  classMetrics  of the mapped type
+   * @param  attribute  name of the attribute
+   *
+   * @return  attribute metrics
+   */
+  private AttributeMetrics getOrCreateAttributeMetrics(
+    final ClassMetrics classMetrics,
+    final String attribute)
+  {
+    AttributeMetrics metrics = classMetrics.getAttributeMetrics(attribute);
+    if (metrics == null) {
+      final AttributeMetrics created = new AttributeMetrics(
+        classMetrics.getType(), attribute);
+      metrics = classMetrics.putAttributeMetricsIfAbsent(created);
+      if (metrics == null) {
+        metrics = created;
+        attributeMetricsCreated(created);
+      }
+    }
+    return metrics;
+  }
+
+
+  /** {@inheritDoc} */
+  @Override
+  public String toString()
+  {
+    return String.format(
+      "[%s@%d::classes=%s]",
+      getClass().getName(),
+      hashCode(),
+      classes.keySet());
+  }
+}
@@ -0,0 +1,215 @@
+/*
+  $Id$
+
+  Copyright (C) 2003-2014 Virginia Tech.
+  All rights reserved.
+
+  SEE LICENSE FOR MORE INFORMATION
+
+  Author:  Middleware Services
+  Email:   middleware@vt.edu
+  Version: $Revision$
+  Updated: $Date$
+*/
+package org.ldaptive.beans.metrics;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Concurrent histogram of non-negative long values with log linear buckets.
+ * Values below {@link #SUB_BUCKET_COUNT} are counted exactly; larger values
+ * are counted in buckets that split each power of two into {@link
+ * #SUB_BUCKET_COUNT} equal parts, so any recorded value is reported within
+ * about 3% of its actual value. The bucket array is fixed in size and covers
+ * the full range of long, so recording never allocates or locks.
+ *
+ * @author  Middleware Services
+ * @version  $Revision$ $Date$
+ */
+public class Histogram
+{
+
+  /** Number of bits of precision in each power of two. */
+  private static final int SUB_BUCKET_BITS = 5;
+
+  /** Number of buckets each power of two is split into. */
+  public static final int SUB_BUCKET_COUNT = 1 << SUB_BUCKET_BITS;
+
+  /** Number of buckets needed to cover all non-negative longs. */
+  private static final int BUCKET_COUNT =
+    SUB_BUCKET_COUNT * (Long.SIZE - SUB_BUCKET_BITS);
+
+  /** Count of values in each bucket. */
+  private final AtomicLongArray counts = new AtomicLongArray(BUCKET_COUNT);
+
+  /** Number of values recorded. */
+  private final AtomicLong count = new AtomicLong();
+
+  /** Sum of values recorded. */
+  private final AtomicLong total = new AtomicLong();
+
+  /** Largest value recorded. */
+  private final AtomicLong max = new AtomicLong();
+
+
+  /**
+   * Records a value. Negative values are recorded as zero.
+   *
+   * @param  value  to record
+   */
+  public void record(final long value)
+  {
+    final long v = value < 0 ? 0 : value;
+    counts.incrementAndGet(bucketIndex(v));
+    count.incrementAndGet();
+    total.addAndGet(v);
+    long current = max.get();
+    while (v > current) {
+      if (max.compareAndSet(current, v)) {
+        break;
+      }
+      current = max.get();
+    }
+  }
+
+
+  /**
+   * Returns the number of values recorded.
+   *
+   * @return  count
+   */
+  public long getCount()
+  {
+    return count.get();
+  }
+
+
+  /**
+   * Returns the sum of the values recorded.
+   *
+   * @return  total
+   */
+  public long getTotal()
+  {
+    return total.get();
+  }
+
+
+  /**
+   * Returns the largest value recorded.
+   *
+   * @return  max or zero if no values were recorded
+   */
+  public long getMax()
+  {
+    return max.get();
+  }
+
+
+  /**
+   * Returns the mean of the values recorded.
+   *
+   * @return  mean or zero if no values were recorded
+   */
+  public double getMean()
+  {
+    final long c = count.get();
+    return c == 0 ? 0 : (double) total.get() / c;
+  }
+
+
+  /**
+   * Returns the value at the supplied percentile. The highest value that
+   * falls in the same bucket as the percentile is returned, limited to the
+   * largest value recorded.
+   *
+   * @param  percentile  between 0 and 100
+   *
+   * @return  value at percentile or zero if no values were recorded
+   */
+  public long getValueAtPercentile(final double percentile)
+  {
+    if (percentile < 0 || percentile > 100) {
+      throw new IllegalArgumentException(
+        "Percentile must be between 0 and 100");
+    }
+    final long c = count.get();
+    if (c == 0) {
+      return 0;
+    }
+    final long target = Math.max(1, (long) Math.ceil(c * percentile / 100));
+    long seen = 0;
+    for (int i = 0; i < BUCKET_COUNT; i++) {
+      seen += counts.get(i);
+      if (seen >= target) {
+        return Math.min(highestValue(i), max.get());
+      }
+    }
+    return max.get();
+  }
+
+
+  /** Removes all recorded values. */
+  public void reset()
+  {
+    for (int i = 0; i < BUCKET_COUNT; i++) {
+      counts.set(i, 0);
+    }
+    count.set(0);
+    total.set(0);
+    max.set(0);
+  }
+
+
+  /**
+   * Returns the index of the bucket that counts the supplied value.
+   *
+   * @param  value  non-negative value
+   *
+   * @return  bucket index
+   */
+  static int bucketIndex(final long value)
+  {
+    if (value < SUB_BUCKET_COUNT) {
+      return (int) value;
+    }
+    final int shift = Long.SIZE - 1 - Long.numberOfLeadingZeros(value) -
+      SUB_BUCKET_BITS;
+    return (shift + 1) * SUB_BUCKET_COUNT +
+      (int) (value >>> shift) - SUB_BUCKET_COUNT;
+  }
+
+
+  /**
+   * Returns the highest value counted by the supplied bucket.
+   *
+   * @param  index  of the bucket
+   *
+   * @return  highest value in the bucket
+   */
+  static long highestValue(final int index)
+  {
+    if (index < SUB_BUCKET_COUNT) {
+      return index;
+    }
+    final int shift = index / SUB_BUCKET_COUNT - 1;
+    final long lowest =
+      (long) (SUB_BUCKET_COUNT + index % SUB_BUCKET_COUNT) << shift;
+    return lowest + (1L << shift) - 1;
+  }
+
+
+  /** {@inheritDoc} */
+  @Override
+  public String toString()
+  {
+    return String.format(
+      "[%s@%d::count=%s, mean=%s, max=%s]",
+      getClass().getName(),
+      hashCode(),
+      getCount(),
+      getMean(),
+      getMax());
+  }
+}
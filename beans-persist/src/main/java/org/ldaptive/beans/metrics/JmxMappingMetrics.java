@@ -0,0 +1,221 @@
+/*
+  $Id$
+
+  Copyright (C) 2003-2014 Virginia Tech.
+  All rights reserved.
+
+  SEE LICENSE FOR MORE INFORMATION
+
+  Author:  Middleware Services
+  Email:   middleware@vt.edu
+  Version: $Revision$
+  Updated: $Date$
+*/
+package org.ldaptive.beans.metrics;
+
+import java.lang.management.ManagementFactory;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import javax.management.JMException;
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Mapping metrics that register an MXBean for each mapped type and attribute
+ * as soon as it is first seen. Type MXBeans are named
+ * <code>domain:type=MappingMetrics,class=name</code> and attribute MXBeans
+ * add an <code>attribute=name</code> key. Registration failures are logged
+ * and do not affect mapping.
+ *
+ * @author  Middleware Services
+ * @version  $Revision$ $Date$
+ */
+public class JmxMappingMetrics extends DefaultMappingMetrics
+{
+
+  /** Default domain of object names, value is {@value}. */
+  public static final String DEFAULT_DOMAIN = "org.ldaptive.beans";
+
+  /** Logger for this class. */
+  protected final Logger logger = LoggerFactory.getLogger(getClass());
+
+  /** Server to register MXBeans with. */
+  private final MBeanServer mbeanServer;
+
+  /** Domain of object names. */
+  private final String domain;
+
+  /** Names of the registered MXBeans. */
+  private final Queue<ObjectName> registered =
+    new ConcurrentLinkedQueue<ObjectName>();
+
+
+  /**
+   * Creates new jmx mapping metrics that register with the platform mbean
+   * server in the default domain.
+   */
+  public JmxMappingMetrics()
+  {
+    this(ManagementFactory.getPlatformMBeanServer(), DEFAULT_DOMAIN);
+  }
+
+
+  /**
+   * Creates new jmx mapping metrics.
+   *
+   * @param  server  to register MXBeans with
+   * @param  d  domain of object names
+   */
+  public JmxMappingMetrics(final MBeanServer server, final String d)
+  {
+    if (server == null) {
+      throw new IllegalArgumentException("MBean server cannot be null");
+    }
+    if (d == null) {
+      throw new IllegalArgumentException("Domain cannot be null");
+    }
+    mbeanServer = server;
+    domain = d;
+  }
+
+
+  /**
+   * Returns the mbean server.
+   *
+   * @return  mbean server
+   */
+  public MBeanServer getMBeanServer()
+  {
+    return mbeanServer;
+  }
+
+
+  /**
+   * Returns the domain of object names.
+   *
+   * @return  domain
+   */
+  public String getDomain()
+  {
+    return domain;
+  }
+
+
+  /**
+   * Returns the object name of the MXBean for the supplied type.
+   *
+   * @param  type  mapped type
+   *
+   * @return  object name
+   *
+   * @throws  JMException  if the name is invalid
+   */
+  public ObjectName getObjectName(final Class<?> type)
+    throws JMException
+  {
+    return new ObjectName(
+      String.format(
+        "%s:type=MappingMetrics,class=%s",
+        domain,
+        ObjectName.quote(type.getName())));
+  }
+
+
+  /**
+   * Returns the object name of the MXBean for the supplied attribute.
+   *
+   * @param  type  mapped type
+   * @param  attribute  name of the attribute
+   *
+   * @return  object name
+   *
+   * @throws  JMException  if the name is invalid
+   */
+  public ObjectName getObjectName(final Class<?> type, final String attribute)
+    throws JMException
+  {
+    return new ObjectName(
+      String.format(
+        "%s:type=MappingMetrics,class=%s,attribute=%s",
+        domain,
+        ObjectName.quote(type.getName()),
+        ObjectName.quote(attribute)));
+  }
+
+
+  /** Unregisters all MXBeans registered by these metrics. */
+  public void unregister()
+  {
+    ObjectName name = registered.poll();
+    while (name != null) {
+      try {
+        mbeanServer.unregisterMBean(name);
+      } catch (JMException e) {
+        logger.warn("could not unregister {}", name, e);
+      }
+      name = registered.poll();
+    }
+  }
+
+
+  /** {@inheritDoc} */
+  @Override
+  protected void classMetricsCreated(final ClassMetrics metrics)
+  {
+    try {
+      register(metrics, getObjectName(metrics.getType()));
+    } catch (JMException e) {
+      logger.warn("could not register metrics for {}", metrics.getType(), e);
+    }
+  }
+
+
+  /** {@inheritDoc} */
+  @Override
+  protected void attributeMetricsCreated(final AttributeMetrics metrics)
+  {
+    try {
+      register(
+        metrics,
+        getObjectName(metrics.getType(), metrics.getAttributeName()));
+    } catch (JMException e) {
+      logger.warn(
+        "could not register metrics for {} attribute {}",
+        metrics.getType(),
+        metrics.getAttributeName(),
+        e);
+    }
+  }
+
+
+  /**
+   * Registers the supplied MXBean.
+   *
+   * @param  mxbean  to register
+   * @param  name  of the MXBean
+   *
+   * @throws  JMException  if registration fails
+   */
+  private void register(final Object mxbean, final ObjectName name)
+    throws JMException
+  {
+    mbeanServer.registerMBean(mxbean, name);
+    registered.add(name);
+  }
+
+
+  /** {@inheritDoc} */
+  @Override
+  public String toString()
+  {
+    return String.format(
+      "[%s@%d::mbeanServer=%s, domain=%s, registered=%s]",
+      getClass().getName(),
+      hashCode(),
+      mbeanServer,
+      domain,
+      registered.size());
+  }
+}
@@ -0,0 +1,71 @@
+/*
+  $Id$
+
+  Copyright (C) 2003-2014 Virginia Tech.
+  All rights reserved.
+
+  SEE LICENSE FOR MORE INFORMATION
+
+  Author:  Middleware Services
+  Email:   middleware@vt.edu
+  Version: $Revision$
+  Updated: $Date$
+*/
+package org.ldaptive.beans.metrics;
+
+import org.ldaptive.beans.MappingDirection;
+
+/**
+ * Receives measurements of mappings performed by an ldap entry mapper.
+ * Implementations are invoked on the mapping thread, possibly from many
+ * threads at once, and should record measurements without blocking.
+ *
+ * @author  Middleware Services
+ * @version  $Revision$ $Date$
+ */
+public interface MappingMetrics
+{
+
+
+  /**
+   * Records a completed mapping of an object.
+   *
+   * @param  type  of object mapped
+   * @param  direction  of the mapping
+   * @param  time  spent mapping in nanoseconds
+   */
+  void recordMapping(Class<?> type, MappingDirection direction, long time);
+
+
+  /**
+   * Records a completed mapping of a single attribute.
+   *
+   * @param  type  of object mapped
+   * @param  attribute  name of the attribute
+   * @param  direction  of the mapping
+   * @param  time  spent transcoding the attribute in nanoseconds
+   * @param  valueCount  number of attribute values
+   */
+  void recordAttribute(
+    Class<?> type,
+    String attribute,
+    MappingDirection direction,
+    long time,
+    int valueCount);
+
+
+  /**
+   * Records a mapping that failed.
+   *
+   * @param  type  of object mapped
+   * @param  attribute  name of the attribute that failed or null if the
+   * failure could not be attributed to an attribute
+   * @param  direction  of the mapping
+   * @param  e  exception thrown by the mapping
+   */
+  void recordFailure(
+    Class<?> type,
+    String attribute,
+    MappingDirection direction,
+    RuntimeException e);
+}
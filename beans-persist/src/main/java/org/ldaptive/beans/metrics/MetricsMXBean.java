@@ -0,0 +1,118 @@
+/*
+  $Id$
+
+  Copyright (C) 2003-2014 Virginia Tech.
+  All rights reserved.
+
+  SEE LICENSE FOR MORE INFORMATION
+
+  Author:  Middleware Services
+  Email:   middleware@vt.edu
+  Version: $Revision$
+  Updated: $Date$
+*/
+package org.ldaptive.beans.metrics;
+
+/**
+ * Management interface of the timings and failures recorded for a mapped
+ * type or attribute. Encode refers to mapping objects to ldap entries, decode
+ * to mapping ldap entries to objects. All times are in nanoseconds.
+ *
+ * @author  Middleware Services
+ * @version  $Revision$ $Date$
+ */
+public interface MetricsMXBean
+{
+
+
+  /**
+   * Returns the number of encodes.
+   *
+   * @return  encode count
+   */
+  long getEncodeCount();
+
+
+  /**
+   * Returns the mean encode time.
+   *
+   * @return  mean encode time in nanoseconds
+   */
+  double getEncodeMeanTime();
+
+
+  /**
+   * Returns the median encode time.
+   *
+   * @return  median encode time in nanoseconds
+   */
+  long getEncodeMedianTime();
+
+
+  /**
+   * Returns the 99th percentile encode time.
+   *
+   * @return  99th percentile encode time in nanoseconds
+   */
+  long getEncode99thPercentileTime();
+
+
+  /**
+   * Returns the longest encode time.
+   *
+   * @return  max encode time in nanoseconds
+   */
+  long getEncodeMaxTime();
+
+
+  /**
+   * Returns the number of decodes.
+   *
+   * @return  decode count
+   */
+  long getDecodeCount();
+
+
+  /**
+   * Returns the mean decode time.
+   *
+   * @return  mean decode time in nanoseconds
+   */
+  double getDecodeMeanTime();
+
+
+  /**
+   * Returns the median decode time.
+   *
+   * @return  median decode time in nanoseconds
+   */
+  long getDecodeMedianTime();
+
+
+  /**
+   * Returns the 99th percentile decode time.
+   *
+   * @return  99th percentile decode time in nanoseconds
+   */
+  long getDecode99thPercentileTime();
+
+
+  /**
+   * Returns the longest decode time.
+   *
+   * @return  max decode time in nanoseconds
+   */
+  long getDecodeMaxTime();
+
+
+  /**
+   * Returns the number of failed mappings.
+   *
+   * @return  failure count
+   */
+  long getFailureCount();
+
+
+  /** Resets all recorded values. */
+  void reset();
+}
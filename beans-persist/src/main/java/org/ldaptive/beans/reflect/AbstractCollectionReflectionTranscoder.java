@@ -13,9 +13,7 @@
 */
 package org.ldaptive.beans.reflect;
 
-import java.util.ArrayList;
 import java.util.Collection;
-import java.util.List;
 
 /**
  * Reflection transcoder for an object that implements a {@link Collection}.
@@ -78,9 +76,7 @@ public abstract class AbstractCollectionReflectionTranscoder
       decoded.add(arrayTranscoder.decodeStringValues(values));
     } else {
       for (String value : values) {
-        final List<String> l = new ArrayList<String>(1);
-        l.add(value);
-        decoded.add(singleValueTranscoder.decodeStringValues(l));
+        decoded.add(singleValueTranscoder.decodeStringValue(value));
       }
     }
     return decoded;
@@ -96,9 +92,7 @@ public abstract class AbstractCollectionReflectionTranscoder
       decoded.add(arrayTranscoder.decodeBinaryValues(values));
     } else {
       for (byte[] value : values) {
-        final List<byte[]> l = new ArrayList<byte[]>(1);
-        l.add(value);
-        decoded.add(singleValueTranscoder.decodeBinaryValues(l));
+        decoded.add(singleValueTranscoder.decodeBinaryValue(value));
       }
     }
     return decoded;
@@ -114,7 +108,7 @@ public abstract class AbstractCollectionReflectionTranscoder
       if (arrayTranscoder != null) {
         encoded.addAll(arrayTranscoder.encodeStringValues(o));
       } else {
-        encoded.addAll(singleValueTranscoder.encodeStringValues(o));
+        encoded.add(singleValueTranscoder.encodeStringValue(o));
       }
     }
     return encoded;
@@ -130,7 +124,7 @@ public abstract class AbstractCollectionReflectionTranscoder
       if (arrayTranscoder != null) {
         encoded.addAll(arrayTranscoder.encodeBinaryValues(o));
       } else {
-        encoded.addAll(singleValueTranscoder.encodeBinaryValues(o));
+        encoded.add(singleValueTranscoder.encodeBinaryValue(o));
       }
     }
     return encoded;
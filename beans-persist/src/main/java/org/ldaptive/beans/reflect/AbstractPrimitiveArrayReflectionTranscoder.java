@@ -0,0 +1,194 @@
+/*
+  $Id$
+
+  Copyright (C) 2003-2014 Virginia Tech.
+  All rights reserved.
+
+  SEE LICENSE FOR MORE INFORMATION
+
+  Author:  Middleware Services
+  Email:   middleware@vt.edu
+  Version: $Revision$
+  Updated: $Date$
+*/
+package org.ldaptive.beans.reflect;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import org.ldaptive.LdapUtils;
+
+/**
+ * Base class for reflection transcoders of primitive arrays. Values are parsed
+ * directly into the array and formatted directly from it, without boxing each
+ * element. Binary values are UTF-8 encoded strings, subclasses may parse and
+ * format them without an intermediate string.
+ *
+ * @param  <A>  type of primitive array
+ *
+ * @author  Middleware Services
+ * @version  $Revision$ $Date$
+ */
+public abstract class AbstractPrimitiveArrayReflectionTranscoder<A>
+  implements ReflectionTranscoder
+{
+
+  /** Type of primitive array. */
+  private final Class<A> type;
+
+
+  /**
+   * Creates a new abstract primitive array reflection transcoder.
+   *
+   * @param  c  type of primitive array
+   */
+  protected AbstractPrimitiveArrayReflectionTranscoder(final Class<A> c)
+  {
+    type = c;
+  }
+
+
+  /** {@inheritDoc} */
+  @Override
+  public Object decodeStringValues(final Collection<String> values)
+  {
+    final A decoded = createArray(values.size());
+    int i = 0;
+    for (String value : values) {
+      decodeStringValue(decoded, i++, value);
+    }
+    return decoded;
+  }
+
+
+  /** {@inheritDoc} */
+  @Override
+  public Object decodeBinaryValues(final Collection<byte[]> values)
+  {
+    final A decoded = createArray(values.size());
+    int i = 0;
+    for (byte[] value : values) {
+      decodeBinaryValue(decoded, i++, value);
+    }
+    return decoded;
+  }
+
+
+  /** {@inheritDoc} */
+  @Override
+  public Collection<String> encodeStringValues(final Object values)
+  {
+    final A array = type.cast(values);
+    final int length = getLength(array);
+    final List<String> encoded = new ArrayList<String>(length);
+    for (int i = 0; i < length; i++) {
+      encoded.add(encodeStringValue(array, i));
+    }
+    return encoded;
+  }
+
+
+  /** {@inheritDoc} */
+  @Override
+  public Collection<byte[]> encodeBinaryValues(final Object values)
+  {
+    final A array = type.cast(values);
+    final int length = getLength(array);
+    final List<byte[]> encoded = new ArrayList<byte[]>(length);
+    for (int i = 0; i < length; i++) {
+      encoded.add(encodeBinaryValue(array, i));
+    }
+    return encoded;
+  }
+
+
+  /**
+   * Returns a new array of the supplied length.
+   *
+   * @param  length  of the array
+   *
+   * @return  primitive array
+   */
+  protected abstract A createArray(int length);
+
+
+  /**
+   * Returns the length of the supplied array.
+   *
+   * @param  array  to inspect
+   *
+   * @return  array length
+   */
+  protected abstract int getLength(A array);
+
+
+  /**
+   * Parses the supplied value into the array at the supplied index.
+   *
+   * @param  array  to store the value in
+   * @param  index  of the element
+   * @param  value  to parse
+   */
+  protected abstract void decodeStringValue(A array, int index, String value);
+
+
+  /**
+   * Formats the array element at the supplied index as a string.
+   *
+   * @param  array  to read the value from
+   * @param  index  of the element
+   *
+   * @return  string attribute value
+   */
+  protected abstract String encodeStringValue(A array, int index);
+
+
+  /**
+   * Parses the supplied UTF-8 value into the array at the supplied index.
+   *
+   * @param  array  to store the value in
+   * @param  index  of the element
+   * @param  value  to parse
+   */
+  protected void decodeBinaryValue(
+    final A array,
+    final int index,
+    final byte[] value)
+  {
+    decodeStringValue(array, index, LdapUtils.utf8Encode(value));
+  }
+
+
+  /**
+   * Formats the array element at the supplied index as UTF-8 bytes.
+   *
+   * @param  array  to read the value from
+   * @param  index  of the element
+   *
+   * @return  binary attribute value
+   */
+  protected byte[] encodeBinaryValue(final A array, final int index)
+  {
+    return LdapUtils.utf8Encode(encodeStringValue(array, index));
+  }
+
+
+  /** {@inheritDoc} */
+  @Override
+  public Class<?> getType()
+  {
+    return type;
+  }
+
+
+  /** {@inheritDoc} */
+  @Override
+  public String toString()
+  {
+    return String.format(
+      "[%s@%d::type=%s]",
+      getClass().getName(),
+      hashCode(),
+      type);
+  }
+}
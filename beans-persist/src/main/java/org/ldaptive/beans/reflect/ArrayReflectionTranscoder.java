@@ -53,9 +53,7 @@ public class ArrayReflectionTranscoder implements ReflectionTranscoder
       valueTranscoder.getType(), values.size());
     final Iterator<String> iter = values.iterator();
     for (int i = 0; i < values.size(); i++) {
-      final List<String> l = new ArrayList<String>(1);
-      l.add(iter.next());
-      Array.set(decoded, i, valueTranscoder.decodeStringValues(l));
+      Array.set(decoded, i, valueTranscoder.decodeStringValue(iter.next()));
     }
     return decoded;
   }
@@ -69,9 +67,7 @@ public class ArrayReflectionTranscoder implements ReflectionTranscoder
       valueTranscoder.getType(), values.size());
     final Iterator<byte[]> iter = values.iterator();
     for (int i = 0; i < values.size(); i++) {
-      final List<byte[]> l = new ArrayList<byte[]>(1);
-      l.add(iter.next());
-      Array.set(decoded, i, valueTranscoder.decodeBinaryValues(l));
+      Array.set(decoded, i, valueTranscoder.decodeBinaryValue(iter.next()));
     }
     return decoded;
   }
@@ -81,35 +77,36 @@ public class ArrayReflectionTranscoder implements ReflectionTranscoder
   @Override
   public Collection<String> encodeStringValues(final Object values)
   {
-    final List<String> encoded = new ArrayList<String>();
+    final List<String> encoded = new ArrayList<String>(
+      Array.getLength(values));
     if (values instanceof Object[]) {
       for (Object o : (Object[]) values) {
-        encoded.addAll(valueTranscoder.encodeStringValues(o));
+        encoded.add(valueTranscoder.encodeStringValue(o));
       }
     } else {
       if (values instanceof boolean[]) {
         for (boolean o : (boolean[]) values) {
-          encoded.addAll(valueTranscoder.encodeStringValues(o));
+          encoded.add(valueTranscoder.encodeStringValue(o));
         }
       } else if (values instanceof double[]) {
         for (double o : (double[]) values) {
-          encoded.addAll(valueTranscoder.encodeStringValues(o));
+          encoded.add(valueTranscoder.encodeStringValue(o));
         }
       } else if (values instanceof float[]) {
         for (float o : (float[]) values) {
-          encoded.addAll(valueTranscoder.encodeStringValues(o));
+          encoded.add(valueTranscoder.encodeStringValue(o));
         }
       } else if (values instanceof int[]) {
         for (int o : (int[]) values) {
-          encoded.addAll(valueTranscoder.encodeStringValues(o));
+          encoded.add(valueTranscoder.encodeStringValue(o));
         }
       } else if (values instanceof long[]) {
         for (long o : (long[]) values) {
-          encoded.addAll(valueTranscoder.encodeStringValues(o));
+          encoded.add(valueTranscoder.encodeStringValue(o));
         }
       } else if (values instanceof short[]) {
         for (short o : (short[]) values) {
-          encoded.addAll(valueTranscoder.encodeStringValues(o));
+          encoded.add(valueTranscoder.encodeStringValue(o));
         }
       } else {
         throw new IllegalArgumentException("Unsupported array type: " + values);
@@ -123,35 +120,36 @@ public class ArrayReflectionTranscoder implements ReflectionTranscoder
   @Override
   public Collection<byte[]> encodeBinaryValues(final Object values)
   {
-    final List<byte[]> encoded = new ArrayList<byte[]>();
+    final List<byte[]> encoded = new ArrayList<byte[]>(
+      Array.getLength(values));
     if (values instanceof Object[]) {
       for (Object o : (Object[]) values) {
-        encoded.addAll(valueTranscoder.encodeBinaryValues(o));
+        encoded.add(valueTranscoder.encodeBinaryValue(o));
       }
     } else {
       if (values instanceof boolean[]) {
         for (boolean o : (boolean[]) values) {
-          encoded.addAll(valueTranscoder.encodeBinaryValues(o));
+          encoded.add(valueTranscoder.encodeBinaryValue(o));
         }
       } else if (values instanceof double[]) {
         for (double o : (double[]) values) {
-          encoded.addAll(valueTranscoder.encodeBinaryValues(o));
+          encoded.add(valueTranscoder.encodeBinaryValue(o));
         }
       } else if (values instanceof float[]) {
         for (float o : (float[]) values) {
-          encoded.addAll(valueTranscoder.encodeBinaryValues(o));
+          encoded.add(valueTranscoder.encodeBinaryValue(o));
         }
       } else if (values instanceof int[]) {
         for (int o : (int[]) values) {
-          encoded.addAll(valueTranscoder.encodeBinaryValues(o));
+          encoded.add(valueTranscoder.encodeBinaryValue(o));
         }
       } else if (values instanceof long[]) {
         for (long o : (long[]) values) {
-          encoded.addAll(valueTranscoder.encodeBinaryValues(o));
+          encoded.add(valueTranscoder.encodeBinaryValue(o));
         }
       } else if (values instanceof short[]) {
         for (short o : (short[]) values) {
-          encoded.addAll(valueTranscoder.encodeBinaryValues(o));
+          encoded.add(valueTranscoder.encodeBinaryValue(o));
         }
       } else {
         throw new IllegalArgumentException("Unsupported array type: " + values);
@@ -0,0 +1,67 @@
+/*
+  $Id$
+
+  Copyright (C) 2003-2014 Virginia Tech.
+  All rights reserved.
+
+  SEE LICENSE FOR MORE INFORMATION
+
+  Author:  Middleware Services
+  Email:   middleware@vt.edu
+  Version: $Revision$
+  Updated: $Date$
+*/
+package org.ldaptive.beans.reflect;
+
+/**
+ * Reflection transcoder for boolean arrays.
+ *
+ * @author  Middleware Services
+ * @version  $Revision$ $Date$
+ */
+public class BooleanArrayReflectionTranscoder
+  extends AbstractPrimitiveArrayReflectionTranscoder<boolean[]>
+{
+
+
+  /** Default constructor. */
+  public BooleanArrayReflectionTranscoder()
+  {
+    super(boolean[].class);
+  }
+
+
+  /** {@inheritDoc} */
+  @Override
+  protected boolean[] createArray(final int length)
+  {
+    return new boolean[length];
+  }
+
+
+  /** {@inheritDoc} */
+  @Override
+  protected int getLength(final boolean[] array)
+  {
+    return array.length;
+  }
+
+
+  /** {@inheritDoc} */
+  @Override
+  protected void decodeStringValue(
+    final boolean[] array,
+    final int index,
+    final String value)
+  {
+    array[index] = Boolean.parseBoolean(value);
+  }
+
+
+  /** {@inheritDoc} */
+  @Override
+  protected String encodeStringValue(final boolean[] array, final int index)
+  {
+    return Boolean.toString(array[index]);
+  }
+}
@@ -0,0 +1,711 @@
+/*
+  $Id$
+
+  Copyright (C) 2003-2014 Virginia Tech.
+  All rights reserved.
+
+  SEE LICENSE FOR MORE INFORMATION
+
+  Author:  Middleware Services
+  Email:   middleware@vt.edu
+  Version: $Revision$
+  Updated: $Date$
+*/
+package org.ldaptive.beans.reflect;
+
+import java.beans.PropertyDescriptor;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.lang.reflect.Field;
+import java.lang.reflect.Method;
+import java.lang.reflect.Type;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import org.ldaptive.SortBehavior;
+import org.ldaptive.beans.Attribute;
+import org.ldaptive.beans.DnTemplate;
+import org.ldaptive.beans.Entry;
+
+/**
+ * Snapshot of the metadata that {@link DefaultClassDescriptor} derives from
+ * bean introspection: for each entry class, the member holding the DN and,
+ * for each attribute, its name, binary flag, sort behavior, the kind of
+ * accessor and the member it reads and writes along with its resolved generic
+ * type. A default class descriptor created with a snapshot looks members up
+ * by name instead of calling {@link java.beans.Introspector}, which is the
+ * bulk of the cost of initializing a descriptor in a new JVM.
+ *
+ * <p>Snapshots are created by introspecting classes once, at build time or on
+ * first run, and persisted with {@link #write(OutputStream)}. A snapshot entry
+ * that no longer matches its class, because a member was removed or its type
+ * changed or because the {@link Entry} annotation changed, is ignored and the
+ * class is introspected.</p>
+ *
+ * @author  Middleware Services
+ * @version  $Revision$ $Date$
+ */
+public final class ClassDescriptorSnapshot
+{
+
+  /** Magic number at the start of a serialized snapshot. */
+  private static final int MAGIC = 0x4c445344;
+
+  /** Version of the serialized format. */
+  private static final int VERSION = 2;
+
+  /** Metadata of each class by class name. */
+  private final Map<String, ClassMetadata> classes;
+
+
+  /**
+   * Creates a new class descriptor snapshot.
+   *
+   * @param  m  metadata of each class by class name
+   */
+  ClassDescriptorSnapshot(final Map<String, ClassMetadata> m)
+  {
+    classes = m;
+  }
+
+
+  /**
+   * Creates a snapshot by introspecting the supplied classes. Classes without
+   * an {@link Entry} annotation are ignored, as are classes whose DN is a
+   * {@link DnTemplate}; those are introspected when their
+   * descriptor is initialized.
+   *
+   * @param  types  to introspect
+   *
+   * @return  class descriptor snapshot
+   */
+  public static ClassDescriptorSnapshot create(
+    final Collection<Class<?>> types)
+  {
+    final Map<String, ClassMetadata> classes =
+      new LinkedHashMap<String, ClassMetadata>();
+    for (Class<?> type : types) {
+      final ClassMetadata metadata = describe(type);
+      if (metadata != null) {
+        classes.put(type.getName(), metadata);
+      }
+    }
+    return new ClassDescriptorSnapshot(classes);
+  }
+
+
+  /**
+   * Reads a snapshot written by {@link #write(OutputStream)}. The stream is
+   * not closed.
+   *
+   * @param  in  to read from
+   *
+   * @return  class descriptor snapshot
+   *
+   * @throws  IOException  if the stream cannot be read or does not contain a
+   * snapshot
+   */
+  public static ClassDescriptorSnapshot read(final InputStream in)
+    throws IOException
+  {
+    final DataInputStream data = new DataInputStream(in);
+    if (data.readInt() != MAGIC) {
+      throw new IOException("Not a class descriptor snapshot");
+    }
+    final int version = data.readInt();
+    if (version != VERSION) {
+      throw new IOException("Unsupported snapshot version " + version);
+    }
+    final int count = data.readInt();
+    final Map<String, ClassMetadata> classes =
+      new LinkedHashMap<String, ClassMetadata>(count * 2);
+    for (int i = 0; i < count; i++) {
+      final String name = data.readUTF();
+      final byte[] fingerprint = new byte[data.readInt()];
+      data.readFully(fingerprint);
+      final MemberMetadata dn = MemberMetadata.read(data);
+      final int attributeCount = data.readInt();
+      final List<AttributeMetadata> attributes =
+        new ArrayList<AttributeMetadata>(attributeCount);
+      for (int j = 0; j < attributeCount; j++) {
+        attributes.add(AttributeMetadata.read(data));
+      }
+      classes.put(
+        name,
+        new ClassMetadata(
+          new String(fingerprint, StandardCharsets.UTF_8), dn, attributes));
+    }
+    return new ClassDescriptorSnapshot(classes);
+  }
+
+
+  /**
+   * Writes this snapshot to the supplied stream. The stream is flushed but
+   * not closed.
+   *
+   * @param  out  to write to
+   *
+   * @throws  IOException  if the stream cannot be written
+   */
+  public void write(final OutputStream out)
+    throws IOException
+  {
+    final DataOutputStream data = new DataOutputStream(out);
+    data.writeInt(MAGIC);
+    data.writeInt(VERSION);
+    data.writeInt(classes.size());
+    for (Map.Entry<String, ClassMetadata> e : classes.entrySet()) {
+      data.writeUTF(e.getKey());
+      // may exceed the 64KB limit of writeUTF for large fixed values
+      final byte[] fingerprint = e.getValue().fingerprint.getBytes(
+        StandardCharsets.UTF_8);
+      data.writeInt(fingerprint.length);
+      data.write(fingerprint);
+      e.getValue().dn.write(data);
+      data.writeInt(e.getValue().attributes.size());
+      for (AttributeMetadata attr : e.getValue().attributes) {
+        attr.write(data);
+      }
+    }
+    data.flush();
+  }
+
+
+  /**
+   * Returns the names of the classes in this snapshot.
+   *
+   * @return  unmodifiable set of class names
+   */
+  public Set<String> getClassNames()
+  {
+    return Collections.unmodifiableSet(classes.keySet());
+  }
+
+
+  /**
+   * Returns whether this snapshot contains metadata for the supplied type.
+   *
+   * @param  type  to check
+   *
+   * @return  whether type is in this snapshot
+   */
+  public boolean contains(final Class<?> type)
+  {
+    return classes.containsKey(type.getName());
+  }
+
+
+  /**
+   * Returns the metadata of the supplied type.
+   *
+   * @param  type  to return metadata for
+   *
+   * @return  class metadata or null if type is not in this snapshot
+   */
+  ClassMetadata getClassMetadata(final Class<?> type)
+  {
+    return classes.get(type.getName());
+  }
+
+
+  /**
+   * Introspects the supplied type with the same rules as {@link
+   * DefaultClassDescriptor}: bean properties first, then fields for
+   * attributes that have no property, then attributes with fixed values.
+   *
+   * @param  type  to introspect
+   *
+   * @return  class metadata or null if type is not an entry class or its DN
+   * is a template
+   */
+  static ClassMetadata describe(final Class<?> type)
+  {
+    final Entry entry = type.getAnnotation(Entry.class);
+    if (entry == null) {
+      return null;
+    }
+    final Map<String, PropertyDescriptor> properties =
+      new MethodClassDescriptor().getPropertyDescriptors(type);
+    final Map<String, Field> fields = new FieldClassDescriptor()
+      .getDeclaredFields(type);
+
+    MemberMetadata dn = null;
+    final List<AttributeMetadata> attributes =
+      new ArrayList<AttributeMetadata>();
+    final Set<String> names = new HashSet<String>();
+    if (properties.containsKey(entry.dn())) {
+      dn = MemberMetadata.forProperty(properties.get(entry.dn()));
+    }
+    for (Attribute attr : entry.attributes()) {
+      final PropertyDescriptor pd = properties.get(attr.property());
+      if (pd != null) {
+        final AttributeMetadata metadata = new AttributeMetadata(
+          attr, pd.getName(), MemberMetadata.forProperty(pd));
+        attributes.add(metadata);
+        names.add(metadata.name.toLowerCase(Locale.ENGLISH));
+      }
+    }
+    if (dn == null && fields.containsKey(entry.dn())) {
+      dn = MemberMetadata.forField(fields.get(entry.dn()));
+    }
+    for (Attribute attr : entry.attributes()) {
+      final Field field = fields.get(attr.property());
+      if (field != null) {
+        final AttributeMetadata metadata = new AttributeMetadata(
+          attr, field.getName(), MemberMetadata.forField(field));
+        if (names.add(metadata.name.toLowerCase(Locale.ENGLISH))) {
+          attributes.add(metadata);
+        }
+      }
+    }
+    for (Attribute attr : entry.attributes()) {
+      if ("".equals(attr.property())) {
+        attributes.add(new AttributeMetadata(attr, null, null));
+      }
+    }
+    if (dn == null) {
+      if (DnTemplate.isTemplate(entry.dn())) {
+        return null;
+      }
+      dn = MemberMetadata.forValue(entry.dn());
+    }
+    return new ClassMetadata(fingerprint(entry), dn, attributes);
+  }
+
+
+  /**
+   * Returns a string that is equal for two entry annotations if and only if
+   * they declare the same DN and the same attributes in the same order.
+   *
+   * @param  entry  annotation to fingerprint
+   *
+   * @return  fingerprint of entry
+   */
+  static String fingerprint(final Entry entry)
+  {
+    final StringBuilder sb = new StringBuilder();
+    appendLengthPrefixed(sb, entry.dn());
+    sb.append(entry.attributes().length).append(';');
+    for (Attribute attr : entry.attributes()) {
+      appendLengthPrefixed(sb, attr.name());
+      appendLengthPrefixed(sb, attr.property());
+      sb.append(attr.binary() ? 'b' : 's');
+      appendLengthPrefixed(sb, attr.sortBehavior().name());
+      sb.append(attr.values().length).append(';');
+      for (String value : attr.values()) {
+        appendLengthPrefixed(sb, value);
+      }
+    }
+    return sb.toString();
+  }
+
+
+  /**
+   * Appends the length of the supplied string followed by the string, so that
+   * concatenated strings cannot be confused.
+   *
+   * @param  sb  to append to
+   * @param  s  to append
+   */
+  private static void appendLengthPrefixed(
+    final StringBuilder sb,
+    final String s)
+  {
+    sb.append(s.length()).append(':').append(s);
+  }
+
+
+  /** {@inheritDoc} */
+  @Override
+  public String toString()
+  {
+    return String.format(
+      "[%s@%d::classes=%s]",
+      getClass().getName(),
+      hashCode(),
+      classes.keySet());
+  }
+
+
+  /** Metadata of an entry class. */
+  static final class ClassMetadata
+  {
+
+    /** Fingerprint of the entry annotation the metadata was derived from. */
+    final String fingerprint;
+
+    /** Member or value of the DN. */
+    final MemberMetadata dn;
+
+    /** Attributes in the order their mutators are added. */
+    final List<AttributeMetadata> attributes;
+
+
+    /**
+     * Creates new class metadata.
+     *
+     * @param  f  fingerprint of the entry annotation
+     * @param  d  member or value of the DN
+     * @param  attrs  attributes in the order their mutators are added
+     */
+    ClassMetadata(
+      final String f,
+      final MemberMetadata d,
+      final List<AttributeMetadata> attrs)
+    {
+      fingerprint = f;
+      dn = d;
+      attributes = attrs;
+    }
+  }
+
+
+  /** Metadata of an attribute. */
+  static final class AttributeMetadata
+  {
+
+    /** Attribute name. */
+    final String name;
+
+    /** Whether the attribute is binary. */
+    final boolean binary;
+
+    /** Sort behavior of the attribute. */
+    final SortBehavior sortBehavior;
+
+    /** Member the attribute maps to, null for fixed values. */
+    final MemberMetadata member;
+
+    /** Fixed values, null if the attribute maps to a member. */
+    final String[] values;
+
+
+    /**
+     * Creates new attribute metadata.
+     *
+     * @param  attr  annotation of the attribute
+     * @param  property  name of the property, used if the annotation has no
+     * name
+     * @param  m  member the attribute maps to or null for fixed values
+     */
+    AttributeMetadata(
+      final Attribute attr,
+      final String property,
+      final MemberMetadata m)
+    {
+      this(
+        "".equals(attr.name()) && property != null ? property : attr.name(),
+        attr.binary(),
+        attr.sortBehavior(),
+        m,
+        m == null ? attr.values() : null);
+    }
+
+
+    /**
+     * Creates new attribute metadata.
+     *
+     * @param  n  attribute name
+     * @param  b  whether the attribute is binary
+     * @param  sb  sort behavior
+     * @param  m  member the attribute maps to or null for fixed values
+     * @param  v  fixed values or null
+     */
+    AttributeMetadata(
+      final String n,
+      final boolean b,
+      final SortBehavior sb,
+      final MemberMetadata m,
+      final String[] v)
+    {
+      name = n;
+      binary = b;
+      sortBehavior = sb;
+      member = m;
+      values = v;
+    }
+
+
+    /**
+     * Reads attribute metadata.
+     *
+     * @param  in  to read from
+     *
+     * @return  attribute metadata
+     *
+     * @throws  IOException  if the stream cannot be read
+     */
+    static AttributeMetadata read(final DataInputStream in)
+      throws IOException
+    {
+      final String name = in.readUTF();
+      final boolean binary = in.readBoolean();
+      final SortBehavior sortBehavior = SortBehavior.valueOf(in.readUTF());
+      if (in.readBoolean()) {
+        return new AttributeMetadata(
+          name, binary, sortBehavior, MemberMetadata.read(in), null);
+      }
+      final String[] values = new String[in.readInt()];
+      for (int i = 0; i < values.length; i++) {
+        values[i] = in.readUTF();
+      }
+      return new AttributeMetadata(name, binary, sortBehavior, null, values);
+    }
+
+
+    /**
+     * Writes this attribute metadata.
+     *
+     * @param  out  to write to
+     *
+     * @throws  IOException  if the stream cannot be written
+     */
+    void write(final DataOutputStream out)
+      throws IOException
+    {
+      out.writeUTF(name);
+      out.writeBoolean(binary);
+      out.writeUTF(sortBehavior.name());
+      out.writeBoolean(member != null);
+      if (member != null) {
+        member.write(out);
+      } else {
+        out.writeInt(values.length);
+        for (String value : values) {
+          out.writeUTF(value);
+        }
+      }
+    }
+  }
+
+
+  /**
+   * Metadata of the member an attribute or DN maps to: a bean property, a
+   * field or a fixed value.
+   */
+  static final class MemberMetadata
+  {
+
+    /** Kind of a fixed value. */
+    static final byte VALUE = 0;
+
+    /** Kind of a bean property accessed with methods. */
+    static final byte PROPERTY = 1;
+
+    /** Kind of a field. */
+    static final byte FIELD = 2;
+
+    /** Kind of member. */
+    final byte kind;
+
+    /** Read method name, field name or fixed value. */
+    final String name;
+
+    /** Write method name, null for fields, values and read only properties. */
+    final String writeName;
+
+    /** String form of the generic type of the member, null for values. */
+    final String genericType;
+
+
+    /**
+     * Creates new member metadata.
+     *
+     * @param  k  kind of member
+     * @param  n  read method name, field name or fixed value
+     * @param  w  write method name or null
+     * @param  t  string form of the generic type or null
+     */
+    MemberMetadata(
+      final byte k,
+      final String n,
+      final String w,
+      final String t)
+    {
+      kind = k;
+      name = n;
+      writeName = w;
+      genericType = t;
+    }
+
+
+    /**
+     * Returns metadata for the supplied bean property.
+     *
+     * @param  pd  property descriptor
+     *
+     * @return  member metadata
+     */
+    static MemberMetadata forProperty(final PropertyDescriptor pd)
+    {
+      final Method read = pd.getReadMethod();
+      return new MemberMetadata(
+        PROPERTY,
+        read.getName(),
+        pd.getWriteMethod() != null ? pd.getWriteMethod().getName() : null,
+        read.getGenericReturnType().toString());
+    }
+
+
+    /**
+     * Returns metadata for the supplied field.
+     *
+     * @param  field  to describe
+     *
+     * @return  member metadata
+     */
+    static MemberMetadata forField(final Field field)
+    {
+      return new MemberMetadata(
+        FIELD, field.getName(), null, field.getGenericType().toString());
+    }
+
+
+    /**
+     * Returns metadata for a fixed value.
+     *
+     * @param  value  fixed value
+     *
+     * @return  member metadata
+     */
+    static MemberMetadata forValue(final String value)
+    {
+      return new MemberMetadata(VALUE, value, null, null);
+    }
+
+
+    /**
+     * Returns the read method of this property on the supplied type.
+     *
+     * @param  type  declaring the property
+     *
+     * @return  read method
+     *
+     * @throws  NoSuchMethodException  if the method does not exist or its
+     * type has changed
+     */
+    Method getReadMethod(final Class<?> type)
+      throws NoSuchMethodException
+    {
+      final Method method = type.getMethod(name);
+      checkType(method.getGenericReturnType());
+      return method;
+    }
+
+
+    /**
+     * Returns the write method of this property on the supplied type.
+     *
+     * @param  type  declaring the property
+     * @param  read  method of the property
+     *
+     * @return  write method or null if the property is read only
+     *
+     * @throws  NoSuchMethodException  if the method does not exist
+     */
+    Method getWriteMethod(final Class<?> type, final Method read)
+      throws NoSuchMethodException
+    {
+      if (writeName == null) {
+        return null;
+      }
+      return type.getMethod(writeName, read.getReturnType());
+    }
+
+
+    /**
+     * Returns this field on the supplied type.
+     *
+     * @param  type  declaring the field
+     *
+     * @return  field
+     *
+     * @throws  NoSuchFieldException  if the field does not exist or its type
+     * has changed
+     */
+    Field getField(final Class<?> type)
+      throws NoSuchFieldException
+    {
+      final Field field = type.getDeclaredField(name);
+      try {
+        checkType(field.getGenericType());
+      } catch (NoSuchMethodException e) {
+        throw new NoSuchFieldException(e.getMessage());
+      }
+      return field;
+    }
+
+
+    /**
+     * Checks that the supplied type matches the type recorded in this
+     * metadata.
+     *
+     * @param  type  of the member
+     *
+     * @throws  NoSuchMethodException  if the type has changed
+     */
+    private void checkType(final Type type)
+      throws NoSuchMethodException
+    {
+      if (!type.toString().equals(genericType)) {
+        throw new NoSuchMethodException(
+          String.format(
+            "Type of %s changed from %s to %s", name, genericType, type));
+      }
+    }
+
+
+    /**
+     * Reads member metadata.
+     *
+     * @param  in  to read from
+     *
+     * @return  member metadata
+     *
+     * @throws  IOException  if the stream cannot be read
+     */
+    static MemberMetadata read(final DataInputStream in)
+      throws IOException
+    {
+      final byte kind = in.readByte();
+      final String name = in.readUTF();
+      if (kind == VALUE) {
+        return forValue(name);
+      }
+      final String writeName = in.readBoolean() ? in.readUTF() : null;
+      return new MemberMetadata(kind, name, writeName, in.readUTF());
+    }
+
+
+    /**
+     * Writes this member metadata.
+     *
+     * @param  out  to write to
+     *
+     * @throws  IOException  if the stream cannot be written
+     */
+    void write(final DataOutputStream out)
+      throws IOException
+    {
+      out.writeByte(kind);
+      out.writeUTF(name);
+      if (kind != VALUE) {
+        out.writeBoolean(writeName != null);
+        if (writeName != null) {
+          out.writeUTF(writeName);
+        }
+        out.writeUTF(genericType);
+      }
+    }
+  }
+}
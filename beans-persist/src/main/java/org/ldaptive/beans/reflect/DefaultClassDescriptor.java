@@ -13,14 +13,31 @@
 */
 package org.ldaptive.beans.reflect;
 
+import java.beans.PropertyDescriptor;
+import java.lang.reflect.Field;
+import java.lang.reflect.Method;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import org.ldaptive.SortBehavior;
 import org.ldaptive.beans.AbstractClassDescriptor;
 import org.ldaptive.beans.Attribute;
 import org.ldaptive.beans.AttributeValueMutator;
+import org.ldaptive.beans.DnTemplate;
+import org.ldaptive.beans.DnValueMutator;
 import org.ldaptive.beans.Entry;
+import org.ldaptive.beans.reflect.ClassDescriptorSnapshot.AttributeMetadata;
+import org.ldaptive.beans.reflect.ClassDescriptorSnapshot.ClassMetadata;
+import org.ldaptive.beans.reflect.ClassDescriptorSnapshot.MemberMetadata;
 
 /**
  * Default implementation of a class descriptor. Reads the {@link Entry}
  * annotation and sets the appropriate DN and attribute value mutators.
+ * A DN containing placeholders is compiled into a {@link DnTemplate} whose
+ * placeholders name properties or fields of the type. If a {@link
+ * ClassDescriptorSnapshot} containing the type is supplied, mutators are
+ * created from the members recorded in the snapshot rather than
+ * by bean introspection.
  *
  * @author  Middleware Services
  * @version  $Revision$ $Date$
@@ -28,6 +45,70 @@ import org.ldaptive.beans.Entry;
 public class DefaultClassDescriptor extends AbstractClassDescriptor
 {
 
+  /** Factory for creating property accessors. */
+  private final PropertyAccessorFactory accessorFactory;
+
+  /** Snapshot of descriptor metadata, may be null. */
+  private final ClassDescriptorSnapshot snapshot;
+
+
+  /**
+   * Creates a new default class descriptor that uses a {@link
+   * MethodHandlePropertyAccessorFactory}.
+   */
+  public DefaultClassDescriptor()
+  {
+    this(new MethodHandlePropertyAccessorFactory());
+  }
+
+
+  /**
+   * Creates a new default class descriptor.
+   *
+   * @param  factory  for creating property accessors
+   */
+  public DefaultClassDescriptor(final PropertyAccessorFactory factory)
+  {
+    this(factory, null);
+  }
+
+
+  /**
+   * Creates a new default class descriptor.
+   *
+   * @param  factory  for creating property accessors
+   * @param  s  snapshot of descriptor metadata, may be null
+   */
+  public DefaultClassDescriptor(
+    final PropertyAccessorFactory factory,
+    final ClassDescriptorSnapshot s)
+  {
+    accessorFactory = factory;
+    snapshot = s;
+  }
+
+
+  /**
+   * Returns the property accessor factory.
+   *
+   * @return  property accessor factory
+   */
+  public PropertyAccessorFactory getPropertyAccessorFactory()
+  {
+    return accessorFactory;
+  }
+
+
+  /**
+   * Returns the snapshot of descriptor metadata.
+   *
+   * @return  class descriptor snapshot or null
+   */
+  public ClassDescriptorSnapshot getClassDescriptorSnapshot()
+  {
+    return snapshot;
+  }
+
 
   /** {@inheritDoc} */
   @Override
@@ -36,10 +117,23 @@ public class DefaultClassDescriptor extends AbstractClassDescriptor
     // check for entry annotation
     final Entry entryAnnotation = type.getAnnotation(Entry.class);
     if (entryAnnotation != null) {
+      if (snapshot != null) {
+        final ClassMetadata metadata = snapshot.getClassMetadata(type);
+        if (metadata != null) {
+          if (!metadata.fingerprint.equals(
+                ClassDescriptorSnapshot.fingerprint(entryAnnotation))) {
+            logger.debug(
+              "snapshot of {} does not match its annotation, introspecting",
+              type);
+          } else if (initialize(type, metadata)) {
+            return;
+          }
+        }
+      }
 
       // add any method descriptors that match attributes
       final MethodClassDescriptor methodDescriptor =
-        new MethodClassDescriptor();
+        new MethodClassDescriptor(accessorFactory);
       methodDescriptor.initialize(type);
       if (methodDescriptor.getDnValueMutator() != null) {
         setDnValueMutator(methodDescriptor.getDnValueMutator());
@@ -47,7 +141,8 @@ public class DefaultClassDescriptor extends AbstractClassDescriptor
       addAttributeValueMutator(methodDescriptor.getAttributeValueMutators());
 
       // add any field descriptors that aren't available as method mutators
-      final FieldClassDescriptor fieldDescriptor = new FieldClassDescriptor();
+      final FieldClassDescriptor fieldDescriptor = new FieldClassDescriptor(
+        accessorFactory);
       fieldDescriptor.initialize(type);
       if (getDnValueMutator() == null &&
           fieldDescriptor.getDnValueMutator() != null) {
@@ -74,8 +169,181 @@ public class DefaultClassDescriptor extends AbstractClassDescriptor
 
       // if no DN mutator has been set, use the value in the annotation
       if (getDnValueMutator() == null) {
-        setDnValueMutator(new SimpleDnValueMutator(entryAnnotation.dn()));
+        if (DnTemplate.isTemplate(entryAnnotation.dn())) {
+          setDnValueMutator(
+            createTemplateDnValueMutator(
+              type,
+              DnTemplate.compile(entryAnnotation.dn()),
+              methodDescriptor,
+              fieldDescriptor));
+        } else {
+          setDnValueMutator(new SimpleDnValueMutator(entryAnnotation.dn()));
+        }
+      }
+    }
+  }
+
+
+  /**
+   * Returns a dn value mutator for the supplied template. Each placeholder is
+   * resolved to a bean property, or to a field if no property has its name.
+   *
+   * @param  type  declaring the placeholder properties
+   * @param  template  compiled DN template
+   * @param  methodDescriptor  to create property mutators with
+   * @param  fieldDescriptor  to create field mutators with
+   *
+   * @return  template dn value mutator
+   *
+   * @throws  IllegalArgumentException  if a placeholder names no property or
+   * field
+   */
+  private DnValueMutator createTemplateDnValueMutator(
+    final Class<?> type,
+    final DnTemplate template,
+    final MethodClassDescriptor methodDescriptor,
+    final FieldClassDescriptor fieldDescriptor)
+  {
+    final Map<String, PropertyDescriptor> descriptors =
+      methodDescriptor.getPropertyDescriptors(type);
+    final Map<String, Field> fields = fieldDescriptor.getDeclaredFields(type);
+    final List<DnValueMutator> mutators = new ArrayList<DnValueMutator>(
+      template.getPropertyNames().size());
+    for (String name : template.getPropertyNames()) {
+      final PropertyDescriptor pd = descriptors.get(name);
+      if (pd != null && pd.getReadMethod() != null) {
+        mutators.add(methodDescriptor.createDnValueMutator(pd));
+      } else if (fields.containsKey(name)) {
+        mutators.add(fieldDescriptor.createDnValueMutator(fields.get(name)));
+      } else {
+        throw new IllegalArgumentException(
+          "No property named '" + name + "' for DN template of " + type);
       }
     }
+    return new TemplateDnValueMutator(template, mutators);
+  }
+
+
+  /**
+   * Initializes this descriptor from snapshot metadata. Nothing is added if
+   * any member in the metadata no longer exists or has changed type.
+   *
+   * @param  type  to initialize
+   * @param  metadata  of the type
+   *
+   * @return  whether this descriptor was initialized
+   */
+  private boolean initialize(final Class<?> type, final ClassMetadata metadata)
+  {
+    final DnValueMutator dnMutator;
+    final List<AttributeValueMutator> mutators =
+      new ArrayList<AttributeValueMutator>(metadata.attributes.size());
+    try {
+      dnMutator = createDnValueMutator(type, metadata.dn);
+      for (AttributeMetadata attr : metadata.attributes) {
+        mutators.add(createAttributeValueMutator(type, attr));
+      }
+    } catch (NoSuchMethodException e) {
+      logger.debug("snapshot of {} is stale, introspecting", type, e);
+      return false;
+    } catch (NoSuchFieldException e) {
+      logger.debug("snapshot of {} is stale, introspecting", type, e);
+      return false;
+    }
+    setDnValueMutator(dnMutator);
+    addAttributeValueMutator(mutators);
+    return true;
+  }
+
+
+  /**
+   * Returns a dn value mutator for the supplied member metadata.
+   *
+   * @param  type  declaring the member
+   * @param  member  metadata of the DN
+   *
+   * @return  dn value mutator
+   *
+   * @throws  NoSuchMethodException  if a method in the metadata is stale
+   * @throws  NoSuchFieldException  if a field in the metadata is stale
+   */
+  private DnValueMutator createDnValueMutator(
+    final Class<?> type,
+    final MemberMetadata member)
+    throws NoSuchMethodException, NoSuchFieldException
+  {
+    if (member.kind == MemberMetadata.VALUE) {
+      return new SimpleDnValueMutator(member.name);
+    }
+    return new DefaultDnValueMutator(
+      createAttributeValueMutator(type, null, false, null, member));
+  }
+
+
+  /**
+   * Returns an attribute value mutator for the supplied attribute metadata.
+   *
+   * @param  type  declaring the attribute member
+   * @param  attr  metadata of the attribute
+   *
+   * @return  attribute value mutator
+   *
+   * @throws  NoSuchMethodException  if a method in the metadata is stale
+   * @throws  NoSuchFieldException  if a field in the metadata is stale
+   */
+  private AttributeValueMutator createAttributeValueMutator(
+    final Class<?> type,
+    final AttributeMetadata attr)
+    throws NoSuchMethodException, NoSuchFieldException
+  {
+    if (attr.member == null) {
+      return new SimpleAttributeValueMutator(
+        attr.name, attr.values, attr.binary, attr.sortBehavior);
+    }
+    return createAttributeValueMutator(
+      type, attr.name, attr.binary, attr.sortBehavior, attr.member);
+  }
+
+
+  /**
+   * Returns a method or field attribute value mutator for the supplied member
+   * metadata.
+   *
+   * @param  type  declaring the member
+   * @param  name  of the attribute
+   * @param  binary  whether the attribute is binary
+   * @param  sortBehavior  of the attribute
+   * @param  member  metadata of the member
+   *
+   * @return  attribute value mutator
+   *
+   * @throws  NoSuchMethodException  if a method in the metadata is stale
+   * @throws  NoSuchFieldException  if a field in the metadata is stale
+   */
+  private AbstractAttributeValueMutator createAttributeValueMutator(
+    final Class<?> type,
+    final String name,
+    final boolean binary,
+    final SortBehavior sortBehavior,
+    final MemberMetadata member)
+    throws NoSuchMethodException, NoSuchFieldException
+  {
+    if (member.kind == MemberMetadata.PROPERTY) {
+      final Method read = member.getReadMethod(type);
+      final Method write = member.getWriteMethod(type, read);
+      return new MethodAttributeValueMutator(
+        name,
+        binary,
+        sortBehavior,
+        new DefaultReflectionTranscoder(read.getGenericReturnType()),
+        accessorFactory.createPropertyAccessor(read, write));
+    }
+    final Field field = member.getField(type);
+    return new FieldAttributeValueMutator(
+      name,
+      binary,
+      sortBehavior,
+      new DefaultReflectionTranscoder(field.getGenericType()),
+      accessorFactory.createPropertyAccessor(field));
   }
 }
@@ -13,13 +13,24 @@
 */
 package org.ldaptive.beans.reflect;
 
-import java.util.HashMap;
-import java.util.Map;
+import org.ldaptive.LdapEntry;
 import org.ldaptive.beans.AbstractLdapEntryMapper;
 import org.ldaptive.beans.ClassDescriptor;
+import org.ldaptive.beans.ClassDescriptorFactory;
+import org.ldaptive.beans.ClassDescriptorRegistry;
+import org.ldaptive.beans.LdapEntryMapper;
+import org.ldaptive.beans.MappingDirection;
+import org.ldaptive.beans.MappingTrace;
+import org.ldaptive.beans.MappingTracer;
+import org.ldaptive.beans.generated.GeneratedLdapEntryMappers;
+import org.ldaptive.beans.metrics.MappingMetrics;
 
 /**
- * Stores the class descriptors for a specific object in a static map.
+ * Stores the class descriptors for a specific object in a static {@link
+ * ClassDescriptorRegistry}. If a mapper was generated for a type at compile
+ * time, see {@link GeneratedLdapEntryMappers}, that mapper is used instead of
+ * the class descriptor. Descriptors are created from a {@link
+ * ClassDescriptorSnapshot} if one has been set and contains the type.
  *
  * @param  <T>  type of object to map
  *
@@ -30,8 +41,77 @@ public class DefaultLdapEntryMapper<T> extends AbstractLdapEntryMapper<T>
 {
 
   /** Class descriptors for mapping objects. */
-  private static final Map<Class, ClassDescriptor> CLASS_DESCRIPTORS =
-    new HashMap<Class, ClassDescriptor>();
+  private static final ClassDescriptorRegistry CLASS_DESCRIPTORS =
+    new ClassDescriptorRegistry(
+      new ClassDescriptorFactory() {
+        @Override
+        public ClassDescriptor newClassDescriptor(final Class<?> type)
+        {
+          return new DefaultClassDescriptor(
+            new MethodHandlePropertyAccessorFactory(),
+            classDescriptorSnapshot);
+        }
+      });
+
+  /** Snapshot used to create class descriptors, may be null. */
+  private static volatile ClassDescriptorSnapshot classDescriptorSnapshot;
+
+  /** Whether to use generated mappers when they are available. */
+  private final boolean useGeneratedMappers;
+
+
+  /** Creates a new default ldap entry mapper that uses generated mappers. */
+  public DefaultLdapEntryMapper()
+  {
+    this(true);
+  }
+
+
+  /**
+   * Creates a new default ldap entry mapper.
+   *
+   * @param  b  whether to use generated mappers when they are available
+   */
+  public DefaultLdapEntryMapper(final boolean b)
+  {
+    useGeneratedMappers = b;
+  }
+
+
+  /**
+   * Returns the registry of class descriptors shared by all default ldap entry
+   * mappers.
+   *
+   * @return  class descriptor registry
+   */
+  public static ClassDescriptorRegistry getClassDescriptorRegistry()
+  {
+    return CLASS_DESCRIPTORS;
+  }
+
+
+  /**
+   * Returns the snapshot used to create class descriptors.
+   *
+   * @return  class descriptor snapshot or null
+   */
+  public static ClassDescriptorSnapshot getClassDescriptorSnapshot()
+  {
+    return classDescriptorSnapshot;
+  }
+
+
+  /**
+   * Sets the snapshot used to create class descriptors. Only affects
+   * descriptors that have not yet been created by the registry.
+   *
+   * @param  snapshot  class descriptor snapshot or null to introspect
+   */
+  public static void setClassDescriptorSnapshot(
+    final ClassDescriptorSnapshot snapshot)
+  {
+    classDescriptorSnapshot = snapshot;
+  }
 
 
   /** {@inheritDoc} */
@@ -40,17 +120,116 @@ public class DefaultLdapEntryMapper<T> extends AbstractLdapEntryMapper<T>
   {
     ClassDescriptor descriptor = null;
     if (object != null) {
-      final Class<?> clazz = object.getClass();
-      synchronized (CLASS_DESCRIPTORS) {
-        if (!CLASS_DESCRIPTORS.containsKey(clazz)) {
-          descriptor = new DefaultClassDescriptor();
-          descriptor.initialize(clazz);
-          CLASS_DESCRIPTORS.put(clazz, descriptor);
-        } else {
-          descriptor = CLASS_DESCRIPTORS.get(clazz);
+      descriptor = CLASS_DESCRIPTORS.getClassDescriptor(object.getClass());
+    }
+    return descriptor;
+  }
+
+
+  /**
+   * Returns the generated mapper for the supplied object.
+   *
+   * @param  object  to return the generated mapper for
+   *
+   * @return  generated mapper or null if none exists or generated mappers are
+   * not used
+   */
+  protected LdapEntryMapper<T> getGeneratedMapper(final T object)
+  {
+    if (!useGeneratedMappers || object == null) {
+      return null;
+    }
+    return GeneratedLdapEntryMappers.getLdapEntryMapper(object.getClass());
+  }
+
+
+  /** {@inheritDoc} */
+  @Override
+  public String getDn(final T object)
+  {
+    final LdapEntryMapper<T> generated = getGeneratedMapper(object);
+    if (generated != null) {
+      return generated.getDn(object);
+    }
+    return super.getDn(object);
+  }
+
+
+  /** {@inheritDoc} */
+  @Override
+  public void map(final T source, final LdapEntry dest)
+  {
+    final LdapEntryMapper<T> generated = getGeneratedMapper(source);
+    if (generated != null) {
+      final MappingTracer tracer = getMappingTracer();
+      final MappingMetrics metrics = getMappingMetrics();
+      if (tracer == null && metrics == null) {
+        generated.map(source, dest);
+        return;
+      }
+      final MappingTrace trace = tracer != null ?
+        tracer.start(source.getClass(), MappingDirection.OBJECT_TO_ENTRY) :
+        null;
+      final long start = System.nanoTime();
+      try {
+        generated.map(source, dest);
+      } catch (RuntimeException e) {
+        if (metrics != null) {
+          metrics.recordFailure(
+            source.getClass(), null, MappingDirection.OBJECT_TO_ENTRY, e);
         }
+        throw e;
+      }
+      if (metrics != null) {
+        metrics.recordMapping(
+          source.getClass(),
+          MappingDirection.OBJECT_TO_ENTRY,
+          System.nanoTime() - start);
       }
+      if (trace != null) {
+        tracer.end(trace, dest);
+      }
+    } else {
+      super.map(source, dest);
+    }
+  }
+
+
+  /** {@inheritDoc} */
+  @Override
+  public void map(final LdapEntry source, final T dest)
+  {
+    final LdapEntryMapper<T> generated = getGeneratedMapper(dest);
+    if (generated != null) {
+      final MappingTracer tracer = getMappingTracer();
+      final MappingMetrics metrics = getMappingMetrics();
+      if (tracer == null && metrics == null) {
+        generated.map(source, dest);
+        return;
+      }
+      final MappingTrace trace = tracer != null ?
+        tracer.start(dest.getClass(), MappingDirection.ENTRY_TO_OBJECT) : null;
+      final long start = System.nanoTime();
+      try {
+        generated.map(source, dest);
+      } catch (RuntimeException e) {
+        if (metrics != null) {
+          metrics.recordFailure(
+            dest.getClass(), null, MappingDirection.ENTRY_TO_OBJECT, e);
+        }
+        throw e;
+      }
+      if (metrics != null) {
+        metrics.recordMapping(
+          dest.getClass(),
+          MappingDirection.ENTRY_TO_OBJECT,
+          System.nanoTime() - start);
+      }
+      if (trace != null) {
+        tracer.end(trace, source);
+      }
+    } else {
+      super.map(source, dest);
     }
-    return descriptor;
   }
 }
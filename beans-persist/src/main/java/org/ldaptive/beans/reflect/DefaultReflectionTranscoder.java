@@ -63,6 +63,9 @@ public class DefaultReflectionTranscoder implements ReflectionTranscoder
       if (c.isArray()) {
         if (byte[].class == c || char[].class == c) {
           valueTranscoder = getSingleValueReflectionTranscoder(c);
+        } else if (c.getComponentType().isPrimitive()) {
+          valueTranscoder = getPrimitiveArrayReflectionTranscoder(
+            c.getComponentType());
         } else {
           valueTranscoder = new ArrayReflectionTranscoder(
             getSingleValueReflectionTranscoder(c.getComponentType()));
@@ -169,6 +172,37 @@ public class DefaultReflectionTranscoder implements ReflectionTranscoder
   }
 
 
+  /**
+   * Returns the appropriate primitive array transcoder for the supplied
+   * component type.
+   *
+   * @param  type  primitive component type of the array
+   *
+   * @return  primitive array reflection transcoder
+   */
+  protected ReflectionTranscoder getPrimitiveArrayReflectionTranscoder(
+    final Class<?> type)
+  {
+    ReflectionTranscoder transcoder;
+    if (boolean.class.equals(type)) {
+      transcoder = new BooleanArrayReflectionTranscoder();
+    } else if (double.class.equals(type)) {
+      transcoder = new DoubleArrayReflectionTranscoder();
+    } else if (float.class.equals(type)) {
+      transcoder = new FloatArrayReflectionTranscoder();
+    } else if (int.class.equals(type)) {
+      transcoder = new IntArrayReflectionTranscoder();
+    } else if (long.class.equals(type)) {
+      transcoder = new LongArrayReflectionTranscoder();
+    } else if (short.class.equals(type)) {
+      transcoder = new ShortArrayReflectionTranscoder();
+    } else {
+      throw new IllegalArgumentException("Unsupported type: " + type);
+    }
+    return transcoder;
+  }
+
+
   /**
    * Returns the appropriate collection encoder for the supplied type.
    *
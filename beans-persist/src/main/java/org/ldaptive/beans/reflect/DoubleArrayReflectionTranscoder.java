@@ -0,0 +1,67 @@
+/*
+  $Id$
+
+  Copyright (C) 2003-2014 Virginia Tech.
+  All rights reserved.
+
+  SEE LICENSE FOR MORE INFORMATION
+
+  Author:  Middleware Services
+  Email:   middleware@vt.edu
+  Version: $Revision$
+  Updated: $Date$
+*/
+package org.ldaptive.beans.reflect;
+
+/**
+ * Reflection transcoder for double arrays.
+ *
+ * @author  Middleware Services
+ * @version  $Revision$ $Date$
+ */
+public class DoubleArrayReflectionTranscoder
+  extends AbstractPrimitiveArrayReflectionTranscoder<double[]>
+{
+
+
+  /** Default constructor. */
+  public DoubleArrayReflectionTranscoder()
+  {
+    super(double[].class);
+  }
+
+
+  /** {@inheritDoc} */
+  @Override
+  protected double[] createArray(final int length)
+  {
+    return new double[length];
+  }
+
+
+  /** {@inheritDoc} */
+  @Override
+  protected int getLength(final double[] array)
+  {
+    return array.length;
+  }
+
+
+  /** {@inheritDoc} */
+  @Override
+  protected void decodeStringValue(
+    final double[] array,
+    final int index,
+    final String value)
+  {
+    array[index] = Double.parseDouble(value);
+  }
+
+
+  /** {@inheritDoc} */
+  @Override
+  protected String encodeStringValue(final double[] array, final int index)
+  {
+    return Double.toString(array[index]);
+  }
+}
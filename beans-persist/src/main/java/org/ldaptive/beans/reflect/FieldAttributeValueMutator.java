@@ -26,8 +26,12 @@ import org.ldaptive.SortBehavior;
 public class FieldAttributeValueMutator extends AbstractAttributeValueMutator
 {
 
-  /** Field to operate on. */
-  private final Field f;
+  /** Shared factory for reflection accessors. */
+  private static final PropertyAccessorFactory REFLECTION_ACCESSORS =
+    new ReflectionPropertyAccessorFactory();
+
+  /** Accessor for the field to operate on. */
+  private final PropertyAccessor accessor;
 
 
   /**
@@ -39,9 +43,7 @@ public class FieldAttributeValueMutator extends AbstractAttributeValueMutator
   public FieldAttributeValueMutator(
     final ReflectionTranscoder transcoder, final Field field)
   {
-    super(null, false, null, transcoder);
-    f = field;
-    f.setAccessible(true);
+    this(null, false, null, transcoder, field);
   }
 
 
@@ -57,10 +59,31 @@ public class FieldAttributeValueMutator extends AbstractAttributeValueMutator
   public FieldAttributeValueMutator(
     final String name, final boolean binary, final SortBehavior sortBehavior,
     final ReflectionTranscoder transcoder, final Field field)
+  {
+    this(
+      name,
+      binary,
+      sortBehavior,
+      transcoder,
+      REFLECTION_ACCESSORS.createPropertyAccessor(field));
+  }
+
+
+  /**
+   * Creates a new field attribute value mutator.
+   *
+   * @param  name  of the attribute
+   * @param  binary  whether the attribute is binary
+   * @param  sortBehavior  sort behavior of the attribute
+   * @param  transcoder  to mutate the field
+   * @param  fieldAccessor  to read and write the field
+   */
+  public FieldAttributeValueMutator(
+    final String name, final boolean binary, final SortBehavior sortBehavior,
+    final ReflectionTranscoder transcoder, final PropertyAccessor fieldAccessor)
   {
     super(name, binary, sortBehavior, transcoder);
-    f = field;
-    f.setAccessible(true);
+    accessor = fieldAccessor;
   }
 
 
@@ -69,7 +92,7 @@ public class FieldAttributeValueMutator extends AbstractAttributeValueMutator
   public Collection<String> getStringValues(final Object object)
   {
     return getReflectionTranscoder().encodeStringValues(
-      ReflectionUtils.getField(f, object));
+      accessor.getValue(object));
   }
 
 
@@ -78,7 +101,7 @@ public class FieldAttributeValueMutator extends AbstractAttributeValueMutator
   public Collection<byte[]> getBinaryValues(final Object object)
   {
     return getReflectionTranscoder().encodeBinaryValues(
-      ReflectionUtils.getField(f, object));
+      accessor.getValue(object));
   }
 
 
@@ -88,8 +111,7 @@ public class FieldAttributeValueMutator extends AbstractAttributeValueMutator
     final Object object,
     final Collection<String> values)
   {
-    ReflectionUtils.setField(
-      f,
+    accessor.setValue(
       object,
       getReflectionTranscoder().decodeStringValues(values));
   }
@@ -101,8 +123,7 @@ public class FieldAttributeValueMutator extends AbstractAttributeValueMutator
     final Object object,
     final Collection<byte[]> values)
   {
-    ReflectionUtils.setField(
-      f,
+    accessor.setValue(
       object,
       getReflectionTranscoder().decodeBinaryValues(values));
   }
@@ -114,13 +135,13 @@ public class FieldAttributeValueMutator extends AbstractAttributeValueMutator
   {
     return String.format(
       "[%s@%d::name=%s, binary=%s, sortBehavior=%s, reflectionTranscoder=%s, " +
-      "field=%s]",
+      "accessor=%s]",
       getClass().getName(),
       hashCode(),
       getName(),
       isBinary(),
       getSortBehavior(),
       getReflectionTranscoder(),
-      f);
+      accessor);
   }
 }
@@ -31,6 +31,41 @@ import org.ldaptive.beans.Entry;
 public class FieldClassDescriptor extends AbstractClassDescriptor
 {
 
+  /** Factory for creating property accessors. */
+  private final PropertyAccessorFactory accessorFactory;
+
+
+  /**
+   * Creates a new field class descriptor that uses a {@link
+   * MethodHandlePropertyAccessorFactory}.
+   */
+  public FieldClassDescriptor()
+  {
+    this(new MethodHandlePropertyAccessorFactory());
+  }
+
+
+  /**
+   * Creates a new field class descriptor.
+   *
+   * @param  factory  for creating property accessors
+   */
+  public FieldClassDescriptor(final PropertyAccessorFactory factory)
+  {
+    accessorFactory = factory;
+  }
+
+
+  /**
+   * Returns the property accessor factory.
+   *
+   * @return  property accessor factory
+   */
+  public PropertyAccessorFactory getPropertyAccessorFactory()
+  {
+    return accessorFactory;
+  }
+
 
   /** {@inheritDoc} */
   @Override
@@ -78,8 +113,11 @@ public class FieldClassDescriptor extends AbstractClassDescriptor
   {
     return new DefaultDnValueMutator(
       new FieldAttributeValueMutator(
+        null,
+        false,
+        null,
         new DefaultReflectionTranscoder(field.getGenericType()),
-        field));
+        accessorFactory.createPropertyAccessor(field)));
   }
 
 
@@ -101,6 +139,6 @@ public class FieldClassDescriptor extends AbstractClassDescriptor
       attribute.binary(),
       attribute.sortBehavior(),
       new DefaultReflectionTranscoder(field.getGenericType()),
-      field);
+      accessorFactory.createPropertyAccessor(field));
   }
 }
@@ -0,0 +1,67 @@
+/*
+  $Id$
+
+  Copyright (C) 2003-2014 Virginia Tech.
+  All rights reserved.
+
+  SEE LICENSE FOR MORE INFORMATION
+
+  Author:  Middleware Services
+  Email:   middleware@vt.edu
+  Version: $Revision$
+  Updated: $Date$
+*/
+package org.ldaptive.beans.reflect;
+
+/**
+ * Reflection transcoder for float arrays.
+ *
+ * @author  Middleware Services
+ * @version  $Revision$ $Date$
+ */
+public class FloatArrayReflectionTranscoder
+  extends AbstractPrimitiveArrayReflectionTranscoder<float[]>
+{
+
+
+  /** Default constructor. */
+  public FloatArrayReflectionTranscoder()
+  {
+    super(float[].class);
+  }
+
+
+  /** {@inheritDoc} */
+  @Override
+  protected float[] createArray(final int length)
+  {
+    return new float[length];
+  }
+
+
+  /** {@inheritDoc} */
+  @Override
+  protected int getLength(final float[] array)
+  {
+    return array.length;
+  }
+
+
+  /** {@inheritDoc} */
+  @Override
+  protected void decodeStringValue(
+    final float[] array,
+    final int index,
+    final String value)
+  {
+    array[index] = Float.parseFloat(value);
+  }
+
+
+  /** {@inheritDoc} */
+  @Override
+  protected String encodeStringValue(final float[] array, final int index)
+  {
+    return Float.toString(array[index]);
+  }
+}
@@ -0,0 +1,88 @@
+/*
+  $Id$
+
+  Copyright (C) 2003-2014 Virginia Tech.
+  All rights reserved.
+
+  SEE LICENSE FOR MORE INFORMATION
+
+  Author:  Middleware Services
+  Email:   middleware@vt.edu
+  Version: $Revision$
+  Updated: $Date$
+*/
+package org.ldaptive.beans.reflect;
+
+import org.ldaptive.io.DecimalUtils;
+
+/**
+ * Reflection transcoder for int arrays.
+ *
+ * @author  Middleware Services
+ * @version  $Revision$ $Date$
+ */
+public class IntArrayReflectionTranscoder
+  extends AbstractPrimitiveArrayReflectionTranscoder<int[]>
+{
+
+
+  /** Default constructor. */
+  public IntArrayReflectionTranscoder()
+  {
+    super(int[].class);
+  }
+
+
+  /** {@inheritDoc} */
+  @Override
+  protected int[] createArray(final int length)
+  {
+    return new int[length];
+  }
+
+
+  /** {@inheritDoc} */
+  @Override
+  protected int getLength(final int[] array)
+  {
+    return array.length;
+  }
+
+
+  /** {@inheritDoc} */
+  @Override
+  protected void decodeStringValue(
+    final int[] array,
+    final int index,
+    final String value)
+  {
+    array[index] = Integer.parseInt(value);
+  }
+
+
+  /** {@inheritDoc} */
+  @Override
+  protected String encodeStringValue(final int[] array, final int index)
+  {
+    return Integer.toString(array[index]);
+  }
+
+
+  /** {@inheritDoc} */
+  @Override
+  protected void decodeBinaryValue(
+    final int[] array,
+    final int index,
+    final byte[] value)
+  {
+    array[index] = DecimalUtils.parseInt(value);
+  }
+
+
+  /** {@inheritDoc} */
+  @Override
+  protected byte[] encodeBinaryValue(final int[] array, final int index)
+  {
+    return DecimalUtils.toBytes(array[index]);
+  }
+}
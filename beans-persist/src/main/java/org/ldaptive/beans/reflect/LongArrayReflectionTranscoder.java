@@ -0,0 +1,88 @@
+/*
+  $Id$
+
+  Copyright (C) 2003-2014 Virginia Tech.
+  All rights reserved.
+
+  SEE LICENSE FOR MORE INFORMATION
+
+  Author:  Middleware Services
+  Email:   middleware@vt.edu
+  Version: $Revision$
+  Updated: $Date$
+*/
+package org.ldaptive.beans.reflect;
+
+import org.ldaptive.io.DecimalUtils;
+
+/**
+ * Reflection transcoder for long arrays.
+ *
+ * @author  Middleware Services
+ * @version  $Revision$ $Date$
+ */
+public class LongArrayReflectionTranscoder
+  extends AbstractPrimitiveArrayReflectionTranscoder<long[]>
+{
+
+
+  /** Default constructor. */
+  public LongArrayReflectionTranscoder()
+  {
+    super(long[].class);
+  }
+
+
+  /** {@inheritDoc} */
+  @Override
+  protected long[] createArray(final int length)
+  {
+    return new long[length];
+  }
+
+
+  /** {@inheritDoc} */
+  @Override
+  protected int getLength(final long[] array)
+  {
+    return array.length;
+  }
+
+
+  /** {@inheritDoc} */
+  @Override
+  protected void decodeStringValue(
+    final long[] array,
+    final int index,
+    final String value)
+  {
+    array[index] = Long.parseLong(value);
+  }
+
+
+  /** {@inheritDoc} */
+  @Override
+  protected String encodeStringValue(final long[] array, final int index)
+  {
+    return Long.toString(array[index]);
+  }
+
+
+  /** {@inheritDoc} */
+  @Override
+  protected void decodeBinaryValue(
+    final long[] array,
+    final int index,
+    final byte[] value)
+  {
+    array[index] = DecimalUtils.parseLong(value);
+  }
+
+
+  /** {@inheritDoc} */
+  @Override
+  protected byte[] encodeBinaryValue(final long[] array, final int index)
+  {
+    return DecimalUtils.toBytes(array[index]);
+  }
+}
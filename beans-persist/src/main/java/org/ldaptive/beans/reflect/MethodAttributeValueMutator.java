@@ -26,11 +26,12 @@ import org.ldaptive.SortBehavior;
 public class MethodAttributeValueMutator extends AbstractAttributeValueMutator
 {
 
-  /** Method to get data from. */
-  private final Method getterMethod;
+  /** Shared factory for reflection accessors. */
+  private static final PropertyAccessorFactory REFLECTION_ACCESSORS =
+    new ReflectionPropertyAccessorFactory();
 
-  /** Method to set data on. */
-  private final Method setterMethod;
+  /** Accessor for the getter and setter methods. */
+  private final PropertyAccessor accessor;
 
 
   /**
@@ -44,11 +45,7 @@ public class MethodAttributeValueMutator extends AbstractAttributeValueMutator
     final ReflectionTranscoder transcoder, final Method getter,
     final Method setter)
   {
-    super(null, false, null, transcoder);
-    getterMethod = getter;
-    getterMethod.setAccessible(true);
-    setterMethod = setter;
-    setterMethod.setAccessible(true);
+    this(null, false, null, transcoder, getter, setter);
   }
 
 
@@ -66,12 +63,32 @@ public class MethodAttributeValueMutator extends AbstractAttributeValueMutator
     final String name, final boolean binary, final SortBehavior sortBehavior,
     final ReflectionTranscoder transcoder, final Method getter,
     final Method setter)
+  {
+    this(
+      name,
+      binary,
+      sortBehavior,
+      transcoder,
+      REFLECTION_ACCESSORS.createPropertyAccessor(getter, setter));
+  }
+
+
+  /**
+   * Creates a new method attribute value mutator.
+   *
+   * @param  name  of the attribute
+   * @param  binary  whether the attribute is binary
+   * @param  sortBehavior  sort behavior of the attribute
+   * @param  transcoder  to mutate the methods
+   * @param  methodAccessor  to invoke the getter and setter methods
+   */
+  public MethodAttributeValueMutator(
+    final String name, final boolean binary, final SortBehavior sortBehavior,
+    final ReflectionTranscoder transcoder,
+    final PropertyAccessor methodAccessor)
   {
     super(name, binary, sortBehavior, transcoder);
-    getterMethod = getter;
-    getterMethod.setAccessible(true);
-    setterMethod = setter;
-    setterMethod.setAccessible(true);
+    accessor = methodAccessor;
   }
 
 
@@ -80,7 +97,7 @@ public class MethodAttributeValueMutator extends AbstractAttributeValueMutator
   public Collection<String> getStringValues(final Object object)
   {
     return getReflectionTranscoder().encodeStringValues(
-      ReflectionUtils.invokeGetterMethod(getterMethod, object));
+      accessor.getValue(object));
   }
 
 
@@ -89,7 +106,7 @@ public class MethodAttributeValueMutator extends AbstractAttributeValueMutator
   public Collection<byte[]> getBinaryValues(final Object object)
   {
     return getReflectionTranscoder().encodeBinaryValues(
-      ReflectionUtils.invokeGetterMethod(getterMethod, object));
+      accessor.getValue(object));
   }
 
 
@@ -99,8 +116,7 @@ public class MethodAttributeValueMutator extends AbstractAttributeValueMutator
     final Object object,
     final Collection<String> values)
   {
-    ReflectionUtils.invokeSetterMethod(
-      setterMethod,
+    accessor.setValue(
       object,
       getReflectionTranscoder().decodeStringValues(values));
   }
@@ -112,8 +128,7 @@ public class MethodAttributeValueMutator extends AbstractAttributeValueMutator
     final Object object,
     final Collection<byte[]> values)
   {
-    ReflectionUtils.invokeSetterMethod(
-      setterMethod,
+    accessor.setValue(
       object,
       getReflectionTranscoder().decodeBinaryValues(values));
   }
@@ -125,14 +140,13 @@ public class MethodAttributeValueMutator extends AbstractAttributeValueMutator
   {
     return String.format(
       "[%s@%d::name=%s, binary=%s, sortBehavior=%s, reflectionTranscoder=%s, " +
-        "getterMethod=%s, setterMethod=%s]",
+        "accessor=%s]",
       getClass().getName(),
       hashCode(),
       getName(),
       isBinary(),
       getSortBehavior(),
       getReflectionTranscoder(),
-      getterMethod,
-      setterMethod);
+      accessor);
   }
 }
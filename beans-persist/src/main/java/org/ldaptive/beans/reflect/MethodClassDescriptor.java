@@ -35,6 +35,41 @@ import org.ldaptive.beans.Entry;
 public class MethodClassDescriptor extends AbstractClassDescriptor
 {
 
+  /** Factory for creating property accessors. */
+  private final PropertyAccessorFactory accessorFactory;
+
+
+  /**
+   * Creates a new method class descriptor that uses a {@link
+   * MethodHandlePropertyAccessorFactory}.
+   */
+  public MethodClassDescriptor()
+  {
+    this(new MethodHandlePropertyAccessorFactory());
+  }
+
+
+  /**
+   * Creates a new method class descriptor.
+   *
+   * @param  factory  for creating property accessors
+   */
+  public MethodClassDescriptor(final PropertyAccessorFactory factory)
+  {
+    accessorFactory = factory;
+  }
+
+
+  /**
+   * Returns the property accessor factory.
+   *
+   * @return  property accessor factory
+   */
+  public PropertyAccessorFactory getPropertyAccessorFactory()
+  {
+    return accessorFactory;
+  }
+
 
   /** {@inheritDoc} */
   @Override
@@ -96,10 +131,14 @@ public class MethodClassDescriptor extends AbstractClassDescriptor
   {
     return new DefaultDnValueMutator(
       new MethodAttributeValueMutator(
+        null,
+        false,
+        null,
         new DefaultReflectionTranscoder(
           desc.getReadMethod().getGenericReturnType()),
-        desc.getReadMethod(),
-        desc.getWriteMethod()));
+        accessorFactory.createPropertyAccessor(
+          desc.getReadMethod(),
+          desc.getWriteMethod())));
   }
 
 
@@ -122,7 +161,8 @@ public class MethodClassDescriptor extends AbstractClassDescriptor
       attribute.sortBehavior(),
       new DefaultReflectionTranscoder(
         desc.getReadMethod().getGenericReturnType()),
-      desc.getReadMethod(),
-      desc.getWriteMethod());
+      accessorFactory.createPropertyAccessor(
+        desc.getReadMethod(),
+        desc.getWriteMethod()));
   }
 }
@@ -0,0 +1,202 @@
+/*
+  $Id$
+
+  Copyright (C) 2003-2014 Virginia Tech.
+  All rights reserved.
+
+  SEE LICENSE FOR MORE INFORMATION
+
+  Author:  Middleware Services
+  Email:   middleware@vt.edu
+  Version: $Revision$
+  Updated: $Date$
+*/
+package org.ldaptive.beans.reflect;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.lang.invoke.WrongMethodTypeException;
+import java.lang.reflect.Field;
+import java.lang.reflect.Member;
+import java.lang.reflect.Method;
+import java.lang.reflect.Modifier;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Creates property accessors backed by {@link MethodHandle}s. Handles are
+ * adapted to a generic (Object)Object signature once when the accessor is
+ * created, so each access is a single exact invocation without the argument
+ * array and access checks of {@link Method#invoke(Object, Object...)}. If a
+ * handle cannot be created, or the member is static and has no receiver to
+ * adapt, the reflection accessor of the parent class is returned instead.
+ *
+ * @author  Middleware Services
+ * @version  $Revision$ $Date$
+ */
+public class MethodHandlePropertyAccessorFactory
+  extends ReflectionPropertyAccessorFactory
+{
+
+  /** Generic getter type. */
+  private static final MethodType GETTER_TYPE = MethodType.methodType(
+    Object.class, Object.class);
+
+  /** Generic setter type. */
+  private static final MethodType SETTER_TYPE = MethodType.methodType(
+    void.class, Object.class, Object.class);
+
+  /** Logger for this class. */
+  protected final Logger logger = LoggerFactory.getLogger(getClass());
+
+
+  /** {@inheritDoc} */
+  @Override
+  public PropertyAccessor createPropertyAccessor(final Field field)
+  {
+    if (isStatic(field)) {
+      return super.createPropertyAccessor(field);
+    }
+    try {
+      field.setAccessible(true);
+      final MethodHandles.Lookup lookup = MethodHandles.lookup();
+      return new MethodHandlePropertyAccessor(
+        lookup.unreflectGetter(field).asType(GETTER_TYPE),
+        lookup.unreflectSetter(field).asType(SETTER_TYPE),
+        field.toString());
+    } catch (IllegalAccessException e) {
+      logger.debug("Could not create method handles for {}", field, e);
+      return super.createPropertyAccessor(field);
+    } catch (WrongMethodTypeException e) {
+      logger.debug("Could not create method handles for {}", field, e);
+      return super.createPropertyAccessor(field);
+    }
+  }
+
+
+  /** {@inheritDoc} */
+  @Override
+  public PropertyAccessor createPropertyAccessor(
+    final Method getter,
+    final Method setter)
+  {
+    if (isStatic(getter) || isStatic(setter)) {
+      return super.createPropertyAccessor(getter, setter);
+    }
+    try {
+      final MethodHandles.Lookup lookup = MethodHandles.lookup();
+      MethodHandle getterHandle = null;
+      if (getter != null) {
+        getter.setAccessible(true);
+        getterHandle = lookup.unreflect(getter).asType(GETTER_TYPE);
+      }
+      MethodHandle setterHandle = null;
+      if (setter != null) {
+        setter.setAccessible(true);
+        setterHandle = lookup.unreflect(setter).asType(SETTER_TYPE);
+      }
+      return new MethodHandlePropertyAccessor(
+        getterHandle,
+        setterHandle,
+        String.format("getterMethod=%s, setterMethod=%s", getter, setter));
+    } catch (IllegalAccessException e) {
+      logger.debug(
+        "Could not create method handles for {} and {}", getter, setter, e);
+      return super.createPropertyAccessor(getter, setter);
+    } catch (WrongMethodTypeException e) {
+      logger.debug(
+        "Could not create method handles for {} and {}", getter, setter, e);
+      return super.createPropertyAccessor(getter, setter);
+    }
+  }
+
+
+  /**
+   * Returns whether the supplied member is static. Handles for static members
+   * take no receiver and cannot be adapted to the generic accessor types.
+   *
+   * @param  member  to inspect, may be null
+   *
+   * @return  whether member is not null and static
+   */
+  private static boolean isStatic(final Member member)
+  {
+    return member != null && Modifier.isStatic(member.getModifiers());
+  }
+
+
+  /** Property accessor that invokes method handles. */
+  private static class MethodHandlePropertyAccessor implements PropertyAccessor
+  {
+
+    /** Handle with type (Object)Object. */
+    private final MethodHandle getterHandle;
+
+    /** Handle with type (Object,Object)void. */
+    private final MethodHandle setterHandle;
+
+    /** Description of the underlying member. */
+    private final String description;
+
+
+    /**
+     * Creates a new method handle property accessor.
+     *
+     * @param  getter  handle to read data
+     * @param  setter  handle to write data
+     * @param  desc  description of the accessed member
+     */
+    MethodHandlePropertyAccessor(
+      final MethodHandle getter,
+      final MethodHandle setter,
+      final String desc)
+    {
+      getterHandle = getter;
+      setterHandle = setter;
+      description = desc;
+    }
+
+
+    /** {@inheritDoc} */
+    @Override
+    public Object getValue(final Object object)
+    {
+      if (getterHandle == null) {
+        throw new IllegalArgumentException("No getter method available");
+      }
+      try {
+        return (Object) getterHandle.invokeExact(object);
+      } catch (Error e) {
+        throw e;
+      } catch (Throwable t) {
+        throw new IllegalArgumentException(t);
+      }
+    }
+
+
+    /** {@inheritDoc} */
+    @Override
+    public void setValue(final Object object, final Object value)
+    {
+      if (setterHandle == null) {
+        throw new IllegalArgumentException("No setter method available");
+      }
+      try {
+        setterHandle.invokeExact(object, value);
+      } catch (Error e) {
+        throw e;
+      } catch (Throwable t) {
+        throw new IllegalArgumentException(t);
+      }
+    }
+
+
+    /** {@inheritDoc} */
+    @Override
+    public String toString()
+    {
+      return String.format("[methodHandle::%s]", description);
+    }
+  }
+}
@@ -0,0 +1,47 @@
+/*
+  $Id$
+
+  Copyright (C) 2003-2014 Virginia Tech.
+  All rights reserved.
+
+  SEE LICENSE FOR MORE INFORMATION
+
+  Author:  Middleware Services
+  Email:   middleware@vt.edu
+  Version: $Revision$
+  Updated: $Date$
+*/
+package org.ldaptive.beans.reflect;
+
+/**
+ * Interface for reading and writing a single property of an object.
+ *
+ * @author  Middleware Services
+ * @version  $Revision$ $Date$
+ */
+public interface PropertyAccessor
+{
+
+
+  /**
+   * Returns the value of the property on the supplied object.
+   *
+   * @param  object  to read the property from
+   *
+   * @return  property value
+   *
+   * @throws  IllegalArgumentException  if the property cannot be read
+   */
+  Object getValue(Object object);
+
+
+  /**
+   * Sets the value of the property on the supplied object.
+   *
+   * @param  object  to write the property to
+   * @param  value  to set
+   *
+   * @throws  IllegalArgumentException  if the property cannot be written
+   */
+  void setValue(Object object, Object value);
+}
@@ -0,0 +1,49 @@
+/*
+  $Id$
+
+  Copyright (C) 2003-2014 Virginia Tech.
+  All rights reserved.
+
+  SEE LICENSE FOR MORE INFORMATION
+
+  Author:  Middleware Services
+  Email:   middleware@vt.edu
+  Version: $Revision$
+  Updated: $Date$
+*/
+package org.ldaptive.beans.reflect;
+
+import java.lang.reflect.Field;
+import java.lang.reflect.Method;
+
+/**
+ * Interface for creating property accessors.
+ *
+ * @author  Middleware Services
+ * @version  $Revision$ $Date$
+ */
+public interface PropertyAccessorFactory
+{
+
+
+  /**
+   * Creates a property accessor for the supplied field.
+   *
+   * @param  field  to access
+   *
+   * @return  property accessor
+   */
+  PropertyAccessor createPropertyAccessor(Field field);
+
+
+  /**
+   * Creates a property accessor for the supplied methods. Either method may
+   * be null, in which case the accessor does not support that operation.
+   *
+   * @param  getter  method to read data
+   * @param  setter  method to write data
+   *
+   * @return  property accessor
+   */
+  PropertyAccessor createPropertyAccessor(Method getter, Method setter);
+}
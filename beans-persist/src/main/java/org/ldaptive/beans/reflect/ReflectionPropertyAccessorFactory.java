@@ -0,0 +1,107 @@
+/*
+  $Id$
+
+  Copyright (C) 2003-2014 Virginia Tech.
+  All rights reserved.
+
+  SEE LICENSE FOR MORE INFORMATION
+
+  Author:  Middleware Services
+  Email:   middleware@vt.edu
+  Version: $Revision$
+  Updated: $Date$
+*/
+package org.ldaptive.beans.reflect;
+
+import java.lang.reflect.Field;
+import java.lang.reflect.Method;
+
+/**
+ * Creates property accessors that use {@link Field} and {@link Method}
+ * directly. See {@link ReflectionUtils}.
+ *
+ * @author  Middleware Services
+ * @version  $Revision$ $Date$
+ */
+public class ReflectionPropertyAccessorFactory
+  implements PropertyAccessorFactory
+{
+
+
+  /** {@inheritDoc} */
+  @Override
+  public PropertyAccessor createPropertyAccessor(final Field field)
+  {
+    field.setAccessible(true);
+    return new PropertyAccessor() {
+      @Override
+      public Object getValue(final Object object)
+      {
+        return ReflectionUtils.getField(field, object);
+      }
+
+      @Override
+      public void setValue(final Object object, final Object value)
+      {
+        ReflectionUtils.setField(field, object, value);
+      }
+
+      @Override
+      public String toString()
+      {
+        return String.format("[reflection::field=%s]", field);
+      }
+    };
+  }
+
+
+  /** {@inheritDoc} */
+  @Override
+  public PropertyAccessor createPropertyAccessor(
+    final Method getter,
+    final Method setter)
+  {
+    if (getter != null) {
+      getter.setAccessible(true);
+    }
+    if (setter != null) {
+      setter.setAccessible(true);
+    }
+    return new PropertyAccessor() {
+      @Override
+      public Object getValue(final Object object)
+      {
+        if (getter == null) {
+          throw new IllegalArgumentException("No getter method available");
+        }
+        return ReflectionUtils.invokeGetterMethod(getter, object);
+      }
+
+      @Override
+      public void setValue(final Object object, final Object value)
+      {
+        if (setter == null) {
+          throw new IllegalArgumentException("No setter method available");
+        }
+        ReflectionUtils.invokeSetterMethod(setter, object, value);
+      }
+
+      @Override
+      public String toString()
+      {
+        return String.format(
+          "[reflection::getterMethod=%s, setterMethod=%s]",
+          getter,
+          setter);
+      }
+    };
+  }
+
+
+  /** {@inheritDoc} */
+  @Override
+  public String toString()
+  {
+    return String.format("[%s@%d]", getClass().getName(), hashCode());
+  }
+}
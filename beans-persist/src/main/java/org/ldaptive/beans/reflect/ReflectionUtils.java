@@ -50,6 +50,37 @@ public final class ReflectionUtils
   }
 
 
+  /**
+   * Creates a new instance of the supplied type with its no-argument
+   * constructor.
+   *
+   * @param  <T>  type of instance
+   * @param  type  to create
+   *
+   * @return  new instance
+   *
+   * @throws  IllegalArgumentException  if the instance cannot be created
+   */
+  public static <T> T newInstance(final Class<T> type)
+  {
+    try {
+      return type.getDeclaredConstructor().newInstance();
+    } catch (NoSuchMethodException e) {
+      throw new IllegalArgumentException(
+        "Could not create instance of " + type, e);
+    } catch (InstantiationException e) {
+      throw new IllegalArgumentException(
+        "Could not create instance of " + type, e);
+    } catch (IllegalAccessException e) {
+      throw new IllegalArgumentException(
+        "Could not create instance of " + type, e);
+    } catch (InvocationTargetException e) {
+      throw new IllegalArgumentException(
+        "Could not create instance of " + type, e.getCause());
+    }
+  }
+
+
   /**
    * Returns the value of the supplied field on the supplied object.
    *
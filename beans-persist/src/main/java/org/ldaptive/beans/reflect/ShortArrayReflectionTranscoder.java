@@ -0,0 +1,88 @@
+/*
+  $Id$
+
+  Copyright (C) 2003-2014 Virginia Tech.
+  All rights reserved.
+
+  SEE LICENSE FOR MORE INFORMATION
+
+  Author:  Middleware Services
+  Email:   middleware@vt.edu
+  Version: $Revision$
+  Updated: $Date$
+*/
+package org.ldaptive.beans.reflect;
+
+import org.ldaptive.io.DecimalUtils;
+
+/**
+ * Reflection transcoder for short arrays.
+ *
+ * @author  Middleware Services
+ * @version  $Revision$ $Date$
+ */
+public class ShortArrayReflectionTranscoder
+  extends AbstractPrimitiveArrayReflectionTranscoder<short[]>
+{
+
+
+  /** Default constructor. */
+  public ShortArrayReflectionTranscoder()
+  {
+    super(short[].class);
+  }
+
+
+  /** {@inheritDoc} */
+  @Override
+  protected short[] createArray(final int length)
+  {
+    return new short[length];
+  }
+
+
+  /** {@inheritDoc} */
+  @Override
+  protected int getLength(final short[] array)
+  {
+    return array.length;
+  }
+
+
+  /** {@inheritDoc} */
+  @Override
+  protected void decodeStringValue(
+    final short[] array,
+    final int index,
+    final String value)
+  {
+    array[index] = Short.parseShort(value);
+  }
+
+
+  /** {@inheritDoc} */
+  @Override
+  protected String encodeStringValue(final short[] array, final int index)
+  {
+    return Short.toString(array[index]);
+  }
+
+
+  /** {@inheritDoc} */
+  @Override
+  protected void decodeBinaryValue(
+    final short[] array,
+    final int index,
+    final byte[] value)
+  {
+    array[index] = DecimalUtils.parseShort(value);
+  }
+
+
+  /** {@inheritDoc} */
+  @Override
+  protected byte[] encodeBinaryValue(final short[] array, final int index)
+  {
+    return DecimalUtils.toBytes(array[index]);
+  }
+}
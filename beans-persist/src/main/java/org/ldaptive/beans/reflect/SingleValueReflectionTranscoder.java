@@ -13,14 +13,15 @@
 */
 package org.ldaptive.beans.reflect;
 
-import java.util.ArrayList;
 import java.util.Collection;
-import java.util.List;
+import java.util.Collections;
 import org.ldaptive.io.ValueTranscoder;
 
 /**
  * Reflection transcoder which expects to operate on collections containing a
- * single value.
+ * single value. Also provides scalar methods that transcode one value without
+ * wrapping it in a collection, which the collection and array transcoders use
+ * for each of their elements.
  *
  * @param  <T>  type of object to transcode
  *
@@ -53,7 +54,7 @@ public class SingleValueReflectionTranscoder<T> implements ReflectionTranscoder
       throw new IllegalArgumentException("Multiple values not supported");
     }
     if (values != null && !values.isEmpty()) {
-      return valueTranscoder.decodeStringValue(values.iterator().next());
+      return decodeStringValue(values.iterator().next());
     }
     return null;
   }
@@ -67,7 +68,7 @@ public class SingleValueReflectionTranscoder<T> implements ReflectionTranscoder
       throw new IllegalArgumentException("Multiple values not supported");
     }
     if (values != null && !values.isEmpty()) {
-      return valueTranscoder.decodeBinaryValue(values.iterator().next());
+      return decodeBinaryValue(values.iterator().next());
     }
     return null;
   }
@@ -77,11 +78,7 @@ public class SingleValueReflectionTranscoder<T> implements ReflectionTranscoder
   @Override
   public Collection<String> encodeStringValues(final Object value)
   {
-    final List<String> l = new ArrayList<String>(1);
-    @SuppressWarnings("unchecked")
-    final String s = valueTranscoder.encodeStringValue((T) value);
-    l.add(s);
-    return l;
+    return Collections.singletonList(encodeStringValue(value));
   }
 
 
@@ -89,11 +86,61 @@ public class SingleValueReflectionTranscoder<T> implements ReflectionTranscoder
   @Override
   public Collection<byte[]> encodeBinaryValues(final Object value)
   {
-    final List<byte[]> l = new ArrayList<byte[]>(1);
-    @SuppressWarnings("unchecked")
-    final byte[] b = valueTranscoder.encodeBinaryValue((T) value);
-    l.add(b);
-    return l;
+    return Collections.singletonList(encodeBinaryValue(value));
+  }
+
+
+  /**
+   * Decodes the supplied value into an object.
+   *
+   * @param  value  to decode
+   *
+   * @return  object initialized with the value
+   */
+  public Object decodeStringValue(final String value)
+  {
+    return valueTranscoder.decodeStringValue(value);
+  }
+
+
+  /**
+   * Decodes the supplied value into an object.
+   *
+   * @param  value  to decode
+   *
+   * @return  object initialized with the value
+   */
+  public Object decodeBinaryValue(final byte[] value)
+  {
+    return valueTranscoder.decodeBinaryValue(value);
+  }
+
+
+  /**
+   * Encodes the supplied value into a string for use in an attribute.
+   *
+   * @param  value  containing data to encode as a string
+   *
+   * @return  string attribute value
+   */
+  @SuppressWarnings("unchecked")
+  public String encodeStringValue(final Object value)
+  {
+    return valueTranscoder.encodeStringValue((T) value);
+  }
+
+
+  /**
+   * Encodes the supplied value into a byte array for use in an attribute.
+   *
+   * @param  value  containing data to encode as a byte array
+   *
+   * @return  binary attribute value
+   */
+  @SuppressWarnings("unchecked")
+  public byte[] encodeBinaryValue(final Object value)
+  {
+    return valueTranscoder.encodeBinaryValue((T) value);
   }
 
 
@@ -0,0 +1,122 @@
+/*
+  $Id$
+
+  Copyright (C) 2003-2014 Virginia Tech.
+  All rights reserved.
+
+  SEE LICENSE FOR MORE INFORMATION
+
+  Author:  Middleware Services
+  Email:   middleware@vt.edu
+  Version: $Revision$
+  Updated: $Date$
+*/
+package org.ldaptive.beans.reflect;
+
+import java.util.Arrays;
+import java.util.List;
+import org.ldaptive.beans.DnTemplate;
+import org.ldaptive.beans.DnValueMutator;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Uses a {@link DnTemplate} to build the DN of an object from its properties
+ * and to set those properties from a DN. Each placeholder of the template is
+ * read and written with its own {@link DnValueMutator}.
+ *
+ * @author  Middleware Services
+ * @version  $Revision$ $Date$
+ */
+public class TemplateDnValueMutator implements DnValueMutator
+{
+
+  /** Logger for this class. */
+  protected final Logger logger = LoggerFactory.getLogger(getClass());
+
+  /** Compiled DN template. */
+  private final DnTemplate dnTemplate;
+
+  /** Mutator for each placeholder of the template. */
+  private final DnValueMutator[] mutators;
+
+
+  /**
+   * Creates a new template dn value mutator.
+   *
+   * @param  template  compiled DN template
+   * @param  m  mutator for each placeholder of the template in order
+   */
+  public TemplateDnValueMutator(
+    final DnTemplate template,
+    final List<DnValueMutator> m)
+  {
+    if (template.getPropertyNames().size() != m.size()) {
+      throw new IllegalArgumentException(
+        "DN template " + template.getTemplate() + " requires " +
+        template.getPropertyNames().size() + " mutators");
+    }
+    dnTemplate = template;
+    mutators = m.toArray(new DnValueMutator[m.size()]);
+  }
+
+
+  /**
+   * Returns the DN template.
+   *
+   * @return  dn template
+   */
+  public DnTemplate getDnTemplate()
+  {
+    return dnTemplate;
+  }
+
+
+  /** {@inheritDoc} */
+  @Override
+  public String getValue(final Object object)
+  {
+    final String[] values = new String[mutators.length];
+    for (int i = 0; i < mutators.length; i++) {
+      values[i] = mutators[i].getValue(object);
+    }
+    return dnTemplate.format(values);
+  }
+
+
+  /**
+   * Sets the properties of the supplied object from the placeholder values of
+   * the supplied DN. Nothing is set if the DN does not match the template.
+   *
+   * @param  object  to set properties on
+   * @param  value  of the DN
+   */
+  @Override
+  public void setValue(final Object object, final String value)
+  {
+    final String[] values = dnTemplate.parse(value);
+    if (values == null) {
+      logger.debug(
+        "DN {} does not match template {}",
+        value,
+        dnTemplate.getTemplate());
+      return;
+    }
+    for (int i = 0; i < mutators.length; i++) {
+      mutators[i].setValue(object, values[i]);
+    }
+  }
+
+
+  /** {@inheritDoc} */
+  @Override
+  public String toString()
+  {
+    return String.format(
+      "[%s@%d::dnTemplate=%s, mutators=%s]",
+      getClass().getName(),
+      hashCode(),
+      dnTemplate,
+      Arrays.toString(mutators));
+  }
+}
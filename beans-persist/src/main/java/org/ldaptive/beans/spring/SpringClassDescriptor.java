@@ -28,24 +28,61 @@ import org.springframework.expression.spel.standard.SpelExpressionParser;
 import org.springframework.expression.spel.support.StandardEvaluationContext;
 
 /**
+ * Class descriptor that uses spring expressions to read the DN and attribute
+ * values of a type. Expressions are parsed once when the descriptor is
+ * initialized and evaluated against the object being mapped, so a single
+ * descriptor can be shared by every instance of a type.
+ *
+ * @param  <T>  type of object to describe
+ *
  * @author  Middleware Services
  * @version  $Revision$ $Date$
  */
 public class SpringClassDescriptor<T> extends AbstractClassDescriptor
 {
 
+  /** Parser for spring expressions. */
+  private final ExpressionParser parser;
+
   /** Context for evaluating spring expressions. */
   private final EvaluationContext context;
 
 
+  /** Creates a new spring class descriptor. */
+  public SpringClassDescriptor()
+  {
+    this(new SpelExpressionParser(), new StandardEvaluationContext());
+  }
+
+
   /**
-   * Creates a new spring class descriptor.
+   * Creates a new spring class descriptor whose evaluation context has the
+   * supplied object as its root. Objects are still mapped with the object
+   * being mapped as the root, but the descriptor holds a reference to the
+   * supplied object and should not be shared.
    *
    * @param  object  to describe
    */
   public SpringClassDescriptor(final T object)
   {
-    context = new StandardEvaluationContext(object);
+    this(new SpelExpressionParser(), new StandardEvaluationContext(object));
+  }
+
+
+  /**
+   * Creates a new spring class descriptor. The evaluation context is shared by
+   * all objects mapped with this descriptor and must not reference any single
+   * object.
+   *
+   * @param  expressionParser  for parsing expressions
+   * @param  evaluationContext  for evaluating expressions
+   */
+  public SpringClassDescriptor(
+    final ExpressionParser expressionParser,
+    final EvaluationContext evaluationContext)
+  {
+    parser = expressionParser;
+    context = evaluationContext;
   }
 
 
@@ -58,76 +95,180 @@ public class SpringClassDescriptor<T> extends AbstractClassDescriptor
       type, Entry.class);
     if (entryAnnotation != null) {
       if (!entryAnnotation.dn().equals("")) {
-        setDnValueMutator(new DnValueMutator() {
-          @Override
-          public String getValue(final Object object)
-          {
-            final ExpressionParser parser = new SpelExpressionParser();
-            final Expression exp = parser.parseExpression(entryAnnotation.dn());
-            return exp.getValue(context, object, String.class);
-          }
-
-          @Override
-          public void setValue(final Object object, final String value) {}
-        });
+        setDnValueMutator(
+          new SpelDnValueMutator(parser.parseExpression(entryAnnotation.dn())));
       }
       for (final Attribute attr : entryAnnotation.attributes()) {
-        final String expr = attr.property();
-        final ExpressionParser parser = new SpelExpressionParser();
-        final Expression exp = parser.parseExpression(expr);
-        addAttributeValueMutator(new AttributeValueMutator()
-        {
-          @Override
-          public String getName()
-          {
-            return attr.name();
-          }
-
-          @Override
-          public boolean isBinary()
-          {
-            return attr.binary();
-          }
-
-          @Override
-          public SortBehavior getSortBehavior()
-          {
-            return attr.sortBehavior();
-          }
-
-          @Override
-          public Collection<String> getStringValues(final Object object)
-          {
-            @SuppressWarnings("unchecked")
-            final Collection<String> values = (Collection<String>) exp
-              .getValue(context, object, Collection.class);
-            return values;
-          }
-
-          @Override
-          public Collection<byte[]> getBinaryValues(final Object object)
-          {
-            @SuppressWarnings("unchecked")
-            final Collection<byte[]> values = (Collection<byte[]>) exp
-              .getValue(context, object, Collection.class);
-            return values;
-          }
-
-          @Override
-          public void setStringValues(
-            final Object object, final Collection<String> values)
-          {
-            exp.setValue(context, object, values);
-          }
-
-          @Override
-          public void setBinaryValues(
-            final Object object, final Collection<byte[]> values)
-          {
-            exp.setValue(context, object, values);
-          }
-        });
+        addAttributeValueMutator(
+          new SpelAttributeValueMutator(
+            attr, parser.parseExpression(attr.property())));
       }
     }
   }
+
+
+  /** {@inheritDoc} */
+  @Override
+  public String toString()
+  {
+    return String.format(
+      "[%s@%d::parser=%s, context=%s, dnMutator=%s, attributeMutators=%s]",
+      getClass().getName(),
+      hashCode(),
+      parser,
+      context,
+      getDnValueMutator(),
+      getAttributeValueMutators());
+  }
+
+
+  /** Reads the DN from a parsed expression. Setter method is a no-op. */
+  protected class SpelDnValueMutator implements DnValueMutator
+  {
+
+    /** Expression that produces the DN. */
+    private final Expression expression;
+
+
+    /**
+     * Creates a new spel dn value mutator.
+     *
+     * @param  exp  that produces the DN
+     */
+    public SpelDnValueMutator(final Expression exp)
+    {
+      expression = exp;
+    }
+
+
+    /** {@inheritDoc} */
+    @Override
+    public String getValue(final Object object)
+    {
+      return expression.getValue(context, object, String.class);
+    }
+
+
+    /** {@inheritDoc} */
+    @Override
+    public void setValue(final Object object, final String value) {}
+
+
+    /** {@inheritDoc} */
+    @Override
+    public String toString()
+    {
+      return String.format(
+        "[%s@%d::expression=%s]",
+        getClass().getName(),
+        hashCode(),
+        expression.getExpressionString());
+    }
+  }
+
+
+  /** Reads and writes attribute values with a parsed expression. */
+  protected class SpelAttributeValueMutator implements AttributeValueMutator
+  {
+
+    /** Attribute configuration. */
+    private final Attribute attribute;
+
+    /** Expression that reads and writes the attribute values. */
+    private final Expression expression;
+
+
+    /**
+     * Creates a new spel attribute value mutator.
+     *
+     * @param  attr  attribute configuration
+     * @param  exp  that reads and writes the attribute values
+     */
+    public SpelAttributeValueMutator(final Attribute attr, final Expression exp)
+    {
+      attribute = attr;
+      expression = exp;
+    }
+
+
+    /** {@inheritDoc} */
+    @Override
+    public String getName()
+    {
+      return attribute.name();
+    }
+
+
+    /** {@inheritDoc} */
+    @Override
+    public boolean isBinary()
+    {
+      return attribute.binary();
+    }
+
+
+    /** {@inheritDoc} */
+    @Override
+    public SortBehavior getSortBehavior()
+    {
+      return attribute.sortBehavior();
+    }
+
+
+    /** {@inheritDoc} */
+    @Override
+    public Collection<String> getStringValues(final Object object)
+    {
+      @SuppressWarnings("unchecked")
+      final Collection<String> values = (Collection<String>) expression
+        .getValue(context, object, Collection.class);
+      return values;
+    }
+
+
+    /** {@inheritDoc} */
+    @Override
+    public Collection<byte[]> getBinaryValues(final Object object)
+    {
+      @SuppressWarnings("unchecked")
+      final Collection<byte[]> values = (Collection<byte[]>) expression
+        .getValue(context, object, Collection.class);
+      return values;
+    }
+
+
+    /** {@inheritDoc} */
+    @Override
+    public void setStringValues(
+      final Object object,
+      final Collection<String> values)
+    {
+      expression.setValue(context, object, values);
+    }
+
+
+    /** {@inheritDoc} */
+    @Override
+    public void setBinaryValues(
+      final Object object,
+      final Collection<byte[]> values)
+    {
+      expression.setValue(context, object, values);
+    }
+
+
+    /** {@inheritDoc} */
+    @Override
+    public String toString()
+    {
+      return String.format(
+        "[%s@%d::name=%s, binary=%s, sortBehavior=%s, expression=%s]",
+        getClass().getName(),
+        hashCode(),
+        getName(),
+        isBinary(),
+        getSortBehavior(),
+        expression.getExpressionString());
+    }
+  }
 }
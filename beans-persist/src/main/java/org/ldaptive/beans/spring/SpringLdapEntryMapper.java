@@ -15,22 +15,128 @@ package org.ldaptive.beans.spring;
 
 import org.ldaptive.beans.AbstractLdapEntryMapper;
 import org.ldaptive.beans.ClassDescriptor;
+import org.ldaptive.beans.ClassDescriptorFactory;
+import org.ldaptive.beans.ClassDescriptorRegistry;
+import org.springframework.expression.EvaluationContext;
+import org.springframework.expression.ExpressionParser;
+import org.springframework.expression.spel.SpelCompilerMode;
+import org.springframework.expression.spel.SpelParserConfiguration;
+import org.springframework.expression.spel.standard.SpelExpressionParser;
+import org.springframework.expression.spel.support.StandardEvaluationContext;
 
 /**
+ * Uses spring expressions to map objects. Class descriptors are cached per
+ * type, so each expression is parsed only once.
+ *
+ * @param  <T>  type of object to map
+ *
  * @author  Middleware Services
  * @version  $Revision$ $Date$
  */
 public class SpringLdapEntryMapper<T> extends AbstractLdapEntryMapper<T>
 {
 
+  /** Class descriptors used by mappers with the default configuration. */
+  private static final ClassDescriptorRegistry CLASS_DESCRIPTORS =
+    new ClassDescriptorRegistry(
+      new SpringClassDescriptorFactory(
+        new SpelExpressionParser(), new StandardEvaluationContext()));
+
+  /** Class descriptors for mapping objects. */
+  private final ClassDescriptorRegistry classDescriptors;
+
+
+  /** Creates a new spring ldap entry mapper. */
+  public SpringLdapEntryMapper()
+  {
+    classDescriptors = CLASS_DESCRIPTORS;
+  }
+
+
+  /**
+   * Creates a new spring ldap entry mapper that compiles expressions with the
+   * supplied compiler mode. See {@link SpelCompilerMode}.
+   *
+   * @param  mode  spel compiler mode
+   */
+  public SpringLdapEntryMapper(final SpelCompilerMode mode)
+  {
+    this(
+      new SpelExpressionParser(
+        new SpelParserConfiguration(
+          mode, SpringLdapEntryMapper.class.getClassLoader())),
+      new StandardEvaluationContext());
+  }
+
+
+  /**
+   * Creates a new spring ldap entry mapper. The evaluation context is shared by
+   * all objects mapped with this mapper and must be safe for use by multiple
+   * threads.
+   *
+   * @param  parser  for parsing expressions
+   * @param  context  for evaluating expressions
+   */
+  public SpringLdapEntryMapper(
+    final ExpressionParser parser,
+    final EvaluationContext context)
+  {
+    classDescriptors = new ClassDescriptorRegistry(
+      new SpringClassDescriptorFactory(parser, context));
+  }
+
+
+  /**
+   * Returns the registry of class descriptors used by this mapper.
+   *
+   * @return  class descriptor registry
+   */
+  public ClassDescriptorRegistry getClassDescriptorRegistry()
+  {
+    return classDescriptors;
+  }
+
 
   /** {@inheritDoc} */
   @Override
   protected ClassDescriptor getClassDescriptor(final T object)
   {
-    final SpringClassDescriptor<T> descriptor = new SpringClassDescriptor<T>(
-      object);
-    descriptor.initialize(object.getClass());
-    return descriptor;
+    return classDescriptors.getClassDescriptor(object.getClass());
+  }
+
+
+  /** Creates spring class descriptors that share a parser and context. */
+  private static class SpringClassDescriptorFactory
+    implements ClassDescriptorFactory
+  {
+
+    /** Parser for spring expressions. */
+    private final ExpressionParser parser;
+
+    /** Context for evaluating spring expressions. */
+    private final EvaluationContext context;
+
+
+    /**
+     * Creates a new spring class descriptor factory.
+     *
+     * @param  expressionParser  for parsing expressions
+     * @param  evaluationContext  for evaluating expressions
+     */
+    SpringClassDescriptorFactory(
+      final ExpressionParser expressionParser,
+      final EvaluationContext evaluationContext)
+    {
+      parser = expressionParser;
+      context = evaluationContext;
+    }
+
+
+    /** {@inheritDoc} */
+    @Override
+    public ClassDescriptor newClassDescriptor(final Class<?> type)
+    {
+      return new SpringClassDescriptor<Object>(parser, context);
+    }
   }
 }
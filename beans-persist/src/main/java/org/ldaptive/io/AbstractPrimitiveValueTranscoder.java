@@ -13,10 +13,13 @@
 */
 package org.ldaptive.io;
 
+import java.nio.ByteBuffer;
 import org.ldaptive.LdapUtils;
 
 /**
- * Base class for primitive value transcoders.
+ * Base class for primitive value transcoders. Binary values are the UTF-8
+ * encoding of the string value. Subclasses may parse and format binary
+ * values directly, without an intermediate string.
  *
  * @param  <T>  type of object to transcode
  *
@@ -75,4 +78,36 @@ public abstract class AbstractPrimitiveValueTranscoder<T>
   {
     return LdapUtils.utf8Encode(encodeStringValue(value));
   }
+
+
+  /**
+   * Decodes the remaining bytes of the supplied buffer. The buffer position is
+   * advanced to its limit.
+   *
+   * @param  value  to decode
+   *
+   * @return  decoded value
+   */
+  public T decodeBinaryValue(final ByteBuffer value)
+  {
+    final byte[] bytes = new byte[value.remaining()];
+    value.get(bytes);
+    return decodeBinaryValue(bytes);
+  }
+
+
+  /**
+   * Encodes the supplied value into the supplied buffer, starting at its
+   * position. The buffer position is advanced past the encoded value.
+   *
+   * @param  value  to encode
+   * @param  dest  to write to
+   *
+   * @throws  java.nio.BufferOverflowException  if the buffer does not have
+   * enough space remaining
+   */
+  public void encodeBinaryValue(final T value, final ByteBuffer dest)
+  {
+    dest.put(encodeBinaryValue(value));
+  }
 }
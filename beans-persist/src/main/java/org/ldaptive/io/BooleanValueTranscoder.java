@@ -23,6 +23,15 @@ public class BooleanValueTranscoder
   extends AbstractPrimitiveValueTranscoder<Boolean>
 {
 
+  /** UTF-8 encoding of true. */
+  private static final byte[] TRUE_BYTES = {'t', 'r', 'u', 'e'};
+
+  /** UTF-8 encoding of false. */
+  private static final byte[] FALSE_BYTES = {'f', 'a', 'l', 's', 'e'};
+
+  /** Bit that distinguishes upper and lower case ASCII letters. */
+  private static final int CASE_BIT = 0x20;
+
 
   /** Default constructor. */
   public BooleanValueTranscoder() {}
@@ -53,4 +62,31 @@ public class BooleanValueTranscoder
   {
     return isPrimitive() ? boolean.class : Boolean.class;
   }
+
+
+  /**
+   * Decodes the supplied value without an intermediate string. Like {@link
+   * Boolean#valueOf(String)}, only "true" ignoring case is true.
+   *
+   * @param  value  to decode
+   *
+   * @return  decoded value
+   */
+  @Override
+  public Boolean decodeBinaryValue(final byte[] value)
+  {
+    return value != null && value.length == TRUE_BYTES.length &&
+      (value[0] | CASE_BIT) == TRUE_BYTES[0] &&
+      (value[1] | CASE_BIT) == TRUE_BYTES[1] &&
+      (value[2] | CASE_BIT) == TRUE_BYTES[2] &&
+      (value[3] | CASE_BIT) == TRUE_BYTES[3];
+  }
+
+
+  /** {@inheritDoc} */
+  @Override
+  public byte[] encodeBinaryValue(final Boolean value)
+  {
+    return value ? TRUE_BYTES.clone() : FALSE_BYTES.clone();
+  }
 }
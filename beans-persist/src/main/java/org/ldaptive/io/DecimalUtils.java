@@ -0,0 +1,400 @@
+/*
+  $Id$
+
+  Copyright (C) 2003-2014 Virginia Tech.
+  All rights reserved.
+
+  SEE LICENSE FOR MORE INFORMATION
+
+  Author:  Middleware Services
+  Email:   middleware@vt.edu
+  Version: $Revision$
+  Updated: $Date$
+*/
+package org.ldaptive.io;
+
+import java.nio.BufferOverflowException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Parses and formats decimal integers directly from and into UTF-8 bytes,
+ * without an intermediate string. Values that are not plain ASCII decimals,
+ * including values with non-ASCII digits, are handed to the string parsing
+ * methods of the JDK, so results and exceptions match {@link
+ * Integer#parseInt(String)}, {@link Long#parseLong(String)} and {@link
+ * Short#parseShort(String)}.
+ *
+ * @author  Middleware Services
+ * @version  $Revision$ $Date$
+ */
+public final class DecimalUtils
+{
+
+  /** Bytes needed to format any long. */
+  private static final int MAX_LENGTH = 20;
+
+
+  /** Default constructor. */
+  private DecimalUtils() {}
+
+
+  /**
+   * Parses the supplied UTF-8 bytes as a decimal int.
+   *
+   * @param  value  to parse
+   *
+   * @return  parsed value
+   *
+   * @throws  NumberFormatException  if the value is not a decimal int
+   */
+  public static int parseInt(final byte[] value)
+  {
+    if (value == null) {
+      return Integer.parseInt(null);
+    }
+    return parseInt(value, 0, value.length);
+  }
+
+
+  /**
+   * Parses the supplied range of UTF-8 bytes as a decimal int.
+   *
+   * @param  value  to parse
+   * @param  offset  of the first byte
+   * @param  length  number of bytes
+   *
+   * @return  parsed value
+   *
+   * @throws  NumberFormatException  if the value is not a decimal int
+   */
+  public static int parseInt(
+    final byte[] value,
+    final int offset,
+    final int length)
+  {
+    final long l = parse(
+      value, offset, length, Integer.MIN_VALUE, Integer.MAX_VALUE);
+    if (l != Long.MIN_VALUE) {
+      return (int) l;
+    }
+    return Integer.parseInt(
+      new String(value, offset, length, StandardCharsets.UTF_8));
+  }
+
+
+  /**
+   * Parses the remaining UTF-8 bytes of the supplied buffer as a decimal int.
+   * The buffer position is advanced to its limit.
+   *
+   * @param  value  to parse
+   *
+   * @return  parsed value
+   *
+   * @throws  NumberFormatException  if the value is not a decimal int
+   */
+  public static int parseInt(final ByteBuffer value)
+  {
+    if (value.hasArray()) {
+      final int offset = value.arrayOffset() + value.position();
+      final int length = value.remaining();
+      value.position(value.limit());
+      return parseInt(value.array(), offset, length);
+    }
+    return parseInt(toArray(value));
+  }
+
+
+  /**
+   * Parses the supplied UTF-8 bytes as a decimal long.
+   *
+   * @param  value  to parse
+   *
+   * @return  parsed value
+   *
+   * @throws  NumberFormatException  if the value is not a decimal long
+   */
+  public static long parseLong(final byte[] value)
+  {
+    if (value == null) {
+      return Long.parseLong(null);
+    }
+    return parseLong(value, 0, value.length);
+  }
+
+
+  /**
+   * Parses the supplied range of UTF-8 bytes as a decimal long.
+   *
+   * @param  value  to parse
+   * @param  offset  of the first byte
+   * @param  length  number of bytes
+   *
+   * @return  parsed value
+   *
+   * @throws  NumberFormatException  if the value is not a decimal long
+   */
+  public static long parseLong(
+    final byte[] value,
+    final int offset,
+    final int length)
+  {
+    // long min value marks failure, so that value is parsed as a string
+    final long l = parse(
+      value, offset, length, Long.MIN_VALUE + 1, Long.MAX_VALUE);
+    if (l != Long.MIN_VALUE) {
+      return l;
+    }
+    return Long.parseLong(
+      new String(value, offset, length, StandardCharsets.UTF_8));
+  }
+
+
+  /**
+   * Parses the remaining UTF-8 bytes of the supplied buffer as a decimal long.
+   * The buffer position is advanced to its limit.
+   *
+   * @param  value  to parse
+   *
+   * @return  parsed value
+   *
+   * @throws  NumberFormatException  if the value is not a decimal long
+   */
+  public static long parseLong(final ByteBuffer value)
+  {
+    if (value.hasArray()) {
+      final int offset = value.arrayOffset() + value.position();
+      final int length = value.remaining();
+      value.position(value.limit());
+      return parseLong(value.array(), offset, length);
+    }
+    return parseLong(toArray(value));
+  }
+
+
+  /**
+   * Parses the supplied UTF-8 bytes as a decimal short.
+   *
+   * @param  value  to parse
+   *
+   * @return  parsed value
+   *
+   * @throws  NumberFormatException  if the value is not a decimal short
+   */
+  public static short parseShort(final byte[] value)
+  {
+    if (value == null) {
+      return Short.parseShort(null);
+    }
+    return parseShort(value, 0, value.length);
+  }
+
+
+  /**
+   * Parses the supplied range of UTF-8 bytes as a decimal short.
+   *
+   * @param  value  to parse
+   * @param  offset  of the first byte
+   * @param  length  number of bytes
+   *
+   * @return  parsed value
+   *
+   * @throws  NumberFormatException  if the value is not a decimal short
+   */
+  public static short parseShort(
+    final byte[] value,
+    final int offset,
+    final int length)
+  {
+    final long l = parse(
+      value, offset, length, Short.MIN_VALUE, Short.MAX_VALUE);
+    if (l != Long.MIN_VALUE) {
+      return (short) l;
+    }
+    return Short.parseShort(
+      new String(value, offset, length, StandardCharsets.UTF_8));
+  }
+
+
+  /**
+   * Parses the remaining UTF-8 bytes of the supplied buffer as a decimal short.
+   * The buffer position is advanced to its limit.
+   *
+   * @param  value  to parse
+   *
+   * @return  parsed value
+   *
+   * @throws  NumberFormatException  if the value is not a decimal short
+   */
+  public static short parseShort(final ByteBuffer value)
+  {
+    if (value.hasArray()) {
+      final int offset = value.arrayOffset() + value.position();
+      final int length = value.remaining();
+      value.position(value.limit());
+      return parseShort(value.array(), offset, length);
+    }
+    return parseShort(toArray(value));
+  }
+
+
+  /**
+   * Formats the supplied value as decimal UTF-8 bytes. The result is the same
+   * as the UTF-8 encoding of {@link Long#toString(long)}.
+   *
+   * @param  value  to format
+   *
+   * @return  formatted value
+   */
+  public static byte[] toBytes(final long value)
+  {
+    final byte[] bytes = new byte[length(value)];
+    format(value, bytes, bytes.length);
+    return bytes;
+  }
+
+
+  /**
+   * Formats the supplied value as decimal UTF-8 bytes into the supplied
+   * buffer, starting at its position. The buffer position is advanced past
+   * the formatted value.
+   *
+   * @param  value  to format
+   * @param  dest  to write to
+   *
+   * @throws  BufferOverflowException  if the buffer does not have enough
+   * space remaining
+   */
+  public static void put(final long value, final ByteBuffer dest)
+  {
+    final int length = length(value);
+    if (dest.remaining() < length) {
+      throw new BufferOverflowException();
+    }
+    if (dest.hasArray()) {
+      format(
+        value,
+        dest.array(),
+        dest.arrayOffset() + dest.position() + length);
+      dest.position(dest.position() + length);
+    } else {
+      final byte[] bytes = new byte[MAX_LENGTH];
+      format(value, bytes, length);
+      dest.put(bytes, 0, length);
+    }
+  }
+
+
+  /**
+   * Returns the number of bytes needed to format the supplied value.
+   *
+   * @param  value  to format
+   *
+   * @return  number of bytes
+   */
+  private static int length(final long value)
+  {
+    // count digits of the negative value, which covers long min value
+    int length = value < 0 ? 2 : 1;
+    long l = value < 0 ? value : -value;
+    while (l <= -10) {
+      l /= 10;
+      length++;
+    }
+    return length;
+  }
+
+
+  /**
+   * Writes the decimal digits of the supplied value backwards, ending just
+   * before the supplied index.
+   *
+   * @param  value  to format
+   * @param  dest  to write to
+   * @param  end  index after the last digit
+   */
+  private static void format(final long value, final byte[] dest, final int end)
+  {
+    int i = end;
+    long l = value < 0 ? value : -value;
+    do {
+      dest[--i] = (byte) ('0' - (int) (l % 10));
+      l /= 10;
+    } while (l != 0);
+    if (value < 0) {
+      dest[--i] = '-';
+    }
+  }
+
+
+  /**
+   * Parses ASCII decimal digits with an optional sign. Returns {@link
+   * Long#MIN_VALUE} if the bytes are not an ASCII decimal or the value is out
+   * of range, so the caller can defer to the JDK for the exact exception or
+   * for non-ASCII digits.
+   *
+   * @param  value  to parse
+   * @param  offset  of the first byte
+   * @param  length  number of bytes
+   * @param  min  smallest allowed value, greater than long min value
+   * @param  max  largest allowed value
+   *
+   * @return  parsed value or long min value
+   */
+  private static long parse(
+    final byte[] value,
+    final int offset,
+    final int length,
+    final long min,
+    final long max)
+  {
+    final int end = offset + length;
+    int i = offset;
+    if (i == end) {
+      return Long.MIN_VALUE;
+    }
+    // accumulate negatively, the negative range is the larger one
+    boolean negative = false;
+    long limit = -max;
+    if (value[i] == '-') {
+      negative = true;
+      limit = min;
+      i++;
+    } else if (value[i] == '+') {
+      i++;
+    }
+    if (i == end) {
+      return Long.MIN_VALUE;
+    }
+    final long multmin = limit / 10;
+    long result = 0;
+    for (; i < end; i++) {
+      final int digit = value[i] - '0';
+      if (digit < 0 || digit > 9 || result < multmin) {
+        return Long.MIN_VALUE;
+      }
+      result *= 10;
+      if (result < limit + digit) {
+        return Long.MIN_VALUE;
+      }
+      result -= digit;
+    }
+    return negative ? result : -result;
+  }
+
+
+  /**
+   * Returns the remaining bytes of the supplied buffer and advances its
+   * position to its limit.
+   *
+   * @param  value  buffer to read
+   *
+   * @return  remaining bytes
+   */
+  private static byte[] toArray(final ByteBuffer value)
+  {
+    final byte[] bytes = new byte[value.remaining()];
+    value.get(bytes);
+    return bytes;
+  }
+}
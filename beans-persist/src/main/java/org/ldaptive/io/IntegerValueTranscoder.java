@@ -13,6 +13,8 @@
 */
 package org.ldaptive.io;
 
+import java.nio.ByteBuffer;
+
 /**
  * Decodes and encodes an integer for use in an ldap attribute value.
  *
@@ -53,4 +55,36 @@ public class IntegerValueTranscoder
   {
     return isPrimitive() ? int.class : Integer.class;
   }
+
+
+  /** {@inheritDoc} */
+  @Override
+  public Integer decodeBinaryValue(final byte[] value)
+  {
+    return DecimalUtils.parseInt(value);
+  }
+
+
+  /** {@inheritDoc} */
+  @Override
+  public Integer decodeBinaryValue(final ByteBuffer value)
+  {
+    return DecimalUtils.parseInt(value);
+  }
+
+
+  /** {@inheritDoc} */
+  @Override
+  public byte[] encodeBinaryValue(final Integer value)
+  {
+    return DecimalUtils.toBytes(value);
+  }
+
+
+  /** {@inheritDoc} */
+  @Override
+  public void encodeBinaryValue(final Integer value, final ByteBuffer dest)
+  {
+    DecimalUtils.put(value, dest);
+  }
 }
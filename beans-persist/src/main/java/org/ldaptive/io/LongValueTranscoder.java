@@ -13,6 +13,8 @@
 */
 package org.ldaptive.io;
 
+import java.nio.ByteBuffer;
+
 /**
  * Decodes and encodes a long for use in an ldap attribute value.
  *
@@ -53,4 +55,36 @@ public class LongValueTranscoder
   {
     return isPrimitive() ? long.class : Long.class;
   }
+
+
+  /** {@inheritDoc} */
+  @Override
+  public Long decodeBinaryValue(final byte[] value)
+  {
+    return DecimalUtils.parseLong(value);
+  }
+
+
+  /** {@inheritDoc} */
+  @Override
+  public Long decodeBinaryValue(final ByteBuffer value)
+  {
+    return DecimalUtils.parseLong(value);
+  }
+
+
+  /** {@inheritDoc} */
+  @Override
+  public byte[] encodeBinaryValue(final Long value)
+  {
+    return DecimalUtils.toBytes(value);
+  }
+
+
+  /** {@inheritDoc} */
+  @Override
+  public void encodeBinaryValue(final Long value, final ByteBuffer dest)
+  {
+    DecimalUtils.put(value, dest);
+  }
 }
@@ -13,6 +13,8 @@
 */
 package org.ldaptive.io;
 
+import java.nio.ByteBuffer;
+
 /**
  * Decodes and encodes a short for use in an ldap attribute value.
  *
@@ -53,4 +55,36 @@ public class ShortValueTranscoder
   {
     return isPrimitive() ? short.class : Short.class;
   }
+
+
+  /** {@inheritDoc} */
+  @Override
+  public Short decodeBinaryValue(final byte[] value)
+  {
+    return DecimalUtils.parseShort(value);
+  }
+
+
+  /** {@inheritDoc} */
+  @Override
+  public Short decodeBinaryValue(final ByteBuffer value)
+  {
+    return DecimalUtils.parseShort(value);
+  }
+
+
+  /** {@inheritDoc} */
+  @Override
+  public byte[] encodeBinaryValue(final Short value)
+  {
+    return DecimalUtils.toBytes(value);
+  }
+
+
+  /** {@inheritDoc} */
+  @Override
+  public void encodeBinaryValue(final Short value, final ByteBuffer dest)
+  {
+    DecimalUtils.put(value, dest);
+  }
 }
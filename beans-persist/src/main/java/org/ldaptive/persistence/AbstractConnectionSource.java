@@ -0,0 +1,150 @@
+/*
+  $Id$
+
+  Copyright (C) 2003-2014 Virginia Tech.
+  All rights reserved.
+
+  SEE LICENSE FOR MORE INFORMATION
+
+  Author:  Middleware Services
+  Email:   middleware@vt.edu
+  Version: $Revision$
+  Updated: $Date$
+*/
+package org.ldaptive.persistence;
+
+import java.util.concurrent.atomic.AtomicLong;
+import org.ldaptive.Connection;
+import org.ldaptive.LdapException;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Base class for connection sources that records how often connections are
+ * borrowed and how long callers wait for them.
+ *
+ * @author  Middleware Services
+ * @version  $Revision$ $Date$
+ */
+public abstract class AbstractConnectionSource implements ConnectionSource
+{
+
+  /** Logger for this class. */
+  protected final Logger logger = LoggerFactory.getLogger(getClass());
+
+  /** Number of connections borrowed. */
+  private final AtomicLong borrowCount = new AtomicLong();
+
+  /** Number of connections currently borrowed. */
+  private final AtomicLong activeCount = new AtomicLong();
+
+  /** Total time spent waiting for connections in nanoseconds. */
+  private final AtomicLong waitTime = new AtomicLong();
+
+  /** Longest time spent waiting for a connection in nanoseconds. */
+  private final AtomicLong maxWaitTime = new AtomicLong();
+
+
+  /** {@inheritDoc} */
+  @Override
+  public Connection getConnection()
+    throws LdapException
+  {
+    final long start = System.nanoTime();
+    final Connection conn = borrowConnection();
+    final long elapsed = System.nanoTime() - start;
+    borrowCount.incrementAndGet();
+    activeCount.incrementAndGet();
+    waitTime.addAndGet(elapsed);
+    long max = maxWaitTime.get();
+    while (elapsed > max && !maxWaitTime.compareAndSet(max, elapsed)) {
+      max = maxWaitTime.get();
+    }
+    logger.trace("borrowed {} in {}ns", conn, elapsed);
+    return conn;
+  }
+
+
+  /** {@inheritDoc} */
+  @Override
+  public void releaseConnection(final Connection conn)
+  {
+    if (conn != null) {
+      activeCount.decrementAndGet();
+      returnConnection(conn);
+    }
+  }
+
+
+  /**
+   * Returns an open connection.
+   *
+   * @return  open connection
+   *
+   * @throws  LdapException  if a connection cannot be obtained or opened
+   */
+  protected abstract Connection borrowConnection()
+    throws LdapException;
+
+
+  /**
+   * Gives back a connection returned by {@link #borrowConnection()}.
+   *
+   * @param  conn  to give back
+   */
+  protected abstract void returnConnection(Connection conn);
+
+
+  /**
+   * Returns the number of connections borrowed.
+   *
+   * @return  borrow count
+   */
+  public long getBorrowCount()
+  {
+    return borrowCount.get();
+  }
+
+
+  /**
+   * Returns the number of connections borrowed and not yet released.
+   *
+   * @return  active count
+   */
+  public long getActiveCount()
+  {
+    return activeCount.get();
+  }
+
+
+  /**
+   * Returns the total time callers spent waiting for a connection. Includes
+   * pool waits as well as any connect and bind performed while borrowing.
+   *
+   * @return  wait time in nanoseconds
+   */
+  public long getWaitTime()
+  {
+    return waitTime.get();
+  }
+
+
+  /**
+   * Returns the longest time a caller spent waiting for a connection.
+   *
+   * @return  maximum wait time in nanoseconds
+   */
+  public long getMaxWaitTime()
+  {
+    return maxWaitTime.get();
+  }
+
+
+  /** Resets the borrow count and wait time counters. */
+  public void resetStatistics()
+  {
+    borrowCount.set(0);
+    waitTime.set(0);
+    maxWaitTime.set(0);
+  }
+}
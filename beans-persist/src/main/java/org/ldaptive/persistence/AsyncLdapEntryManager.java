@@ -0,0 +1,480 @@
+/*
+  $Id$
+
+  Copyright (C) 2003-2014 Virginia Tech.
+  All rights reserved.
+
+  SEE LICENSE FOR MORE INFORMATION
+
+  Author:  Middleware Services
+  Email:   middleware@vt.edu
+  Version: $Revision$
+  Updated: $Date$
+*/
+package org.ldaptive.persistence;
+
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import org.ldaptive.Response;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Executes ldap entry manager operations asynchronously while keeping at most
+ * a fixed window of operations outstanding. Submitting an operation returns a
+ * future immediately unless the window is full, in which case the caller
+ * blocks until an outstanding operation completes. Pair this with a pooled
+ * {@link ConnectionSource} whose pool is at least as large as the window, so
+ * that every outstanding operation has its own connection and bulk work is
+ * limited by server throughput rather than by round trip time.
+ *
+ * <p>A slot is freed when its future completes, whether the operation ran,
+ * failed or was cancelled. If a supplied executor drops queued operations
+ * without running them, for example in {@link ExecutorService#shutdownNow()},
+ * the dropped futures must be cancelled to free their slots.</p>
+ *
+ * @param  <T>  type of object to manage
+ *
+ * @author  Middleware Services
+ * @version  $Revision$ $Date$
+ */
+public class AsyncLdapEntryManager<T>
+{
+
+  /** Logger for this class. */
+  protected final Logger logger = LoggerFactory.getLogger(getClass());
+
+  /** Manager that executes each operation. */
+  private final LdapEntryManager<T> ldapEntryManager;
+
+  /** Maximum number of outstanding operations. */
+  private final int windowSize;
+
+  /** Permits for outstanding operations. */
+  private final Semaphore window;
+
+  /** Executes operations. */
+  private final ExecutorService executor;
+
+  /** Number of operations submitted and not yet complete. */
+  private final AtomicInteger inFlightCount = new AtomicInteger();
+
+  /** Largest number of operations outstanding at once. */
+  private final AtomicInteger maxInFlightCount = new AtomicInteger();
+
+  /** Number of completed operations. */
+  private final AtomicLong completedCount = new AtomicLong();
+
+  /** Total latency of completed operations in nanoseconds. */
+  private final AtomicLong latency = new AtomicLong();
+
+  /** Largest latency of a completed operation in nanoseconds. */
+  private final AtomicLong maxLatency = new AtomicLong();
+
+
+  /**
+   * Creates a new async ldap entry manager with a thread for each operation
+   * in the window.
+   *
+   * @param  manager  that executes each operation
+   * @param  size  maximum number of outstanding operations
+   */
+  public AsyncLdapEntryManager(
+    final LdapEntryManager<T> manager,
+    final int size)
+  {
+    this(manager, size, Executors.newFixedThreadPool(size, new ThreadFactory() {
+      private final AtomicInteger count = new AtomicInteger();
+      @Override
+      public Thread newThread(final Runnable r)
+      {
+        final Thread t = new Thread(
+          r, "ldap-entry-manager-" + count.incrementAndGet());
+        t.setDaemon(true);
+        return t;
+      }
+    }));
+  }
+
+
+  /**
+   * Creates a new async ldap entry manager.
+   *
+   * @param  manager  that executes each operation
+   * @param  size  maximum number of outstanding operations
+   * @param  service  to execute operations with, should have at least size
+   * threads
+   */
+  public AsyncLdapEntryManager(
+    final LdapEntryManager<T> manager,
+    final int size,
+    final ExecutorService service)
+  {
+    if (manager == null) {
+      throw new IllegalArgumentException("Entry manager cannot be null");
+    }
+    if (size < 1) {
+      throw new IllegalArgumentException("Window size must be greater than 0");
+    }
+    if (service == null) {
+      throw new IllegalArgumentException("Executor cannot be null");
+    }
+    ldapEntryManager = manager;
+    windowSize = size;
+    window = new Semaphore(size);
+    executor = service;
+  }
+
+
+  /**
+   * Returns the manager that executes each operation.
+   *
+   * @return  ldap entry manager
+   */
+  public LdapEntryManager<T> getLdapEntryManager()
+  {
+    return ldapEntryManager;
+  }
+
+
+  /**
+   * Returns the maximum number of outstanding operations.
+   *
+   * @return  window size
+   */
+  public int getWindowSize()
+  {
+    return windowSize;
+  }
+
+
+  /**
+   * Submits a find of the supplied object. See {@link
+   * LdapEntryManager#find(Object)}.
+   *
+   * @param  object  to find
+   *
+   * @return  future mapped object
+   *
+   * @throws  InterruptedException  if interrupted while the window is full
+   */
+  public Future<T> find(final T object)
+    throws InterruptedException
+  {
+    return submit(
+      new Callable<T>() {
+        @Override
+        public T call()
+          throws Exception
+        {
+          return ldapEntryManager.find(object);
+        }
+      });
+  }
+
+
+  /**
+   * Submits an add of the supplied object. See {@link
+   * LdapEntryManager#add(Object)}.
+   *
+   * @param  object  to add
+   *
+   * @return  future response
+   *
+   * @throws  InterruptedException  if interrupted while the window is full
+   */
+  public Future<Response<Void>> add(final T object)
+    throws InterruptedException
+  {
+    return submit(
+      new Callable<Response<Void>>() {
+        @Override
+        public Response<Void> call()
+          throws Exception
+        {
+          return ldapEntryManager.add(object);
+        }
+      });
+  }
+
+
+  /**
+   * Submits a merge of the supplied object. See {@link
+   * LdapEntryManager#merge(Object)}.
+   *
+   * @param  object  to merge
+   *
+   * @return  future response
+   *
+   * @throws  InterruptedException  if interrupted while the window is full
+   */
+  public Future<Response<Void>> merge(final T object)
+    throws InterruptedException
+  {
+    return submit(
+      new Callable<Response<Void>>() {
+        @Override
+        public Response<Void> call()
+          throws Exception
+        {
+          return ldapEntryManager.merge(object);
+        }
+      });
+  }
+
+
+  /**
+   * Submits a delete of the supplied object. See {@link
+   * LdapEntryManager#delete(Object)}.
+   *
+   * @param  object  to delete
+   *
+   * @return  future response
+   *
+   * @throws  InterruptedException  if interrupted while the window is full
+   */
+  public Future<Response<Void>> delete(final T object)
+    throws InterruptedException
+  {
+    return submit(
+      new Callable<Response<Void>>() {
+        @Override
+        public Response<Void> call()
+          throws Exception
+        {
+          return ldapEntryManager.delete(object);
+        }
+      });
+  }
+
+
+  /**
+   * Waits for a free slot in the window and submits the supplied operation.
+   *
+   * @param  <R>  type of result
+   * @param  operation  to submit
+   *
+   * @return  future result
+   *
+   * @throws  InterruptedException  if interrupted while the window is full
+   */
+  protected <R> Future<R> submit(final Callable<R> operation)
+    throws InterruptedException
+  {
+    window.acquire();
+    final long start = System.nanoTime();
+    final int inFlight = inFlightCount.incrementAndGet();
+    int max = maxInFlightCount.get();
+    while (inFlight > max && !maxInFlightCount.compareAndSet(max, inFlight)) {
+      max = maxInFlightCount.get();
+    }
+    final WindowTask<R> task = new WindowTask<R>(operation, start);
+    try {
+      executor.execute(task);
+    } catch (RuntimeException e) {
+      // frees the slot of a rejected operation
+      task.cancel(false);
+      throw e;
+    }
+    return task;
+  }
+
+
+  /**
+   * Records the completion of an operation and frees its slot in the window.
+   *
+   * @param  start  time the operation was submitted in nanoseconds
+   */
+  private void complete(final long start)
+  {
+    final long elapsed = System.nanoTime() - start;
+    completedCount.incrementAndGet();
+    latency.addAndGet(elapsed);
+    long max = maxLatency.get();
+    while (elapsed > max && !maxLatency.compareAndSet(max, elapsed)) {
+      max = maxLatency.get();
+    }
+    inFlightCount.decrementAndGet();
+    window.release();
+    logger.trace("completed operation in {}ns", elapsed);
+  }
+
+
+  /**
+   * Returns the number of operations submitted and not yet complete.
+   *
+   * @return  in flight count
+   */
+  public int getInFlightCount()
+  {
+    return inFlightCount.get();
+  }
+
+
+  /**
+   * Returns the largest number of operations that were outstanding at once.
+   *
+   * @return  maximum in flight count
+   */
+  public int getMaxInFlightCount()
+  {
+    return maxInFlightCount.get();
+  }
+
+
+  /**
+   * Returns the number of completed operations, successful or not.
+   *
+   * @return  completed count
+   */
+  public long getCompletedCount()
+  {
+    return completedCount.get();
+  }
+
+
+  /**
+   * Returns the total latency of completed operations, measured from
+   * submission to completion.
+   *
+   * @return  latency in nanoseconds
+   */
+  public long getLatency()
+  {
+    return latency.get();
+  }
+
+
+  /**
+   * Returns the largest latency of a completed operation.
+   *
+   * @return  maximum latency in nanoseconds
+   */
+  public long getMaxLatency()
+  {
+    return maxLatency.get();
+  }
+
+
+  /** Resets the completed count, latency and maximum in flight counters. */
+  public void resetStatistics()
+  {
+    completedCount.set(0);
+    latency.set(0);
+    maxLatency.set(0);
+    maxInFlightCount.set(inFlightCount.get());
+  }
+
+
+  /**
+   * Stops accepting operations and waits for outstanding operations to
+   * complete.
+   *
+   * @param  timeout  maximum time to wait
+   * @param  unit  of timeout
+   *
+   * @return  whether all operations completed before the timeout
+   *
+   * @throws  InterruptedException  if interrupted while waiting
+   */
+  public boolean shutdown(final long timeout, final TimeUnit unit)
+    throws InterruptedException
+  {
+    executor.shutdown();
+    return executor.awaitTermination(timeout, unit);
+  }
+
+
+  /**
+   * Future that frees its slot in the window on every completion path,
+   * including cancellation before it runs. Operations that run free their
+   * slot before the result is published, so callers of {@link #get()} see
+   * up to date statistics.
+   *
+   * @param  <R>  type of result
+   */
+  private final class WindowTask<R> extends FutureTask<R>
+  {
+
+    /** Time the operation was submitted in nanoseconds. */
+    private final long start;
+
+    /** Whether the slot of this task has been freed. */
+    private final AtomicBoolean released = new AtomicBoolean();
+
+
+    /**
+     * Creates a new window task.
+     *
+     * @param  operation  to execute
+     * @param  time  the operation was submitted in nanoseconds
+     */
+    WindowTask(final Callable<R> operation, final long time)
+    {
+      super(operation);
+      start = time;
+    }
+
+
+    /** {@inheritDoc} */
+    @Override
+    protected void set(final R v)
+    {
+      release();
+      super.set(v);
+    }
+
+
+    /** {@inheritDoc} */
+    @Override
+    protected void setException(final Throwable t)
+    {
+      release();
+      super.setException(t);
+    }
+
+
+    /** {@inheritDoc} */
+    @Override
+    protected void done()
+    {
+      release();
+    }
+
+
+    /** Frees the slot of this task once. */
+    private void release()
+    {
+      if (released.compareAndSet(false, true)) {
+        complete(start);
+      }
+    }
+  }
+
+
+  /** {@inheritDoc} */
+  @Override
+  public String toString()
+  {
+    return String.format(
+      "[%s@%d::ldapEntryManager=%s, windowSize=%s, inFlightCount=%s, " +
+      "completedCount=%s, latency=%s, maxLatency=%s]",
+      getClass().getName(),
+      hashCode(),
+      ldapEntryManager,
+      windowSize,
+      inFlightCount,
+      completedCount,
+      latency,
+      maxLatency);
+  }
+}
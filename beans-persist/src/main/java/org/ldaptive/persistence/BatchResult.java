@@ -0,0 +1,276 @@
+/*
+  $Id$
+
+  Copyright (C) 2003-2014 Virginia Tech.
+  All rights reserved.
+
+  SEE LICENSE FOR MORE INFORMATION
+
+  Author:  Middleware Services
+  Email:   middleware@vt.edu
+  Version: $Revision$
+  Updated: $Date$
+*/
+package org.ldaptive.persistence;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.List;
+import org.ldaptive.Response;
+
+/**
+ * Outcome of a batch operation. Contains one item per object, in the order the
+ * objects were supplied, holding either the response of the operation or the
+ * exception that caused it to fail.
+ *
+ * @param  <T>  type of object
+ *
+ * @author  Middleware Services
+ * @version  $Revision$ $Date$
+ */
+public class BatchResult<T> implements Iterable<BatchResult.Item<T>>
+{
+
+  /** Items in object order. */
+  private final List<Item<T>> items;
+
+
+  /**
+   * Creates a new batch result with an item for each of the supplied objects.
+   *
+   * @param  objects  of the batch
+   */
+  public BatchResult(final Collection<T> objects)
+  {
+    items = new ArrayList<Item<T>>(objects.size());
+    for (T object : objects) {
+      items.add(new Item<T>(object));
+    }
+  }
+
+
+  /**
+   * Returns the item at the supplied position.
+   *
+   * @param  index  of the object in the batch
+   *
+   * @return  item
+   */
+  public Item<T> getItem(final int index)
+  {
+    return items.get(index);
+  }
+
+
+  /**
+   * Returns all items in object order.
+   *
+   * @return  unmodifiable list of items
+   */
+  public List<Item<T>> getItems()
+  {
+    return Collections.unmodifiableList(items);
+  }
+
+
+  /**
+   * Returns the items that failed.
+   *
+   * @return  failed items in object order
+   */
+  public List<Item<T>> getFailures()
+  {
+    final List<Item<T>> failures = new ArrayList<Item<T>>();
+    for (Item<T> item : items) {
+      if (!item.isSuccess()) {
+        failures.add(item);
+      }
+    }
+    return failures;
+  }
+
+
+  /**
+   * Returns the number of objects in the batch.
+   *
+   * @return  number of items
+   */
+  public int size()
+  {
+    return items.size();
+  }
+
+
+  /**
+   * Returns the number of items that succeeded.
+   *
+   * @return  success count
+   */
+  public int getSuccessCount()
+  {
+    int count = 0;
+    for (Item<T> item : items) {
+      if (item.isSuccess()) {
+        count++;
+      }
+    }
+    return count;
+  }
+
+
+  /**
+   * Returns the number of items that failed.
+   *
+   * @return  failure count
+   */
+  public int getFailureCount()
+  {
+    return items.size() - getSuccessCount();
+  }
+
+
+  /**
+   * Returns whether every item succeeded.
+   *
+   * @return  whether the batch had no failures
+   */
+  public boolean isSuccess()
+  {
+    return getFailureCount() == 0;
+  }
+
+
+  /** {@inheritDoc} */
+  @Override
+  public Iterator<Item<T>> iterator()
+  {
+    return getItems().iterator();
+  }
+
+
+  /** {@inheritDoc} */
+  @Override
+  public String toString()
+  {
+    return String.format(
+      "[%s@%d::size=%s, failures=%s]",
+      getClass().getName(),
+      hashCode(),
+      items.size(),
+      getFailures());
+  }
+
+
+  /**
+   * Outcome of the operation on a single object.
+   *
+   * @param  <T>  type of object
+   */
+  public static class Item<T>
+  {
+
+    /** Object the operation was performed on. */
+    private final T object;
+
+    /** Response of the operation. */
+    private Response<?> response;
+
+    /** Exception thrown by the operation. */
+    private Exception exception;
+
+
+    /**
+     * Creates a new item.
+     *
+     * @param  o  object the operation is performed on
+     */
+    Item(final T o)
+    {
+      object = o;
+    }
+
+
+    /**
+     * Returns the object the operation was performed on.
+     *
+     * @return  object
+     */
+    public T getObject()
+    {
+      return object;
+    }
+
+
+    /**
+     * Returns the response of the operation.
+     *
+     * @return  response or null if the operation failed
+     */
+    public Response<?> getResponse()
+    {
+      return response;
+    }
+
+
+    /**
+     * Sets the response of the operation.
+     *
+     * @param  r  response
+     */
+    void setResponse(final Response<?> r)
+    {
+      response = r;
+    }
+
+
+    /**
+     * Returns the exception that caused the operation to fail. This is
+     * usually an {@link org.ldaptive.LdapException}, or an {@link
+     * IllegalArgumentException} if the object could not be mapped.
+     *
+     * @return  exception or null if the operation succeeded
+     */
+    public Exception getException()
+    {
+      return exception;
+    }
+
+
+    /**
+     * Sets the exception that caused the operation to fail.
+     *
+     * @param  e  exception
+     */
+    void setException(final Exception e)
+    {
+      exception = e;
+    }
+
+
+    /**
+     * Returns whether the operation succeeded.
+     *
+     * @return  whether no exception was thrown
+     */
+    public boolean isSuccess()
+    {
+      return exception == null;
+    }
+
+
+    /** {@inheritDoc} */
+    @Override
+    public String toString()
+    {
+      return String.format(
+        "[%s@%d::object=%s, response=%s, exception=%s]",
+        getClass().getName(),
+        hashCode(),
+        object,
+        response,
+        exception);
+    }
+  }
+}
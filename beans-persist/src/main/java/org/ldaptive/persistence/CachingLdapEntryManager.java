@@ -0,0 +1,469 @@
+/*
+  $Id$
+
+  Copyright (C) 2003-2014 Virginia Tech.
+  All rights reserved.
+
+  SEE LICENSE FOR MORE INFORMATION
+
+  Author:  Middleware Services
+  Email:   middleware@vt.edu
+  Version: $Revision$
+  Updated: $Date$
+*/
+package org.ldaptive.persistence;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import org.ldaptive.LdapEntry;
+import org.ldaptive.LdapException;
+import org.ldaptive.Response;
+import org.ldaptive.SearchRequest;
+import org.ldaptive.beans.LdapEntryMapper;
+import org.ldaptive.beans.reflect.ReflectionUtils;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Read through cache in front of another ldap entry manager. Objects found by
+ * DN are cached in an {@link EntryCache}, and later finds for the same DN are
+ * answered from the cache without a network round trip. Adds, merges and
+ * deletes made through this manager invalidate the affected DNs once the
+ * operation completes. Searches are not cached.
+ *
+ * <p>The cache either holds the ldap entry each object maps to, which is
+ * mapped onto the caller's object on every hit, or a private copy of each
+ * object, which is copied onto the caller's object with an {@link
+ * ObjectCopier}. Copying is usually cheaper than mapping, since no values are
+ * transcoded. When caching entries, binary values are shared between the
+ * cache and the objects mapped from it and must not be modified in
+ * place.</p>
+ *
+ * @param  <T>  type of object to manage
+ *
+ * @author  Middleware Services
+ * @version  $Revision$ $Date$
+ */
+public class CachingLdapEntryManager<T> implements LdapEntryManager<T>
+{
+
+  /** Logger for this class. */
+  protected final Logger logger = LoggerFactory.getLogger(getClass());
+
+  /** Manager that executes operations that miss the cache. */
+  private final LdapEntryManager<T> ldapEntryManager;
+
+  /** Mapper used to derive DNs and to map cached entries. */
+  private final LdapEntryMapper<T> ldapEntryMapper;
+
+  /** Cache of entries, null if objects are cached. */
+  private final EntryCache<LdapEntry> entryCache;
+
+  /** Cache of objects, null if entries are cached. */
+  private final EntryCache<T> objectCache;
+
+  /** Copies cached objects, null if entries are cached. */
+  private final ObjectCopier<T> objectCopier;
+
+
+  /**
+   * Creates a new caching ldap entry manager that caches ldap entries.
+   *
+   * @param  manager  that executes operations that miss the cache
+   * @param  mapper  used to derive DNs and to map cached entries
+   * @param  cache  of entries
+   */
+  public CachingLdapEntryManager(
+    final LdapEntryManager<T> manager,
+    final LdapEntryMapper<T> mapper,
+    final EntryCache<LdapEntry> cache)
+  {
+    this(manager, mapper, cache, null, null);
+    if (cache == null) {
+      throw new IllegalArgumentException("Cache cannot be null");
+    }
+  }
+
+
+  /**
+   * Creates a new caching ldap entry manager that caches copies of objects.
+   *
+   * @param  manager  that executes operations that miss the cache
+   * @param  mapper  used to derive DNs
+   * @param  cache  of objects
+   * @param  copier  to copy objects into and out of the cache
+   */
+  public CachingLdapEntryManager(
+    final LdapEntryManager<T> manager,
+    final LdapEntryMapper<T> mapper,
+    final EntryCache<T> cache,
+    final ObjectCopier<T> copier)
+  {
+    this(manager, mapper, null, cache, copier);
+    if (cache == null) {
+      throw new IllegalArgumentException("Cache cannot be null");
+    }
+    if (copier == null) {
+      throw new IllegalArgumentException("Object copier cannot be null");
+    }
+  }
+
+
+  /**
+   * Creates a new caching ldap entry manager.
+   *
+   * @param  manager  that executes operations that miss the cache
+   * @param  mapper  used to derive DNs and to map cached entries
+   * @param  eCache  cache of entries
+   * @param  oCache  cache of objects
+   * @param  copier  to copy objects into and out of the cache
+   */
+  private CachingLdapEntryManager(
+    final LdapEntryManager<T> manager,
+    final LdapEntryMapper<T> mapper,
+    final EntryCache<LdapEntry> eCache,
+    final EntryCache<T> oCache,
+    final ObjectCopier<T> copier)
+  {
+    if (manager == null) {
+      throw new IllegalArgumentException("Entry manager cannot be null");
+    }
+    if (mapper == null) {
+      throw new IllegalArgumentException("Ldap entry mapper cannot be null");
+    }
+    ldapEntryManager = manager;
+    ldapEntryMapper = mapper;
+    entryCache = eCache;
+    objectCache = oCache;
+    objectCopier = copier;
+  }
+
+
+  /**
+   * Returns the manager that executes operations that miss the cache.
+   *
+   * @return  ldap entry manager
+   */
+  public LdapEntryManager<T> getLdapEntryManager()
+  {
+    return ldapEntryManager;
+  }
+
+
+  /**
+   * Returns the cache, which holds either ldap entries or objects.
+   *
+   * @return  entry cache
+   */
+  public EntryCache<?> getCache()
+  {
+    return entryCache != null ? entryCache : objectCache;
+  }
+
+
+  /** {@inheritDoc} */
+  @Override
+  public T find(final T object)
+    throws LdapException
+  {
+    final String dn = ldapEntryMapper.getDn(object);
+    if (readCache(dn, object)) {
+      return object;
+    }
+    final long version = getCache().getVersion(dn);
+    final T found = ldapEntryManager.find(object);
+    writeCache(dn, found, version);
+    return found;
+  }
+
+
+  /** {@inheritDoc} */
+  @Override
+  public SearchCursor<T> search(
+    final String baseDn,
+    final String filter,
+    final Class<? extends T> type)
+    throws LdapException
+  {
+    return ldapEntryManager.search(baseDn, filter, type);
+  }
+
+
+  /** {@inheritDoc} */
+  @Override
+  public SearchCursor<T> search(
+    final SearchRequest request,
+    final Class<? extends T> type)
+    throws LdapException
+  {
+    return ldapEntryManager.search(request, type);
+  }
+
+
+  /** {@inheritDoc} */
+  @Override
+  public Response<Void> add(final T object)
+    throws LdapException
+  {
+    final String dn = ldapEntryMapper.getDn(object);
+    try {
+      return ldapEntryManager.add(object);
+    } finally {
+      getCache().remove(dn);
+    }
+  }
+
+
+  /** {@inheritDoc} */
+  @Override
+  public Response<Void> merge(final T object)
+    throws LdapException
+  {
+    final String dn = ldapEntryMapper.getDn(object);
+    try {
+      return ldapEntryManager.merge(object);
+    } finally {
+      getCache().remove(dn);
+    }
+  }
+
+
+  /** {@inheritDoc} */
+  @Override
+  public Response<Void> delete(final T object)
+    throws LdapException
+  {
+    final String dn = ldapEntryMapper.getDn(object);
+    try {
+      return ldapEntryManager.delete(object);
+    } finally {
+      getCache().remove(dn);
+    }
+  }
+
+
+  /** {@inheritDoc} */
+  @Override
+  public Response<Void> deleteByDn(final String dn)
+    throws LdapException
+  {
+    try {
+      return ldapEntryManager.deleteByDn(dn);
+    } finally {
+      getCache().remove(dn);
+    }
+  }
+
+
+  /**
+   * Answers each object from the cache if possible, then finds the remaining
+   * objects with a single batch on the underlying manager. Items answered
+   * from the cache have no response.
+   *
+   * @param  objects  to find
+   *
+   * @return  result for each object
+   */
+  @Override
+  public BatchResult<T> findAll(final Collection<T> objects)
+  {
+    final BatchResult<T> result = new BatchResult<T>(objects);
+    final List<Integer> indexes = new ArrayList<Integer>();
+    final List<String> dns = new ArrayList<String>();
+    final List<Long> versions = new ArrayList<Long>();
+    final List<T> misses = new ArrayList<T>();
+    for (int i = 0; i < result.size(); i++) {
+      final BatchResult.Item<T> item = result.getItem(i);
+      try {
+        final String dn = ldapEntryMapper.getDn(item.getObject());
+        if (!readCache(dn, item.getObject())) {
+          indexes.add(i);
+          dns.add(dn);
+          versions.add(getCache().getVersion(dn));
+          misses.add(item.getObject());
+        }
+      } catch (RuntimeException e) {
+        logger.debug("could not read {} from cache", item.getObject(), e);
+        item.setException(e);
+      }
+    }
+    if (!misses.isEmpty()) {
+      final BatchResult<T> found = ldapEntryManager.findAll(misses);
+      for (int i = 0; i < found.size(); i++) {
+        final BatchResult.Item<T> item = result.getItem(indexes.get(i));
+        final BatchResult.Item<T> foundItem = found.getItem(i);
+        if (foundItem.isSuccess()) {
+          item.setResponse(foundItem.getResponse());
+          writeCache(dns.get(i), foundItem.getObject(), versions.get(i));
+        } else {
+          item.setException(foundItem.getException());
+        }
+      }
+    }
+    return result;
+  }
+
+
+  /** {@inheritDoc} */
+  @Override
+  public BatchResult<T> addAll(final Collection<T> objects)
+  {
+    try {
+      return ldapEntryManager.addAll(objects);
+    } finally {
+      invalidate(objects);
+    }
+  }
+
+
+  /** {@inheritDoc} */
+  @Override
+  public BatchResult<T> mergeAll(final Collection<T> objects)
+  {
+    try {
+      return ldapEntryManager.mergeAll(objects);
+    } finally {
+      invalidate(objects);
+    }
+  }
+
+
+  /** {@inheritDoc} */
+  @Override
+  public BatchResult<T> deleteAll(final Collection<T> objects)
+  {
+    try {
+      return ldapEntryManager.deleteAll(objects);
+    } finally {
+      invalidate(objects);
+    }
+  }
+
+
+  /** {@inheritDoc} */
+  @Override
+  public BatchResult<String> deleteAllByDn(final Collection<String> dns)
+  {
+    try {
+      return ldapEntryManager.deleteAllByDn(dns);
+    } finally {
+      for (String dn : dns) {
+        if (dn != null) {
+          getCache().remove(dn);
+        }
+      }
+    }
+  }
+
+
+  /** {@inheritDoc} */
+  @Override
+  public BatchResult<String> deleteSubtree(final String dn)
+    throws LdapException
+  {
+    try {
+      return ldapEntryManager.deleteSubtree(dn);
+    } finally {
+      getCache().removeSubtree(dn);
+    }
+  }
+
+
+  /**
+   * Copies or maps the cached value for the supplied DN onto the supplied
+   * object.
+   *
+   * @param  dn  of the object
+   * @param  object  to populate
+   *
+   * @return  whether the DN was cached
+   */
+  private boolean readCache(final String dn, final T object)
+  {
+    if (entryCache != null) {
+      final LdapEntry entry = entryCache.get(dn);
+      if (entry != null) {
+        ldapEntryMapper.map(entry, object);
+        return true;
+      }
+    } else {
+      final T cached = objectCache.get(dn);
+      if (cached != null) {
+        objectCopier.copy(cached, object);
+        return true;
+      }
+    }
+    return false;
+  }
+
+
+  /**
+   * Caches the ldap entry of the supplied object, or a copy of the object,
+   * unless the DN was invalidated after the object was read. Otherwise a
+   * modification that completes while the object is read would leave the
+   * previous state cached.
+   *
+   * @param  dn  of the object
+   * @param  object  to cache
+   * @param  version  of the DN in the cache before the object was read
+   */
+  private void writeCache(final String dn, final T object, final long version)
+  {
+    if (entryCache != null) {
+      final LdapEntry entry = new LdapEntry();
+      ldapEntryMapper.map(object, entry);
+      entryCache.put(dn, entry, version);
+    } else {
+      objectCache.put(dn, copy(object), version);
+    }
+  }
+
+
+  /**
+   * Returns a new object of the same type as the supplied object with its
+   * properties copied.
+   *
+   * @param  object  to copy
+   *
+   * @return  copy of object
+   */
+  @SuppressWarnings("unchecked")
+  private T copy(final T object)
+  {
+    final T copy = (T) ReflectionUtils.newInstance(object.getClass());
+    objectCopier.copy(object, copy);
+    return copy;
+  }
+
+
+  /**
+   * Removes the DN of each of the supplied objects from the cache.
+   *
+   * @param  objects  to invalidate
+   */
+  private void invalidate(final Collection<T> objects)
+  {
+    for (T object : objects) {
+      try {
+        getCache().remove(ldapEntryMapper.getDn(object));
+      } catch (RuntimeException e) {
+        logger.debug("could not invalidate {}", object, e);
+      }
+    }
+  }
+
+
+  /** {@inheritDoc} */
+  @Override
+  public String toString()
+  {
+    return String.format(
+      "[%s@%d::ldapEntryManager=%s, cache=%s, objectCopier=%s]",
+      getClass().getName(),
+      hashCode(),
+      ldapEntryManager,
+      getCache(),
+      objectCopier);
+  }
+}
@@ -0,0 +1,155 @@
+/*
+  $Id$
+
+  Copyright (C) 2003-2014 Virginia Tech.
+  All rights reserved.
+
+  SEE LICENSE FOR MORE INFORMATION
+
+  Author:  Middleware Services
+  Email:   middleware@vt.edu
+  Version: $Revision$
+  Updated: $Date$
+*/
+package org.ldaptive.persistence;
+
+import java.lang.ref.Reference;
+import java.lang.ref.ReferenceQueue;
+import java.lang.ref.WeakReference;
+import java.util.HashMap;
+import java.util.Map;
+import org.ldaptive.LdapEntry;
+
+/**
+ * Holds the last known ldap entry of each tracked object. Objects are keyed by
+ * identity, since mapped beans usually implement equals and hash code over
+ * mutable properties, and are held weakly so that tracking an object does not
+ * prevent it from being garbage collected.
+ *
+ * @author  Middleware Services
+ * @version  $Revision$ $Date$
+ */
+final class ChangeTracker
+{
+
+  /** Queue of keys whose objects have been collected. */
+  private final ReferenceQueue<Object> queue = new ReferenceQueue<Object>();
+
+  /** Snapshot for each tracked object. */
+  private final Map<Key, LdapEntry> snapshots = new HashMap<Key, LdapEntry>();
+
+
+  /**
+   * Stores the snapshot for the supplied object, replacing any previous one.
+   *
+   * @param  object  to track
+   * @param  snapshot  ldap entry mapped from the object
+   */
+  synchronized void put(final Object object, final LdapEntry snapshot)
+  {
+    expunge();
+    snapshots.put(new Key(object, queue), snapshot);
+  }
+
+
+  /**
+   * Returns the snapshot for the supplied object.
+   *
+   * @param  object  to get the snapshot for
+   *
+   * @return  snapshot or null if the object is not tracked
+   */
+  synchronized LdapEntry get(final Object object)
+  {
+    expunge();
+    return snapshots.get(new Key(object, null));
+  }
+
+
+  /**
+   * Stops tracking the supplied object.
+   *
+   * @param  object  to stop tracking
+   */
+  synchronized void remove(final Object object)
+  {
+    expunge();
+    snapshots.remove(new Key(object, null));
+  }
+
+
+  /**
+   * Returns the number of tracked objects that have not been collected.
+   *
+   * @return  number of snapshots
+   */
+  synchronized int size()
+  {
+    expunge();
+    return snapshots.size();
+  }
+
+
+  /** Stops tracking all objects. */
+  synchronized void clear()
+  {
+    snapshots.clear();
+    expunge();
+  }
+
+
+  /** Removes the snapshots of collected objects. */
+  private void expunge()
+  {
+    Reference<?> ref = queue.poll();
+    while (ref != null) {
+      snapshots.remove(ref);
+      ref = queue.poll();
+    }
+  }
+
+
+  /** Weak reference to an object that is equal to other keys by identity. */
+  private static final class Key extends WeakReference<Object>
+  {
+
+    /** Identity hash code of the object. */
+    private final int hash;
+
+
+    /**
+     * Creates a new key.
+     *
+     * @param  object  to reference
+     * @param  q  to enqueue this key on once the object is collected
+     */
+    Key(final Object object, final ReferenceQueue<Object> q)
+    {
+      super(object, q);
+      hash = System.identityHashCode(object);
+    }
+
+
+    /** {@inheritDoc} */
+    @Override
+    public int hashCode()
+    {
+      return hash;
+    }
+
+
+    /** {@inheritDoc} */
+    @Override
+    public boolean equals(final Object o)
+    {
+      if (o == this) {
+        return true;
+      }
+      if (!(o instanceof Key)) {
+        return false;
+      }
+      final Object object = get();
+      return object != null && object == ((Key) o).get();
+    }
+  }
+}
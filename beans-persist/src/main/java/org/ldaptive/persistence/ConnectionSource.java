@@ -0,0 +1,48 @@
+/*
+  $Id$
+
+  Copyright (C) 2003-2014 Virginia Tech.
+  All rights reserved.
+
+  SEE LICENSE FOR MORE INFORMATION
+
+  Author:  Middleware Services
+  Email:   middleware@vt.edu
+  Version: $Revision$
+  Updated: $Date$
+*/
+package org.ldaptive.persistence;
+
+import org.ldaptive.Connection;
+import org.ldaptive.LdapException;
+
+/**
+ * Supplies open connections to an ldap entry manager. Each operation borrows a
+ * connection with {@link #getConnection()} and hands it back with {@link
+ * #releaseConnection(Connection)} when it completes.
+ *
+ * @author  Middleware Services
+ * @version  $Revision$ $Date$
+ */
+public interface ConnectionSource
+{
+
+
+  /**
+   * Returns an open connection for the exclusive use of a single operation.
+   *
+   * @return  open connection
+   *
+   * @throws  LdapException  if a connection cannot be obtained or opened
+   */
+  Connection getConnection()
+    throws LdapException;
+
+
+  /**
+   * Releases a connection obtained from {@link #getConnection()}.
+   *
+   * @param  conn  to release
+   */
+  void releaseConnection(Connection conn);
+}
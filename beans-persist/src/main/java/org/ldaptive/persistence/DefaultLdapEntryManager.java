@@ -13,18 +13,34 @@
 */
 package org.ldaptive.persistence;
 
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
 import org.ldaptive.AddOperation;
 import org.ldaptive.AddRequest;
+import org.ldaptive.AttributeModification;
 import org.ldaptive.Connection;
 import org.ldaptive.ConnectionFactory;
 import org.ldaptive.DeleteOperation;
 import org.ldaptive.DeleteRequest;
+import org.ldaptive.LdapEntry;
 import org.ldaptive.LdapException;
+import org.ldaptive.ModifyOperation;
+import org.ldaptive.ModifyRequest;
 import org.ldaptive.Response;
+import org.ldaptive.ResultCode;
 import org.ldaptive.SearchOperation;
 import org.ldaptive.SearchRequest;
 import org.ldaptive.SearchResult;
+import org.ldaptive.SearchScope;
+import org.ldaptive.beans.AttributeNameProvider;
 import org.ldaptive.beans.LdapEntryMapper;
+import org.ldaptive.control.util.PagedResultsClient;
 import org.ldaptive.ext.MergeOperation;
 import org.ldaptive.ext.MergeRequest;
 import org.slf4j.Logger;
@@ -37,6 +53,18 @@ import org.slf4j.LoggerFactory;
 public class DefaultLdapEntryManager<T> implements LdapEntryManager<T>
 {
 
+  /** Default number of objects processed per connection. */
+  public static final int DEFAULT_BATCH_SIZE = 100;
+
+  /** Default number of entries per page of a search, zero disables paging. */
+  public static final int DEFAULT_PAGE_SIZE = 0;
+
+  /** Return attribute that requests no attributes, see RFC 4511. */
+  private static final String NO_ATTRIBUTES = "1.1";
+
+  /** Requests all user attributes. */
+  private static final String ALL_USER_ATTRIBUTES = "*";
+
   /** Logger for this class. */
   protected final Logger logger = LoggerFactory.getLogger(getClass());
 
@@ -44,13 +72,223 @@ public class DefaultLdapEntryManager<T> implements LdapEntryManager<T>
 
   private final ConnectionFactory connectionFactory;
 
+  /** Source of connections for each operation. */
+  private final ConnectionSource connectionSource;
+
+  /** Number of objects processed per connection by batch operations. */
+  private int batchSize = DEFAULT_BATCH_SIZE;
+
+  /** Number of entries per page of a search. */
+  private int pageSize = DEFAULT_PAGE_SIZE;
+
+  /** Attributes requested by find in addition to the mapped attributes. */
+  private String[] additionalReturnAttributes = new String[0];
+
+  /** Mapped attributes not requested by find. */
+  private String[] excludedReturnAttributes = new String[0];
+
+  /** Attributes requested by find for each object type. */
+  private final Map<Class<?>, String[]> returnAttributes =
+    new ConcurrentHashMap<Class<?>, String[]>();
+
+  /** Snapshots of found objects, null if change tracking is disabled. */
+  private volatile ChangeTracker changeTracker;
+
+  /** Searches for an object and maps the result onto it. */
+  private final ObjectOperation<T, SearchRequest, SearchResult> findOperation =
+    new ObjectOperation<T, SearchRequest, SearchResult>() {
+      @Override
+      protected SearchRequest createRequest(final T object)
+      {
+        return SearchRequest.newObjectScopeSearchRequest(
+          getLdapEntryMapper().getDn(object), getReturnAttributes(object));
+      }
+
+      @Override
+      protected Response<SearchResult> execute(
+        final Connection conn,
+        final T object,
+        final SearchRequest request)
+        throws LdapException
+      {
+        final SearchOperation search = new SearchOperation(conn);
+        final Response<SearchResult> response = search.execute(request);
+        if (response.getResult().size() == 0) {
+          throw new IllegalArgumentException(
+            String.format(
+              "Unable to find ldap entry %s, no entries returned: %s",
+              request.getBaseDn(),
+              response));
+        }
+        if (response.getResult().size() > 1) {
+          throw new IllegalArgumentException(
+            String.format(
+              "Unable to find ldap entry %s, multiple entries returned: %s",
+              request.getBaseDn(),
+              response));
+        }
+        getLdapEntryMapper().map(response.getResult().getEntry(), object);
+        track(object, null);
+        return response;
+      }
+    };
+
+  /** Adds an object. */
+  private final ObjectOperation<T, AddRequest, Void> addOperation =
+    new ObjectOperation<T, AddRequest, Void>() {
+      @Override
+      protected AddRequest createRequest(final T object)
+      {
+        final LdapEntry entry = new LdapEntry();
+        getLdapEntryMapper().map(object, entry);
+        return new AddRequest(entry.getDn(), entry.getAttributes());
+      }
+
+      @Override
+      protected Response<Void> execute(
+        final Connection conn,
+        final T object,
+        final AddRequest request)
+        throws LdapException
+      {
+        final AddOperation add = new AddOperation(conn);
+        final Response<Void> response = add.execute(request);
+        track(
+          object,
+          new LdapEntry(request.getDn(), request.getLdapAttributes()));
+        return response;
+      }
+    };
+
+  /** Merges an object. */
+  private final ObjectOperation<T, MergeChanges, Void> mergeOperation =
+    new ObjectOperation<T, MergeChanges, Void>() {
+      @Override
+      protected MergeChanges createRequest(final T object)
+      {
+        final LdapEntry entry = new LdapEntry();
+        getLdapEntryMapper().map(object, entry);
+        final ChangeTracker tracker = changeTracker;
+        return new MergeChanges(
+          entry, tracker != null ? tracker.get(object) : null);
+      }
+
+      @Override
+      protected Response<Void> execute(
+        final Connection conn,
+        final T object,
+        final MergeChanges request)
+        throws LdapException
+      {
+        final Response<Void> response;
+        final LdapEntry entry = request.getEntry();
+        final LdapEntry snapshot = request.getSnapshot();
+        if (snapshot != null && entry.getDn().equals(snapshot.getDn())) {
+          final AttributeModification[] mods =
+            LdapEntry.computeModifications(entry, snapshot);
+          if (mods.length == 0) {
+            logger.debug("no changes to merge for {}", entry.getDn());
+            response = new Response<Void>(null, ResultCode.SUCCESS);
+          } else {
+            final ModifyOperation modify = new ModifyOperation(conn);
+            response = modify.execute(new ModifyRequest(entry.getDn(), mods));
+          }
+        } else {
+          final MergeOperation merge = new MergeOperation(conn);
+          response = merge.execute(new MergeRequest(entry));
+        }
+        track(object, entry);
+        return response;
+      }
+    };
+
+  /** Deletes an object by its DN. */
+  private final ObjectOperation<T, DeleteRequest, Void> deleteOperation =
+    new ObjectOperation<T, DeleteRequest, Void>() {
+      @Override
+      protected DeleteRequest createRequest(final T object)
+      {
+        return new DeleteRequest(getLdapEntryMapper().getDn(object));
+      }
+
+      @Override
+      protected Response<Void> execute(
+        final Connection conn,
+        final T object,
+        final DeleteRequest request)
+        throws LdapException
+      {
+        final Response<Void> response = dnDeleteOperation.execute(
+          conn, request.getDn(), request);
+        final ChangeTracker tracker = changeTracker;
+        if (tracker != null) {
+          tracker.remove(object);
+        }
+        return response;
+      }
+    };
+
+  /** Deletes a DN. */
+  private final ObjectOperation<String, DeleteRequest, Void> dnDeleteOperation =
+    new ObjectOperation<String, DeleteRequest, Void>() {
+      @Override
+      protected DeleteRequest createRequest(final String dn)
+      {
+        if (dn == null) {
+          throw new IllegalArgumentException("DN cannot be null");
+        }
+        return new DeleteRequest(dn);
+      }
 
+      @Override
+      protected Response<Void> execute(
+        final Connection conn,
+        final String dn,
+        final DeleteRequest request)
+        throws LdapException
+      {
+        final DeleteOperation delete = new DeleteOperation(conn);
+        return delete.execute(request);
+      }
+    };
+
+
+  /**
+   * Creates a new default ldap entry manager that obtains a connection from
+   * the supplied factory for every operation. See {@link
+   * FactoryConnectionSource}.
+   *
+   * @param  mapper  ldap entry mapper
+   * @param  factory  connection factory
+   */
   public DefaultLdapEntryManager(
     final LdapEntryMapper<T> mapper,
     final ConnectionFactory factory)
   {
     ldapEntryMapper = mapper;
     connectionFactory = factory;
+    connectionSource = new FactoryConnectionSource(factory);
+  }
+
+
+  /**
+   * Creates a new default ldap entry manager that borrows connections from the
+   * supplied source.
+   *
+   * @param  mapper  ldap entry mapper
+   * @param  source  connection source
+   */
+  public DefaultLdapEntryManager(
+    final LdapEntryMapper<T> mapper,
+    final ConnectionSource source)
+  {
+    if (source == null) {
+      throw new IllegalArgumentException("Connection source cannot be null");
+    }
+    ldapEntryMapper = mapper;
+    connectionFactory = source instanceof FactoryConnectionSource ?
+      ((FactoryConnectionSource) source).getConnectionFactory() : null;
+    connectionSource = source;
   }
 
 
@@ -66,61 +304,282 @@ public class DefaultLdapEntryManager<T> implements LdapEntryManager<T>
   }
 
 
+  /**
+   * Returns the source of connections for each operation.
+   *
+   * @return  connection source
+   */
+  protected ConnectionSource getConnectionSource()
+  {
+    return connectionSource;
+  }
+
+
+  /**
+   * Returns the number of objects batch operations map and execute per
+   * borrowed connection.
+   *
+   * @return  batch size
+   */
+  public int getBatchSize()
+  {
+    return batchSize;
+  }
+
+
+  /**
+   * Sets the number of objects batch operations map and execute per borrowed
+   * connection.
+   *
+   * @param  size  batch size
+   */
+  public void setBatchSize(final int size)
+  {
+    if (size < 1) {
+      throw new IllegalArgumentException("Batch size must be greater than 0");
+    }
+    batchSize = size;
+  }
+
+
+  /**
+   * Returns the number of entries requested per page by searches.
+   *
+   * @return  page size, zero if paging is disabled
+   */
+  public int getPageSize()
+  {
+    return pageSize;
+  }
+
+
+  /**
+   * Sets the number of entries requested per page by searches. When greater
+   * than zero searches use the paged results control, which keeps them within
+   * server side size limits.
+   *
+   * @param  size  page size, zero to disable paging
+   */
+  public void setPageSize(final int size)
+  {
+    if (size < 0) {
+      throw new IllegalArgumentException("Page size cannot be negative");
+    }
+    pageSize = size;
+  }
+
+
+  /**
+   * Returns the attributes find requests in addition to the attributes mapped
+   * by the ldap entry mapper.
+   *
+   * @return  additional return attributes
+   */
+  public String[] getAdditionalReturnAttributes()
+  {
+    return additionalReturnAttributes;
+  }
+
+
+  /**
+   * Sets the attributes find requests in addition to the attributes mapped by
+   * the ldap entry mapper. Use '*' to request all user attributes.
+   *
+   * @param  names  of additional return attributes
+   */
+  public void setAdditionalReturnAttributes(final String... names)
+  {
+    additionalReturnAttributes = names != null ? names : new String[0];
+    returnAttributes.clear();
+  }
+
+
+  /**
+   * Returns the mapped attributes that find does not request.
+   *
+   * @return  excluded return attributes
+   */
+  public String[] getExcludedReturnAttributes()
+  {
+    return excludedReturnAttributes;
+  }
+
+
+  /**
+   * Sets the mapped attributes that find does not request, such as large
+   * binary attributes that are rarely needed.
+   *
+   * @param  names  of excluded return attributes
+   */
+  public void setExcludedReturnAttributes(final String... names)
+  {
+    excludedReturnAttributes = names != null ? names : new String[0];
+    returnAttributes.clear();
+  }
+
+
+  /**
+   * Returns the attributes to request when finding the supplied object. These
+   * are the attributes mapped by the ldap entry mapper without the excluded
+   * return attributes, plus the additional return attributes. If the mapper
+   * is not an {@link AttributeNameProvider} all user attributes are requested
+   * instead of the mapped attributes. The result is computed once for each
+   * type of object.
+   *
+   * @param  object  to find
+   *
+   * @return  return attributes
+   */
+  protected String[] getReturnAttributes(final T object)
+  {
+    String[] attrs = returnAttributes.get(object.getClass());
+    if (attrs == null) {
+      final List<String> excluded = Arrays.asList(excludedReturnAttributes);
+      final List<String> names = new ArrayList<String>();
+      if (getLdapEntryMapper() instanceof AttributeNameProvider) {
+        @SuppressWarnings("unchecked")
+        final AttributeNameProvider<T> provider =
+          (AttributeNameProvider<T>) getLdapEntryMapper();
+        for (String name : provider.getAttributeNames(object)) {
+          if (!containsIgnoreCase(excluded, name) &&
+              !containsIgnoreCase(names, name)) {
+            names.add(name);
+          }
+        }
+      } else {
+        names.add(ALL_USER_ATTRIBUTES);
+      }
+      for (String name : additionalReturnAttributes) {
+        if (!containsIgnoreCase(names, name)) {
+          names.add(name);
+        }
+      }
+      if (names.isEmpty()) {
+        names.add(NO_ATTRIBUTES);
+      }
+      attrs = names.toArray(new String[names.size()]);
+      returnAttributes.put(object.getClass(), attrs);
+      logger.debug("requesting attributes {} for {}", names, object.getClass());
+    }
+    return attrs;
+  }
+
+
+  /**
+   * Returns whether change tracking is enabled.
+   *
+   * @return  whether merge only sends changed attributes of tracked objects
+   */
+  public boolean isChangeTracking()
+  {
+    return changeTracker != null;
+  }
+
+
+  /**
+   * Sets whether change tracking is enabled. When enabled, every object this
+   * manager finds, adds or merges is tracked along with the ldap entry it
+   * mapped to. Merging a tracked object compares its ldap entry with that
+   * snapshot and sends a single modify request containing only the changed
+   * attributes, rather than reading the entry from the directory and
+   * comparing against it. Untracked objects, and objects whose DN changed, are
+   * merged as usual.
+   *
+   * <p>Objects are tracked by identity and held weakly. Changes made to the
+   * directory by other clients after an object was tracked are not seen, so
+   * only enable change tracking when this manager owns the entries it
+   * merges. Binary values must be replaced rather than modified in place,
+   * since the snapshot shares them with the object. Disabling change tracking
+   * discards all snapshots.</p>
+   *
+   * @param  b  whether to track changes
+   */
+  public void setChangeTracking(final boolean b)
+  {
+    if (b) {
+      if (changeTracker == null) {
+        changeTracker = new ChangeTracker();
+      }
+    } else {
+      changeTracker = null;
+    }
+  }
+
+
+  /**
+   * Returns the number of objects being tracked for changes.
+   *
+   * @return  tracked object count
+   */
+  public int getTrackedCount()
+  {
+    final ChangeTracker tracker = changeTracker;
+    return tracker != null ? tracker.size() : 0;
+  }
+
+
+  /**
+   * Stores a snapshot of the supplied object if change tracking is enabled.
+   *
+   * @param  object  to track
+   * @param  entry  mapped from the object, or null to map it
+   */
+  private void track(final T object, final LdapEntry entry)
+  {
+    final ChangeTracker tracker = changeTracker;
+    if (tracker != null) {
+      LdapEntry snapshot = entry;
+      if (snapshot == null) {
+        snapshot = new LdapEntry();
+        getLdapEntryMapper().map(object, snapshot);
+      }
+      tracker.put(object, snapshot);
+    }
+  }
+
+
   /** {@inheritDoc} */
   @Override
   public T find(final T object)
     throws LdapException
   {
-    final String dn = getLdapEntryMapper().getDn(object);
-    final SearchRequest request = SearchRequest.newObjectScopeSearchRequest(dn);
-    final Connection conn = getConnectionFactory().getConnection();
-    try {
-      conn.open();
-      final SearchOperation search = new SearchOperation(conn);
-      final Response<SearchResult> response = search.execute(request);
-      if (response.getResult().size() == 0) {
-        throw new IllegalArgumentException(
-          String.format(
-            "Unable to find ldap entry %s, no entries returned: %s",
-            dn,
-            response));
-      }
-      if (response.getResult().size() > 1) {
-        throw new IllegalArgumentException(
-          String.format(
-            "Unable to find ldap entry %s, multiple entries returned: %s",
-            dn,
-            response));
-      }
-      getLdapEntryMapper().map(object, response.getResult().getEntry());
-    } finally {
-      if (conn != null) {
-        conn.close();
-      }
-    }
+    execute(findOperation, object);
     return object;
   }
 
 
+  /** {@inheritDoc} */
+  @Override
+  public SearchCursor<T> search(
+    final String baseDn,
+    final String filter,
+    final Class<? extends T> type)
+    throws LdapException
+  {
+    final SearchRequest request = new SearchRequest(baseDn, filter);
+    request.setSearchScope(SearchScope.SUBTREE);
+    return search(request, type);
+  }
+
+
+  /** {@inheritDoc} */
+  @Override
+  public SearchCursor<T> search(
+    final SearchRequest request,
+    final Class<? extends T> type)
+    throws LdapException
+  {
+    return new SearchCursor<T>(
+      getConnectionSource(), request, pageSize, getLdapEntryMapper(), type);
+  }
+
+
   /** {@inheritDoc} */
   @Override
   public Response<Void> add(final T object)
     throws LdapException
   {
-    final org.ldaptive.LdapEntry entry = new org.ldaptive.LdapEntry();
-    getLdapEntryMapper().map(object, entry);
-    final AddRequest request = new AddRequest(
-      entry.getDn(), entry.getAttributes());
-    final Connection conn = getConnectionFactory().getConnection();
-    try {
-      conn.open();
-      final AddOperation add = new AddOperation(conn);
-      return add.execute(request);
-    } finally {
-      if (conn != null) {
-        conn.close();
-      }
-    }
+    return execute(addOperation, object);
   }
 
 
@@ -129,40 +588,321 @@ public class DefaultLdapEntryManager<T> implements LdapEntryManager<T>
   public Response<Void> merge(final T object)
     throws LdapException
   {
-    final org.ldaptive.LdapEntry entry = new org.ldaptive.LdapEntry();
-    getLdapEntryMapper().map(object, entry);
-    final MergeRequest request = new MergeRequest(entry);
-    final Connection conn = getConnectionFactory().getConnection();
+    return execute(mergeOperation, object);
+  }
+
+
+  /** {@inheritDoc} */
+  @Override
+  public Response<Void> delete(final T object)
+    throws LdapException
+  {
+    return execute(deleteOperation, object);
+  }
+
+
+  /** {@inheritDoc} */
+  @Override
+  public Response<Void> deleteByDn(final String dn)
+    throws LdapException
+  {
+    return execute(dnDeleteOperation, dn);
+  }
+
+
+  /** {@inheritDoc} */
+  @Override
+  public BatchResult<T> findAll(final Collection<T> objects)
+  {
+    return executeAll(findOperation, objects);
+  }
+
+
+  /** {@inheritDoc} */
+  @Override
+  public BatchResult<T> addAll(final Collection<T> objects)
+  {
+    return executeAll(addOperation, objects);
+  }
+
+
+  /** {@inheritDoc} */
+  @Override
+  public BatchResult<T> mergeAll(final Collection<T> objects)
+  {
+    return executeAll(mergeOperation, objects);
+  }
+
+
+  /** {@inheritDoc} */
+  @Override
+  public BatchResult<T> deleteAll(final Collection<T> objects)
+  {
+    return executeAll(deleteOperation, objects);
+  }
+
+
+  /** {@inheritDoc} */
+  @Override
+  public BatchResult<String> deleteAllByDn(final Collection<String> dns)
+  {
+    return executeAll(dnDeleteOperation, dns);
+  }
+
+
+  /**
+   * Searches for the DNs in the subtree without requesting any attributes,
+   * using the paged results control if a page size is set, then deletes them
+   * in batches. A child DN is always longer than the DN of its parent, so
+   * deleting in order of decreasing length deletes children first.
+   *
+   * @param  dn  of the root of the subtree
+   *
+   * @return  result for each DN in the subtree, in the order deleted
+   *
+   * @throws  LdapException  if the subtree cannot be searched
+   */
+  @Override
+  public BatchResult<String> deleteSubtree(final String dn)
+    throws LdapException
+  {
+    final SearchRequest request = new SearchRequest(
+      dn, "(objectClass=*)", NO_ATTRIBUTES);
+    request.setSearchScope(SearchScope.SUBTREE);
+    final Response<SearchResult> response;
+    final Connection conn = getConnectionSource().getConnection();
     try {
-      conn.open();
-      final MergeOperation merge = new MergeOperation(conn);
-      return merge.execute(request);
+      if (pageSize > 0) {
+        response = new PagedResultsClient(conn, pageSize).executeToCompletion(
+          request);
+      } else {
+        response = new SearchOperation(conn).execute(request);
+      }
     } finally {
-      if (conn != null) {
-        conn.close();
+      getConnectionSource().releaseConnection(conn);
+    }
+    final List<String> dns = new ArrayList<String>(
+      Arrays.asList(response.getResult().getEntryDns()));
+    Collections.sort(
+      dns,
+      new Comparator<String>() {
+        @Override
+        public int compare(final String a, final String b)
+        {
+          return b.length() - a.length();
+        }
+      });
+    logger.debug("deleting {} entries below {}", dns.size(), dn);
+    return executeAll(dnDeleteOperation, dns);
+  }
+
+
+  /**
+   * Returns whether the supplied collection contains the supplied name,
+   * ignoring case.
+   *
+   * @param  names  to search
+   * @param  name  to find
+   *
+   * @return  whether name is in names
+   */
+  private static boolean containsIgnoreCase(
+    final Collection<String> names,
+    final String name)
+  {
+    for (String s : names) {
+      if (s.equalsIgnoreCase(name)) {
+        return true;
       }
     }
+    return false;
   }
 
 
-  /** {@inheritDoc} */
-  @Override
-  public Response<Void> delete(final T object)
+  /**
+   * Maps the supplied object to a request and executes it on a borrowed
+   * connection.
+   *
+   * @param  <O>  type of object
+   * @param  <Q>  type of request
+   * @param  <R>  type of response
+   * @param  operation  to execute
+   * @param  object  to execute the operation for
+   *
+   * @return  operation response
+   *
+   * @throws  LdapException  if the operation fails
+   */
+  private <O, Q, R> Response<R> execute(
+    final ObjectOperation<O, Q, R> operation,
+    final O object)
     throws LdapException
   {
-    // TODO create delete request from object
-    final org.ldaptive.LdapEntry entry = new org.ldaptive.LdapEntry();
-    getLdapEntryMapper().map(object, entry);
-    final DeleteRequest request = new DeleteRequest(entry.getDn());
-    final Connection conn = getConnectionFactory().getConnection();
+    final Q request = operation.createRequest(object);
+    final Connection conn = getConnectionSource().getConnection();
     try {
-      conn.open();
-      final DeleteOperation delete = new DeleteOperation(conn);
-      return delete.execute(request);
+      return operation.execute(conn, object, request);
     } finally {
-      if (conn != null) {
-        conn.close();
+      getConnectionSource().releaseConnection(conn);
+    }
+  }
+
+
+  /**
+   * Executes the supplied operation for each object. Objects are processed in
+   * batches of {@link #getBatchSize()}: every object in a batch is mapped to
+   * a request, then the requests are executed on a single borrowed
+   * connection. Failures are recorded in the result and do not stop the
+   * remaining objects from being processed.
+   *
+   * @param  <O>  type of object
+   * @param  <Q>  type of request
+   * @param  <R>  type of response
+   * @param  operation  to execute
+   * @param  objects  to execute the operation for
+   *
+   * @return  batch result
+   */
+  private <O, Q, R> BatchResult<O> executeAll(
+    final ObjectOperation<O, Q, R> operation,
+    final Collection<O> objects)
+  {
+    final BatchResult<O> result = new BatchResult<O>(objects);
+    final List<Integer> indexes = new ArrayList<Integer>(batchSize);
+    final List<Q> requests = new ArrayList<Q>(batchSize);
+    int index = 0;
+    while (index < result.size()) {
+      indexes.clear();
+      requests.clear();
+      for (; index < result.size() && indexes.size() < batchSize; index++) {
+        final BatchResult.Item<O> item = result.getItem(index);
+        try {
+          requests.add(operation.createRequest(item.getObject()));
+          indexes.add(index);
+        } catch (RuntimeException e) {
+          logger.debug("could not map {}", item.getObject(), e);
+          item.setException(e);
+        }
       }
+      if (indexes.isEmpty()) {
+        continue;
+      }
+
+      final Connection conn;
+      try {
+        conn = getConnectionSource().getConnection();
+      } catch (LdapException e) {
+        logger.debug("could not obtain connection for batch", e);
+        for (int i : indexes) {
+          result.getItem(i).setException(e);
+        }
+        continue;
+      }
+      try {
+        for (int i = 0; i < indexes.size(); i++) {
+          final BatchResult.Item<O> item = result.getItem(indexes.get(i));
+          try {
+            item.setResponse(
+              operation.execute(conn, item.getObject(), requests.get(i)));
+          } catch (LdapException e) {
+            logger.debug("operation failed for {}", item.getObject(), e);
+            item.setException(e);
+          } catch (RuntimeException e) {
+            logger.debug("operation failed for {}", item.getObject(), e);
+            item.setException(e);
+          }
+        }
+      } finally {
+        getConnectionSource().releaseConnection(conn);
+      }
+    }
+    return result;
+  }
+
+
+  /** Ldap entry of an object to merge and the snapshot it is compared with. */
+  private static final class MergeChanges
+  {
+
+    /** Entry mapped from the object. */
+    private final LdapEntry entry;
+
+    /** Last known entry of the object, null if the object is not tracked. */
+    private final LdapEntry snapshot;
+
+
+    /**
+     * Creates new merge changes.
+     *
+     * @param  e  entry mapped from the object
+     * @param  s  last known entry of the object
+     */
+    MergeChanges(final LdapEntry e, final LdapEntry s)
+    {
+      entry = e;
+      snapshot = s;
     }
+
+
+    /**
+     * Returns the entry mapped from the object.
+     *
+     * @return  ldap entry
+     */
+    LdapEntry getEntry()
+    {
+      return entry;
+    }
+
+
+    /**
+     * Returns the last known entry of the object.
+     *
+     * @return  ldap entry or null
+     */
+    LdapEntry getSnapshot()
+    {
+      return snapshot;
+    }
+  }
+
+
+  /**
+   * Maps an object to an ldap request and executes that request.
+   *
+   * @param  <O>  type of object
+   * @param  <Q>  type of request
+   * @param  <R>  type of response
+   */
+  private abstract static class ObjectOperation<O, Q, R>
+  {
+
+
+    /**
+     * Maps the supplied object to a request.
+     *
+     * @param  object  to map
+     *
+     * @return  request
+     */
+    protected abstract Q createRequest(O object);
+
+
+    /**
+     * Executes a request created by {@link #createRequest(Object)}.
+     *
+     * @param  conn  open connection
+     * @param  object  the request was created from
+     * @param  request  to execute
+     *
+     * @return  response
+     *
+     * @throws  LdapException  if the operation fails
+     */
+    protected abstract Response<R> execute(
+      Connection conn,
+      O object,
+      Q request)
+      throws LdapException;
   }
 }
@@ -0,0 +1,598 @@
+/*
+  $Id$
+
+  Copyright (C) 2003-2014 Virginia Tech.
+  All rights reserved.
+
+  SEE LICENSE FOR MORE INFORMATION
+
+  Author:  Middleware Services
+  Email:   middleware@vt.edu
+  Version: $Revision$
+  Updated: $Date$
+*/
+package org.ldaptive.persistence;
+
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Size bounded cache of values keyed by DN. When the cache is full the least
+ * recently used value is evicted, and values older than the time to live are
+ * discarded when they are next read. DNs are compared ignoring case and any
+ * spaces around the separators of their RDNs, so <code>uid=a, ou=people</code>
+ * and <code>UID=a,ou=People</code> name the same value.
+ *
+ * <p>Large caches are split into independently locked segments, so readers
+ * of different DNs rarely contend. Each segment holds an equal share of the
+ * maximum size and evicts its own least recently used value, so eviction
+ * order is only approximately least recently used across the whole cache.
+ * Caches smaller than {@value #MIN_SEGMENT_SIZE} values per segment use a
+ * single segment.</p>
+ *
+ * <p>Every DN has a version that changes whenever the DN is removed, either
+ * directly or through {@link #removeSubtree(String)} or {@link #clear()}.
+ * A reader that loads a value after a miss should obtain the version with
+ * {@link #getVersion(String)} before loading and store the value with {@link
+ * #put(String, Object, long)}, which discards the value if the DN was
+ * invalidated in the meantime. DNs share versions in stripes, so an unrelated
+ * invalidation occasionally discards a value that could have been cached.</p>
+ *
+ * @param  <V>  type of cached value
+ *
+ * @author  Middleware Services
+ * @version  $Revision$ $Date$
+ */
+public class EntryCache<V>
+{
+
+  /** Maximum number of segments. */
+  private static final int MAX_SEGMENTS = 16;
+
+  /** Minimum number of values a segment holds when there are several. */
+  private static final int MIN_SEGMENT_SIZE = 64;
+
+  /** Number of version stripes in each segment. */
+  private static final int VERSION_STRIPES = 64;
+
+  /** Maximum number of values. */
+  private final int maxSize;
+
+  /** Time to live of a value in nanoseconds, zero for no expiration. */
+  private final long timeToLive;
+
+  /** Segments, the number of which is a power of two. */
+  private final Segment<V>[] segments;
+
+  /** Mask of segment indexes. */
+  private final int segmentMask;
+
+
+  /**
+   * Creates a new entry cache.
+   *
+   * @param  size  maximum number of values
+   * @param  ttl  time to live of a value, zero for no expiration
+   * @param  unit  of ttl
+   */
+  @SuppressWarnings("unchecked")
+  public EntryCache(final int size, final long ttl, final TimeUnit unit)
+  {
+    if (size < 1) {
+      throw new IllegalArgumentException("Size must be greater than 0");
+    }
+    if (ttl < 0) {
+      throw new IllegalArgumentException("Time to live cannot be negative");
+    }
+    maxSize = size;
+    timeToLive = unit.toNanos(ttl);
+    int count = 1;
+    while (count < MAX_SEGMENTS && size / (count * 2) >= MIN_SEGMENT_SIZE) {
+      count *= 2;
+    }
+    segments = new Segment[count];
+    for (int i = 0; i < count; i++) {
+      // spread the remainder over the first segments
+      segments[i] = new Segment<V>(size / count + (i < size % count ? 1 : 0));
+    }
+    segmentMask = count - 1;
+  }
+
+
+  /**
+   * Returns the maximum number of values.
+   *
+   * @return  maximum size
+   */
+  public int getMaxSize()
+  {
+    return maxSize;
+  }
+
+
+  /**
+   * Returns the time to live of a value.
+   *
+   * @param  unit  to return the time to live in
+   *
+   * @return  time to live, zero for no expiration
+   */
+  public long getTimeToLive(final TimeUnit unit)
+  {
+    return unit.convert(timeToLive, TimeUnit.NANOSECONDS);
+  }
+
+
+  /**
+   * Returns the value for the supplied DN.
+   *
+   * @param  dn  to look up
+   *
+   * @return  value or null if the DN is not cached or has expired
+   */
+  public V get(final String dn)
+  {
+    final String key = normalize(dn);
+    final Segment<V> segment = segmentFor(key);
+    synchronized (segment) {
+      final Item<V> item = segment.items.get(key);
+      if (item != null) {
+        if (!isExpired(item, System.nanoTime())) {
+          segment.hitCount++;
+          return item.value;
+        }
+        segment.items.remove(key);
+        segment.expirationCount++;
+      }
+      segment.missCount++;
+    }
+    return null;
+  }
+
+
+  /**
+   * Returns the current version of the supplied DN. Obtain the version before
+   * loading a value to store with {@link #put(String, Object, long)}.
+   *
+   * @param  dn  to return the version of
+   *
+   * @return  version of the DN
+   */
+  public long getVersion(final String dn)
+  {
+    final String key = normalize(dn);
+    final int hash = hash(key);
+    final Segment<V> segment = segments[hash & segmentMask];
+    synchronized (segment) {
+      return segment.versions[stripe(hash)];
+    }
+  }
+
+
+  /**
+   * Stores the value for the supplied DN, replacing any existing value.
+   *
+   * @param  dn  to store the value for
+   * @param  value  to store
+   */
+  public void put(final String dn, final V value)
+  {
+    final String key = normalize(dn);
+    final Item<V> item = new Item<V>(value, System.nanoTime());
+    final Segment<V> segment = segmentFor(key);
+    synchronized (segment) {
+      segment.items.put(key, item);
+    }
+  }
+
+
+  /**
+   * Stores the value for the supplied DN unless the DN has been invalidated
+   * since the supplied version was obtained.
+   *
+   * @param  dn  to store the value for
+   * @param  value  to store
+   * @param  version  of the DN when loading the value started
+   *
+   * @return  whether the value was stored
+   */
+  public boolean put(final String dn, final V value, final long version)
+  {
+    final String key = normalize(dn);
+    final int hash = hash(key);
+    final Item<V> item = new Item<V>(value, System.nanoTime());
+    final Segment<V> segment = segments[hash & segmentMask];
+    synchronized (segment) {
+      if (segment.versions[stripe(hash)] != version) {
+        return false;
+      }
+      segment.items.put(key, item);
+    }
+    return true;
+  }
+
+
+  /**
+   * Removes the value for the supplied DN.
+   *
+   * @param  dn  to remove
+   */
+  public void remove(final String dn)
+  {
+    final String key = normalize(dn);
+    final int hash = hash(key);
+    final Segment<V> segment = segments[hash & segmentMask];
+    synchronized (segment) {
+      segment.versions[stripe(hash)]++;
+      segment.items.remove(key);
+    }
+  }
+
+
+  /**
+   * Removes the values for the supplied DN and every DN below it.
+   *
+   * @param  dn  root of the subtree to remove
+   */
+  public void removeSubtree(final String dn)
+  {
+    final String key = normalize(dn);
+    final String suffix = "," + key;
+    for (Segment<V> segment : segments) {
+      synchronized (segment) {
+        segment.invalidate();
+        final Iterator<String> i = segment.items.keySet().iterator();
+        while (i.hasNext()) {
+          final String k = i.next();
+          if (k.equals(key) || k.endsWith(suffix)) {
+            i.remove();
+          }
+        }
+      }
+    }
+  }
+
+
+  /** Removes all values. */
+  public void clear()
+  {
+    for (Segment<V> segment : segments) {
+      synchronized (segment) {
+        segment.invalidate();
+        segment.items.clear();
+      }
+    }
+  }
+
+
+  /**
+   * Returns the number of cached values, including values that have expired
+   * but have not yet been read.
+   *
+   * @return  number of values
+   */
+  public int size()
+  {
+    int size = 0;
+    for (Segment<V> segment : segments) {
+      synchronized (segment) {
+        size += segment.items.size();
+      }
+    }
+    return size;
+  }
+
+
+  /**
+   * Returns the number of reads that found a value.
+   *
+   * @return  hit count
+   */
+  public long getHitCount()
+  {
+    long count = 0;
+    for (Segment<V> segment : segments) {
+      synchronized (segment) {
+        count += segment.hitCount;
+      }
+    }
+    return count;
+  }
+
+
+  /**
+   * Returns the number of reads that did not find a value.
+   *
+   * @return  miss count
+   */
+  public long getMissCount()
+  {
+    long count = 0;
+    for (Segment<V> segment : segments) {
+      synchronized (segment) {
+        count += segment.missCount;
+      }
+    }
+    return count;
+  }
+
+
+  /**
+   * Returns the fraction of reads that found a value.
+   *
+   * @return  hit rate between 0 and 1, or 0 if there have been no reads
+   */
+  public double getHitRate()
+  {
+    final long hits = getHitCount();
+    final long total = hits + getMissCount();
+    return total > 0 ? (double) hits / total : 0;
+  }
+
+
+  /**
+   * Returns the number of values evicted because the cache was full.
+   *
+   * @return  eviction count
+   */
+  public long getEvictionCount()
+  {
+    long count = 0;
+    for (Segment<V> segment : segments) {
+      synchronized (segment) {
+        count += segment.evictionCount;
+      }
+    }
+    return count;
+  }
+
+
+  /**
+   * Returns the number of values discarded because they expired.
+   *
+   * @return  expiration count
+   */
+  public long getExpirationCount()
+  {
+    long count = 0;
+    for (Segment<V> segment : segments) {
+      synchronized (segment) {
+        count += segment.expirationCount;
+      }
+    }
+    return count;
+  }
+
+
+  /** Resets the hit, miss, eviction and expiration counts. */
+  public void resetStatistics()
+  {
+    for (Segment<V> segment : segments) {
+      synchronized (segment) {
+        segment.hitCount = 0;
+        segment.missCount = 0;
+        segment.evictionCount = 0;
+        segment.expirationCount = 0;
+      }
+    }
+  }
+
+
+  /**
+   * Returns whether the supplied item has outlived the time to live.
+   *
+   * @param  item  to check
+   * @param  now  current time in nanoseconds
+   *
+   * @return  whether the item has expired
+   */
+  private boolean isExpired(final Item<V> item, final long now)
+  {
+    return timeToLive > 0 && now - item.created > timeToLive;
+  }
+
+
+  /**
+   * Returns the segment that holds the supplied key.
+   *
+   * @param  key  normalized DN
+   *
+   * @return  segment
+   */
+  private Segment<V> segmentFor(final String key)
+  {
+    return segments[hash(key) & segmentMask];
+  }
+
+
+  /**
+   * Returns the hash of the supplied key with its high bits spread, since
+   * DNs often share a suffix.
+   *
+   * @param  key  normalized DN
+   *
+   * @return  hash
+   */
+  private static int hash(final String key)
+  {
+    final int h = key.hashCode();
+    return h ^ (h >>> 16);
+  }
+
+
+  /**
+   * Returns the version stripe of the supplied hash, using bits other than
+   * the segment index.
+   *
+   * @param  hash  of a key
+   *
+   * @return  stripe index
+   */
+  private static int stripe(final int hash)
+  {
+    return (hash >>> 8) & (VERSION_STRIPES - 1);
+  }
+
+
+  /**
+   * Returns the cache key for the supplied DN. Spaces at either end of the DN
+   * and around unescaped, unquoted <code>,</code>, <code>+</code> and <code>
+   * =</code> characters are removed and the DN is lower cased.
+   *
+   * @param  dn  to normalize
+   *
+   * @return  canonical DN
+   */
+  private static String normalize(final String dn)
+  {
+    if (dn == null) {
+      throw new IllegalArgumentException("DN cannot be null");
+    }
+    final StringBuilder sb = new StringBuilder(dn.length());
+    // length of sb without trailing spaces that may be removed
+    int end = 0;
+    boolean quoted = false;
+    boolean separated = true;
+    for (int i = 0; i < dn.length(); i++) {
+      final char c = dn.charAt(i);
+      if (c == '\\' && i + 1 < dn.length()) {
+        sb.append(c).append(dn.charAt(++i));
+        end = sb.length();
+        separated = false;
+      } else if (quoted) {
+        sb.append(c);
+        end = sb.length();
+        quoted = c != '"';
+      } else if (c == ',' || c == '+' || c == '=') {
+        sb.setLength(end);
+        sb.append(c);
+        end = sb.length();
+        separated = true;
+      } else if (c == ' ') {
+        if (!separated) {
+          sb.append(c);
+        }
+      } else {
+        sb.append(c);
+        end = sb.length();
+        quoted = c == '"';
+        separated = false;
+      }
+    }
+    sb.setLength(end);
+    return sb.toString().toLowerCase(Locale.ENGLISH);
+  }
+
+
+  /** {@inheritDoc} */
+  @Override
+  public String toString()
+  {
+    return String.format(
+      "[%s@%d::maxSize=%s, timeToLive=%s, segments=%s, size=%s, " +
+      "hitCount=%s, missCount=%s, evictionCount=%s, expirationCount=%s]",
+      getClass().getName(),
+      hashCode(),
+      maxSize,
+      timeToLive,
+      segments.length,
+      size(),
+      getHitCount(),
+      getMissCount(),
+      getEvictionCount(),
+      getExpirationCount());
+  }
+
+
+  /**
+   * Independently locked part of the cache. All fields are guarded by the
+   * segment itself.
+   *
+   * @param  <V>  type of value
+   */
+  private static final class Segment<V>
+  {
+
+    /** Values in access order. */
+    private final LinkedHashMap<String, Item<V>> items;
+
+    /** Version of each stripe of DNs. */
+    private final long[] versions = new long[VERSION_STRIPES];
+
+    /** Number of reads that found a value. */
+    private long hitCount;
+
+    /** Number of reads that did not find a value. */
+    private long missCount;
+
+    /** Number of values evicted because the segment was full. */
+    private long evictionCount;
+
+    /** Number of values discarded because they expired. */
+    private long expirationCount;
+
+
+    /**
+     * Creates a new segment.
+     *
+     * @param  size  maximum number of values
+     */
+    Segment(final int size)
+    {
+      items = new LinkedHashMap<String, Item<V>>(16, 0.75f, true) {
+        private static final long serialVersionUID = 1L;
+        @Override
+        protected boolean removeEldestEntry(
+          final Map.Entry<String, Item<V>> e)
+        {
+          if (size() > size) {
+            evictionCount++;
+            return true;
+          }
+          return false;
+        }
+      };
+    }
+
+
+    /** Changes the version of every stripe. */
+    void invalidate()
+    {
+      for (int i = 0; i < versions.length; i++) {
+        versions[i]++;
+      }
+    }
+  }
+
+
+  /**
+   * Cached value and the time it was stored.
+   *
+   * @param  <V>  type of value
+   */
+  private static final class Item<V>
+  {
+
+    /** Cached value. */
+    private final V value;
+
+    /** Time the value was stored in nanoseconds. */
+    private final long created;
+
+
+    /**
+     * Creates a new item.
+     *
+     * @param  v  value
+     * @param  time  the value was stored
+     */
+    Item(final V v, final long time)
+    {
+      value = v;
+      created = time;
+    }
+  }
+}
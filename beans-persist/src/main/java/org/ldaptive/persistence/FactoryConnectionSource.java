@@ -0,0 +1,106 @@
+/*
+  $Id$
+
+  Copyright (C) 2003-2014 Virginia Tech.
+  All rights reserved.
+
+  SEE LICENSE FOR MORE INFORMATION
+
+  Author:  Middleware Services
+  Email:   middleware@vt.edu
+  Version: $Revision$
+  Updated: $Date$
+*/
+package org.ldaptive.persistence;
+
+import org.ldaptive.Connection;
+import org.ldaptive.ConnectionFactory;
+import org.ldaptive.LdapException;
+
+/**
+ * Obtains a connection from a connection factory for every operation and closes
+ * it afterwards. With a {@link org.ldaptive.DefaultConnectionFactory} each
+ * operation connects and binds. With a {@link
+ * org.ldaptive.pool.PooledConnectionFactory} opening an already open pooled
+ * connection does nothing and closing it returns it to the pool, so each
+ * operation borrows from the pool and the recorded wait time is the pool wait
+ * time.
+ *
+ * @author  Middleware Services
+ * @version  $Revision$ $Date$
+ */
+public class FactoryConnectionSource extends AbstractConnectionSource
+{
+
+  /** Factory to obtain connections from. */
+  private final ConnectionFactory connectionFactory;
+
+
+  /**
+   * Creates a new factory connection source.
+   *
+   * @param  factory  to obtain connections from
+   */
+  public FactoryConnectionSource(final ConnectionFactory factory)
+  {
+    if (factory == null) {
+      throw new IllegalArgumentException("Factory cannot be null");
+    }
+    connectionFactory = factory;
+  }
+
+
+  /**
+   * Returns the connection factory.
+   *
+   * @return  connection factory
+   */
+  public ConnectionFactory getConnectionFactory()
+  {
+    return connectionFactory;
+  }
+
+
+  /** {@inheritDoc} */
+  @Override
+  protected Connection borrowConnection()
+    throws LdapException
+  {
+    final Connection conn = connectionFactory.getConnection();
+    try {
+      conn.open();
+    } catch (LdapException e) {
+      conn.close();
+      throw e;
+    } catch (RuntimeException e) {
+      conn.close();
+      throw e;
+    }
+    return conn;
+  }
+
+
+  /** {@inheritDoc} */
+  @Override
+  protected void returnConnection(final Connection conn)
+  {
+    conn.close();
+  }
+
+
+  /** {@inheritDoc} */
+  @Override
+  public String toString()
+  {
+    return String.format(
+      "[%s@%d::connectionFactory=%s, borrowCount=%s, activeCount=%s, " +
+      "waitTime=%s, maxWaitTime=%s]",
+      getClass().getName(),
+      hashCode(),
+      connectionFactory,
+      getBorrowCount(),
+      getActiveCount(),
+      getWaitTime(),
+      getMaxWaitTime());
+  }
+}
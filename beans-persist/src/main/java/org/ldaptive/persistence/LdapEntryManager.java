@@ -13,8 +13,10 @@
 */
 package org.ldaptive.persistence;
 
+import java.util.Collection;
 import org.ldaptive.LdapException;
 import org.ldaptive.Response;
+import org.ldaptive.SearchRequest;
 
 /**
  * @author  Middleware Services
@@ -38,6 +40,40 @@ public interface LdapEntryManager<T>
     throws LdapException;
 
 
+  /**
+   * Searches for entries matching the supplied filter in the subtree of the
+   * supplied base DN. Each entry is mapped to a new object of the supplied
+   * type as the cursor reaches it, so the results are never held in memory
+   * at once. The cursor must be closed if it is not read to the end.
+   *
+   * @param  baseDn  to search from
+   * @param  filter  to match entries with
+   * @param  type  of object to create for each entry
+   *
+   * @return  cursor over the mapped objects
+   *
+   * @throws  LdapException  if the search cannot be executed
+   */
+  SearchCursor<T> search(String baseDn, String filter, Class<? extends T> type)
+    throws LdapException;
+
+
+  /**
+   * Executes the supplied search and maps each entry to a new object of the
+   * supplied type as the cursor reaches it. See {@link #search(String, String,
+   * Class)}.
+   *
+   * @param  request  search to execute
+   * @param  type  of object to create for each entry
+   *
+   * @return  cursor over the mapped objects
+   *
+   * @throws  LdapException  if the search cannot be executed
+   */
+  SearchCursor<T> search(SearchRequest request, Class<? extends T> type)
+    throws LdapException;
+
+
   Response<Void> add(T object)
     throws LdapException;
 
@@ -48,4 +84,88 @@ public interface LdapEntryManager<T>
 
   Response<Void> delete(T object)
     throws LdapException;
+
+
+  /**
+   * Deletes the entry with the supplied DN without mapping any object.
+   *
+   * @param  dn  of the entry to delete
+   *
+   * @return  response
+   *
+   * @throws  LdapException  if the entry cannot be deleted
+   */
+  Response<Void> deleteByDn(String dn)
+    throws LdapException;
+
+
+  /**
+   * Searches for each of the supplied objects and maps the ldap attribute
+   * properties onto them. A failure to find one object does not prevent the
+   * others from being found.
+   *
+   * @param  objects  to find
+   *
+   * @return  result for each object
+   */
+  BatchResult<T> findAll(Collection<T> objects);
+
+
+  /**
+   * Adds each of the supplied objects. A failure to add one object does not
+   * prevent the others from being added.
+   *
+   * @param  objects  to add
+   *
+   * @return  result for each object
+   */
+  BatchResult<T> addAll(Collection<T> objects);
+
+
+  /**
+   * Merges each of the supplied objects. A failure to merge one object does
+   * not prevent the others from being merged.
+   *
+   * @param  objects  to merge
+   *
+   * @return  result for each object
+   */
+  BatchResult<T> mergeAll(Collection<T> objects);
+
+
+  /**
+   * Deletes each of the supplied objects. A failure to delete one object does
+   * not prevent the others from being deleted.
+   *
+   * @param  objects  to delete
+   *
+   * @return  result for each object
+   */
+  BatchResult<T> deleteAll(Collection<T> objects);
+
+
+  /**
+   * Deletes each of the entries with the supplied DNs. A failure to delete
+   * one entry does not prevent the others from being deleted.
+   *
+   * @param  dns  of the entries to delete
+   *
+   * @return  result for each DN
+   */
+  BatchResult<String> deleteAllByDn(Collection<String> dns);
+
+
+  /**
+   * Deletes the entry with the supplied DN and every entry below it. Entries
+   * are deleted children first, so a failure to delete an entry also causes
+   * the deletion of its ancestors to fail.
+   *
+   * @param  dn  of the root of the subtree
+   *
+   * @return  result for each DN in the subtree, in the order deleted
+   *
+   * @throws  LdapException  if the subtree cannot be searched
+   */
+  BatchResult<String> deleteSubtree(String dn)
+    throws LdapException;
 }
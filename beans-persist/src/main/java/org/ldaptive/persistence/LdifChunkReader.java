@@ -0,0 +1,311 @@
+/*
+  $Id$
+
+  Copyright (C) 2003-2014 Virginia Tech.
+  All rights reserved.
+
+  SEE LICENSE FOR MORE INFORMATION
+
+  Author:  Middleware Services
+  Email:   middleware@vt.edu
+  Version: $Revision$
+  Updated: $Date$
+*/
+package org.ldaptive.persistence;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import org.ldaptive.LdapAttribute;
+import org.ldaptive.LdapEntry;
+import org.ldaptive.LdapUtils;
+import org.ldaptive.SortBehavior;
+
+/**
+ * Reads LDIF content records from a buffer holding a chunk of an LDIF file
+ * that starts and ends at record boundaries. Folded lines are unfolded,
+ * comments and version lines are skipped and base64 values are decoded.
+ * Change records other than adds and values referenced by URL are not
+ * supported. Attribute values keep the order of the file. An attribute with
+ * any base64 encoded value is returned as a binary attribute, with its other
+ * values encoded as UTF-8.
+ *
+ * @author  Middleware Services
+ * @version  $Revision$ $Date$
+ */
+final class LdifChunkReader
+{
+
+  /** Chunk to read. */
+  private final ByteBuffer buffer;
+
+  /** Offset of the chunk in the file, used in error messages. */
+  private final long offset;
+
+  /** Current logical line, unfolded. */
+  private byte[] line = new byte[256];
+
+  /** Length of the current logical line. */
+  private int lineLength;
+
+  /** Offset in the file of the current logical line. */
+  private long lineOffset;
+
+
+  /**
+   * Creates a new ldif chunk reader.
+   *
+   * @param  b  chunk to read, from its position to its limit
+   * @param  off  offset of the chunk in the file
+   */
+  LdifChunkReader(final ByteBuffer b, final long off)
+  {
+    buffer = b;
+    offset = off - b.position();
+  }
+
+
+  /**
+   * Returns the next record in the chunk.
+   *
+   * @return  ldap entry or null if there are no more records
+   *
+   * @throws  IllegalArgumentException  if the record is not valid LDIF or is
+   * not supported
+   */
+  LdapEntry read()
+  {
+    // skip separators, comments and the version line
+    boolean found = false;
+    while (!found) {
+      if (!readLine()) {
+        return null;
+      }
+      found = lineLength > 0 && line[0] != '#' &&
+        !startsWith("version:");
+    }
+    if (!startsWith("dn:")) {
+      throw error("Expected dn");
+    }
+    final LdapEntry entry = new LdapEntry();
+    entry.setDn(readValueAsString(2));
+
+    final Map<String, List<Object>> values =
+      new LinkedHashMap<String, List<Object>>();
+    final Map<String, String> names = new LinkedHashMap<String, String>();
+    while (readLine() && lineLength > 0) {
+      if (line[0] == '#') {
+        continue;
+      }
+      final int colon = indexOf((byte) ':');
+      if (colon <= 0) {
+        throw error("Expected attribute description");
+      }
+      final String name = new String(
+        line, 0, colon, StandardCharsets.US_ASCII);
+      if ("changetype".equalsIgnoreCase(name)) {
+        if (!"add".equalsIgnoreCase(readValueAsString(colon))) {
+          throw error("Only add change records are supported");
+        }
+        continue;
+      }
+      if ("control".equalsIgnoreCase(name)) {
+        throw error("Controls are not supported");
+      }
+      final String key = name.toLowerCase(Locale.ENGLISH);
+      List<Object> list = values.get(key);
+      if (list == null) {
+        list = new ArrayList<Object>();
+        values.put(key, list);
+        names.put(key, name);
+      }
+      list.add(readValue(colon));
+    }
+    for (Map.Entry<String, List<Object>> e : values.entrySet()) {
+      entry.addAttribute(createAttribute(names.get(e.getKey()), e.getValue()));
+    }
+    return entry;
+  }
+
+
+  /**
+   * Creates an attribute from values that are either strings or byte arrays.
+   *
+   * @param  name  of the attribute
+   * @param  values  of the attribute
+   *
+   * @return  ldap attribute
+   */
+  private static LdapAttribute createAttribute(
+    final String name,
+    final List<Object> values)
+  {
+    boolean binary = false;
+    for (Object value : values) {
+      if (value instanceof byte[]) {
+        binary = true;
+        break;
+      }
+    }
+    final LdapAttribute attr = new LdapAttribute(SortBehavior.ORDERED, binary);
+    attr.setName(name);
+    for (Object value : values) {
+      if (!binary) {
+        attr.addStringValue((String) value);
+      } else if (value instanceof String) {
+        attr.addBinaryValue(LdapUtils.utf8Encode((String) value));
+      } else {
+        attr.addBinaryValue((byte[]) value);
+      }
+    }
+    return attr;
+  }
+
+
+  /**
+   * Returns the value of the current line as a string, decoding base64
+   * values as UTF-8.
+   *
+   * @param  colon  index of the colon following the attribute description
+   *
+   * @return  value
+   */
+  private String readValueAsString(final int colon)
+  {
+    final Object value = readValue(colon);
+    if (value instanceof byte[]) {
+      return new String((byte[]) value, StandardCharsets.UTF_8);
+    }
+    return (String) value;
+  }
+
+
+  /**
+   * Returns the value of the current line.
+   *
+   * @param  colon  index of the colon following the attribute description
+   *
+   * @return  string value, or byte array if the value is base64 encoded
+   */
+  private Object readValue(final int colon)
+  {
+    int i = colon + 1;
+    final boolean base64 = i < lineLength && line[i] == ':';
+    if (base64) {
+      i++;
+    } else if (i < lineLength && line[i] == '<') {
+      throw error("URL values are not supported");
+    }
+    while (i < lineLength && line[i] == ' ') {
+      i++;
+    }
+    if (base64) {
+      return LdapUtils.base64Decode(
+        new String(line, i, lineLength - i, StandardCharsets.US_ASCII));
+    }
+    return new String(line, i, lineLength - i, StandardCharsets.UTF_8);
+  }
+
+
+  /**
+   * Reads the next logical line, unfolding continuation lines and removing
+   * the line separator.
+   *
+   * @return  whether a line was read
+   */
+  private boolean readLine()
+  {
+    if (!buffer.hasRemaining()) {
+      return false;
+    }
+    lineOffset = offset + buffer.position();
+    lineLength = 0;
+    appendLine();
+    while (buffer.hasRemaining() && buffer.get(buffer.position()) == ' ' &&
+           lineLength > 0) {
+      buffer.get();
+      appendLine();
+    }
+    return true;
+  }
+
+
+  /** Appends the physical line at the buffer position to the current line. */
+  private void appendLine()
+  {
+    while (buffer.hasRemaining()) {
+      final byte b = buffer.get();
+      if (b == '\n') {
+        break;
+      }
+      if (lineLength == line.length) {
+        final byte[] grown = new byte[line.length * 2];
+        System.arraycopy(line, 0, grown, 0, lineLength);
+        line = grown;
+      }
+      line[lineLength++] = b;
+    }
+    if (lineLength > 0 && line[lineLength - 1] == '\r') {
+      lineLength--;
+    }
+  }
+
+
+  /**
+   * Returns whether the current line starts with the supplied ASCII prefix,
+   * ignoring case.
+   *
+   * @param  prefix  to check
+   *
+   * @return  whether the line starts with prefix
+   */
+  private boolean startsWith(final String prefix)
+  {
+    if (lineLength < prefix.length()) {
+      return false;
+    }
+    for (int i = 0; i < prefix.length(); i++) {
+      if (Character.toLowerCase(line[i]) != prefix.charAt(i)) {
+        return false;
+      }
+    }
+    return true;
+  }
+
+
+  /**
+   * Returns the index of the first occurrence of the supplied byte in the
+   * current line.
+   *
+   * @param  b  to find
+   *
+   * @return  index or -1
+   */
+  private int indexOf(final byte b)
+  {
+    for (int i = 0; i < lineLength; i++) {
+      if (line[i] == b) {
+        return i;
+      }
+    }
+    return -1;
+  }
+
+
+  /**
+   * Returns an exception for the current line.
+   *
+   * @param  message  describing the problem
+   *
+   * @return  illegal argument exception
+   */
+  private IllegalArgumentException error(final String message)
+  {
+    return new IllegalArgumentException(
+      String.format("%s at offset %s", message, lineOffset));
+  }
+}
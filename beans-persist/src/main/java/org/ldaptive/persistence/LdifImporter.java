@@ -0,0 +1,1090 @@
+/*
+  $Id$
+
+  Copyright (C) 2003-2014 Virginia Tech.
+  All rights reserved.
+
+  SEE LICENSE FOR MORE INFORMATION
+
+  Author:  Middleware Services
+  Email:   middleware@vt.edu
+  Version: $Revision$
+  Updated: $Date$
+*/
+package org.ldaptive.persistence;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import org.ldaptive.LdapEntry;
+import org.ldaptive.LdapException;
+import org.ldaptive.ResultCode;
+import org.ldaptive.beans.LdapEntryMapper;
+import org.ldaptive.beans.reflect.ReflectionUtils;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Adds the records of an LDIF file to the directory through an ldap entry
+ * manager. The file is split at record boundaries into chunks of roughly
+ * {@link #getChunkSize()} bytes. Each chunk is memory mapped, parsed, mapped
+ * to objects and added in batches of {@link #getBatchSize()} by one of {@link
+ * #getThreadCount()} daemon threads, so at most that many batches are in
+ * progress at once. Pair this with a pooled {@link ConnectionSource} whose
+ * pool is at least as large as the thread count. Raw entries can be imported
+ * with a {@link org.ldaptive.beans.RawLdapEntryMapper}.
+ *
+ * <p>Chunks are imported concurrently, so a record may be added before the
+ * record of its parent entry in an earlier chunk. Records that fail because
+ * their parent does not exist are set aside and added again once every chunk
+ * has been imported, parents before children, until no more of them can be
+ * added. Only those that still cannot be added are reported as failures.</p>
+ *
+ * <p>If a checkpoint file is set, the offset of every chunk whose records
+ * were all added or already existed is appended to it, and chunks it lists
+ * are skipped by later imports of the same file. A chunk with any failed
+ * record, for instance because the directory became unavailable, is not
+ * checkpointed. A failed import can therefore be resumed by running it again
+ * with the same checkpoint file and chunk size. Records of the chunks that
+ * were in progress or failed are added again, so entries that already exist
+ * are counted by {@link Result#getExistingCount()} rather than reported as
+ * failures.</p>
+ *
+ * @param  <T>  type of object to import
+ *
+ * @author  Middleware Services
+ * @version  $Revision$ $Date$
+ */
+public class LdifImporter<T>
+{
+
+  /** Default number of threads, value is {@value}. */
+  public static final int DEFAULT_THREAD_COUNT = 4;
+
+  /** Default chunk size in bytes, value is {@value}. */
+  public static final int DEFAULT_CHUNK_SIZE = 16 * 1024 * 1024;
+
+  /** Size of the buffer used to find record boundaries. */
+  private static final int SCAN_BUFFER_SIZE = 8 * 1024;
+
+  /** Logger for this class. */
+  protected final Logger logger = LoggerFactory.getLogger(getClass());
+
+  /** Manager that adds objects. */
+  private final LdapEntryManager<T> ldapEntryManager;
+
+  /** Mapper used to populate objects from records. */
+  private final LdapEntryMapper<T> ldapEntryMapper;
+
+  /** Type of object to create for each record. */
+  private final Class<? extends T> type;
+
+  /** Number of threads that import chunks. */
+  private int threadCount = DEFAULT_THREAD_COUNT;
+
+  /** Target size of each chunk in bytes. */
+  private int chunkSize = DEFAULT_CHUNK_SIZE;
+
+  /** Number of objects passed to each add batch. */
+  private int batchSize = DefaultLdapEntryManager.DEFAULT_BATCH_SIZE;
+
+  /** File recording completed chunks, may be null. */
+  private Path checkpointPath;
+
+
+  /**
+   * Creates a new ldif importer.
+   *
+   * @param  manager  that adds objects
+   * @param  mapper  used to populate objects from records
+   * @param  t  type of object to create for each record, must have a public
+   * no argument constructor
+   */
+  public LdifImporter(
+    final LdapEntryManager<T> manager,
+    final LdapEntryMapper<T> mapper,
+    final Class<? extends T> t)
+  {
+    if (manager == null) {
+      throw new IllegalArgumentException("Entry manager cannot be null");
+    }
+    if (mapper == null) {
+      throw new IllegalArgumentException("Ldap entry mapper cannot be null");
+    }
+    if (t == null) {
+      throw new IllegalArgumentException("Type cannot be null");
+    }
+    ldapEntryManager = manager;
+    ldapEntryMapper = mapper;
+    type = t;
+  }
+
+
+  /**
+   * Returns the manager that adds objects.
+   *
+   * @return  ldap entry manager
+   */
+  public LdapEntryManager<T> getLdapEntryManager()
+  {
+    return ldapEntryManager;
+  }
+
+
+  /**
+   * Returns the number of threads that import chunks.
+   *
+   * @return  thread count
+   */
+  public int getThreadCount()
+  {
+    return threadCount;
+  }
+
+
+  /**
+   * Sets the number of threads that import chunks.
+   *
+   * @param  count  of threads
+   */
+  public void setThreadCount(final int count)
+  {
+    if (count < 1) {
+      throw new IllegalArgumentException("Thread count must be greater than 0");
+    }
+    threadCount = count;
+  }
+
+
+  /**
+   * Returns the target size of each chunk. Chunks end at the first record
+   * boundary after this many bytes.
+   *
+   * @return  chunk size in bytes
+   */
+  public int getChunkSize()
+  {
+    return chunkSize;
+  }
+
+
+  /**
+   * Sets the target size of each chunk. Resuming an import requires the same
+   * chunk size as the import that wrote the checkpoint.
+   *
+   * @param  size  in bytes
+   */
+  public void setChunkSize(final int size)
+  {
+    if (size < 1) {
+      throw new IllegalArgumentException("Chunk size must be greater than 0");
+    }
+    chunkSize = size;
+  }
+
+
+  /**
+   * Returns the number of objects passed to each add batch.
+   *
+   * @return  batch size
+   */
+  public int getBatchSize()
+  {
+    return batchSize;
+  }
+
+
+  /**
+   * Sets the number of objects passed to each add batch.
+   *
+   * @param  size  of each batch
+   */
+  public void setBatchSize(final int size)
+  {
+    if (size < 1) {
+      throw new IllegalArgumentException("Batch size must be greater than 0");
+    }
+    batchSize = size;
+  }
+
+
+  /**
+   * Returns the file that records completed chunks.
+   *
+   * @return  checkpoint path or null
+   */
+  public Path getCheckpointPath()
+  {
+    return checkpointPath;
+  }
+
+
+  /**
+   * Sets the file that records completed chunks. The file is created if it
+   * does not exist.
+   *
+   * @param  path  of the checkpoint file or null to import every chunk
+   */
+  public void setCheckpointPath(final Path path)
+  {
+    checkpointPath = path;
+  }
+
+
+  /**
+   * Adds the records of the supplied LDIF file to the directory.
+   *
+   * @param  ldif  file to import
+   *
+   * @return  import result
+   *
+   * @throws  IOException  if the file or checkpoint cannot be read or the
+   * checkpoint cannot be written
+   * @throws  InterruptedException  if interrupted while waiting for chunks to
+   * complete
+   */
+  public Result importLdif(final Path ldif)
+    throws IOException, InterruptedException
+  {
+    final long start = System.nanoTime();
+    final FileChannel channel = FileChannel.open(
+      ldif, StandardOpenOption.READ);
+    try {
+      final List<long[]> chunks = split(channel);
+      final Checkpoint checkpoint = checkpointPath != null ?
+        new Checkpoint(checkpointPath, channel.size(), chunkSize) : null;
+      try {
+        final Result result = new Result(chunks.size());
+        final List<long[]> pending = new ArrayList<long[]>(chunks.size());
+        for (long[] chunk : chunks) {
+          if (checkpoint != null && checkpoint.isComplete(chunk[0])) {
+            result.skippedChunkCount++;
+          } else {
+            pending.add(chunk);
+          }
+        }
+        logger.debug(
+          "importing {} of {} chunks of {}",
+          pending.size(),
+          chunks.size(),
+          ldif);
+        importChunks(channel, pending, checkpoint, result);
+        result.time = System.nanoTime() - start;
+        return result;
+      } finally {
+        if (checkpoint != null) {
+          checkpoint.close();
+        }
+      }
+    } finally {
+      channel.close();
+    }
+  }
+
+
+  /**
+   * Splits the supplied file into chunks that start at record boundaries.
+   *
+   * @param  channel  of the file
+   *
+   * @return  start and end offset of each chunk
+   *
+   * @throws  IOException  if the file cannot be read
+   */
+  private List<long[]> split(final FileChannel channel)
+    throws IOException
+  {
+    final long size = channel.size();
+    final List<long[]> chunks = new ArrayList<long[]>();
+    final ByteBuffer scan = ByteBuffer.allocate(SCAN_BUFFER_SIZE);
+    long chunkStart = 0;
+    while (chunkStart < size) {
+      final long end = findBoundary(channel, chunkStart + chunkSize, scan);
+      if (end - chunkStart > Integer.MAX_VALUE) {
+        throw new IllegalStateException(
+          "Record at offset " + chunkStart + " is too large to map");
+      }
+      chunks.add(new long[] {chunkStart, end});
+      chunkStart = end;
+    }
+    return chunks;
+  }
+
+
+  /**
+   * Returns the offset of the first empty line at or after the supplied
+   * offset, or the size of the file if there is none. Every empty line
+   * separates two records.
+   *
+   * @param  channel  of the file
+   * @param  offset  to search from
+   * @param  scan  buffer used to read the file
+   *
+   * @return  offset of a record boundary
+   *
+   * @throws  IOException  if the file cannot be read
+   */
+  private static long findBoundary(
+    final FileChannel channel,
+    final long offset,
+    final ByteBuffer scan)
+    throws IOException
+  {
+    final long size = channel.size();
+    // an empty line is a line feed preceded by a line feed, possibly with a
+    // carriage return in between
+    long position = offset - 1;
+    byte previous = 0;
+    byte beforePrevious = 0;
+    while (position < size) {
+      scan.clear();
+      final int n = channel.read(scan, position);
+      if (n <= 0) {
+        break;
+      }
+      for (int i = 0; i < n; i++) {
+        final byte b = scan.get(i);
+        if (b == '\n') {
+          if (previous == '\n' && position + i >= offset) {
+            return position + i;
+          }
+          if (previous == '\r' && beforePrevious == '\n' &&
+              position + i - 1 >= offset) {
+            return position + i - 1;
+          }
+        }
+        beforePrevious = previous;
+        previous = b;
+      }
+      position += n;
+    }
+    return size;
+  }
+
+
+  /**
+   * Imports the supplied chunks on a pool of daemon threads.
+   *
+   * @param  channel  of the file
+   * @param  chunks  to import
+   * @param  checkpoint  to record completed chunks in, may be null
+   * @param  result  to record outcomes in
+   *
+   * @throws  IOException  if the checkpoint cannot be written
+   * @throws  InterruptedException  if interrupted while waiting for chunks to
+   * complete
+   */
+  private void importChunks(
+    final FileChannel channel,
+    final List<long[]> chunks,
+    final Checkpoint checkpoint,
+    final Result result)
+    throws IOException, InterruptedException
+  {
+    if (chunks.isEmpty()) {
+      return;
+    }
+    final ExecutorService executor = Executors.newFixedThreadPool(
+      Math.min(threadCount, chunks.size()),
+      new ThreadFactory() {
+        private final AtomicInteger count = new AtomicInteger();
+        @Override
+        public Thread newThread(final Runnable r)
+        {
+          final Thread t = new Thread(
+            r, "ldif-importer-" + count.incrementAndGet());
+          t.setDaemon(true);
+          return t;
+        }
+      });
+    final List<Deferred<T>> deferred = Collections.synchronizedList(
+      new ArrayList<Deferred<T>>());
+    final Set<Long> incomplete = Collections.synchronizedSet(
+      new HashSet<Long>());
+    try {
+      final List<Future<Void>> futures = new ArrayList<Future<Void>>();
+      for (final long[] chunk : chunks) {
+        futures.add(
+          executor.submit(
+            new Callable<Void>() {
+              @Override
+              public Void call()
+                throws IOException
+              {
+                final List<Deferred<T>> orphans = new ArrayList<Deferred<T>>();
+                if (!importChunk(
+                    channel, chunk[0], chunk[1], result, orphans)) {
+                  incomplete.add(chunk[0]);
+                } else if (orphans.isEmpty() && checkpoint != null) {
+                  checkpoint.complete(chunk[0]);
+                }
+                deferred.addAll(orphans);
+                return null;
+              }
+            }));
+      }
+      for (int i = 0; i < futures.size(); i++) {
+        try {
+          futures.get(i).get();
+        } catch (ExecutionException e) {
+          logger.debug("could not import chunk {}", chunks.get(i)[0], e);
+          result.addChunkFailure(chunks.get(i)[0], e.getCause());
+          incomplete.add(chunks.get(i)[0]);
+        }
+      }
+    } finally {
+      executor.shutdownNow();
+    }
+    if (!deferred.isEmpty()) {
+      retryDeferred(deferred, incomplete, checkpoint, result);
+    }
+  }
+
+
+  /**
+   * Adds records whose parent entry did not exist when their chunk was
+   * imported. Records are added in order of DN depth, and those whose parent
+   * still does not exist are added again until a pass adds none of them.
+   * Chunks whose deferred records are all added and that are not incomplete
+   * are then checkpointed.
+   *
+   * @param  deferred  records to add
+   * @param  incomplete  offsets of chunks with failed records
+   * @param  checkpoint  to record completed chunks in, may be null
+   * @param  result  to record outcomes in
+   *
+   * @throws  IOException  if the checkpoint cannot be written
+   */
+  private void retryDeferred(
+    final List<Deferred<T>> deferred,
+    final Set<Long> incomplete,
+    final Checkpoint checkpoint,
+    final Result result)
+    throws IOException
+  {
+    final Set<Long> chunks = new HashSet<Long>();
+    List<Deferred<T>> pending = new ArrayList<Deferred<T>>(deferred);
+    for (Deferred<T> d : pending) {
+      chunks.add(d.chunk);
+    }
+    while (!pending.isEmpty()) {
+      logger.debug("retrying {} records without a parent", pending.size());
+      Collections.sort(pending);
+      final List<Deferred<T>> orphans = new ArrayList<Deferred<T>>();
+      final List<T> batch = new ArrayList<T>(batchSize);
+      for (int i = 0; i < pending.size(); i += batchSize) {
+        final List<Deferred<T>> records = pending.subList(
+          i, Math.min(i + batchSize, pending.size()));
+        for (Deferred<T> d : records) {
+          batch.add(d.object);
+        }
+        final BatchResult<T> added = ldapEntryManager.addAll(batch);
+        for (int j = 0; j < records.size(); j++) {
+          final Deferred<T> d = records.get(j);
+          final BatchResult.Item<T> item = added.getItem(j);
+          if (isParentMissing(item.getException())) {
+            orphans.add(
+              new Deferred<T>(d.object, d.dn, d.chunk, item.getException()));
+          } else if (!record(item, result)) {
+            incomplete.add(d.chunk);
+          }
+        }
+        batch.clear();
+      }
+      if (orphans.size() == pending.size()) {
+        for (Deferred<T> d : orphans) {
+          result.addFailure(d.dn, d.exception);
+          incomplete.add(d.chunk);
+        }
+        break;
+      }
+      pending = orphans;
+    }
+    if (checkpoint != null) {
+      for (Long chunk : chunks) {
+        if (!incomplete.contains(chunk)) {
+          checkpoint.complete(chunk);
+        }
+      }
+    }
+  }
+
+
+  /**
+   * Parses, maps and adds the records of a single chunk.
+   *
+   * @param  channel  of the file
+   * @param  start  offset of the chunk
+   * @param  end  offset of the end of the chunk
+   * @param  result  to record outcomes in
+   * @param  deferred  to add records whose parent entry does not exist to
+   *
+   * @return  whether every record was added, already existed or was deferred
+   *
+   * @throws  IOException  if the chunk cannot be mapped
+   */
+  private boolean importChunk(
+    final FileChannel channel,
+    final long start,
+    final long end,
+    final Result result,
+    final List<Deferred<T>> deferred)
+    throws IOException
+  {
+    final MappedByteBuffer buffer = channel.map(
+      FileChannel.MapMode.READ_ONLY, start, end - start);
+    final LdifChunkReader reader = new LdifChunkReader(buffer, start);
+    final List<T> batch = new ArrayList<T>(batchSize);
+    boolean complete = true;
+    LdapEntry entry = reader.read();
+    while (entry != null) {
+      result.entryCount.incrementAndGet();
+      try {
+        batch.add(createObject(entry));
+      } catch (RuntimeException e) {
+        logger.debug("could not map {}", entry.getDn(), e);
+        result.addFailure(entry.getDn(), e);
+        complete = false;
+      }
+      if (batch.size() == batchSize &&
+          !addAll(batch, start, result, deferred)) {
+        complete = false;
+      }
+      entry = reader.read();
+    }
+    return addAll(batch, start, result, deferred) && complete;
+  }
+
+
+  /**
+   * Creates an object of the import type populated from the supplied entry.
+   *
+   * @param  entry  to map
+   *
+   * @return  mapped object
+   */
+  private T createObject(final LdapEntry entry)
+  {
+    final T object = ReflectionUtils.newInstance(type);
+    ldapEntryMapper.map(entry, object);
+    return object;
+  }
+
+
+  /**
+   * Adds the supplied objects, records the outcome of each and clears the
+   * list. Objects whose parent entry does not exist are deferred rather than
+   * recorded.
+   *
+   * @param  batch  of objects to add
+   * @param  chunk  offset of the chunk the objects were read from
+   * @param  result  to record outcomes in
+   * @param  deferred  to add objects whose parent entry does not exist to
+   *
+   * @return  whether every object was added, already existed or was deferred
+   */
+  private boolean addAll(
+    final List<T> batch,
+    final long chunk,
+    final Result result,
+    final List<Deferred<T>> deferred)
+  {
+    if (batch.isEmpty()) {
+      return true;
+    }
+    boolean complete = true;
+    for (BatchResult.Item<T> item : ldapEntryManager.addAll(batch)) {
+      if (isParentMissing(item.getException())) {
+        deferred.add(
+          new Deferred<T>(
+            item.getObject(),
+            ldapEntryMapper.getDn(item.getObject()),
+            chunk,
+            item.getException()));
+      } else if (!record(item, result)) {
+        complete = false;
+      }
+    }
+    batch.clear();
+    return complete;
+  }
+
+
+  /**
+   * Records the outcome of adding an object.
+   *
+   * @param  item  outcome of the add
+   * @param  result  to record the outcome in
+   *
+   * @return  whether the object was added or already existed
+   */
+  private boolean record(final BatchResult.Item<T> item, final Result result)
+  {
+    if (item.isSuccess()) {
+      result.addedCount.incrementAndGet();
+    } else if (hasResultCode(
+        item.getException(), ResultCode.ENTRY_ALREADY_EXISTS)) {
+      result.existingCount.incrementAndGet();
+    } else {
+      result.addFailure(
+        ldapEntryMapper.getDn(item.getObject()), item.getException());
+      return false;
+    }
+    return true;
+  }
+
+
+  /**
+   * Returns whether the supplied exception reports that the parent of the
+   * added entry does not exist.
+   *
+   * @param  e  exception of an add, may be null
+   *
+   * @return  whether the parent entry is missing
+   */
+  private static boolean isParentMissing(final Exception e)
+  {
+    return hasResultCode(e, ResultCode.NO_SUCH_OBJECT);
+  }
+
+
+  /**
+   * Returns whether the supplied exception is an ldap exception with the
+   * supplied result code.
+   *
+   * @param  e  exception, may be null
+   * @param  code  result code
+   *
+   * @return  whether e has the result code
+   */
+  private static boolean hasResultCode(final Exception e, final ResultCode code)
+  {
+    return e instanceof LdapException &&
+      ((LdapException) e).getResultCode() == code;
+  }
+
+
+  /**
+   * Returns the number of RDNs in the supplied DN, ignoring escaped and quoted
+   * separators.
+   *
+   * @param  dn  to measure
+   *
+   * @return  DN depth
+   */
+  private static int depth(final String dn)
+  {
+    if (dn == null || dn.isEmpty()) {
+      return 0;
+    }
+    int depth = 1;
+    boolean quoted = false;
+    for (int i = 0; i < dn.length(); i++) {
+      final char c = dn.charAt(i);
+      if (c == '\\') {
+        i++;
+      } else if (c == '"') {
+        quoted = !quoted;
+      } else if (c == ',' && !quoted) {
+        depth++;
+      }
+    }
+    return depth;
+  }
+
+
+  /** {@inheritDoc} */
+  @Override
+  public String toString()
+  {
+    return String.format(
+      "[%s@%d::ldapEntryManager=%s, type=%s, threadCount=%s, chunkSize=%s, " +
+      "batchSize=%s, checkpointPath=%s]",
+      getClass().getName(),
+      hashCode(),
+      ldapEntryManager,
+      type,
+      threadCount,
+      chunkSize,
+      batchSize,
+      checkpointPath);
+  }
+
+
+  /**
+   * Record whose parent entry did not exist when it was added, ordered by the
+   * depth of its DN.
+   *
+   * @param  <T>  type of object
+   */
+  private static final class Deferred<T> implements Comparable<Deferred<T>>
+  {
+
+    /** Object to add. */
+    private final T object;
+
+    /** DN of the object. */
+    private final String dn;
+
+    /** Number of RDNs in the DN. */
+    private final int depth;
+
+    /** Offset of the chunk the record was read from. */
+    private final long chunk;
+
+    /** Exception of the last attempt to add the object. */
+    private final Exception exception;
+
+
+    /**
+     * Creates a new deferred record.
+     *
+     * @param  o  object to add
+     * @param  d  DN of the object
+     * @param  c  offset of the chunk the record was read from
+     * @param  e  exception of the last attempt to add the object
+     */
+    Deferred(final T o, final String d, final long c, final Exception e)
+    {
+      object = o;
+      dn = d;
+      depth = depth(d);
+      chunk = c;
+      exception = e;
+    }
+
+
+    /** {@inheritDoc} */
+    @Override
+    public int compareTo(final Deferred<T> other)
+    {
+      return depth < other.depth ? -1 : (depth == other.depth ? 0 : 1);
+    }
+  }
+
+
+  /**
+   * File listing the offsets of completed chunks, one per line, after a
+   * header line holding the size of the LDIF file and the chunk size.
+   */
+  private static final class Checkpoint
+  {
+
+    /** Channel to append completed chunks to. */
+    private final FileChannel channel;
+
+    /** Offsets of chunks completed by earlier imports. */
+    private final Set<Long> completed = new HashSet<Long>();
+
+
+    /**
+     * Opens the checkpoint at the supplied path, creating it if it does not
+     * exist.
+     *
+     * @param  path  of the checkpoint file
+     * @param  size  of the LDIF file
+     * @param  chunkSize  of the import
+     *
+     * @throws  IOException  if the checkpoint cannot be read or created
+     */
+    Checkpoint(final Path path, final long size, final int chunkSize)
+      throws IOException
+    {
+      final String header = size + " " + chunkSize;
+      if (Files.exists(path)) {
+        final String content = new String(
+          Files.readAllBytes(path), StandardCharsets.US_ASCII);
+        final String[] lines = content.split("\n", -1);
+        if (!header.equals(lines[0])) {
+          throw new IllegalStateException(
+            String.format(
+              "Checkpoint %s was written for a different file or chunk size",
+              path));
+        }
+        // the last element is empty unless a write was interrupted
+        for (int i = 1; i < lines.length - 1; i++) {
+          completed.add(Long.valueOf(lines[i]));
+        }
+        channel = FileChannel.open(path, StandardOpenOption.APPEND);
+      } else {
+        channel = FileChannel.open(
+          path, StandardOpenOption.CREATE_NEW, StandardOpenOption.WRITE);
+        write(header);
+      }
+    }
+
+
+    /**
+     * Returns whether the chunk at the supplied offset was completed by an
+     * earlier import.
+     *
+     * @param  offset  of the chunk
+     *
+     * @return  whether the chunk is complete
+     */
+    boolean isComplete(final long offset)
+    {
+      return completed.contains(offset);
+    }
+
+
+    /**
+     * Records the chunk at the supplied offset as complete.
+     *
+     * @param  offset  of the chunk
+     *
+     * @throws  IOException  if the checkpoint cannot be written
+     */
+    void complete(final long offset)
+      throws IOException
+    {
+      write(String.valueOf(offset));
+    }
+
+
+    /**
+     * Appends a line to the checkpoint and forces it to storage.
+     *
+     * @param  line  to append
+     *
+     * @throws  IOException  if the checkpoint cannot be written
+     */
+    private synchronized void write(final String line)
+      throws IOException
+    {
+      final ByteBuffer b = ByteBuffer.wrap(
+        (line + "\n").getBytes(StandardCharsets.US_ASCII));
+      while (b.hasRemaining()) {
+        channel.write(b);
+      }
+      channel.force(false);
+    }
+
+
+    /**
+     * Closes the checkpoint.
+     *
+     * @throws  IOException  if the checkpoint cannot be closed
+     */
+    void close()
+      throws IOException
+    {
+      channel.close();
+    }
+  }
+
+
+  /** Counts and failures of an import. */
+  public static class Result
+  {
+
+    /** Number of chunks in the file. */
+    private final int chunkCount;
+
+    /** Number of chunks skipped because the checkpoint lists them. */
+    private int skippedChunkCount;
+
+    /** Number of records read. */
+    private final AtomicLong entryCount = new AtomicLong();
+
+    /** Number of entries added. */
+    private final AtomicLong addedCount = new AtomicLong();
+
+    /** Number of entries that already existed. */
+    private final AtomicLong existingCount = new AtomicLong();
+
+    /** Failure of each record that could not be mapped or added, by DN. */
+    private final Map<String, Throwable> failures =
+      new LinkedHashMap<String, Throwable>();
+
+    /** Failure of each chunk that could not be imported, by offset. */
+    private final Map<Long, Throwable> chunkFailures =
+      new LinkedHashMap<Long, Throwable>();
+
+    /** Duration of the import in nanoseconds. */
+    private long time;
+
+
+    /**
+     * Creates a new result.
+     *
+     * @param  chunks  number of chunks in the file
+     */
+    Result(final int chunks)
+    {
+      chunkCount = chunks;
+    }
+
+
+    /**
+     * Records the failure of a record.
+     *
+     * @param  dn  of the record
+     * @param  e  cause of the failure
+     */
+    private synchronized void addFailure(final String dn, final Throwable e)
+    {
+      failures.put(dn, e);
+    }
+
+
+    /**
+     * Records the failure of a chunk.
+     *
+     * @param  offset  of the chunk
+     * @param  e  cause of the failure
+     */
+    private synchronized void addChunkFailure(
+      final long offset,
+      final Throwable e)
+    {
+      chunkFailures.put(offset, e);
+    }
+
+
+    /**
+     * Returns the number of chunks the file was split into.
+     *
+     * @return  chunk count
+     */
+    public int getChunkCount()
+    {
+      return chunkCount;
+    }
+
+
+    /**
+     * Returns the number of chunks skipped because an earlier import
+     * completed them.
+     *
+     * @return  skipped chunk count
+     */
+    public int getSkippedChunkCount()
+    {
+      return skippedChunkCount;
+    }
+
+
+    /**
+     * Returns the number of records read from the chunks that were imported.
+     *
+     * @return  entry count
+     */
+    public long getEntryCount()
+    {
+      return entryCount.get();
+    }
+
+
+    /**
+     * Returns the number of entries added.
+     *
+     * @return  added count
+     */
+    public long getAddedCount()
+    {
+      return addedCount.get();
+    }
+
+
+    /**
+     * Returns the number of entries that could not be added because they
+     * already exist.
+     *
+     * @return  existing count
+     */
+    public long getExistingCount()
+    {
+      return existingCount.get();
+    }
+
+
+    /**
+     * Returns the exception of each record that could not be mapped or
+     * added.
+     *
+     * @return  unmodifiable map of DN to failure
+     */
+    public synchronized Map<String, Throwable> getFailures()
+    {
+      return Collections.unmodifiableMap(
+        new LinkedHashMap<String, Throwable>(failures));
+    }
+
+
+    /**
+     * Returns the exception of each chunk that could not be read or parsed.
+     * Records of a failed chunk that precede the failure may have been added.
+     *
+     * @return  unmodifiable map of chunk offset to failure
+     */
+    public synchronized Map<Long, Throwable> getChunkFailures()
+    {
+      return Collections.unmodifiableMap(
+        new LinkedHashMap<Long, Throwable>(chunkFailures));
+    }
+
+
+    /**
+     * Returns the duration of the import.
+     *
+     * @return  time in nanoseconds
+     */
+    public long getTime()
+    {
+      return time;
+    }
+
+
+    /**
+     * Returns whether every record was added or already existed.
+     *
+     * @return  whether no record or chunk failed
+     */
+    public synchronized boolean isSuccess()
+    {
+      return failures.isEmpty() && chunkFailures.isEmpty();
+    }
+
+
+    /** {@inheritDoc} */
+    @Override
+    public synchronized String toString()
+    {
+      return String.format(
+        "[%s@%d::chunkCount=%s, skippedChunkCount=%s, entryCount=%s, " +
+        "addedCount=%s, existingCount=%s, failures=%s, chunkFailures=%s, " +
+        "time=%s]",
+        getClass().getName(),
+        hashCode(),
+        chunkCount,
+        skippedChunkCount,
+        entryCount,
+        addedCount,
+        existingCount,
+        failures,
+        chunkFailures,
+        time);
+    }
+  }
+}
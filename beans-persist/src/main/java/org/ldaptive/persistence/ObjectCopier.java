@@ -0,0 +1,39 @@
+/*
+  $Id$
+
+  Copyright (C) 2003-2014 Virginia Tech.
+  All rights reserved.
+
+  SEE LICENSE FOR MORE INFORMATION
+
+  Author:  Middleware Services
+  Email:   middleware@vt.edu
+  Version: $Revision$
+  Updated: $Date$
+*/
+package org.ldaptive.persistence;
+
+/**
+ * Copies the mapped properties of one object onto another. Used by {@link
+ * CachingLdapEntryManager} to keep cached objects isolated from the objects
+ * handed to callers.
+ *
+ * @param  <T>  type of object to copy
+ *
+ * @author  Middleware Services
+ * @version  $Revision$ $Date$
+ */
+public interface ObjectCopier<T>
+{
+
+
+  /**
+   * Copies the properties of the source object onto the destination object.
+   * Mutable property values, such as collections and arrays, must be copied
+   * rather than shared.
+   *
+   * @param  source  to read from
+   * @param  dest  to write to
+   */
+  void copy(T source, T dest);
+}
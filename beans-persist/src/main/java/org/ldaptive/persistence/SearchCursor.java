@@ -0,0 +1,545 @@
+/*
+  $Id$
+
+  Copyright (C) 2003-2014 Virginia Tech.
+  All rights reserved.
+
+  SEE LICENSE FOR MORE INFORMATION
+
+  Author:  Middleware Services
+  Email:   middleware@vt.edu
+  Version: $Revision$
+  Updated: $Date$
+*/
+package org.ldaptive.persistence;
+
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+import org.ldaptive.Connection;
+import org.ldaptive.LdapException;
+import org.ldaptive.Response;
+import org.ldaptive.ResultCode;
+import org.ldaptive.SearchEntry;
+import org.ldaptive.SearchReference;
+import org.ldaptive.SearchRequest;
+import org.ldaptive.beans.LdapEntryMapper;
+import org.ldaptive.beans.reflect.ReflectionUtils;
+import org.ldaptive.control.PagedResultsControl;
+import org.ldaptive.control.RequestControl;
+import org.ldaptive.handler.HandlerResult;
+import org.ldaptive.handler.IntermediateResponseHandler;
+import org.ldaptive.handler.SearchEntryHandler;
+import org.ldaptive.handler.SearchReferenceHandler;
+import org.ldaptive.intermediate.IntermediateResponse;
+import org.ldaptive.provider.SearchItem;
+import org.ldaptive.provider.SearchIterator;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Iterates over the results of a search, mapping each entry to a new object as
+ * it is read from the connection. Entries are never collected into a search
+ * result, so memory use does not grow with the number of entries returned.
+ * When a page size is set the search uses the paged results control and the
+ * next page is requested only after the current page has been consumed.
+ *
+ * <p>The cursor holds a connection borrowed from its {@link ConnectionSource}
+ * until it is exhausted or closed. Use it in a try-with-resources statement,
+ * and close it on the thread that opened it, since some sources tie a
+ * borrowed connection to the borrowing thread.</p>
+ *
+ * <p>The cursor searches with a copy of the supplied request, so the request
+ * is not modified and may be reused while the cursor is open. The search
+ * entry, search reference and intermediate response handlers of the request
+ * are applied to each item as a search operation would apply them: an entry
+ * a handler discards is skipped, and a handler that aborts ends the search
+ * after the current item. A paged results control on the request sets the
+ * page size if the cursor is not given one.</p>
+ *
+ * <p>Failures while reading from the connection are reported as an {@link
+ * IllegalStateException} whose cause is the {@link LdapException}, since
+ * iterator methods cannot throw checked exceptions.</p>
+ *
+ * @param  <T>  type of object to map
+ *
+ * @author  Middleware Services
+ * @version  $Revision$ $Date$
+ */
+public class SearchCursor<T> implements Iterator<T>, AutoCloseable
+{
+
+  /** Logger for this class. */
+  protected final Logger logger = LoggerFactory.getLogger(getClass());
+
+  /** Source the connection was borrowed from. */
+  private final ConnectionSource connectionSource;
+
+  /** Copy of the search to execute. */
+  private final SearchRequest searchRequest;
+
+  /** Controls of the search, excluding any paged results control. */
+  private final RequestControl[] requestControls;
+
+  /** Number of entries per page, zero to disable paging. */
+  private final int pageSize;
+
+  /** Maps entries to objects. */
+  private final LdapEntryMapper<T> ldapEntryMapper;
+
+  /** Type of object to create for each entry. */
+  private final Class<? extends T> objectType;
+
+  /** Borrowed connection, null once released. */
+  private Connection connection;
+
+  /** Items of the current page. */
+  private SearchIterator searchIterator;
+
+  /** Object mapped from the next entry, null if not yet read. */
+  private T next;
+
+  /** Number of entries mapped. */
+  private long entryCount;
+
+  /** Number of pages requested. */
+  private int pageCount;
+
+  /** Whether a handler aborted the search. */
+  private boolean aborted;
+
+
+  /**
+   * Creates a new search cursor and executes the first page of the search.
+   *
+   * @param  source  to borrow a connection from
+   * @param  request  search to execute
+   * @param  size  number of entries per page, zero to use the paged results
+   * control of the request if any and otherwise disable paging
+   * @param  mapper  to map entries with
+   * @param  type  of object to create for each entry, must have a public
+   * no-argument constructor
+   *
+   * @throws  LdapException  if the search cannot be executed
+   */
+  public SearchCursor(
+    final ConnectionSource source,
+    final SearchRequest request,
+    final int size,
+    final LdapEntryMapper<T> mapper,
+    final Class<? extends T> type)
+    throws LdapException
+  {
+    if (source == null) {
+      throw new IllegalArgumentException("Connection source cannot be null");
+    }
+    if (request == null) {
+      throw new IllegalArgumentException("Search request cannot be null");
+    }
+    if (size < 0) {
+      throw new IllegalArgumentException("Page size cannot be negative");
+    }
+    if (mapper == null) {
+      throw new IllegalArgumentException("Ldap entry mapper cannot be null");
+    }
+    if (type == null) {
+      throw new IllegalArgumentException("Type cannot be null");
+    }
+    connectionSource = source;
+    searchRequest = copy(request);
+    requestControls = removePagedResults(request.getControls());
+    searchRequest.setControls(requestControls);
+    pageSize = size > 0 ? size : getPageSize(request.getControls());
+    ldapEntryMapper = mapper;
+    objectType = type;
+    connection = connectionSource.getConnection();
+    try {
+      initializeHandlers();
+      search(null);
+    } catch (LdapException e) {
+      close();
+      throw e;
+    } catch (RuntimeException e) {
+      close();
+      throw e;
+    }
+  }
+
+
+  /**
+   * Returns the number of entries mapped so far.
+   *
+   * @return  entry count
+   */
+  public long getEntryCount()
+  {
+    return entryCount;
+  }
+
+
+  /**
+   * Returns the number of pages requested so far. A search without paging
+   * counts as a single page.
+   *
+   * @return  page count
+   */
+  public int getPageCount()
+  {
+    return pageCount;
+  }
+
+
+  /**
+   * Returns whether this cursor has released its connection.
+   *
+   * @return  whether the cursor is closed
+   */
+  public boolean isClosed()
+  {
+    return connection == null;
+  }
+
+
+  /** {@inheritDoc} */
+  @Override
+  public boolean hasNext()
+  {
+    if (next != null) {
+      return true;
+    }
+    try {
+      while (searchIterator != null) {
+        if (aborted) {
+          logger.debug(
+            "search aborted by handler after {} entries", entryCount);
+          close();
+        } else if (searchIterator.hasNext()) {
+          final SearchEntry entry = handle(searchIterator.next());
+          if (entry != null) {
+            next = createObject();
+            ldapEntryMapper.map(entry, next);
+            entryCount++;
+            return true;
+          }
+        } else {
+          nextPage();
+        }
+      }
+    } catch (LdapException e) {
+      close();
+      throw new IllegalStateException("Search failed: " + searchRequest, e);
+    } catch (RuntimeException e) {
+      close();
+      throw e;
+    }
+    return false;
+  }
+
+
+  /** {@inheritDoc} */
+  @Override
+  public T next()
+  {
+    if (!hasNext()) {
+      throw new NoSuchElementException();
+    }
+    final T object = next;
+    next = null;
+    return object;
+  }
+
+
+  /**
+   * Throws {@link UnsupportedOperationException}.
+   */
+  @Override
+  public void remove()
+  {
+    throw new UnsupportedOperationException("Remove not supported");
+  }
+
+
+  /**
+   * Abandons any unread results and returns the connection to its source.
+   * Closing an exhausted or closed cursor has no effect.
+   */
+  @Override
+  public void close()
+  {
+    if (searchIterator != null) {
+      try {
+        searchIterator.close();
+      } catch (LdapException e) {
+        logger.debug("error closing search iterator", e);
+      }
+      searchIterator = null;
+    }
+    if (connection != null) {
+      connectionSource.releaseConnection(connection);
+      connection = null;
+    }
+    next = null;
+  }
+
+
+  /**
+   * Prepares the request for its search entry and search reference handlers.
+   */
+  private void initializeHandlers()
+  {
+    if (searchRequest.getSearchEntryHandlers() != null) {
+      for (SearchEntryHandler h : searchRequest.getSearchEntryHandlers()) {
+        h.initializeRequest(searchRequest);
+      }
+    }
+    if (searchRequest.getSearchReferenceHandlers() != null) {
+      for (SearchReferenceHandler h :
+           searchRequest.getSearchReferenceHandlers()) {
+        h.initializeRequest(searchRequest);
+      }
+    }
+  }
+
+
+  /**
+   * Applies the handlers of the request to the supplied item. Each handler
+   * receives the result of the previous one, and a null result ends the
+   * chain.
+   *
+   * @param  item  read from the connection
+   *
+   * @return  entry to map or null if the item is not an entry or was
+   * discarded by a handler
+   *
+   * @throws  LdapException  if a handler fails
+   */
+  private SearchEntry handle(final SearchItem item)
+    throws LdapException
+  {
+    if (item.isSearchEntry()) {
+      SearchEntry entry = item.getSearchEntry();
+      if (searchRequest.getSearchEntryHandlers() != null) {
+        for (SearchEntryHandler h : searchRequest.getSearchEntryHandlers()) {
+          if (entry == null) {
+            break;
+          }
+          final HandlerResult<SearchEntry> result = h.handle(
+            connection, searchRequest, entry);
+          entry = result != null ? result.getResult() : null;
+          aborted |= result != null && result.getAbort();
+        }
+      }
+      return entry;
+    } else if (item.isSearchReference()) {
+      SearchReference reference = item.getSearchReference();
+      if (searchRequest.getSearchReferenceHandlers() != null) {
+        for (SearchReferenceHandler h :
+             searchRequest.getSearchReferenceHandlers()) {
+          if (reference == null) {
+            break;
+          }
+          final HandlerResult<SearchReference> result = h.handle(
+            connection, searchRequest, reference);
+          reference = result != null ? result.getResult() : null;
+          aborted |= result != null && result.getAbort();
+        }
+      }
+    } else if (item.isIntermediateResponse()) {
+      IntermediateResponse response = item.getIntermediateResponse();
+      if (searchRequest.getIntermediateResponseHandlers() != null) {
+        for (IntermediateResponseHandler h :
+             searchRequest.getIntermediateResponseHandlers()) {
+          if (response == null) {
+            break;
+          }
+          final HandlerResult<IntermediateResponse> result = h.handle(
+            connection, searchRequest, response);
+          response = result != null ? result.getResult() : null;
+          aborted |= result != null && result.getAbort();
+        }
+      }
+    }
+    logger.debug("skipping search item {}", item);
+    return null;
+  }
+
+
+  /**
+   * Completes the current page and requests the next page if the server
+   * returned a cookie. Closes this cursor if there are no more pages.
+   *
+   * @throws  LdapException  if the search failed
+   */
+  private void nextPage()
+    throws LdapException
+  {
+    final Response<Void> response = searchIterator.getResponse();
+    searchIterator.close();
+    searchIterator = null;
+    if (response != null && response.getResultCode() != ResultCode.SUCCESS) {
+      throw new LdapException(
+        "Search returned " + response.getResultCode(),
+        response.getResultCode(),
+        response.getMatchedDn(),
+        response.getControls(),
+        response.getReferralURLs(),
+        response.getMessageId());
+    }
+    if (pageSize > 0 && response != null) {
+      final PagedResultsControl ctl = (PagedResultsControl)
+        response.getControl(PagedResultsControl.OID);
+      if (ctl != null && ctl.getCookie() != null &&
+          ctl.getCookie().length > 0) {
+        search(ctl.getCookie());
+        return;
+      }
+    }
+    logger.debug(
+      "search complete with {} entries in {} pages", entryCount, pageCount);
+    close();
+  }
+
+
+  /**
+   * Executes a page of the search.
+   *
+   * @param  cookie  returned by the previous page, null for the first page
+   *
+   * @throws  LdapException  if the search cannot be executed
+   */
+  private void search(final byte[] cookie)
+    throws LdapException
+  {
+    if (pageSize > 0) {
+      final RequestControl[] controls =
+        new RequestControl[requestControls.length + 1];
+      System.arraycopy(
+        requestControls, 0, controls, 0, requestControls.length);
+      controls[requestControls.length] =
+        new PagedResultsControl(pageSize, cookie, true);
+      searchRequest.setControls(controls);
+    }
+    searchIterator = connection.getProviderConnection().search(searchRequest);
+    pageCount++;
+  }
+
+
+  /**
+   * Returns a copy of the supplied search request with its own arrays of
+   * attributes, handlers and controls.
+   *
+   * @param  request  to copy
+   *
+   * @return  search request
+   */
+  private static SearchRequest copy(final SearchRequest request)
+  {
+    final SearchRequest copy = new SearchRequest();
+    copy.setBaseDn(request.getBaseDn());
+    copy.setSearchFilter(request.getSearchFilter());
+    copy.setReturnAttributes(clone(request.getReturnAttributes()));
+    copy.setSearchScope(request.getSearchScope());
+    copy.setTimeLimit(request.getTimeLimit());
+    copy.setSizeLimit(request.getSizeLimit());
+    copy.setDerefAliases(request.getDerefAliases());
+    copy.setTypesOnly(request.getTypesOnly());
+    copy.setBinaryAttributes(clone(request.getBinaryAttributes()));
+    copy.setSortBehavior(request.getSortBehavior());
+    copy.setSearchEntryHandlers(clone(request.getSearchEntryHandlers()));
+    copy.setSearchReferenceHandlers(
+      clone(request.getSearchReferenceHandlers()));
+    copy.setControls(clone(request.getControls()));
+    copy.setFollowReferrals(request.getFollowReferrals());
+    copy.setIntermediateResponseHandlers(
+      clone(request.getIntermediateResponseHandlers()));
+    return copy;
+  }
+
+
+  /**
+   * Returns a shallow copy of the supplied array.
+   *
+   * @param  <E>  type of element
+   * @param  array  to copy, may be null
+   *
+   * @return  copy of the array or null
+   */
+  private static <E> E[] clone(final E[] array)
+  {
+    return array != null ? array.clone() : null;
+  }
+
+
+  /**
+   * Returns the page size of the paged results control among the supplied
+   * controls.
+   *
+   * @param  controls  of the search request, may be null
+   *
+   * @return  page size or zero if there is no paged results control
+   */
+  private static int getPageSize(final RequestControl[] controls)
+  {
+    if (controls != null) {
+      for (RequestControl c : controls) {
+        if (c instanceof PagedResultsControl) {
+          return ((PagedResultsControl) c).getSize();
+        }
+      }
+    }
+    return 0;
+  }
+
+
+  /**
+   * Returns the supplied controls without any paged results control, which
+   * the cursor adds to each page itself.
+   *
+   * @param  controls  of the search request, may be null
+   *
+   * @return  request controls
+   */
+  private static RequestControl[] removePagedResults(
+    final RequestControl[] controls)
+  {
+    final List<RequestControl> list = new ArrayList<RequestControl>();
+    if (controls != null) {
+      for (RequestControl c : controls) {
+        if (!(c instanceof PagedResultsControl)) {
+          list.add(c);
+        }
+      }
+    }
+    return list.toArray(new RequestControl[list.size()]);
+  }
+
+
+  /**
+   * Creates an object of the configured type.
+   *
+   * @return  new object
+   */
+  private T createObject()
+  {
+    return ReflectionUtils.newInstance(objectType);
+  }
+
+
+  /** {@inheritDoc} */
+  @Override
+  public String toString()
+  {
+    return String.format(
+      "[%s@%d::searchRequest=%s, pageSize=%s, objectType=%s, " +
+      "entryCount=%s, pageCount=%s, closed=%s]",
+      getClass().getName(),
+      hashCode(),
+      searchRequest,
+      pageSize,
+      objectType,
+      entryCount,
+      pageCount,
+      isClosed());
+  }
+}
@@ -0,0 +1,112 @@
+/*
+  $Id$
+
+  Copyright (C) 2003-2014 Virginia Tech.
+  All rights reserved.
+
+  SEE LICENSE FOR MORE INFORMATION
+
+  Author:  Middleware Services
+  Email:   middleware@vt.edu
+  Version: $Revision$
+  Updated: $Date$
+*/
+package org.ldaptive.persistence;
+
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReentrantLock;
+import org.ldaptive.Connection;
+import org.ldaptive.LdapException;
+
+/**
+ * Runs every operation over a single long-lived connection supplied by the
+ * caller. The connection is opened on first use if it is not already open and
+ * is never closed by this source; the caller owns its lifecycle. Operations are
+ * serialized, since provider connections are not guaranteed to support
+ * concurrent requests, so the recorded wait time is the time spent waiting for
+ * other operations to finish.
+ *
+ * @author  Middleware Services
+ * @version  $Revision$ $Date$
+ */
+public class SharedConnectionSource extends AbstractConnectionSource
+{
+
+  /** Connection to share. */
+  private final Connection connection;
+
+  /** Serializes use of the connection. */
+  private final Lock lock = new ReentrantLock();
+
+
+  /**
+   * Creates a new shared connection source.
+   *
+   * @param  conn  to share
+   */
+  public SharedConnectionSource(final Connection conn)
+  {
+    if (conn == null) {
+      throw new IllegalArgumentException("Connection cannot be null");
+    }
+    connection = conn;
+  }
+
+
+  /**
+   * Returns the shared connection.
+   *
+   * @return  connection
+   */
+  public Connection getSharedConnection()
+  {
+    return connection;
+  }
+
+
+  /** {@inheritDoc} */
+  @Override
+  protected Connection borrowConnection()
+    throws LdapException
+  {
+    lock.lock();
+    try {
+      if (!connection.isOpen()) {
+        logger.debug("opening shared connection {}", connection);
+        connection.open();
+      }
+    } catch (LdapException e) {
+      lock.unlock();
+      throw e;
+    } catch (RuntimeException e) {
+      lock.unlock();
+      throw e;
+    }
+    return connection;
+  }
+
+
+  /** {@inheritDoc} */
+  @Override
+  protected void returnConnection(final Connection conn)
+  {
+    lock.unlock();
+  }
+
+
+  /** {@inheritDoc} */
+  @Override
+  public String toString()
+  {
+    return String.format(
+      "[%s@%d::connection=%s, borrowCount=%s, activeCount=%s, " +
+      "waitTime=%s, maxWaitTime=%s]",
+      getClass().getName(),
+      hashCode(),
+      connection,
+      getBorrowCount(),
+      getActiveCount(),
+      getWaitTime(),
+      getMaxWaitTime());
+  }
+}
@@ -0,0 +1,320 @@
+/*
+  $Id$
+
+  Copyright (C) 2003-2014 Virginia Tech.
+  All rights reserved.
+
+  SEE LICENSE FOR MORE INFORMATION
+
+  Author:  Middleware Services
+  Email:   middleware@vt.edu
+  Version: $Revision$
+  Updated: $Date$
+*/
+package org.ldaptive.beans;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import org.ldaptive.LdapAttribute;
+import org.ldaptive.LdapEntry;
+import org.ldaptive.beans.reflect.CustomObject;
+import org.ldaptive.beans.reflect.DefaultLdapEntryMapper;
+import org.ldaptive.beans.reflect.IntCustomObject;
+import org.ldaptive.beans.reflect.StringCustomObject;
+import org.testng.Assert;
+import org.testng.annotations.AfterClass;
+import org.testng.annotations.Test;
+
+/**
+ * Unit tests for {@link BulkLdapEntryMapper}.
+ *
+ * @author  Middleware Services
+ * @version  $Revision$ $Date$
+ */
+public class BulkLdapEntryMapperTest
+{
+
+  /** Executor for batches. */
+  private final ExecutorService executor = Executors.newFixedThreadPool(4);
+
+
+  /** Shuts down the executor. */
+  @AfterClass(groups = {"beans"}, alwaysRun = true)
+  public void shutdown()
+  {
+    executor.shutdown();
+  }
+
+
+  /**
+   * @throws  Exception  On test failure.
+   */
+  @Test(groups = {"beans"})
+  public void mapAll()
+    throws Exception
+  {
+    final DefaultLdapEntryMapper<CustomObject> mapper =
+      new DefaultLdapEntryMapper<CustomObject>(false);
+    final BulkLdapEntryMapper<CustomObject> bulk =
+      mapper.getBulkLdapEntryMapper();
+    bulk.setParallelThreshold(100);
+    bulk.setBatchSize(64);
+
+    // below the threshold everything is one batch on the caller thread
+    final List<CustomObject> small = createObjects(99);
+    Assert.assertEquals(mapper.mapAll(small), mapEach(mapper, small));
+    Assert.assertEquals(bulk.getBatchCount(), 1);
+
+    // above the threshold, on the shared pool and on an executor
+    final List<CustomObject> objects = createObjects(1000);
+    final List<LdapEntry> entries = mapEach(mapper, objects);
+    for (int i = 0; i < 2; i++) {
+      bulk.setExecutor(i == 0 ? null : executor);
+      bulk.resetStatistics();
+      Assert.assertEquals(mapper.mapAll(objects), entries);
+      Assert.assertEquals(
+        mapper.mapAll(entries, StringCustomObject.class), objects);
+      Assert.assertEquals(bulk.getBatchCount(), 2 * 16);
+      Assert.assertTrue(bulk.getBatchTime() >= bulk.getMaxBatchTime());
+      Assert.assertTrue(bulk.getMaxBatchTime() > 0);
+    }
+    Assert.assertEquals(
+      mapper.mapAll(Collections.<LdapEntry>emptyList(), IntCustomObject.class),
+      Collections.emptyList());
+  }
+
+
+  /**
+   * @throws  Exception  On test failure.
+   */
+  @Test(groups = {"beans"}, timeOut = 10000)
+  public void mapAllStarvedExecutor()
+    throws Exception
+  {
+    final DefaultLdapEntryMapper<CustomObject> mapper =
+      new DefaultLdapEntryMapper<CustomObject>(false);
+    final BulkLdapEntryMapper<CustomObject> bulk =
+      new BulkLdapEntryMapper<CustomObject>(mapper);
+    bulk.setParallelThreshold(10);
+    bulk.setBatchSize(4);
+    final List<CustomObject> objects = createObjects(20);
+    final List<LdapEntry> entries = mapEach(mapper, objects);
+
+    // batches the executor never runs are mapped on the caller thread
+    bulk.setExecutor(
+      new Executor() {
+        @Override
+        public void execute(final Runnable command) {}
+      });
+    Assert.assertEquals(bulk.mapAll(objects), entries);
+    Assert.assertEquals(bulk.getBatchCount(), 5);
+
+    // as are batches the executor rejects
+    bulk.setExecutor(
+      new Executor() {
+        @Override
+        public void execute(final Runnable command)
+        {
+          throw new RejectedExecutionException();
+        }
+      });
+    Assert.assertEquals(
+      bulk.mapAll(entries, StringCustomObject.class), objects);
+    Assert.assertEquals(bulk.getBatchCount(), 10);
+  }
+
+
+  /**
+   * @throws  Exception  On test failure.
+   */
+  @Test(groups = {"beans"})
+  public void mapAllFailure()
+    throws Exception
+  {
+    final DefaultLdapEntryMapper<CustomObject> mapper =
+      new DefaultLdapEntryMapper<CustomObject>(false);
+    final BulkLdapEntryMapper<CustomObject> bulk =
+      new BulkLdapEntryMapper<CustomObject>(mapper);
+    bulk.setParallelThreshold(10);
+    bulk.setBatchSize(4);
+    bulk.setExecutor(executor);
+    final List<LdapEntry> entries = new ArrayList<LdapEntry>();
+    for (int i = 0; i < 20; i++) {
+      final LdapEntry entry = new LdapEntry("uid=" + i + ",dc=ldaptive,dc=org");
+      entry.addAttribute(new LdapAttribute("type1", i == 17 ? "x" : "1"));
+      entries.add(entry);
+    }
+    try {
+      bulk.mapAll(entries, IntCustomObject.class);
+      Assert.fail("Should have thrown NumberFormatException");
+    } catch (NumberFormatException e) {
+      Assert.assertTrue(e.getMessage().contains("\"x\""));
+    }
+    try {
+      bulk.mapAll(entries, CustomObject.class);
+      Assert.fail("Should have thrown IllegalArgumentException");
+    } catch (IllegalArgumentException e) {
+      Assert.assertEquals(
+        e.getCause().getClass(), NoSuchMethodException.class);
+    }
+  }
+
+
+  /**
+   * Maps objects of several types from many threads at once while their class
+   * descriptors are initialized, and checks every result against sequential
+   * mapping.
+   *
+   * @throws  Exception  On test failure.
+   */
+  @Test(groups = {"beans"})
+  public void concurrentMapAll()
+    throws Exception
+  {
+    final int threads = 8;
+    final DefaultLdapEntryMapper<CustomObject> mapper =
+      new DefaultLdapEntryMapper<CustomObject>(false);
+    final List<CustomObject> objects = createObjects(500);
+    final List<LdapEntry> entries = mapEach(mapper, objects);
+    final List<CustomObject> intObjects = new ArrayList<CustomObject>();
+    for (int i = 0; i < 500; i++) {
+      final IntCustomObject o = new IntCustomObject();
+      o.setType1(i);
+      o.writeType2(-i);
+      o.setType3(i * 2);
+      o.setTypeArray1(new int[] {i, -i - 1});
+      o.writeTypeArray2(new int[] {i});
+      o.setCol1(Arrays.asList(String.valueOf(i)));
+      o.writeCol2(Arrays.asList(String.valueOf(i + 1)));
+      o.setTypeCol1(Arrays.asList(i));
+      o.writeTypeCol2(Arrays.asList(i + 2));
+      o.setTypeSet1(new HashSet<Integer>(Arrays.asList(i)));
+      o.writeTypeSet2(new HashSet<Integer>(Arrays.asList(i + 3)));
+      o.setTypeList1(Arrays.asList(i + 1));
+      o.writeTypeList2(Arrays.asList(i + 4));
+      intObjects.add(o);
+    }
+    final List<LdapEntry> intEntries = mapEach(mapper, intObjects);
+
+    final BulkLdapEntryMapper<CustomObject> bulk =
+      new BulkLdapEntryMapper<CustomObject>(mapper);
+    bulk.setParallelThreshold(50);
+    bulk.setBatchSize(16);
+    final ClassDescriptorRegistry registry =
+      DefaultLdapEntryMapper.getClassDescriptorRegistry();
+    registry.remove(StringCustomObject.class);
+    registry.remove(IntCustomObject.class);
+
+    final CountDownLatch start = new CountDownLatch(1);
+    final ExecutorService callers = Executors.newFixedThreadPool(threads);
+    try {
+      final List<Future<Void>> results = new ArrayList<Future<Void>>();
+      for (int i = 0; i < threads; i++) {
+        final boolean strings = i % 2 == 0;
+        final boolean shared = i % 4 < 2;
+        results.add(
+          callers.submit(
+            new Callable<Void>() {
+              @Override
+              public Void call()
+                throws Exception
+              {
+                start.await();
+                final BulkLdapEntryMapper<CustomObject> m;
+                if (shared) {
+                  m = bulk;
+                } else {
+                  m = new BulkLdapEntryMapper<CustomObject>(mapper);
+                  m.setParallelThreshold(50);
+                  m.setBatchSize(16);
+                  m.setExecutor(executor);
+                }
+                for (int j = 0; j < 20; j++) {
+                  if (strings) {
+                    Assert.assertEquals(m.mapAll(objects), entries);
+                    Assert.assertEquals(
+                      m.mapAll(entries, StringCustomObject.class), objects);
+                  } else {
+                    Assert.assertEquals(m.mapAll(intObjects), intEntries);
+                    Assert.assertEquals(
+                      m.mapAll(intEntries, IntCustomObject.class), intObjects);
+                  }
+                }
+                return null;
+              }
+            }));
+      }
+      start.countDown();
+      for (Future<Void> f : results) {
+        f.get();
+      }
+    } finally {
+      callers.shutdown();
+    }
+    // two shared threads per type, 20 iterations of two calls of 32 batches
+    Assert.assertEquals(bulk.getBatchCount(), 4 * 20 * 2 * 32);
+  }
+
+
+  /**
+   * Creates string custom objects with distinct values.
+   *
+   * @param  count  number of objects
+   *
+   * @return  objects
+   */
+  private static List<CustomObject> createObjects(final int count)
+  {
+    final List<CustomObject> objects = new ArrayList<CustomObject>(count);
+    for (int i = 0; i < count; i++) {
+      final StringCustomObject o = new StringCustomObject();
+      o.setType1("tv" + i);
+      o.writeType2("tw" + i);
+      o.setType3("value " + i);
+      o.setTypeArray1(new String[] {"a" + i, "b" + i});
+      o.writeTypeArray2(new String[] {"c" + i});
+      o.setCol1(Arrays.asList("d" + i));
+      o.writeCol2(Arrays.asList("e" + i));
+      o.setTypeCol1(Arrays.asList("f" + i));
+      o.writeTypeCol2(Arrays.asList("h" + i));
+      o.setTypeSet1(new HashSet<String>(Arrays.asList("i" + i)));
+      o.writeTypeSet2(new HashSet<String>(Arrays.asList("j" + i)));
+      o.setTypeList1(Arrays.asList("l" + i));
+      o.writeTypeList2(Arrays.asList("n" + i));
+      objects.add(o);
+    }
+    return objects;
+  }
+
+
+  /**
+   * Maps each object on the caller thread.
+   *
+   * @param  mapper  to map with
+   * @param  objects  to map
+   *
+   * @return  mapped entries
+   */
+  private static List<LdapEntry> mapEach(
+    final LdapEntryMapper<CustomObject> mapper,
+    final List<CustomObject> objects)
+  {
+    final List<LdapEntry> entries = new ArrayList<LdapEntry>(objects.size());
+    for (CustomObject o : objects) {
+      final LdapEntry entry = new LdapEntry();
+      mapper.map(o, entry);
+      entries.add(entry);
+    }
+    return entries;
+  }
+}
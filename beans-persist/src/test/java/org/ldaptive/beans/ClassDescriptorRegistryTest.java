@@ -0,0 +1,148 @@
+/*
+  $Id$
+
+  Copyright (C) 2003-2014 Virginia Tech.
+  All rights reserved.
+
+  SEE LICENSE FOR MORE INFORMATION
+
+  Author:  Middleware Services
+  Email:   middleware@vt.edu
+  Version: $Revision$
+  Updated: $Date$
+*/
+package org.ldaptive.beans;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.ldaptive.beans.reflect.DefaultClassDescriptor;
+import org.ldaptive.beans.reflect.IntCustomObject;
+import org.ldaptive.beans.reflect.StringCustomObject;
+import org.testng.Assert;
+import org.testng.annotations.Test;
+
+/**
+ * Unit tests for {@link ClassDescriptorRegistry}.
+ *
+ * @author  Middleware Services
+ * @version  $Revision$ $Date$
+ */
+public class ClassDescriptorRegistryTest
+{
+
+
+  /**
+   * @throws  Exception  On test failure.
+   */
+  @Test(groups = {"beans"})
+  public void getClassDescriptor()
+    throws Exception
+  {
+    final AtomicInteger created = new AtomicInteger();
+    final ClassDescriptorRegistry registry = new ClassDescriptorRegistry(
+      new CountingClassDescriptorFactory(created));
+    registry.setCountHits(true);
+
+    Assert.assertFalse(registry.contains(StringCustomObject.class));
+    final ClassDescriptor d1 = registry.getClassDescriptor(
+      StringCustomObject.class);
+    Assert.assertTrue(registry.contains(StringCustomObject.class));
+    Assert.assertNotNull(d1.getDnValueMutator());
+    Assert.assertSame(
+      registry.getClassDescriptor(StringCustomObject.class), d1);
+    Assert.assertNotSame(
+      registry.getClassDescriptor(IntCustomObject.class), d1);
+    Assert.assertEquals(created.get(), 2);
+    Assert.assertEquals(registry.getMissCount(), 2);
+    Assert.assertEquals(registry.getHitCount(), 1);
+    Assert.assertTrue(registry.getInitializationTime() > 0);
+
+    registry.remove(StringCustomObject.class);
+    Assert.assertFalse(registry.contains(StringCustomObject.class));
+    Assert.assertNotSame(
+      registry.getClassDescriptor(StringCustomObject.class), d1);
+    Assert.assertEquals(created.get(), 3);
+
+    registry.resetStatistics();
+    Assert.assertEquals(registry.getMissCount(), 0);
+    Assert.assertEquals(registry.getHitCount(), 0);
+  }
+
+
+  /**
+   * @throws  Exception  On test failure.
+   */
+  @Test(groups = {"beans"})
+  public void concurrentInitialization()
+    throws Exception
+  {
+    final int threads = 16;
+    final AtomicInteger created = new AtomicInteger();
+    final ClassDescriptorRegistry registry = new ClassDescriptorRegistry(
+      new CountingClassDescriptorFactory(created));
+    final CountDownLatch start = new CountDownLatch(1);
+    final ExecutorService executor = Executors.newFixedThreadPool(threads);
+    try {
+      final List<Future<ClassDescriptor>> results =
+        new ArrayList<Future<ClassDescriptor>>();
+      for (int i = 0; i < threads; i++) {
+        results.add(
+          executor.submit(
+            new Callable<ClassDescriptor>() {
+              @Override
+              public ClassDescriptor call()
+                throws Exception
+              {
+                start.await();
+                return registry.getClassDescriptor(IntCustomObject.class);
+              }
+            }));
+      }
+      start.countDown();
+      final ClassDescriptor descriptor = results.get(0).get();
+      for (Future<ClassDescriptor> f : results) {
+        Assert.assertSame(f.get(), descriptor);
+      }
+    } finally {
+      executor.shutdown();
+    }
+    Assert.assertEquals(created.get(), 1);
+    Assert.assertEquals(registry.getMissCount(), 1);
+  }
+
+
+  /** Creates default class descriptors and counts each creation. */
+  private static class CountingClassDescriptorFactory
+    implements ClassDescriptorFactory
+  {
+
+    /** Number of descriptors created. */
+    private final AtomicInteger count;
+
+
+    /**
+     * Creates a new counting class descriptor factory.
+     *
+     * @param  i  to increment for each descriptor created
+     */
+    CountingClassDescriptorFactory(final AtomicInteger i)
+    {
+      count = i;
+    }
+
+
+    /** {@inheritDoc} */
+    @Override
+    public ClassDescriptor newClassDescriptor(final Class<?> type)
+    {
+      count.incrementAndGet();
+      return new DefaultClassDescriptor();
+    }
+  }
+}
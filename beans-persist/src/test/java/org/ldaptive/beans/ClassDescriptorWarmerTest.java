@@ -0,0 +1,178 @@
+/*
+  $Id$
+
+  Copyright (C) 2003-2014 Virginia Tech.
+  All rights reserved.
+
+  SEE LICENSE FOR MORE INFORMATION
+
+  Author:  Middleware Services
+  Email:   middleware@vt.edu
+  Version: $Revision$
+  Updated: $Date$
+*/
+package org.ldaptive.beans;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.net.URL;
+import java.net.URLClassLoader;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Enumeration;
+import java.util.List;
+import org.ldaptive.beans.reflect.BinaryCustomObject;
+import org.ldaptive.beans.reflect.CharCustomObject;
+import org.ldaptive.beans.reflect.DefaultClassDescriptor;
+import org.ldaptive.beans.reflect.IntCustomObject;
+import org.ldaptive.beans.reflect.IntegerCustomObject;
+import org.ldaptive.beans.reflect.StringCustomObject;
+import org.testng.Assert;
+import org.testng.annotations.Test;
+
+/**
+ * Unit tests for {@link ClassDescriptorWarmer} and {@link EntryIndex}.
+ *
+ * @author  Middleware Services
+ * @version  $Revision$ $Date$
+ */
+public class ClassDescriptorWarmerTest
+{
+
+
+  /**
+   * @throws  Exception  On test failure.
+   */
+  @Test(groups = {"beans"})
+  public void warm()
+    throws Exception
+  {
+    final List<Class<?>> types = Arrays.<Class<?>>asList(
+      StringCustomObject.class,
+      IntCustomObject.class,
+      Object.class,
+      IntegerCustomObject.class,
+      CharCustomObject.class,
+      BinaryCustomObject.class);
+    for (int threads : new int[] {1, 2, 8}) {
+      final ClassDescriptorRegistry registry = createRegistry();
+      final ClassDescriptorWarmer warmer = new ClassDescriptorWarmer(registry);
+      warmer.setThreadCount(threads);
+      final ClassDescriptorWarmer.Result result = warmer.warm(types);
+      Assert.assertFalse(result.isSuccess());
+      Assert.assertEquals(
+        result.getFailures().keySet().toArray(), new Object[] {Object.class});
+      Assert.assertEquals(
+        result.getFailures().get(Object.class).getClass(),
+        IllegalStateException.class);
+      final Collection<Class<?>> warmed = result.getTimes().keySet();
+      Assert.assertEquals(
+        warmed.toArray(),
+        new Object[] {
+          StringCustomObject.class,
+          IntCustomObject.class,
+          IntegerCustomObject.class,
+          CharCustomObject.class,
+          BinaryCustomObject.class,
+        });
+      for (Class<?> type : warmed) {
+        Assert.assertTrue(registry.contains(type));
+        Assert.assertTrue(result.getTimes().get(type) > 0);
+      }
+      Assert.assertEquals(registry.getMissCount(), warmed.size());
+    }
+
+    try {
+      new ClassDescriptorWarmer(createRegistry()).setThreadCount(0);
+      Assert.fail("Should have thrown IllegalArgumentException");
+    } catch (IllegalArgumentException e) {
+      Assert.assertNotNull(e.getMessage());
+    }
+  }
+
+
+  /**
+   * @throws  Exception  On test failure.
+   */
+  @Test(groups = {"beans"})
+  public void warmFromIndex()
+    throws Exception
+  {
+    final File dir = File.createTempFile("entry-index", "");
+    Assert.assertTrue(dir.delete());
+    final File index = new File(dir, EntryIndex.RESOURCE_NAME);
+    Assert.assertTrue(index.getParentFile().mkdirs());
+    final Writer writer = new OutputStreamWriter(
+      new FileOutputStream(index), StandardCharsets.UTF_8);
+    try {
+      writer.write("# entry classes\n");
+      writer.write(StringCustomObject.class.getName() + "\n\n");
+      writer.write("  " + IntCustomObject.class.getName() + "  \n");
+      writer.write("org.ldaptive.beans.NoSuchEntry\n");
+      writer.write(StringCustomObject.class.getName() + "\n");
+    } finally {
+      writer.close();
+    }
+    // only read the index in dir, classes are loaded from the test loader
+    final URLClassLoader loader = new URLClassLoader(
+      new URL[] {dir.toURI().toURL()}, getClass().getClassLoader()) {
+      @Override
+      public Enumeration<URL> getResources(final String name)
+        throws IOException
+      {
+        return findResources(name);
+      }
+    };
+    try {
+      Assert.assertEquals(
+        EntryIndex.getClassNames(loader),
+        Arrays.asList(
+          StringCustomObject.class.getName(),
+          IntCustomObject.class.getName(),
+          "org.ldaptive.beans.NoSuchEntry"));
+      Assert.assertEquals(
+        EntryIndex.getClasses(loader),
+        Arrays.<Class<?>>asList(
+          StringCustomObject.class, IntCustomObject.class));
+
+      final ClassDescriptorRegistry registry = createRegistry();
+      final ClassDescriptorWarmer.Result result =
+        new ClassDescriptorWarmer(registry).warm(loader);
+      Assert.assertTrue(result.isSuccess());
+      Assert.assertTrue(registry.contains(StringCustomObject.class));
+      Assert.assertTrue(registry.contains(IntCustomObject.class));
+    } finally {
+      loader.close();
+      index.delete();
+      index.getParentFile().delete();
+      index.getParentFile().getParentFile().delete();
+      dir.delete();
+    }
+  }
+
+
+  /**
+   * Creates a registry of default class descriptors that fails to create a
+   * descriptor for {@link Object}.
+   *
+   * @return  class descriptor registry
+   */
+  private static ClassDescriptorRegistry createRegistry()
+  {
+    return new ClassDescriptorRegistry(
+      new ClassDescriptorFactory() {
+        @Override
+        public ClassDescriptor newClassDescriptor(final Class<?> type)
+        {
+          if (type == Object.class) {
+            throw new IllegalStateException("Not an entry class");
+          }
+          return new DefaultClassDescriptor();
+        }
+      });
+  }
+}
@@ -0,0 +1,196 @@
+/*
+  $Id$
+
+  Copyright (C) 2003-2014 Virginia Tech.
+  All rights reserved.
+
+  SEE LICENSE FOR MORE INFORMATION
+
+  Author:  Middleware Services
+  Email:   middleware@vt.edu
+  Version: $Revision$
+  Updated: $Date$
+*/
+package org.ldaptive.beans;
+
+import java.util.Arrays;
+import org.testng.Assert;
+import org.testng.annotations.DataProvider;
+import org.testng.annotations.Test;
+
+/**
+ * Unit tests for {@link DnTemplate}.
+ *
+ * @author  Middleware Services
+ * @version  $Revision$ $Date$
+ */
+public class DnTemplateTest
+{
+
+  /** Template used by most tests. */
+  private final DnTemplate template = DnTemplate.compile(
+    "uid={uid},ou={ou}, dc=ldaptive,dc=org");
+
+
+  /**
+   * Values and the DNs they format to.
+   *
+   * @return  values and DNs
+   */
+  @DataProvider(name = "values")
+  public Object[][] createValues()
+  {
+    return new Object[][] {
+      new Object[] {
+        new String[] {"jdoe", "people"},
+        "uid=jdoe,ou=people, dc=ldaptive,dc=org",
+      },
+      new Object[] {
+        new String[] {"doe, john", "a+b;c"},
+        "uid=doe\\, john,ou=a\\+b\\;c, dc=ldaptive,dc=org",
+      },
+      new Object[] {
+        new String[] {"#1 \"x\" <y> ", " back\\slash"},
+        "uid=\\#1 \\\"x\\\" \\<y\\>\\ ,ou=\\ back\\\\slash, dc=ldaptive,dc=org",
+      },
+      new Object[] {
+        new String[] {"nul\u0000", "caf\u00e9"},
+        "uid=nul\\00,ou=caf\u00e9, dc=ldaptive,dc=org",
+      },
+      new Object[] {
+        new String[] {"", "{braces}"},
+        "uid=,ou={braces}, dc=ldaptive,dc=org",
+      },
+    };
+  }
+
+
+  /**
+   * @throws  Exception  On test failure.
+   */
+  @Test(groups = {"beans"})
+  public void compile()
+    throws Exception
+  {
+    Assert.assertTrue(DnTemplate.isTemplate("uid={uid},dc=org"));
+    Assert.assertFalse(DnTemplate.isTemplate("uid=jdoe,dc=org"));
+    Assert.assertFalse(DnTemplate.isTemplate("uid=\\7Bjdoe\\7D,dc=org"));
+    Assert.assertEquals(
+      template.getPropertyNames(), Arrays.asList("uid", "ou"));
+    Assert.assertEquals(
+      DnTemplate.compile("cn={ name }+sn=\\7Bx\\7D").getPropertyNames(),
+      Arrays.asList("name"));
+  }
+
+
+  /**
+   * Templates that cannot be compiled.
+   *
+   * @return  templates
+   */
+  @DataProvider(name = "invalid")
+  public Object[][] createInvalidTemplates()
+  {
+    return new Object[][] {
+      new Object[] {"uid=prefix-{uid},dc=org"},
+      new Object[] {"uid={uid}-suffix,dc=org"},
+      new Object[] {"uid={uid,dc=org"},
+      new Object[] {"uid={},dc=org"},
+      new Object[] {"uid={uid},cn={uid},dc=org"},
+      new Object[] {"{uid}=jdoe,dc=org"},
+      new Object[] {"uid={uid},dc"},
+      new Object[] {"uid={uid},"},
+      new Object[] {"uid=#0400{uid},dc=org"},
+    };
+  }
+
+
+  /**
+   * @param  invalid  template
+   *
+   * @throws  Exception  On test failure.
+   */
+  @Test(groups = {"beans"}, dataProvider = "invalid")
+  public void compileInvalid(final String invalid)
+    throws Exception
+  {
+    try {
+      DnTemplate.compile(invalid);
+      Assert.fail("Should have thrown IllegalArgumentException");
+    } catch (IllegalArgumentException e) {
+      Assert.assertEquals(e.getClass(), IllegalArgumentException.class);
+    }
+  }
+
+
+  /**
+   * @param  values  to format
+   * @param  dn  expected DN
+   *
+   * @throws  Exception  On test failure.
+   */
+  @Test(groups = {"beans"}, dataProvider = "values")
+  public void format(final String[] values, final String dn)
+    throws Exception
+  {
+    Assert.assertEquals(template.format(values), dn);
+  }
+
+
+  /**
+   * @param  values  expected values
+   * @param  dn  to parse
+   *
+   * @throws  Exception  On test failure.
+   */
+  @Test(groups = {"beans"}, dataProvider = "values")
+  public void parse(final String[] values, final String dn)
+    throws Exception
+  {
+    Assert.assertEquals(template.parse(dn), values);
+  }
+
+
+  /**
+   * @throws  Exception  On test failure.
+   */
+  @Test(groups = {"beans"})
+  public void parseVariants()
+    throws Exception
+  {
+    Assert.assertEquals(
+      template.parse("UID = jdoe , OU=People,DC=LDAPTIVE,dc=org"),
+      new String[] {"jdoe", "People"});
+    Assert.assertEquals(
+      template.parse("uid=doe\\2C john,ou=caf\\C3\\A9\\20,dc=ldaptive,dc=org"),
+      new String[] {"doe, john", "caf\u00e9 "});
+    Assert.assertNull(template.parse(null));
+    Assert.assertNull(template.parse("uid=jdoe,ou=people,dc=ldaptive"));
+    Assert.assertNull(
+      template.parse("uid=jdoe,ou=people,dc=ldaptive,dc=org,dc=com"));
+    Assert.assertNull(template.parse("cn=jdoe,ou=people,dc=ldaptive,dc=org"));
+    Assert.assertNull(template.parse("uid=jdoe,ou=people,dc=vt,dc=edu"));
+    Assert.assertNull(
+      template.parse("uid=jdoe+cn=x,ou=people,dc=ldaptive,dc=org"));
+    Assert.assertNull(
+      template.parse("uid=#04026a64,ou=people,dc=ldaptive,dc=org"));
+    Assert.assertNull(template.parse("uid=jdoe\\"));
+  }
+
+
+  /**
+   * @throws  Exception  On test failure.
+   */
+  @Test(groups = {"beans"})
+  public void formatNull()
+    throws Exception
+  {
+    Assert.assertNull(template.format("jdoe", null));
+    try {
+      template.format("jdoe");
+      Assert.fail("Should have thrown IllegalArgumentException");
+    } catch (IllegalArgumentException e) {
+      Assert.assertEquals(e.getClass(), IllegalArgumentException.class);
+    }
+  }
+}
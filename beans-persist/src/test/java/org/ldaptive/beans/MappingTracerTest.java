@@ -0,0 +1,166 @@
+/*
+  $Id$
+
+  Copyright (C) 2003-2014 Virginia Tech.
+  All rights reserved.
+
+  SEE LICENSE FOR MORE INFORMATION
+
+  Author:  Middleware Services
+  Email:   middleware@vt.edu
+  Version: $Revision$
+  Updated: $Date$
+*/
+package org.ldaptive.beans;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import org.ldaptive.LdapAttribute;
+import org.ldaptive.LdapEntry;
+import org.ldaptive.beans.reflect.DefaultLdapEntryMapper;
+import org.ldaptive.beans.reflect.StringCustomObject;
+import org.testng.Assert;
+import org.testng.annotations.Test;
+
+/**
+ * Unit test for {@link MappingTracer}.
+ *
+ * @author  Middleware Services
+ * @version  $Revision$ $Date$
+ */
+public class MappingTracerTest
+{
+
+
+  /**
+   * @throws  Exception  On test failure.
+   */
+  @Test(groups = {"beans"})
+  public void sample()
+    throws Exception
+  {
+    final DefaultLdapEntryMapper<StringCustomObject> mapper =
+      new DefaultLdapEntryMapper<StringCustomObject>(false);
+    final List<MappingTrace> traces = Collections.synchronizedList(
+      new ArrayList<MappingTrace>());
+    final MappingTracer tracer = new MappingTracer(1);
+    tracer.setTimeMutators(true);
+    tracer.setListener(
+      new MappingTraceListener() {
+        @Override
+        public void traceCompleted(final MappingTrace trace)
+        {
+          traces.add(trace);
+        }
+      });
+    mapper.setMappingTracer(tracer);
+
+    final StringCustomObject o = new StringCustomObject();
+    o.setType1("tv1");
+    o.writeType2("tv2");
+    o.setType3("tv3");
+    o.setTypeArray1(new String[] {"a"});
+    o.writeTypeArray2(new String[] {"b"});
+    o.setCol1(Arrays.asList("c"));
+    o.writeCol2(Arrays.asList("d"));
+    o.setTypeCol1(Arrays.asList("e"));
+    o.writeTypeCol2(Arrays.asList("f"));
+    o.setTypeSet1(new HashSet<String>(Arrays.asList("g")));
+    o.writeTypeSet2(new HashSet<String>(Arrays.asList("h")));
+    o.setTypeList1(Arrays.asList("i"));
+    o.writeTypeList2(Arrays.asList("j"));
+    final LdapEntry entry = new LdapEntry();
+    mapper.map(o, entry);
+    for (int i = 0; i < 9; i++) {
+      mapper.map(entry, new StringCustomObject());
+    }
+    Assert.assertEquals(tracer.getTraceCount(), 10);
+    Assert.assertEquals(traces.size(), 10);
+
+    final MappingTrace first = traces.get(0);
+    Assert.assertEquals(first.getType(), StringCustomObject.class);
+    Assert.assertEquals(
+      first.getDirection(), MappingDirection.OBJECT_TO_ENTRY);
+    Assert.assertEquals(first.getDn(), entry.getDn());
+    Assert.assertEquals(first.getAttributeCount(), entry.size());
+    Assert.assertTrue(first.getTime() > 0);
+    Assert.assertEquals(
+      new ArrayList<String>(first.getMutatorTimes().keySet()),
+      Arrays.asList(mapper.getAttributeNames(o)));
+    for (MappingTrace trace : traces.subList(1, traces.size())) {
+      Assert.assertEquals(
+        trace.getDirection(), MappingDirection.ENTRY_TO_OBJECT);
+      Assert.assertEquals(trace.getAttributeCount(), entry.size());
+      Assert.assertEquals(trace.getMutatorTimes().size(), entry.size());
+    }
+
+    // without mutator timing only the mapping is timed
+    traces.clear();
+    tracer.resetStatistics();
+    tracer.setTimeMutators(false);
+    mapper.map(entry, new StringCustomObject());
+    Assert.assertEquals(traces.size(), 1);
+    Assert.assertTrue(traces.get(0).getMutatorTimes().isEmpty());
+
+    // without a listener traces are only created when debug is logged
+    traces.clear();
+    tracer.resetStatistics();
+    tracer.setListener(null);
+    mapper.map(entry, new StringCustomObject());
+    final long count = tracer.logger.isDebugEnabled() ? 1 : 0;
+    Assert.assertEquals(tracer.getTraceCount(), count);
+    Assert.assertTrue(traces.isEmpty());
+
+    // removing the tracer disables tracing
+    mapper.setMappingTracer(null);
+    mapper.map(entry, new StringCustomObject());
+    Assert.assertEquals(tracer.getTraceCount(), count);
+  }
+
+
+  /**
+   * @throws  Exception  On test failure.
+   */
+  @Test(groups = {"beans"})
+  public void sampleRate()
+    throws Exception
+  {
+    final DefaultLdapEntryMapper<StringCustomObject> mapper =
+      new DefaultLdapEntryMapper<StringCustomObject>(false);
+    final MappingTracer tracer = new MappingTracer(10);
+    tracer.setListener(
+      new MappingTraceListener() {
+        @Override
+        public void traceCompleted(final MappingTrace trace) {}
+      });
+    mapper.setMappingTracer(tracer);
+    final LdapEntry entry = new LdapEntry("uid=1,dc=ldaptive,dc=org");
+    entry.addAttribute(new LdapAttribute("type1", "tv1"));
+    for (int i = 0; i < 10000; i++) {
+      mapper.map(entry, new StringCustomObject());
+    }
+    // expect 1000 traces, the standard deviation is 30
+    Assert.assertTrue(
+      tracer.getTraceCount() > 800 && tracer.getTraceCount() < 1200,
+      String.valueOf(tracer.getTraceCount()));
+  }
+
+
+  /**
+   * @throws  Exception  On test failure.
+   */
+  @Test(groups = {"beans"})
+  public void invalidSampleRate()
+    throws Exception
+  {
+    try {
+      new MappingTracer(0);
+      Assert.fail("Should have thrown IllegalArgumentException");
+    } catch (IllegalArgumentException e) {
+      Assert.assertNotNull(e.getMessage());
+    }
+  }
+}
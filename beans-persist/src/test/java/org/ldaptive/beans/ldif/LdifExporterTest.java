@@ -0,0 +1,173 @@
+/*
+  $Id$
+
+  Copyright (C) 2003-2014 Virginia Tech.
+  All rights reserved.
+
+  SEE LICENSE FOR MORE INFORMATION
+
+  Author:  Middleware Services
+  Email:   middleware@vt.edu
+  Version: $Revision$
+  Updated: $Date$
+*/
+package org.ldaptive.beans.ldif;
+
+import java.io.File;
+import java.io.InputStreamReader;
+import java.io.Reader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+import org.ldaptive.LdapAttribute;
+import org.ldaptive.LdapEntry;
+import org.ldaptive.LdapUtils;
+import org.ldaptive.SearchResult;
+import org.ldaptive.beans.reflect.BinaryLdapEntryMapperTest;
+import org.ldaptive.beans.reflect.DefaultLdapEntryMapper;
+import org.ldaptive.beans.reflect.StringLdapEntryMapperTest;
+import org.ldaptive.io.LdifReader;
+import org.ldaptive.persistence.PersonCustomObject;
+import org.testng.Assert;
+import org.testng.annotations.Test;
+
+/**
+ * Unit tests for {@link LdifExporter}.
+ *
+ * @author  Middleware Services
+ * @version  $Revision$ $Date$
+ */
+public class LdifExporterTest
+{
+
+
+  /**
+   * @throws  Exception  On test failure.
+   */
+  @Test(groups = {"beans"})
+  public void export()
+    throws Exception
+  {
+    final List<Object> objects = new ArrayList<Object>();
+    objects.add(new StringLdapEntryMapperTest().createCustomObjects()[0][0]);
+    objects.add(new BinaryLdapEntryMapperTest().createCustomObjects()[0][0]);
+    final String[] names = {
+      "plain", " leading", "trailing ", ":colon", "<angle", "na\u00efve",
+      "\u4e2d\u6587", "line\nbreak", "emoji \ud83d\ude00", "",
+    };
+    for (int i = 0; i < 200; i++) {
+      final PersonCustomObject person = new PersonCustomObject(
+        "uid=person" + i + ",ou=people,dc=ldaptive,dc=org");
+      person.setUid("person" + i);
+      person.setCn(names[i % names.length] + i);
+      person.setSn(names[i % names.length]);
+      person.setMail(
+        Arrays.asList("person" + i + "@ldaptive.org", "alias" + i));
+      objects.add(person);
+    }
+    objects.add(null);
+
+    final File file = File.createTempFile("ldif-exporter-", ".ldif");
+    file.deleteOnExit();
+    final LdifExporter exporter = new LdifExporter(
+      DefaultLdapEntryMapper.getClassDescriptorRegistry());
+    final LdifExporter.Result result = exporter.export(
+      objects, file.toPath());
+    Assert.assertEquals(result.getEntryCount(), 202);
+    Assert.assertEquals(result.getByteCount(), file.length());
+    Assert.assertTrue(result.getEntriesPerSecond() > 0);
+    Assert.assertTrue(result.getMegabytesPerSecond() > 0);
+    final byte[] expected = Files.readAllBytes(file.toPath());
+
+    // buffers smaller than a record must produce the same bytes
+    for (int size : new int[] {4, 5, 7, 64}) {
+      exporter.setBufferSize(size);
+      exporter.setBufferCount(3);
+      Assert.assertEquals(
+        exporter.export(objects, file.toPath()).getByteCount(),
+        expected.length);
+      Assert.assertEquals(Files.readAllBytes(file.toPath()), expected);
+    }
+
+    final String ldif = new String(expected, StandardCharsets.UTF_8);
+    Assert.assertTrue(ldif.contains("\nsn: plain\n"));
+    Assert.assertTrue(ldif.contains("\nsn:: IGxlYWRpbmc=\n"));
+    Assert.assertTrue(ldif.contains("\nsn:: dHJhaWxpbmcg\n"));
+    Assert.assertTrue(ldif.contains("\nsn: \n"));
+
+    final SearchResult read;
+    final Reader reader = new InputStreamReader(
+      Files.newInputStream(file.toPath()), StandardCharsets.UTF_8);
+    try {
+      read = new LdifReader(reader).read();
+    } finally {
+      reader.close();
+    }
+    Assert.assertEquals(read.size(), 202);
+    final DefaultLdapEntryMapper<Object> mapper =
+      new DefaultLdapEntryMapper<Object>();
+    for (int i = 0; i < 202; i++) {
+      final LdapEntry entry = new LdapEntry();
+      mapper.map(objects.get(i), entry);
+      final LdapEntry actual = read.getEntry(entry.getDn());
+      Assert.assertNotNull(actual, entry.getDn());
+      Assert.assertEquals(actual.size(), entry.size());
+      for (LdapAttribute attr : entry.getAttributes()) {
+        Assert.assertEquals(
+          toStrings(actual.getAttribute(attr.getName())),
+          toStrings(attr),
+          attr.getName());
+      }
+    }
+  }
+
+
+  /**
+   * @throws  Exception  On test failure.
+   */
+  @Test(groups = {"beans"})
+  public void isSafe()
+    throws Exception
+  {
+    Assert.assertTrue(LdifExporter.isSafe(""));
+    Assert.assertTrue(LdifExporter.isSafe("a b:c<"));
+    Assert.assertFalse(LdifExporter.isSafe(" a"));
+    Assert.assertFalse(LdifExporter.isSafe(":a"));
+    Assert.assertFalse(LdifExporter.isSafe("<a"));
+    Assert.assertFalse(LdifExporter.isSafe("a "));
+    Assert.assertFalse(LdifExporter.isSafe("a\rb"));
+    Assert.assertFalse(LdifExporter.isSafe("a\u0000b"));
+    Assert.assertFalse(LdifExporter.isSafe("\u00e9"));
+  }
+
+
+  /**
+   * Returns the sorted string form of the bytes of each value of the
+   * supplied attribute, so that base64 encoded strings compare equal to the
+   * string they encode.
+   *
+   * @param  attr  to read values from
+   *
+   * @return  sorted values
+   */
+  private static List<String> toStrings(final LdapAttribute attr)
+  {
+    final List<String> values = new ArrayList<String>();
+    if (attr.isBinary()) {
+      for (byte[] value : attr.getBinaryValues()) {
+        values.add(Arrays.toString(value));
+      }
+    } else {
+      final Collection<String> strings = attr.getStringValues();
+      for (String value : strings) {
+        values.add(Arrays.toString(LdapUtils.utf8Encode(value)));
+      }
+    }
+    Collections.sort(values);
+    return values;
+  }
+}
@@ -0,0 +1,85 @@
+/*
+  $Id$
+
+  Copyright (C) 2003-2014 Virginia Tech.
+  All rights reserved.
+
+  SEE LICENSE FOR MORE INFORMATION
+
+  Author:  Middleware Services
+  Email:   middleware@vt.edu
+  Version: $Revision$
+  Updated: $Date$
+*/
+package org.ldaptive.beans.metrics;
+
+import java.util.Arrays;
+import java.util.Random;
+import org.testng.Assert;
+import org.testng.annotations.Test;
+
+/**
+ * Unit test for {@link Histogram}.
+ *
+ * @author  Middleware Services
+ * @version  $Revision$ $Date$
+ */
+public class HistogramTest
+{
+
+
+  /**
+   * @throws  Exception  On test failure.
+   */
+  @Test(groups = {"beans"})
+  public void buckets()
+    throws Exception
+  {
+    long previous = -1;
+    for (int i = 0; i < Histogram.SUB_BUCKET_COUNT * (Long.SIZE - 5); i++) {
+      final long highest = Histogram.highestValue(i);
+      Assert.assertTrue(highest > previous);
+      Assert.assertEquals(Histogram.bucketIndex(highest), i);
+      Assert.assertEquals(Histogram.bucketIndex(previous + 1), i);
+      previous = highest;
+    }
+    Assert.assertEquals(previous, Long.MAX_VALUE);
+  }
+
+
+  /**
+   * @throws  Exception  On test failure.
+   */
+  @Test(groups = {"beans"})
+  public void percentiles()
+    throws Exception
+  {
+    final Histogram histogram = new Histogram();
+    Assert.assertEquals(histogram.getValueAtPercentile(50), 0);
+    final Random random = new Random(20);
+    final long[] values = new long[10000];
+    for (int i = 0; i < values.length; i++) {
+      values[i] = (long) (Math.abs(random.nextGaussian()) * 1000000);
+      histogram.record(values[i]);
+    }
+    Arrays.sort(values);
+    Assert.assertEquals(histogram.getCount(), values.length);
+    Assert.assertEquals(histogram.getMax(), values[values.length - 1]);
+    for (double p : new double[] {1, 50, 90, 99, 99.9, 100}) {
+      final long expected =
+        values[(int) Math.ceil(values.length * p / 100) - 1];
+      final long actual = histogram.getValueAtPercentile(p);
+      Assert.assertTrue(actual >= expected, p + ": " + actual);
+      Assert.assertTrue(
+        actual <= expected + expected / Histogram.SUB_BUCKET_COUNT,
+        p + ": " + actual);
+    }
+
+    histogram.record(-1);
+    Assert.assertEquals(histogram.getValueAtPercentile(0), 0);
+    histogram.reset();
+    Assert.assertEquals(histogram.getCount(), 0);
+    Assert.assertEquals(histogram.getMax(), 0);
+    Assert.assertEquals(histogram.getMean(), 0.0);
+  }
+}
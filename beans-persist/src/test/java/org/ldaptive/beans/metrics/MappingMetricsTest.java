@@ -0,0 +1,130 @@
+/*
+  $Id$
+
+  Copyright (C) 2003-2014 Virginia Tech.
+  All rights reserved.
+
+  SEE LICENSE FOR MORE INFORMATION
+
+  Author:  Middleware Services
+  Email:   middleware@vt.edu
+  Version: $Revision$
+  Updated: $Date$
+*/
+package org.ldaptive.beans.metrics;
+
+import java.util.Arrays;
+import java.util.HashSet;
+import javax.management.MBeanServer;
+import javax.management.MBeanServerFactory;
+import javax.management.ObjectName;
+import org.ldaptive.LdapAttribute;
+import org.ldaptive.LdapEntry;
+import org.ldaptive.beans.reflect.DefaultLdapEntryMapper;
+import org.ldaptive.beans.reflect.IntCustomObject;
+import org.ldaptive.beans.reflect.StringCustomObject;
+import org.testng.Assert;
+import org.testng.annotations.Test;
+
+/**
+ * Unit test for {@link DefaultMappingMetrics} and {@link JmxMappingMetrics}.
+ *
+ * @author  Middleware Services
+ * @version  $Revision$ $Date$
+ */
+public class MappingMetricsTest
+{
+
+
+  /**
+   * @throws  Exception  On test failure.
+   */
+  @Test(groups = {"beans"})
+  public void recordMappings()
+    throws Exception
+  {
+    final MBeanServer server = MBeanServerFactory.newMBeanServer();
+    final JmxMappingMetrics metrics = new JmxMappingMetrics(server, "test");
+    final DefaultLdapEntryMapper<Object> mapper =
+      new DefaultLdapEntryMapper<Object>(false);
+    mapper.setMappingMetrics(metrics);
+
+    final StringCustomObject o = new StringCustomObject();
+    o.setType1("tv1");
+    o.writeType2("tv2");
+    o.setType3("tv3");
+    o.setTypeArray1(new String[] {"a1", "a2", "a3"});
+    o.writeTypeArray2(new String[] {"b"});
+    o.setCol1(Arrays.asList("c"));
+    o.writeCol2(Arrays.asList("d"));
+    o.setTypeCol1(Arrays.asList("e"));
+    o.writeTypeCol2(Arrays.asList("f"));
+    o.setTypeSet1(new HashSet<String>(Arrays.asList("g")));
+    o.writeTypeSet2(new HashSet<String>(Arrays.asList("h")));
+    o.setTypeList1(Arrays.asList("i"));
+    o.writeTypeList2(Arrays.asList("j"));
+    final LdapEntry entry = new LdapEntry();
+    mapper.map(o, entry);
+    for (int i = 0; i < 3; i++) {
+      mapper.map(entry, new StringCustomObject());
+    }
+
+    final ClassMetrics classMetrics = metrics.getClassMetrics(
+      StringCustomObject.class);
+    Assert.assertEquals(classMetrics.getEncodeCount(), 1);
+    Assert.assertEquals(classMetrics.getDecodeCount(), 3);
+    Assert.assertEquals(classMetrics.getFailureCount(), 0);
+    Assert.assertTrue(classMetrics.getDecodeMaxTime() > 0);
+    Assert.assertEquals(
+      new HashSet<String>(Arrays.asList(classMetrics.getAttributeNames())),
+      new HashSet<String>(Arrays.asList(entry.getAttributeNames())));
+    final AttributeMetrics attrMetrics = classMetrics.getAttributeMetrics(
+      "typeArray1");
+    Assert.assertEquals(attrMetrics.getEncodeCount(), 1);
+    Assert.assertEquals(attrMetrics.getDecodeCount(), 3);
+    Assert.assertEquals(attrMetrics.getMaxValueCount(), 3);
+    Assert.assertEquals(attrMetrics.getMeanValueCount(), 3.0);
+
+    // each type and attribute is registered as an MXBean
+    final ObjectName className = metrics.getObjectName(
+      StringCustomObject.class);
+    Assert.assertEquals(server.getAttribute(className, "DecodeCount"), 3L);
+    Assert.assertEquals(
+      server.getAttribute(
+        metrics.getObjectName(StringCustomObject.class, "typeArray1"),
+        "MaxValueCount"),
+      3L);
+    Assert.assertEquals(
+      server.queryNames(new ObjectName("test:*"), null).size(),
+      1 + entry.size());
+
+    // transcoder failures are counted for the type and attribute
+    final LdapEntry invalid = new LdapEntry();
+    invalid.addAttribute(new LdapAttribute("type1", "not a number"));
+    try {
+      mapper.map(invalid, new IntCustomObject());
+      Assert.fail("Should have thrown NumberFormatException");
+    } catch (NumberFormatException e) {
+      Assert.assertNotNull(e.getMessage());
+    }
+    final ClassMetrics intMetrics = metrics.getClassMetrics(
+      IntCustomObject.class);
+    Assert.assertEquals(intMetrics.getFailureCount(), 1);
+    Assert.assertEquals(intMetrics.getDecodeCount(), 0);
+    Assert.assertEquals(
+      intMetrics.getAttributeMetrics("type1").getFailureCount(), 1);
+
+    server.invoke(className, "reset", null, null);
+    Assert.assertEquals(classMetrics.getDecodeCount(), 0);
+    Assert.assertEquals(attrMetrics.getMaxValueCount(), 0);
+
+    metrics.unregister();
+    Assert.assertTrue(
+      server.queryNames(new ObjectName("test:*"), null).isEmpty());
+
+    // without metrics nothing is recorded
+    mapper.setMappingMetrics(null);
+    mapper.map(entry, new StringCustomObject());
+    Assert.assertEquals(classMetrics.getDecodeCount(), 0);
+  }
+}
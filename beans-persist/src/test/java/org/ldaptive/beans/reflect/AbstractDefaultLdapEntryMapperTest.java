@@ -266,4 +266,34 @@ public abstract class AbstractDefaultLdapEntryMapperTest
     mapper.map(entry, mapped);
     Assert.assertEquals(object, mapped);
   }
+
+
+  /**
+   * @param  object  to compare with mapped object
+   * @param  entry  initialized with data
+   *
+   * @throws  Exception  On test failure.
+   */
+  @Test(groups = {"beans"}, dataProvider = "objects")
+  public void mapToObjectIgnoringCase(
+    final CustomObject object,
+    final LdapEntry entry)
+    throws Exception
+  {
+    final LdapEntry upperCase = new LdapEntry(entry.getDn());
+    for (LdapAttribute la : entry.getAttributes()) {
+      final LdapAttribute copy = new LdapAttribute(
+        SortBehavior.ORDERED, la.isBinary());
+      copy.setName(la.getName().toUpperCase());
+      if (la.isBinary()) {
+        copy.addBinaryValues(la.getBinaryValues());
+      } else {
+        copy.addStringValues(la.getStringValues());
+      }
+      upperCase.addAttribute(copy);
+    }
+    final CustomObject mapped = object.getClass().newInstance();
+    mapper.map(upperCase, mapped);
+    Assert.assertEquals(object, mapped);
+  }
 }
@@ -0,0 +1,322 @@
+/*
+  $Id$
+
+  Copyright (C) 2003-2014 Virginia Tech.
+  All rights reserved.
+
+  SEE LICENSE FOR MORE INFORMATION
+
+  Author:  Middleware Services
+  Email:   middleware@vt.edu
+  Version: $Revision$
+  Updated: $Date$
+*/
+package org.ldaptive.beans.reflect;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.List;
+import org.ldaptive.SortBehavior;
+import org.ldaptive.beans.AttributeValueMutator;
+import org.ldaptive.beans.ClassDescriptor;
+import org.ldaptive.beans.Entry;
+import org.ldaptive.beans.reflect.ClassDescriptorSnapshot.AttributeMetadata;
+import org.ldaptive.beans.reflect.ClassDescriptorSnapshot.ClassMetadata;
+import org.ldaptive.beans.reflect.ClassDescriptorSnapshot.MemberMetadata;
+import org.testng.Assert;
+import org.testng.annotations.DataProvider;
+import org.testng.annotations.Test;
+
+/**
+ * Unit tests for {@link ClassDescriptorSnapshot}.
+ *
+ * @author  Middleware Services
+ * @version  $Revision$ $Date$
+ */
+public class ClassDescriptorSnapshotTest
+{
+
+
+  /**
+   * Custom objects populated by the mapper tests.
+   *
+   * @return  custom objects
+   */
+  @DataProvider(name = "objects")
+  public Object[][] createCustomObjects()
+  {
+    return new Object[][] {
+      new BinaryLdapEntryMapperTest().createCustomObjects()[0],
+      new CharLdapEntryMapperTest().createCustomObjects()[0],
+      new IntLdapEntryMapperTest().createCustomObjects()[0],
+      new IntegerLdapEntryMapperTest().createCustomObjects()[0],
+      new StringLdapEntryMapperTest().createCustomObjects()[0],
+    };
+  }
+
+
+  /**
+   * @param  object  to describe
+   * @param  entry  not used
+   *
+   * @throws  Exception  On test failure.
+   */
+  @Test(groups = {"beans"}, dataProvider = "objects")
+  public void matchesIntrospection(final Object object, final Object entry)
+    throws Exception
+  {
+    final Class<?> type = object.getClass();
+    final ClassDescriptorSnapshot snapshot = copy(
+      ClassDescriptorSnapshot.create(
+        Arrays.<Class<?>>asList(type, Object.class)));
+    Assert.assertTrue(snapshot.contains(type));
+    Assert.assertFalse(snapshot.contains(Object.class));
+
+    final DefaultClassDescriptor introspected = new DefaultClassDescriptor();
+    introspected.initialize(type);
+    final DefaultClassDescriptor fromSnapshot = new DefaultClassDescriptor(
+      new MethodHandlePropertyAccessorFactory(), snapshot);
+    fromSnapshot.initialize(type);
+    assertEquivalent(fromSnapshot, introspected, object);
+  }
+
+
+  /**
+   * @throws  Exception  On test failure.
+   */
+  @Test(groups = {"beans"})
+  public void readWrite()
+    throws Exception
+  {
+    final ClassDescriptorSnapshot snapshot = ClassDescriptorSnapshot.create(
+      Arrays.<Class<?>>asList(
+        StringCustomObject.class,
+        IntCustomObject.class,
+        BinaryCustomObject.class,
+        TemplateDnCustomObject.class));
+    final ClassDescriptorSnapshot read = copy(snapshot);
+    Assert.assertEquals(
+      new ArrayList<String>(read.getClassNames()),
+      Arrays.asList(
+        StringCustomObject.class.getName(),
+        IntCustomObject.class.getName(),
+        BinaryCustomObject.class.getName()));
+
+    // template DNs are always introspected
+    Assert.assertFalse(read.contains(TemplateDnCustomObject.class));
+    final DefaultClassDescriptor descriptor = new DefaultClassDescriptor(
+      new MethodHandlePropertyAccessorFactory(), read);
+    descriptor.initialize(TemplateDnCustomObject.class);
+    Assert.assertTrue(
+      descriptor.getDnValueMutator() instanceof TemplateDnValueMutator);
+
+    try {
+      ClassDescriptorSnapshot.read(
+        new ByteArrayInputStream(new byte[] {1, 2, 3, 4}));
+      Assert.fail("Should have thrown IOException");
+    } catch (IOException e) {
+      Assert.assertEquals(e.getClass(), IOException.class);
+    }
+  }
+
+
+  /**
+   * @throws  Exception  On test failure.
+   */
+  @Test(groups = {"beans"})
+  public void staleSnapshot()
+    throws Exception
+  {
+    final ClassMetadata metadata = ClassDescriptorSnapshot.describe(
+      StringCustomObject.class);
+    final List<AttributeMetadata> attributes =
+      new ArrayList<AttributeMetadata>(metadata.attributes);
+    for (AttributeMetadata attr : metadata.attributes) {
+      if (attr.member != null &&
+          attr.member.kind == MemberMetadata.PROPERTY) {
+        attributes.set(
+          attributes.indexOf(attr),
+          new AttributeMetadata(
+            attr.name,
+            attr.binary,
+            attr.sortBehavior,
+            new MemberMetadata(
+              MemberMetadata.PROPERTY,
+              attr.member.name,
+              attr.member.writeName,
+              "class java.lang.Integer"),
+            null));
+        break;
+      }
+    }
+    Assert.assertNotEquals(attributes, metadata.attributes);
+
+    final DefaultClassDescriptor introspected = new DefaultClassDescriptor();
+    introspected.initialize(StringCustomObject.class);
+    final StringCustomObject object =
+      (StringCustomObject) new StringLdapEntryMapperTest()
+        .createCustomObjects()[0][0];
+    for (List<AttributeMetadata> attrs : Arrays.asList(
+           attributes,
+           Arrays.asList(
+             new AttributeMetadata(
+               "missing",
+               false,
+               SortBehavior.ORDERED,
+               new MemberMetadata(
+                 MemberMetadata.FIELD, "missing", null, "int"),
+               null)))) {
+      final DefaultClassDescriptor descriptor = new DefaultClassDescriptor(
+        new MethodHandlePropertyAccessorFactory(),
+        copy(
+          new ClassDescriptorSnapshot(
+            Collections.singletonMap(
+              StringCustomObject.class.getName(),
+              new ClassMetadata(metadata.fingerprint, metadata.dn, attrs)))));
+      descriptor.initialize(StringCustomObject.class);
+      assertEquivalent(descriptor, introspected, object);
+    }
+  }
+
+
+  /**
+   * @throws  Exception  On test failure.
+   */
+  @Test(groups = {"beans"})
+  public void changedAnnotation()
+    throws Exception
+  {
+    // members still exist, but the annotation the snapshot was taken from
+    // declared a different sort behavior
+    final ClassMetadata metadata = ClassDescriptorSnapshot.describe(
+      StringCustomObject.class);
+    final List<AttributeMetadata> attributes =
+      new ArrayList<AttributeMetadata>();
+    for (AttributeMetadata attr : metadata.attributes) {
+      attributes.add(
+        new AttributeMetadata(
+          attr.name,
+          attr.binary,
+          attr.sortBehavior == SortBehavior.SORTED ?
+            SortBehavior.UNORDERED : SortBehavior.SORTED,
+          attr.member,
+          attr.values));
+    }
+    final String oldFingerprint = ClassDescriptorSnapshot.fingerprint(
+      IntCustomObject.class.getAnnotation(Entry.class));
+    Assert.assertNotEquals(oldFingerprint, metadata.fingerprint);
+
+    final DefaultClassDescriptor introspected = new DefaultClassDescriptor();
+    introspected.initialize(StringCustomObject.class);
+    final DefaultClassDescriptor descriptor = new DefaultClassDescriptor(
+      new MethodHandlePropertyAccessorFactory(),
+      copy(
+        new ClassDescriptorSnapshot(
+          Collections.singletonMap(
+            StringCustomObject.class.getName(),
+            new ClassMetadata(oldFingerprint, metadata.dn, attributes)))));
+    descriptor.initialize(StringCustomObject.class);
+    assertEquivalent(
+      descriptor,
+      introspected,
+      new StringLdapEntryMapperTest().createCustomObjects()[0][0]);
+
+    // the same metadata with a current fingerprint is trusted
+    final DefaultClassDescriptor trusted = new DefaultClassDescriptor(
+      new MethodHandlePropertyAccessorFactory(),
+      new ClassDescriptorSnapshot(
+        Collections.singletonMap(
+          StringCustomObject.class.getName(),
+          new ClassMetadata(metadata.fingerprint, metadata.dn, attributes))));
+    trusted.initialize(StringCustomObject.class);
+    Assert.assertEquals(
+      trusted.getAttributeValueMutators().iterator().next().getSortBehavior(),
+      attributes.get(0).sortBehavior);
+  }
+
+
+  /**
+   * Asserts that two descriptors have the same mutators in the same order and
+   * read the same values from the supplied object.
+   *
+   * @param  actual  descriptor
+   * @param  expected  descriptor
+   * @param  object  to read values from
+   */
+  private static void assertEquivalent(
+    final ClassDescriptor actual,
+    final ClassDescriptor expected,
+    final Object object)
+  {
+    Assert.assertEquals(
+      actual.getDnValueMutator().getValue(object),
+      expected.getDnValueMutator().getValue(object));
+    Assert.assertEquals(
+      actual.getAttributeValueMutators().size(),
+      expected.getAttributeValueMutators().size());
+    final Iterator<AttributeValueMutator> iter =
+      expected.getAttributeValueMutators().iterator();
+    for (AttributeValueMutator mutator : actual.getAttributeValueMutators()) {
+      final AttributeValueMutator other = iter.next();
+      Assert.assertEquals(mutator.getClass(), other.getClass());
+      Assert.assertEquals(mutator.getName(), other.getName());
+      Assert.assertEquals(mutator.isBinary(), other.isBinary());
+      Assert.assertEquals(mutator.getSortBehavior(), other.getSortBehavior());
+      if (mutator.isBinary()) {
+        Assert.assertEquals(
+          toStrings(mutator.getBinaryValues(object)),
+          toStrings(other.getBinaryValues(object)));
+      } else {
+        Assert.assertEquals(
+          mutator.getStringValues(object), other.getStringValues(object));
+      }
+    }
+  }
+
+
+  /**
+   * Returns the string form of each binary value.
+   *
+   * @param  values  binary values
+   *
+   * @return  string values, or null if values is null
+   */
+  private static List<String> toStrings(final Collection<byte[]> values)
+  {
+    if (values == null) {
+      return null;
+    }
+    final List<String> strings = new ArrayList<String>(values.size());
+    for (byte[] value : values) {
+      strings.add(Arrays.toString(value));
+    }
+    return strings;
+  }
+
+
+  /**
+   * Writes and reads back the supplied snapshot.
+   *
+   * @param  snapshot  to copy
+   *
+   * @return  snapshot read from the serialized form of snapshot
+   *
+   * @throws  IOException  if the snapshot cannot be serialized
+   */
+  private static ClassDescriptorSnapshot copy(
+    final ClassDescriptorSnapshot snapshot)
+    throws IOException
+  {
+    final ByteArrayOutputStream out = new ByteArrayOutputStream();
+    snapshot.write(out);
+    return ClassDescriptorSnapshot.read(
+      new ByteArrayInputStream(out.toByteArray()));
+  }
+
+}
@@ -0,0 +1,112 @@
+/*
+  $Id$
+
+  Copyright (C) 2003-2014 Virginia Tech.
+  All rights reserved.
+
+  SEE LICENSE FOR MORE INFORMATION
+
+  Author:  Middleware Services
+  Email:   middleware@vt.edu
+  Version: $Revision$
+  Updated: $Date$
+*/
+package org.ldaptive.beans.reflect;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.List;
+import org.ldaptive.LdapUtils;
+import org.testng.Assert;
+import org.testng.annotations.DataProvider;
+import org.testng.annotations.Test;
+
+/**
+ * Unit tests for {@link DefaultReflectionTranscoder}.
+ *
+ * @author  Middleware Services
+ * @version  $Revision$ $Date$
+ */
+public class DefaultReflectionTranscoderTest
+{
+
+
+  /**
+   * Primitive array types and their string values.
+   *
+   * @return  array types and values
+   */
+  @DataProvider(name = "primitive-arrays")
+  public Object[][] createPrimitiveArrays()
+  {
+    return new Object[][] {
+      new Object[] {
+        boolean[].class,
+        BooleanArrayReflectionTranscoder.class,
+        Arrays.asList("true", "false"),
+      },
+      new Object[] {
+        double[].class,
+        DoubleArrayReflectionTranscoder.class,
+        Arrays.asList("1.5", "-2.0E10"),
+      },
+      new Object[] {
+        float[].class,
+        FloatArrayReflectionTranscoder.class,
+        Arrays.asList("1.5", "-2.25"),
+      },
+      new Object[] {
+        int[].class,
+        IntArrayReflectionTranscoder.class,
+        Arrays.asList("301", "-302", "2147483647"),
+      },
+      new Object[] {
+        long[].class,
+        LongArrayReflectionTranscoder.class,
+        Arrays.asList("301", "-9223372036854775808"),
+      },
+      new Object[] {
+        short[].class,
+        ShortArrayReflectionTranscoder.class,
+        Arrays.asList("301", "-32768"),
+      },
+    };
+  }
+
+
+  /**
+   * @param  type  of primitive array
+   * @param  transcoderType  expected to be selected for the array type
+   * @param  values  string values of the array
+   *
+   * @throws  Exception  On test failure.
+   */
+  @Test(groups = {"beans"}, dataProvider = "primitive-arrays")
+  public void primitiveArray(
+    final Class<?> type,
+    final Class<?> transcoderType,
+    final List<String> values)
+    throws Exception
+  {
+    final DefaultReflectionTranscoder transcoder =
+      new DefaultReflectionTranscoder(type);
+    Assert.assertEquals(transcoder.getType(), type);
+    Assert.assertTrue(transcoder.toString().contains(transcoderType.getName()));
+
+    final Object decoded = transcoder.decodeStringValues(values);
+    Assert.assertEquals(decoded.getClass(), type);
+    Assert.assertEquals(transcoder.encodeStringValues(decoded), values);
+
+    final Collection<byte[]> binaryValues = new ArrayList<byte[]>();
+    for (String value : values) {
+      binaryValues.add(LdapUtils.utf8Encode(value));
+    }
+    final Collection<String> encoded = new ArrayList<String>();
+    for (byte[] value : transcoder.encodeBinaryValues(
+           transcoder.decodeBinaryValues(binaryValues))) {
+      encoded.add(LdapUtils.utf8Encode(value));
+    }
+    Assert.assertEquals(encoded, values);
+  }
+}
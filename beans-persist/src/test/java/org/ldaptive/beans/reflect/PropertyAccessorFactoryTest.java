@@ -0,0 +1,152 @@
+/*
+  $Id$
+
+  Copyright (C) 2003-2014 Virginia Tech.
+  All rights reserved.
+
+  SEE LICENSE FOR MORE INFORMATION
+
+  Author:  Middleware Services
+  Email:   middleware@vt.edu
+  Version: $Revision$
+  Updated: $Date$
+*/
+package org.ldaptive.beans.reflect;
+
+import org.testng.Assert;
+import org.testng.annotations.DataProvider;
+import org.testng.annotations.Test;
+
+/**
+ * Unit tests for {@link PropertyAccessorFactory} implementations.
+ *
+ * @author  Middleware Services
+ * @version  $Revision$ $Date$
+ */
+public class PropertyAccessorFactoryTest
+{
+
+
+  /**
+   * Property accessor factories.
+   *
+   * @return  property accessor factories
+   */
+  @DataProvider(name = "factories")
+  public Object[][] createFactories()
+  {
+    return new Object[][] {
+      new Object[] {new ReflectionPropertyAccessorFactory(), },
+      new Object[] {new MethodHandlePropertyAccessorFactory(), },
+    };
+  }
+
+
+  /**
+   * @param  factory  to test
+   *
+   * @throws  Exception  On test failure.
+   */
+  @Test(groups = {"beans"}, dataProvider = "factories")
+  public void fieldAccessor(final PropertyAccessorFactory factory)
+    throws Exception
+  {
+    final PropertyAccessor intAccessor = factory.createPropertyAccessor(
+      IntCustomObject.class.getDeclaredField("type2"));
+    final IntCustomObject io = new IntCustomObject();
+    intAccessor.setValue(io, 200);
+    Assert.assertEquals(intAccessor.getValue(io), 200);
+    try {
+      intAccessor.setValue(io, null);
+      Assert.fail("Should have thrown IllegalArgumentException");
+    } catch (IllegalArgumentException e) {
+      Assert.assertEquals(intAccessor.getValue(io), 200);
+    }
+    try {
+      intAccessor.setValue(io, "200");
+      Assert.fail("Should have thrown IllegalArgumentException");
+    } catch (IllegalArgumentException e) {
+      Assert.assertEquals(intAccessor.getValue(io), 200);
+    }
+
+    final PropertyAccessor stringAccessor = factory.createPropertyAccessor(
+      StringCustomObject.class.getDeclaredField("type2"));
+    final StringCustomObject so = new StringCustomObject();
+    Assert.assertNull(stringAccessor.getValue(so));
+    stringAccessor.setValue(so, "tv2");
+    Assert.assertEquals(stringAccessor.getValue(so), "tv2");
+  }
+
+
+  /**
+   * @param  factory  to test
+   *
+   * @throws  Exception  On test failure.
+   */
+  @Test(groups = {"beans"}, dataProvider = "factories")
+  public void methodAccessor(final PropertyAccessorFactory factory)
+    throws Exception
+  {
+    final PropertyAccessor intAccessor = factory.createPropertyAccessor(
+      IntCustomObject.class.getMethod("getType1"),
+      IntCustomObject.class.getMethod("setType1", int.class));
+    final IntCustomObject io = new IntCustomObject();
+    intAccessor.setValue(io, 100);
+    Assert.assertEquals(intAccessor.getValue(io), 100);
+    Assert.assertEquals(io.getType1(), 100);
+
+    final PropertyAccessor writeOnly = factory.createPropertyAccessor(
+      null,
+      StringCustomObject.class.getMethod("writeType2", String.class));
+    final StringCustomObject so = new StringCustomObject();
+    writeOnly.setValue(so, "tv2");
+    try {
+      writeOnly.getValue(so);
+      Assert.fail("Should have thrown IllegalArgumentException");
+    } catch (IllegalArgumentException e) {
+      Assert.assertNotNull(e);
+    }
+  }
+
+
+  /**
+   * @param  factory  to test
+   *
+   * @throws  Exception  On test failure.
+   */
+  @Test(groups = {"beans"}, dataProvider = "factories")
+  public void staticAccessor(final PropertyAccessorFactory factory)
+    throws Exception
+  {
+    final StaticObject o = new StaticObject();
+    final PropertyAccessor fieldAccessor = factory.createPropertyAccessor(
+      StaticObject.class.getDeclaredField("value"));
+    fieldAccessor.setValue(o, "field");
+    Assert.assertEquals(fieldAccessor.getValue(o), "field");
+    Assert.assertEquals(StaticObject.getValue(), "field");
+
+    final PropertyAccessor methodAccessor = factory.createPropertyAccessor(
+      StaticObject.class.getMethod("getValue"),
+      StaticObject.class.getMethod("setValue", String.class));
+    methodAccessor.setValue(o, "method");
+    Assert.assertEquals(methodAccessor.getValue(o), "method");
+    Assert.assertEquals(fieldAccessor.getValue(o), "method");
+  }
+
+
+  /** Object with a static property. */
+  public static class StaticObject
+  {
+
+    /** Shared value. */
+    private static String value;
+
+
+    // CheckStyle:JavadocMethod OFF
+    // CheckStyle:LeftCurly OFF
+    public static String getValue() { return value; }
+    public static void setValue(final String s) { value = s; }
+    // CheckStyle:LeftCurly ON
+    // CheckStyle:JavadocMethod ON
+  }
+}
@@ -0,0 +1,87 @@
+/*
+  $Id$
+
+  Copyright (C) 2003-2014 Virginia Tech.
+  All rights reserved.
+
+  SEE LICENSE FOR MORE INFORMATION
+
+  Author:  Middleware Services
+  Email:   middleware@vt.edu
+  Version: $Revision$
+  Updated: $Date$
+*/
+package org.ldaptive.beans.reflect;
+
+import org.ldaptive.LdapUtils;
+import org.ldaptive.beans.Attribute;
+import org.ldaptive.beans.Entry;
+
+/**
+ * Class for testing beans whose DN is a template.
+ *
+ * @author  Middleware Services
+ * @version  $Revision$ $Date$
+ */
+@Entry(
+  dn = "uid={uid}+employeeNumber={number},ou=people,dc=ldaptive,dc=org",
+  attributes = {
+    @Attribute(name = "uid", property = "uid"),
+    @Attribute(name = "employeeNumber", property = "number"),
+    @Attribute(name = "cn", property = "cn")
+  }
+)
+public class TemplateDnCustomObject implements CustomObject
+{
+
+  /** hash code seed. */
+  private static final int HASH_CODE_SEED = 1123;
+
+  // CheckStyle:JavadocVariable OFF
+  private String uid;
+  private int number;
+  private String cn;
+  // CheckStyle:JavadocVariable ON
+
+
+  // CheckStyle:JavadocMethod OFF
+  // CheckStyle:LeftCurly OFF
+  public String getUid() { return uid; }
+  public void setUid(final String s) { uid = s; }
+  public int readNumber() { return number; }
+  public void writeNumber(final int i) { number = i; }
+  public String getCn() { return cn; }
+  public void setCn(final String s) { cn = s; }
+  // CheckStyle:LeftCurly ON
+  // CheckStyle:JavadocMethod ON
+
+
+  /** {@inheritDoc} */
+  @Override
+  public boolean equals(final Object o)
+  {
+    return LdapUtils.areEqual(this, o);
+  }
+
+
+  /** {@inheritDoc} */
+  @Override
+  public int hashCode()
+  {
+    return LdapUtils.computeHashCode(HASH_CODE_SEED, uid, number, cn);
+  }
+
+
+  /** {@inheritDoc} */
+  @Override
+  public String toString()
+  {
+    return String.format(
+      "[%s@%d::uid=%s, number=%s, cn=%s]",
+      getClass().getSimpleName(),
+      hashCode(),
+      uid,
+      number,
+      cn);
+  }
+}
@@ -0,0 +1,126 @@
+/*
+  $Id$
+
+  Copyright (C) 2003-2014 Virginia Tech.
+  All rights reserved.
+
+  SEE LICENSE FOR MORE INFORMATION
+
+  Author:  Middleware Services
+  Email:   middleware@vt.edu
+  Version: $Revision$
+  Updated: $Date$
+*/
+package org.ldaptive.beans.reflect;
+
+import org.ldaptive.LdapAttribute;
+import org.ldaptive.LdapEntry;
+import org.ldaptive.SortBehavior;
+import org.testng.Assert;
+import org.testng.annotations.DataProvider;
+import org.testng.annotations.Test;
+
+/**
+ * Unit tests for {@link DefaultLdapEntryMapper} with beans whose DN is a
+ * template.
+ *
+ * @author  Middleware Services
+ * @version  $Revision$ $Date$
+ */
+public class TemplateDnLdapEntryMapperTest
+  extends AbstractDefaultLdapEntryMapperTest
+{
+
+
+  /**
+   * Test data for template DN object.
+   *
+   * @return  custom objects
+   */
+  @DataProvider(name = "objects")
+  public Object[][] createCustomObjects()
+  {
+    final TemplateDnCustomObject o1 = new TemplateDnCustomObject();
+    o1.setUid("doe, john");
+    o1.writeNumber(42);
+    o1.setCn("John Doe");
+
+    final LdapEntry entry = new LdapEntry(
+      "uid=doe\\, john+employeeNumber=42,ou=people,dc=ldaptive,dc=org");
+    entry.addAttribute(createAttribute("uid", "doe, john"));
+    entry.addAttribute(createAttribute("employeeNumber", "42"));
+    entry.addAttribute(createAttribute("cn", "John Doe"));
+
+    return new Object[][] {
+      new Object[] {o1, entry, },
+    };
+  }
+
+
+  /**
+   * @throws  Exception  On test failure.
+   */
+  @Test(groups = {"beans"})
+  public void mapDn()
+    throws Exception
+  {
+    final TemplateDnCustomObject object = new TemplateDnCustomObject();
+    mapper.map(
+      new LdapEntry(
+        "UID=doe\\2C john + employeeNumber=7, OU=People,dc=ldaptive,dc=org"),
+      object);
+    Assert.assertEquals(object.getUid(), "doe, john");
+    Assert.assertEquals(object.readNumber(), 7);
+    Assert.assertNull(object.getCn());
+  }
+
+
+  /**
+   * @throws  Exception  On test failure.
+   */
+  @Test(groups = {"beans"})
+  public void mapMismatchedDn()
+    throws Exception
+  {
+    final TemplateDnCustomObject object = new TemplateDnCustomObject();
+    mapper.map(
+      new LdapEntry("uid=jdoe,ou=groups,dc=ldaptive,dc=org"), object);
+    Assert.assertNull(object.getUid());
+    Assert.assertEquals(object.readNumber(), 0);
+  }
+
+
+  /**
+   * @throws  Exception  On test failure.
+   */
+  @Test(groups = {"beans"})
+  public void getDn()
+    throws Exception
+  {
+    final TemplateDnCustomObject object = new TemplateDnCustomObject();
+    Assert.assertNull(mapper.getDn(object));
+    object.setUid(" #doe ");
+    Assert.assertEquals(
+      mapper.getDn(object),
+      "uid=\\ #doe\\ +employeeNumber=0,ou=people,dc=ldaptive,dc=org");
+  }
+
+
+  /**
+   * Creates an ordered attribute with a single string value.
+   *
+   * @param  name  of the attribute
+   * @param  value  of the attribute
+   *
+   * @return  ldap attribute
+   */
+  private static LdapAttribute createAttribute(
+    final String name,
+    final String value)
+  {
+    final LdapAttribute attr = new LdapAttribute(SortBehavior.ORDERED);
+    attr.setName(name);
+    attr.addStringValue(value);
+    return attr;
+  }
+}
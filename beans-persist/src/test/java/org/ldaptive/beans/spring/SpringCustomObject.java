@@ -0,0 +1,87 @@
+/*
+  $Id$
+
+  Copyright (C) 2003-2014 Virginia Tech.
+  All rights reserved.
+
+  SEE LICENSE FOR MORE INFORMATION
+
+  Author:  Middleware Services
+  Email:   middleware@vt.edu
+  Version: $Revision$
+  Updated: $Date$
+*/
+package org.ldaptive.beans.spring;
+
+import java.util.List;
+import org.ldaptive.LdapUtils;
+import org.ldaptive.SortBehavior;
+import org.ldaptive.beans.Attribute;
+import org.ldaptive.beans.Entry;
+
+/**
+ * Class for testing spring expression annotations.
+ *
+ * @author  Middleware Services
+ * @version  $Revision$ $Date$
+ */
+@Entry(
+  dn = "'uid=' + uid + ',ou=people,dc=ldaptive,dc=org'",
+  attributes = {
+    @Attribute(name = "uid", property = "uid"),
+    @Attribute(
+      name = "mail",
+      property = "mail",
+      sortBehavior = SortBehavior.ORDERED)
+    }
+)
+public class SpringCustomObject
+{
+
+  /** hash code seed. */
+  private static final int HASH_CODE_SEED = 71;
+
+  // CheckStyle:JavadocVariable OFF
+  private String uid;
+  private List<String> mail;
+  // CheckStyle:JavadocVariable ON
+
+
+  // CheckStyle:JavadocMethod OFF
+  // CheckStyle:LeftCurly OFF
+  public String getUid() { return uid; }
+  public void setUid(final String s) { uid = s; }
+  public List<String> getMail() { return mail; }
+  public void setMail(final List<String> l) { mail = l; }
+  // CheckStyle:LeftCurly ON
+  // CheckStyle:JavadocMethod ON
+
+
+  /** {@inheritDoc} */
+  @Override
+  public boolean equals(final Object o)
+  {
+    return LdapUtils.areEqual(this, o);
+  }
+
+
+  /** {@inheritDoc} */
+  @Override
+  public int hashCode()
+  {
+    return LdapUtils.computeHashCode(HASH_CODE_SEED, uid, mail);
+  }
+
+
+  /** {@inheritDoc} */
+  @Override
+  public String toString()
+  {
+    return String.format(
+      "[%s@%d::uid=%s, mail=%s]",
+      getClass().getSimpleName(),
+      hashCode(),
+      uid,
+      mail);
+  }
+}
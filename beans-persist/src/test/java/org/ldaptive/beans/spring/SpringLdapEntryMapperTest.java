@@ -0,0 +1,147 @@
+/*
+  $Id$
+
+  Copyright (C) 2003-2014 Virginia Tech.
+  All rights reserved.
+
+  SEE LICENSE FOR MORE INFORMATION
+
+  Author:  Middleware Services
+  Email:   middleware@vt.edu
+  Version: $Revision$
+  Updated: $Date$
+*/
+package org.ldaptive.beans.spring;
+
+import java.util.Arrays;
+import org.ldaptive.LdapAttribute;
+import org.ldaptive.LdapEntry;
+import org.ldaptive.SortBehavior;
+import org.springframework.expression.spel.SpelCompilerMode;
+import org.testng.Assert;
+import org.testng.annotations.DataProvider;
+import org.testng.annotations.Test;
+
+/**
+ * Unit tests for {@link SpringLdapEntryMapper}.
+ *
+ * @author  Middleware Services
+ * @version  $Revision$ $Date$
+ */
+public class SpringLdapEntryMapperTest
+{
+
+
+  /**
+   * Spring mappers to test.
+   *
+   * @return  spring ldap entry mappers
+   */
+  @DataProvider(name = "mappers")
+  public Object[][] createMappers()
+  {
+    return new Object[][] {
+      new Object[] {new SpringLdapEntryMapper<SpringCustomObject>(), },
+      new Object[] {
+        new SpringLdapEntryMapper<SpringCustomObject>(SpelCompilerMode.MIXED),
+      },
+    };
+  }
+
+
+  /**
+   * Creates an ldap entry that matches {@link #createCustomObject(String)}.
+   *
+   * @param  uid  of the entry
+   *
+   * @return  ldap entry
+   */
+  protected LdapEntry createLdapEntry(final String uid)
+  {
+    final LdapAttribute mail = new LdapAttribute(SortBehavior.ORDERED);
+    mail.setName("mail");
+    mail.addStringValue(uid + "@ldaptive.org", uid + "@vt.edu");
+
+    final LdapEntry entry = new LdapEntry();
+    entry.setDn("uid=" + uid + ",ou=people,dc=ldaptive,dc=org");
+    entry.addAttribute(new LdapAttribute("uid", uid), mail);
+    return entry;
+  }
+
+
+  /**
+   * Creates a custom object.
+   *
+   * @param  uid  of the object
+   *
+   * @return  custom object
+   */
+  protected SpringCustomObject createCustomObject(final String uid)
+  {
+    final SpringCustomObject o = new SpringCustomObject();
+    o.setUid(uid);
+    o.setMail(Arrays.asList(uid + "@ldaptive.org", uid + "@vt.edu"));
+    return o;
+  }
+
+
+  /**
+   * @param  mapper  to test
+   *
+   * @throws  Exception  On test failure.
+   */
+  @Test(groups = {"beans"}, dataProvider = "mappers")
+  public void mapToLdapEntry(
+    final SpringLdapEntryMapper<SpringCustomObject> mapper)
+    throws Exception
+  {
+    // map several objects to exercise the cached descriptor
+    for (String uid : new String[] {"dfisher", "serac", "dfisher"}) {
+      final LdapEntry mapped = new LdapEntry();
+      mapper.map(createCustomObject(uid), mapped);
+      Assert.assertEquals(mapped, createLdapEntry(uid));
+      Assert.assertEquals(
+        mapper.getDn(createCustomObject(uid)), createLdapEntry(uid).getDn());
+    }
+    Assert.assertTrue(
+      mapper.getClassDescriptorRegistry().contains(SpringCustomObject.class));
+  }
+
+
+  /**
+   * @param  mapper  to test
+   *
+   * @throws  Exception  On test failure.
+   */
+  @Test(groups = {"beans"}, dataProvider = "mappers")
+  public void mapToObject(
+    final SpringLdapEntryMapper<SpringCustomObject> mapper)
+    throws Exception
+  {
+    for (String uid : new String[] {"dfisher", "serac"}) {
+      final SpringCustomObject mapped = new SpringCustomObject();
+      mapper.map(createLdapEntry(uid), mapped);
+      Assert.assertEquals(mapped, createCustomObject(uid));
+    }
+  }
+
+
+  /**
+   * @throws  Exception  On test failure.
+   */
+  @Test(groups = {"beans"})
+  public void describeObject()
+    throws Exception
+  {
+    final SpringCustomObject o = createCustomObject("dfisher");
+    final SpringClassDescriptor<SpringCustomObject> descriptor =
+      new SpringClassDescriptor<SpringCustomObject>(o);
+    descriptor.initialize(SpringCustomObject.class);
+    Assert.assertEquals(
+      descriptor.getDnValueMutator().getValue(o),
+      createLdapEntry("dfisher").getDn());
+    Assert.assertEquals(
+      descriptor.getDnValueMutator().getValue(createCustomObject("serac")),
+      createLdapEntry("serac").getDn());
+  }
+}
@@ -0,0 +1,257 @@
+/*
+  $Id$
+
+  Copyright (C) 2003-2014 Virginia Tech.
+  All rights reserved.
+
+  SEE LICENSE FOR MORE INFORMATION
+
+  Author:  Middleware Services
+  Email:   middleware@vt.edu
+  Version: $Revision$
+  Updated: $Date$
+*/
+package org.ldaptive.io;
+
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import org.ldaptive.LdapUtils;
+import org.testng.Assert;
+import org.testng.annotations.DataProvider;
+import org.testng.annotations.Test;
+
+/**
+ * Compares the binary paths of the primitive value transcoders, which parse
+ * and format bytes directly, against decoding and encoding the UTF-8 string.
+ * Values are generated randomly from a fixed seed.
+ *
+ * @author  Middleware Services
+ * @version  $Revision$ $Date$
+ */
+public class ValueTranscoderTest
+{
+
+  /** Number of random values per transcoder. */
+  private static final int VALUE_COUNT = 10000;
+
+  /** Characters used to build random strings, including non-ASCII digits. */
+  private static final String ALPHABET =
+    "0123456789000000000+-- .eExTtRrUuFfAaLlSs\u0661\u0662\u0966\uff11";
+
+
+  /**
+   * Transcoders and random string values, both valid and invalid.
+   *
+   * @return  transcoders and values
+   */
+  @DataProvider(name = "transcoders")
+  public Object[][] createTranscoders()
+  {
+    final Random random = new Random(1024);
+    return new Object[][] {
+      new Object[] {new IntegerValueTranscoder(), createValues(random, true)},
+      new Object[] {new LongValueTranscoder(), createValues(random, true)},
+      new Object[] {new ShortValueTranscoder(), createValues(random, true)},
+      new Object[] {new BooleanValueTranscoder(), createValues(random, false)},
+    };
+  }
+
+
+  /**
+   * @param  transcoder  to test
+   * @param  values  to decode
+   *
+   * @throws  Exception  On test failure.
+   */
+  @Test(groups = {"beans"}, dataProvider = "transcoders")
+  public <T> void decodeBinaryValue(
+    final AbstractPrimitiveValueTranscoder<T> transcoder,
+    final List<String> values)
+    throws Exception
+  {
+    for (String value : values) {
+      final byte[] bytes = LdapUtils.utf8Encode(value);
+      final Object expected = decode(transcoder, value);
+      Assert.assertEquals(decode(transcoder, bytes), expected, value);
+
+      // heap buffer with an offset, and direct buffer
+      final ByteBuffer heap = ByteBuffer.allocate(bytes.length + 4);
+      heap.position(2);
+      heap.put(bytes);
+      heap.position(2);
+      heap.limit(2 + bytes.length);
+      Assert.assertEquals(decode(transcoder, heap.slice()), expected, value);
+      final ByteBuffer direct = ByteBuffer.allocateDirect(bytes.length);
+      direct.put(bytes);
+      direct.flip();
+      Assert.assertEquals(decode(transcoder, direct), expected, value);
+      if (!(expected instanceof ExceptionMessage)) {
+        Assert.assertEquals(direct.remaining(), 0);
+      }
+    }
+  }
+
+
+  /**
+   * @param  transcoder  to test
+   * @param  values  to decode and encode
+   *
+   * @throws  Exception  On test failure.
+   */
+  @Test(groups = {"beans"}, dataProvider = "transcoders")
+  public <T> void encodeBinaryValue(
+    final AbstractPrimitiveValueTranscoder<T> transcoder,
+    final List<String> values)
+    throws Exception
+  {
+    for (String s : values) {
+      final T value;
+      try {
+        value = transcoder.decodeStringValue(s);
+      } catch (NumberFormatException e) {
+        continue;
+      }
+      final byte[] expected = LdapUtils.utf8Encode(
+        transcoder.encodeStringValue(value));
+      Assert.assertEquals(transcoder.encodeBinaryValue(value), expected, s);
+
+      final ByteBuffer heap = ByteBuffer.allocate(expected.length + 2);
+      heap.put((byte) 'x');
+      transcoder.encodeBinaryValue(value, heap);
+      Assert.assertEquals(heap.position(), expected.length + 1);
+      final ByteBuffer direct = ByteBuffer.allocateDirect(expected.length);
+      transcoder.encodeBinaryValue(value, direct);
+      Assert.assertEquals(direct.position(), expected.length);
+      for (int i = 0; i < expected.length; i++) {
+        Assert.assertEquals(heap.get(i + 1), expected[i], s);
+        Assert.assertEquals(direct.get(i), expected[i], s);
+      }
+    }
+  }
+
+
+  /**
+   * Creates random values. Most are numbers of random magnitude or booleans,
+   * the rest are random strings and boundary values.
+   *
+   * @param  random  to generate values with
+   * @param  numbers  whether to generate numbers or booleans
+   *
+   * @return  values
+   */
+  private static List<String> createValues(
+    final Random random,
+    final boolean numbers)
+  {
+    final List<String> values = new ArrayList<String>();
+    values.add("");
+    values.add("-");
+    values.add("+");
+    values.add("+0");
+    values.add("-0");
+    values.add("007");
+    values.add("true");
+    values.add("TRUE");
+    values.add("tRuE");
+    values.add("truee");
+    values.add("false");
+    for (long l : new long[] {
+      Short.MIN_VALUE, Short.MAX_VALUE, Integer.MIN_VALUE, Integer.MAX_VALUE,
+      Long.MIN_VALUE, Long.MAX_VALUE, }) {
+      values.add(String.valueOf(l));
+      values.add(String.valueOf(l - 1));
+      values.add(String.valueOf(l + 1));
+    }
+    values.add("9223372036854775808");
+    values.add("-9223372036854775809");
+    values.add("99999999999999999999");
+    for (int i = 0; i < VALUE_COUNT; i++) {
+      if (random.nextInt(4) == 0) {
+        final StringBuilder sb = new StringBuilder();
+        final int length = random.nextInt(8);
+        for (int j = 0; j < length; j++) {
+          sb.append(ALPHABET.charAt(random.nextInt(ALPHABET.length())));
+        }
+        values.add(sb.toString());
+      } else if (numbers) {
+        values.add(String.valueOf(random.nextLong() >> random.nextInt(64)));
+      } else {
+        values.add(String.valueOf(random.nextBoolean()));
+      }
+    }
+    return values;
+  }
+
+
+  /**
+   * Decodes the supplied value, returning any number format exception.
+   *
+   * @param  transcoder  to decode with
+   * @param  value  string, bytes or byte buffer
+   *
+   * @return  decoded value or exception
+   */
+  private static Object decode(
+    final AbstractPrimitiveValueTranscoder<?> transcoder,
+    final Object value)
+  {
+    try {
+      if (value instanceof String) {
+        return transcoder.decodeStringValue((String) value);
+      } else if (value instanceof byte[]) {
+        return transcoder.decodeBinaryValue((byte[]) value);
+      } else {
+        return transcoder.decodeBinaryValue((ByteBuffer) value);
+      }
+    } catch (NumberFormatException e) {
+      return new ExceptionMessage(e);
+    }
+  }
+
+
+  /** Compares exceptions by type and message. */
+  private static class ExceptionMessage
+  {
+
+    /** Exception type and message. */
+    private final String message;
+
+
+    /**
+     * Creates a new exception message.
+     *
+     * @param  e  exception
+     */
+    ExceptionMessage(final Exception e)
+    {
+      message = e.getClass().getName() + ": " + e.getMessage();
+    }
+
+
+    /** {@inheritDoc} */
+    @Override
+    public boolean equals(final Object o)
+    {
+      return o instanceof ExceptionMessage &&
+        message.equals(((ExceptionMessage) o).message);
+    }
+
+
+    /** {@inheritDoc} */
+    @Override
+    public int hashCode()
+    {
+      return message.hashCode();
+    }
+
+
+    /** {@inheritDoc} */
+    @Override
+    public String toString()
+    {
+      return message;
+    }
+  }
+}
@@ -0,0 +1,230 @@
+/*
+  $Id$
+
+  Copyright (C) 2003-2014 Virginia Tech.
+  All rights reserved.
+
+  SEE LICENSE FOR MORE INFORMATION
+
+  Author:  Middleware Services
+  Email:   middleware@vt.edu
+  Version: $Revision$
+  Updated: $Date$
+*/
+package org.ldaptive.persistence;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import org.ldaptive.DefaultConnectionFactory;
+import org.ldaptive.LdapException;
+import org.ldaptive.Response;
+import org.ldaptive.ResultCode;
+import org.ldaptive.beans.reflect.DefaultLdapEntryMapper;
+import org.ldaptive.pool.BlockingConnectionPool;
+import org.ldaptive.pool.PoolConfig;
+import org.ldaptive.pool.PooledConnectionFactory;
+import org.testng.Assert;
+import org.testng.annotations.AfterClass;
+import org.testng.annotations.BeforeClass;
+import org.testng.annotations.Test;
+
+/**
+ * Unit tests for {@link AsyncLdapEntryManager} against an in-process LDAP
+ * server.
+ *
+ * @author  Middleware Services
+ * @version  $Revision$ $Date$
+ */
+public class AsyncLdapEntryManagerTest
+{
+
+  /** Window size and pool size. */
+  private static final int WINDOW = 4;
+
+  /** Number of objects to operate on. */
+  private static final int COUNT = 40;
+
+  /** LDAP server. */
+  private final InMemoryLdapServer server = new InMemoryLdapServer();
+
+  /** Pool of connections, one per outstanding operation. */
+  private BlockingConnectionPool pool;
+
+
+  /**
+   * Starts the LDAP server and creates the pool.
+   *
+   * @throws  Exception  On test failure.
+   */
+  @BeforeClass(groups = {"beans"})
+  public void startServer()
+    throws Exception
+  {
+    server.start();
+    final PoolConfig config = new PoolConfig();
+    config.setMinPoolSize(WINDOW);
+    config.setMaxPoolSize(WINDOW);
+    pool = new BlockingConnectionPool(
+      config, new DefaultConnectionFactory(server.getLdapUrl()));
+    pool.initialize();
+  }
+
+
+  /** Closes the pool and stops the LDAP server. */
+  @AfterClass(groups = {"beans"}, alwaysRun = true)
+  public void stopServer()
+  {
+    if (pool != null) {
+      pool.close();
+    }
+    server.stop();
+  }
+
+
+  /**
+   * @throws  Exception  On test failure.
+   */
+  @Test(groups = {"beans"})
+  public void addFindDelete()
+    throws Exception
+  {
+    final AsyncLdapEntryManager<PersonCustomObject> manager =
+      new AsyncLdapEntryManager<PersonCustomObject>(
+        new DefaultLdapEntryManager<PersonCustomObject>(
+          new DefaultLdapEntryMapper<PersonCustomObject>(),
+          new FactoryConnectionSource(new PooledConnectionFactory(pool))),
+        WINDOW);
+    Assert.assertEquals(manager.getWindowSize(), WINDOW);
+
+    final List<PersonCustomObject> people = new ArrayList<PersonCustomObject>();
+    final List<Future<Response<Void>>> responses =
+      new ArrayList<Future<Response<Void>>>();
+    for (int i = 0; i < COUNT; i++) {
+      final PersonCustomObject person = createPerson("async" + i);
+      people.add(person);
+      responses.add(manager.add(person));
+      Assert.assertTrue(manager.getInFlightCount() <= WINDOW);
+    }
+    for (Future<Response<Void>> f : responses) {
+      Assert.assertEquals(f.get().getResultCode(), ResultCode.SUCCESS);
+    }
+    Assert.assertTrue(manager.getMaxInFlightCount() <= WINDOW);
+    Assert.assertEquals(manager.getCompletedCount(), COUNT);
+    Assert.assertTrue(manager.getLatency() > 0);
+    Assert.assertTrue(manager.getMaxLatency() <= manager.getLatency());
+
+    final List<Future<PersonCustomObject>> found =
+      new ArrayList<Future<PersonCustomObject>>();
+    for (PersonCustomObject p : people) {
+      found.add(manager.find(new PersonCustomObject(p.getDn())));
+    }
+    for (int i = 0; i < COUNT; i++) {
+      Assert.assertEquals(found.get(i).get(), people.get(i));
+    }
+
+    // adding an existing entry fails only that operation
+    try {
+      manager.add(people.get(0)).get();
+      Assert.fail("Should have thrown ExecutionException");
+    } catch (ExecutionException e) {
+      Assert.assertTrue(e.getCause() instanceof LdapException);
+    }
+
+    responses.clear();
+    for (PersonCustomObject p : people) {
+      responses.add(manager.delete(p));
+    }
+    for (Future<Response<Void>> f : responses) {
+      Assert.assertEquals(f.get().getResultCode(), ResultCode.SUCCESS);
+    }
+    Assert.assertEquals(manager.getInFlightCount(), 0);
+    Assert.assertEquals(manager.getCompletedCount(), COUNT * 3 + 1);
+    Assert.assertTrue(manager.shutdown(1, TimeUnit.SECONDS));
+    Assert.assertEquals(pool.activeCount(), 0);
+
+    manager.resetStatistics();
+    Assert.assertEquals(manager.getCompletedCount(), 0);
+    Assert.assertEquals(manager.getLatency(), 0);
+  }
+
+
+  /**
+   * @throws  Exception  On test failure.
+   */
+  @Test(groups = {"beans"})
+  public void cancelBeforeRun()
+    throws Exception
+  {
+    // a single thread, so the second operation waits in the queue
+    final AsyncLdapEntryManager<PersonCustomObject> manager =
+      new AsyncLdapEntryManager<PersonCustomObject>(
+        new DefaultLdapEntryManager<PersonCustomObject>(
+          new DefaultLdapEntryMapper<PersonCustomObject>(),
+          new DefaultConnectionFactory(server.getLdapUrl())),
+        2,
+        Executors.newSingleThreadExecutor());
+    final CountDownLatch latch = new CountDownLatch(1);
+    final Future<Boolean> blocked = manager.submit(
+      new Callable<Boolean>() {
+        @Override
+        public Boolean call()
+          throws Exception
+        {
+          return latch.await(10, TimeUnit.SECONDS);
+        }
+      });
+    final Future<Boolean> queued = manager.submit(
+      new Callable<Boolean>() {
+        @Override
+        public Boolean call()
+        {
+          return true;
+        }
+      });
+    Assert.assertEquals(manager.getInFlightCount(), 2);
+    Assert.assertTrue(queued.cancel(false));
+    Assert.assertEquals(manager.getInFlightCount(), 1);
+
+    // the cancelled slot is free, so this does not block
+    final Future<Boolean> next = manager.submit(
+      new Callable<Boolean>() {
+        @Override
+        public Boolean call()
+        {
+          return true;
+        }
+      });
+    latch.countDown();
+    Assert.assertTrue(blocked.get());
+    Assert.assertTrue(next.get());
+    Assert.assertEquals(manager.getInFlightCount(), 0);
+    Assert.assertEquals(manager.getCompletedCount(), 3);
+    Assert.assertTrue(manager.shutdown(1, TimeUnit.SECONDS));
+  }
+
+
+  /**
+   * Creates a person with the supplied uid.
+   *
+   * @param  uid  of the person
+   *
+   * @return  person
+   */
+  private static PersonCustomObject createPerson(final String uid)
+  {
+    final PersonCustomObject person = new PersonCustomObject(
+      "uid=" + uid + "," + InMemoryLdapServer.PEOPLE_DN);
+    person.setUid(uid);
+    person.setCn("Test " + uid);
+    person.setSn(uid);
+    person.setMail(Arrays.asList(uid + "@ldaptive.org"));
+    return person;
+  }
+}
@@ -0,0 +1,194 @@
+/*
+  $Id$
+
+  Copyright (C) 2003-2014 Virginia Tech.
+  All rights reserved.
+
+  SEE LICENSE FOR MORE INFORMATION
+
+  Author:  Middleware Services
+  Email:   middleware@vt.edu
+  Version: $Revision$
+  Updated: $Date$
+*/
+package org.ldaptive.persistence;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.concurrent.TimeUnit;
+import org.ldaptive.DefaultConnectionFactory;
+import org.ldaptive.LdapEntry;
+import org.ldaptive.beans.LdapEntryMapper;
+import org.ldaptive.beans.reflect.DefaultLdapEntryMapper;
+import org.testng.Assert;
+import org.testng.annotations.AfterClass;
+import org.testng.annotations.BeforeClass;
+import org.testng.annotations.DataProvider;
+import org.testng.annotations.Test;
+
+/**
+ * Unit tests for {@link CachingLdapEntryManager} against an in-process LDAP
+ * server.
+ *
+ * @author  Middleware Services
+ * @version  $Revision$ $Date$
+ */
+public class CachingLdapEntryManagerTest
+{
+
+  /** LDAP server. */
+  private final InMemoryLdapServer server = new InMemoryLdapServer();
+
+
+  /**
+   * Starts the LDAP server.
+   *
+   * @throws  Exception  On test failure.
+   */
+  @BeforeClass(groups = {"beans"})
+  public void startServer()
+    throws Exception
+  {
+    server.start();
+  }
+
+
+  /** Stops the LDAP server. */
+  @AfterClass(groups = {"beans"}, alwaysRun = true)
+  public void stopServer()
+  {
+    server.stop();
+  }
+
+
+  /**
+   * Caching managers for each cache mode.
+   *
+   * @return  caching managers
+   */
+  @DataProvider(name = "managers")
+  public Object[][] createManagers()
+  {
+    final LdapEntryMapper<PersonCustomObject> mapper =
+      new DefaultLdapEntryMapper<PersonCustomObject>();
+    final LdapEntryManager<PersonCustomObject> manager =
+      new DefaultLdapEntryManager<PersonCustomObject>(
+        mapper, new DefaultConnectionFactory(server.getLdapUrl()));
+    return new Object[][] {
+      new Object[] {
+        "entry",
+        new CachingLdapEntryManager<PersonCustomObject>(
+          manager,
+          mapper,
+          new EntryCache<LdapEntry>(100, 1, TimeUnit.MINUTES)),
+      },
+      new Object[] {
+        "object",
+        new CachingLdapEntryManager<PersonCustomObject>(
+          manager,
+          mapper,
+          new EntryCache<PersonCustomObject>(100, 1, TimeUnit.MINUTES),
+          new ObjectCopier<PersonCustomObject>() {
+            @Override
+            public void copy(
+              final PersonCustomObject source,
+              final PersonCustomObject dest)
+            {
+              dest.setDn(source.getDn());
+              dest.setUid(source.getUid());
+              dest.setCn(source.getCn());
+              dest.setSn(source.getSn());
+              dest.setMail(
+                source.getMail() != null ?
+                  new ArrayList<String>(source.getMail()) : null);
+            }
+          }),
+      },
+    };
+  }
+
+
+  /**
+   * @param  name  of the cache mode
+   * @param  manager  to test
+   *
+   * @throws  Exception  On test failure.
+   */
+  @Test(groups = {"beans"}, dataProvider = "managers")
+  public void readThrough(
+    final String name,
+    final CachingLdapEntryManager<PersonCustomObject> manager)
+    throws Exception
+  {
+    final EntryCache<?> cache = manager.getCache();
+    final PersonCustomObject person = createPerson(name);
+    manager.add(person);
+    try {
+      server.resetRequestCounts();
+      final PersonCustomObject first = manager.find(
+        new PersonCustomObject(person.getDn()));
+      Assert.assertEquals(first, person);
+      Assert.assertEquals(server.getRequestCount("SEARCH"), 1);
+
+      // cache hits do not search and return independent objects
+      final PersonCustomObject second = manager.find(
+        new PersonCustomObject(person.getDn()));
+      Assert.assertEquals(second, person);
+      Assert.assertEquals(server.getRequestCount("SEARCH"), 1);
+      second.getMail().set(0, "changed@ldaptive.org");
+      Assert.assertEquals(
+        manager.find(new PersonCustomObject(person.getDn())), person);
+      Assert.assertEquals(cache.getHitCount(), 2);
+      Assert.assertEquals(cache.getMissCount(), 1);
+
+      // writes invalidate the cached DN
+      person.setSn("merged");
+      manager.merge(person);
+      Assert.assertEquals(cache.size(), 0);
+      Assert.assertEquals(
+        manager.find(new PersonCustomObject(person.getDn())), person);
+      Assert.assertEquals(server.getRequestCount("SEARCH"), 3);
+
+      // batch finds only search for misses
+      final PersonCustomObject other = createPerson(name + "-other");
+      manager.add(other);
+      server.resetRequestCounts();
+      final BatchResult<PersonCustomObject> found = manager.findAll(
+        Arrays.asList(
+          new PersonCustomObject(person.getDn()),
+          new PersonCustomObject(other.getDn())));
+      Assert.assertTrue(found.isSuccess());
+      Assert.assertNull(found.getItem(0).getResponse());
+      Assert.assertNotNull(found.getItem(1).getResponse());
+      Assert.assertEquals(found.getItem(0).getObject(), person);
+      Assert.assertEquals(found.getItem(1).getObject(), other);
+      Assert.assertEquals(server.getRequestCount("SEARCH"), 1);
+      Assert.assertEquals(cache.size(), 2);
+
+      manager.deleteByDn(other.getDn());
+      Assert.assertEquals(cache.size(), 1);
+    } finally {
+      manager.delete(person);
+    }
+    Assert.assertEquals(cache.size(), 0);
+  }
+
+
+  /**
+   * Creates a person with the supplied uid.
+   *
+   * @param  uid  of the person
+   *
+   * @return  person
+   */
+  private static PersonCustomObject createPerson(final String uid)
+  {
+    final PersonCustomObject person = new PersonCustomObject(
+      "uid=" + uid + "," + InMemoryLdapServer.PEOPLE_DN);
+    person.setUid(uid);
+    person.setCn("Test " + uid);
+    person.setSn(uid);
+    person.setMail(new ArrayList<String>(Arrays.asList(uid + "@ldaptive.org")));
+    return person;
+  }
+}
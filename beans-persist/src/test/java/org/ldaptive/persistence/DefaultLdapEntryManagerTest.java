@@ -0,0 +1,661 @@
+/*
+  $Id$
+
+  Copyright (C) 2003-2014 Virginia Tech.
+  All rights reserved.
+
+  SEE LICENSE FOR MORE INFORMATION
+
+  Author:  Middleware Services
+  Email:   middleware@vt.edu
+  Version: $Revision$
+  Updated: $Date$
+*/
+package org.ldaptive.persistence;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import org.ldaptive.AddOperation;
+import org.ldaptive.AddRequest;
+import org.ldaptive.Connection;
+import org.ldaptive.DefaultConnectionFactory;
+import org.ldaptive.LdapAttribute;
+import org.ldaptive.LdapEntry;
+import org.ldaptive.LdapException;
+import org.ldaptive.ResultCode;
+import org.ldaptive.SearchEntry;
+import org.ldaptive.SearchRequest;
+import org.ldaptive.SearchScope;
+import org.ldaptive.beans.LdapEntryMapper;
+import org.ldaptive.beans.reflect.DefaultLdapEntryMapper;
+import org.ldaptive.control.PagedResultsControl;
+import org.ldaptive.control.RequestControl;
+import org.ldaptive.handler.HandlerResult;
+import org.ldaptive.handler.SearchEntryHandler;
+import org.ldaptive.pool.BlockingConnectionPool;
+import org.ldaptive.pool.PoolConfig;
+import org.ldaptive.pool.PooledConnectionFactory;
+import org.testng.Assert;
+import org.testng.annotations.AfterClass;
+import org.testng.annotations.BeforeClass;
+import org.testng.annotations.DataProvider;
+import org.testng.annotations.Test;
+
+/**
+ * Unit tests for {@link DefaultLdapEntryManager} against an in-process LDAP
+ * server.
+ *
+ * @author  Middleware Services
+ * @version  $Revision$ $Date$
+ */
+public class DefaultLdapEntryManagerTest
+{
+
+  /** Number of threads used by concurrent tests. */
+  private static final int THREADS = 8;
+
+  /** LDAP server. */
+  private final InMemoryLdapServer server = new InMemoryLdapServer();
+
+  /** Pool backing the pooled connection source. */
+  private BlockingConnectionPool pool;
+
+  /** Connection backing the shared connection source. */
+  private Connection sharedConnection;
+
+
+  /**
+   * Starts the LDAP server and creates the pool.
+   *
+   * @throws  Exception  On test failure.
+   */
+  @BeforeClass(groups = {"beans"})
+  public void startServer()
+    throws Exception
+  {
+    server.start();
+    final PoolConfig config = new PoolConfig();
+    config.setMinPoolSize(2);
+    config.setMaxPoolSize(2);
+    pool = new BlockingConnectionPool(
+      config, new DefaultConnectionFactory(server.getLdapUrl()));
+    pool.initialize();
+    server.awaitConnectCount(2);
+    sharedConnection = DefaultConnectionFactory.getConnection(
+      server.getLdapUrl());
+  }
+
+
+  /** Closes the pool and connection and stops the LDAP server. */
+  @AfterClass(groups = {"beans"}, alwaysRun = true)
+  public void stopServer()
+  {
+    if (sharedConnection != null) {
+      sharedConnection.close();
+    }
+    if (pool != null) {
+      pool.close();
+    }
+    server.stop();
+  }
+
+
+  /**
+   * Connection sources to test and the number of connections each is expected
+   * to open for five operations.
+   *
+   * @return  connection sources
+   */
+  @DataProvider(name = "sources")
+  public Object[][] createConnectionSources()
+  {
+    return new Object[][] {
+      new Object[] {
+        "factory",
+        new FactoryConnectionSource(
+          new DefaultConnectionFactory(server.getLdapUrl())),
+        5,
+      },
+      new Object[] {
+        "pooled",
+        new FactoryConnectionSource(new PooledConnectionFactory(pool)),
+        0,
+      },
+      new Object[] {"shared", new SharedConnectionSource(sharedConnection), 1},
+    };
+  }
+
+
+  /**
+   * @param  name  of the source
+   * @param  source  to test
+   * @param  connects  number of connections expected to be opened
+   *
+   * @throws  Exception  On test failure.
+   */
+  @Test(groups = {"beans"}, dataProvider = "sources")
+  public void addFindMergeDelete(
+    final String name,
+    final AbstractConnectionSource source,
+    final int connects)
+    throws Exception
+  {
+    final DefaultLdapEntryManager<PersonCustomObject> manager =
+      new DefaultLdapEntryManager<PersonCustomObject>(
+        new DefaultLdapEntryMapper<PersonCustomObject>(), source);
+    final PersonCustomObject person = createPerson(name);
+    server.resetConnectCount();
+
+    Assert.assertEquals(
+      manager.add(person).getResultCode(), ResultCode.SUCCESS);
+    Assert.assertEquals(
+      manager.find(new PersonCustomObject(person.getDn())), person);
+
+    person.setMail(Arrays.asList(name + "@vt.edu"));
+    Assert.assertEquals(
+      manager.merge(person).getResultCode(), ResultCode.SUCCESS);
+    Assert.assertEquals(
+      manager.find(new PersonCustomObject(person.getDn())), person);
+
+    Assert.assertEquals(
+      manager.delete(person).getResultCode(), ResultCode.SUCCESS);
+
+    Assert.assertEquals(source.getBorrowCount(), 5);
+    Assert.assertEquals(source.getActiveCount(), 0);
+    Assert.assertTrue(source.getWaitTime() > 0);
+    Assert.assertTrue(source.getMaxWaitTime() <= source.getWaitTime());
+    Assert.assertEquals(server.getConnectCount(), connects);
+
+    source.resetStatistics();
+    Assert.assertEquals(source.getBorrowCount(), 0);
+    Assert.assertEquals(source.getWaitTime(), 0);
+  }
+
+
+  /**
+   * @throws  Exception  On test failure.
+   */
+  @Test(groups = {"beans"})
+  public void concurrentFind()
+    throws Exception
+  {
+    final FactoryConnectionSource pooled = new FactoryConnectionSource(
+      new PooledConnectionFactory(pool));
+    final SharedConnectionSource shared = new SharedConnectionSource(
+      sharedConnection);
+    final DefaultLdapEntryManager<PersonCustomObject> setup =
+      new DefaultLdapEntryManager<PersonCustomObject>(
+        new DefaultLdapEntryMapper<PersonCustomObject>(), pooled);
+    final PersonCustomObject person = createPerson("concurrent");
+    setup.add(person);
+    try {
+      for (AbstractConnectionSource source :
+           new AbstractConnectionSource[] {pooled, shared}) {
+        source.resetStatistics();
+        final DefaultLdapEntryManager<PersonCustomObject> manager =
+          new DefaultLdapEntryManager<PersonCustomObject>(
+            new DefaultLdapEntryMapper<PersonCustomObject>(), source);
+        final ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+        try {
+          final List<Future<PersonCustomObject>> results =
+            new ArrayList<Future<PersonCustomObject>>();
+          for (int i = 0; i < THREADS * 4; i++) {
+            results.add(
+              executor.submit(
+                new Callable<PersonCustomObject>() {
+                  @Override
+                  public PersonCustomObject call()
+                    throws Exception
+                  {
+                    return manager.find(
+                      new PersonCustomObject(person.getDn()));
+                  }
+                }));
+          }
+          for (Future<PersonCustomObject> f : results) {
+            Assert.assertEquals(f.get(), person);
+          }
+        } finally {
+          executor.shutdown();
+        }
+        Assert.assertEquals(source.getBorrowCount(), THREADS * 4);
+        Assert.assertEquals(source.getActiveCount(), 0);
+      }
+      Assert.assertEquals(pool.activeCount(), 0);
+      Assert.assertEquals(pool.availableCount(), 2);
+    } finally {
+      setup.delete(person);
+    }
+  }
+
+
+  /**
+   * @throws  Exception  On test failure.
+   */
+  @Test(groups = {"beans"})
+  public void batchOperations()
+    throws Exception
+  {
+    final int count = 8;
+    final FactoryConnectionSource source = new FactoryConnectionSource(
+      new DefaultConnectionFactory(server.getLdapUrl()));
+    final DefaultLdapEntryManager<PersonCustomObject> manager =
+      new DefaultLdapEntryManager<PersonCustomObject>(
+        new DefaultLdapEntryMapper<PersonCustomObject>(), source);
+    manager.setBatchSize(3);
+
+    final List<PersonCustomObject> people = new ArrayList<PersonCustomObject>();
+    for (int i = 0; i < count; i++) {
+      people.add(createPerson("batch" + i));
+    }
+    // adding the same entry twice fails the second add only
+    people.add(createPerson("batch0"));
+    server.resetConnectCount();
+
+    final BatchResult<PersonCustomObject> added = manager.addAll(people);
+    Assert.assertEquals(added.size(), count + 1);
+    Assert.assertEquals(added.getSuccessCount(), count);
+    Assert.assertEquals(added.getFailures().size(), 1);
+    Assert.assertSame(added.getItem(count), added.getFailures().get(0));
+    Assert.assertTrue(added.getItem(count).getException() instanceof
+      LdapException);
+    Assert.assertNull(added.getItem(count).getResponse());
+    Assert.assertEquals(
+      added.getItem(0).getResponse().getResultCode(), ResultCode.SUCCESS);
+    // three batches of three objects, each on its own connection
+    Assert.assertEquals(source.getBorrowCount(), 3);
+    Assert.assertEquals(server.getConnectCount(), 3);
+    people.remove(count);
+
+    final List<PersonCustomObject> found = new ArrayList<PersonCustomObject>();
+    for (PersonCustomObject p : people) {
+      found.add(new PersonCustomObject(p.getDn()));
+    }
+    Assert.assertTrue(manager.findAll(found).isSuccess());
+    Assert.assertEquals(found, people);
+
+    for (PersonCustomObject p : people) {
+      p.setSn("merged");
+    }
+    Assert.assertTrue(manager.mergeAll(people).isSuccess());
+    final BatchResult<PersonCustomObject> merged = manager.findAll(found);
+    Assert.assertTrue(merged.isSuccess());
+    for (BatchResult.Item<PersonCustomObject> item : merged) {
+      Assert.assertEquals(item.getObject().getSn(), "merged");
+    }
+
+    Assert.assertTrue(manager.deleteAll(people).isSuccess());
+    Assert.assertEquals(manager.findAll(found).getFailureCount(), count);
+    Assert.assertEquals(source.getActiveCount(), 0);
+  }
+
+
+  /**
+   * @throws  Exception  On test failure.
+   */
+  @Test(groups = {"beans"})
+  public void findReturnAttributes()
+    throws Exception
+  {
+    final DefaultLdapEntryManager<PersonCustomObject> manager =
+      new DefaultLdapEntryManager<PersonCustomObject>(
+        new DefaultLdapEntryMapper<PersonCustomObject>(),
+        new FactoryConnectionSource(new PooledConnectionFactory(pool)));
+    final PersonCustomObject person = createPerson("projection");
+    Assert.assertEquals(
+      new HashSet<String>(Arrays.asList(manager.getReturnAttributes(person))),
+      new HashSet<String>(
+        Arrays.asList("objectClass", "uid", "cn", "sn", "mail")));
+
+    manager.add(person);
+    try {
+      manager.setExcludedReturnAttributes("MAIL", "objectClass");
+      manager.setAdditionalReturnAttributes("description", "uid");
+      Assert.assertEquals(
+        new HashSet<String>(Arrays.asList(manager.getReturnAttributes(person))),
+        new HashSet<String>(Arrays.asList("uid", "cn", "sn", "description")));
+      final PersonCustomObject found = manager.find(
+        new PersonCustomObject(person.getDn()));
+      Assert.assertEquals(found.getUid(), person.getUid());
+      Assert.assertEquals(found.getSn(), person.getSn());
+      Assert.assertNull(found.getMail());
+
+      manager.setExcludedReturnAttributes();
+      manager.setAdditionalReturnAttributes();
+      Assert.assertEquals(
+        manager.find(new PersonCustomObject(person.getDn())), person);
+
+      // mappers that do not provide attribute names get all attributes
+      final LdapEntryMapper<PersonCustomObject> mapper =
+        new DefaultLdapEntryMapper<PersonCustomObject>();
+      final DefaultLdapEntryManager<PersonCustomObject> plain =
+        new DefaultLdapEntryManager<PersonCustomObject>(
+          new LdapEntryMapper<PersonCustomObject>() {
+            @Override
+            public String getDn(final PersonCustomObject object)
+            {
+              return mapper.getDn(object);
+            }
+
+            @Override
+            public void map(
+              final PersonCustomObject source,
+              final LdapEntry dest)
+            {
+              mapper.map(source, dest);
+            }
+
+            @Override
+            public void map(
+              final LdapEntry source,
+              final PersonCustomObject dest)
+            {
+              mapper.map(source, dest);
+            }
+          },
+          new FactoryConnectionSource(new PooledConnectionFactory(pool)));
+      plain.setAdditionalReturnAttributes("createTimestamp");
+      Assert.assertEquals(
+        plain.getReturnAttributes(person),
+        new String[] {"*", "createTimestamp"});
+      Assert.assertEquals(
+        plain.find(new PersonCustomObject(person.getDn())), person);
+    } finally {
+      manager.delete(person);
+    }
+  }
+
+
+  /**
+   * @throws  Exception  On test failure.
+   */
+  @Test(groups = {"beans"})
+  public void changeTrackingMerge()
+    throws Exception
+  {
+    final DefaultLdapEntryManager<PersonCustomObject> manager =
+      new DefaultLdapEntryManager<PersonCustomObject>(
+        new DefaultLdapEntryMapper<PersonCustomObject>(),
+        new FactoryConnectionSource(new PooledConnectionFactory(pool)));
+    manager.setChangeTracking(true);
+    Assert.assertTrue(manager.isChangeTracking());
+    final PersonCustomObject person = createPerson("tracked");
+    manager.add(person);
+    try {
+      final PersonCustomObject found = manager.find(
+        new PersonCustomObject(person.getDn()));
+      Assert.assertEquals(manager.getTrackedCount(), 2);
+
+      // tracked objects are merged without reading the entry
+      server.resetRequestCounts();
+      found.setSn("changed");
+      found.setMail(Arrays.asList("tracked@vt.edu"));
+      Assert.assertEquals(
+        manager.merge(found).getResultCode(), ResultCode.SUCCESS);
+      Assert.assertEquals(server.getRequestCount("SEARCH"), 0);
+      Assert.assertEquals(server.getRequestCount("MODIFY"), 1);
+
+      // merging an unchanged object sends nothing
+      Assert.assertEquals(
+        manager.merge(found).getResultCode(), ResultCode.SUCCESS);
+      Assert.assertEquals(server.getRequestCount("SEARCH"), 0);
+      Assert.assertEquals(server.getRequestCount("MODIFY"), 1);
+      Assert.assertEquals(
+        manager.find(new PersonCustomObject(person.getDn())), found);
+
+      // untracked objects are read before they are merged
+      server.resetRequestCounts();
+      final PersonCustomObject untracked = createPerson("tracked");
+      untracked.setCn("untracked");
+      Assert.assertEquals(
+        manager.merge(untracked).getResultCode(), ResultCode.SUCCESS);
+      Assert.assertEquals(server.getRequestCount("SEARCH"), 1);
+      Assert.assertEquals(server.getRequestCount("MODIFY"), 1);
+      Assert.assertEquals(
+        manager.find(new PersonCustomObject(person.getDn())), untracked);
+    } finally {
+      manager.delete(person);
+    }
+    manager.setChangeTracking(false);
+    Assert.assertEquals(manager.getTrackedCount(), 0);
+  }
+
+
+  /**
+   * @throws  Exception  On test failure.
+   */
+  @Test(groups = {"beans"})
+  public void deleteByDn()
+    throws Exception
+  {
+    final DefaultLdapEntryManager<PersonCustomObject> manager =
+      new DefaultLdapEntryManager<PersonCustomObject>(
+        new DefaultLdapEntryMapper<PersonCustomObject>(),
+        new FactoryConnectionSource(new PooledConnectionFactory(pool)));
+    final List<PersonCustomObject> people = new ArrayList<PersonCustomObject>();
+    final List<String> dns = new ArrayList<String>();
+    for (int i = 0; i < 3; i++) {
+      people.add(createPerson("dn" + i));
+      dns.add(people.get(i).getDn());
+    }
+    Assert.assertTrue(manager.addAll(people).isSuccess());
+
+    Assert.assertEquals(
+      manager.deleteByDn(dns.remove(0)).getResultCode(), ResultCode.SUCCESS);
+    // entries with children cannot be deleted
+    dns.add(InMemoryLdapServer.BASE_DN);
+    final BatchResult<String> deleted = manager.deleteAllByDn(dns);
+    Assert.assertEquals(deleted.getSuccessCount(), 2);
+    Assert.assertEquals(deleted.getFailures().size(), 1);
+    Assert.assertEquals(
+      deleted.getFailures().get(0).getObject(), dns.get(2));
+    Assert.assertEquals(manager.findAll(people).getFailureCount(), 3);
+  }
+
+
+  /**
+   * @throws  Exception  On test failure.
+   */
+  @Test(groups = {"beans"})
+  public void deleteSubtree()
+    throws Exception
+  {
+    final DefaultLdapEntryManager<PersonCustomObject> manager =
+      new DefaultLdapEntryManager<PersonCustomObject>(
+        new DefaultLdapEntryMapper<PersonCustomObject>(),
+        new FactoryConnectionSource(new PooledConnectionFactory(pool)));
+    final String root = "ou=cleanup," + InMemoryLdapServer.PEOPLE_DN;
+    final String child = "ou=child," + root;
+    for (int pageSize : new int[] {0, 2}) {
+      manager.setPageSize(pageSize);
+      final Connection conn = pool.getConnection();
+      try {
+        for (String dn : new String[] {root, child}) {
+          new AddOperation(conn).execute(
+            new AddRequest(
+              dn,
+              Arrays.asList(
+                new LdapAttribute("objectClass", "organizationalUnit"))));
+        }
+      } finally {
+        conn.close();
+      }
+      final List<PersonCustomObject> people =
+        new ArrayList<PersonCustomObject>();
+      for (String parent : new String[] {root, child}) {
+        for (int i = 0; i < 3; i++) {
+          final PersonCustomObject person = createPerson("subtree" + i);
+          person.setDn("uid=subtree" + i + "," + parent);
+          people.add(person);
+        }
+      }
+      Assert.assertTrue(manager.addAll(people).isSuccess());
+
+      final BatchResult<String> deleted = manager.deleteSubtree(root);
+      Assert.assertTrue(deleted.isSuccess());
+      Assert.assertEquals(deleted.size(), people.size() + 2);
+      Assert.assertEquals(
+        deleted.getItem(deleted.size() - 1).getObject().toLowerCase(),
+        root.toLowerCase());
+      Assert.assertEquals(
+        manager.findAll(people).getFailureCount(), people.size());
+    }
+  }
+
+
+  /**
+   * @throws  Exception  On test failure.
+   */
+  @Test(groups = {"beans"})
+  public void search()
+    throws Exception
+  {
+    final int count = 25;
+    final FactoryConnectionSource source = new FactoryConnectionSource(
+      new PooledConnectionFactory(pool));
+    final DefaultLdapEntryManager<PersonCustomObject> manager =
+      new DefaultLdapEntryManager<PersonCustomObject>(
+        new DefaultLdapEntryMapper<PersonCustomObject>(), source);
+    final List<PersonCustomObject> people = new ArrayList<PersonCustomObject>();
+    for (int i = 0; i < count; i++) {
+      people.add(createPerson("search" + i));
+    }
+    Assert.assertTrue(manager.addAll(people).isSuccess());
+    try {
+      for (int pageSize : new int[] {0, 10}) {
+        manager.setPageSize(pageSize);
+        final List<PersonCustomObject> found =
+          new ArrayList<PersonCustomObject>();
+        try (SearchCursor<PersonCustomObject> cursor = manager.search(
+            InMemoryLdapServer.PEOPLE_DN,
+            "(uid=search*)",
+            PersonCustomObject.class)) {
+          while (cursor.hasNext()) {
+            found.add(cursor.next());
+          }
+          Assert.assertTrue(cursor.isClosed());
+          Assert.assertEquals(cursor.getEntryCount(), count);
+          Assert.assertEquals(cursor.getPageCount(), pageSize == 0 ? 1 : 3);
+        }
+        Assert.assertEquals(found.size(), count);
+        Assert.assertTrue(found.containsAll(people));
+        Assert.assertEquals(source.getActiveCount(), 0);
+      }
+
+      // the caller's request is not modified by paging
+      final SearchRequest request = new SearchRequest(
+        InMemoryLdapServer.PEOPLE_DN, "(uid=search*)");
+      request.setSearchScope(SearchScope.SUBTREE);
+      final RequestControl[] controls = new RequestControl[] {
+        new PagedResultsControl(100),
+      };
+      request.setControls(controls);
+      try (SearchCursor<PersonCustomObject> cursor = manager.search(
+          request, PersonCustomObject.class)) {
+        while (cursor.hasNext()) {
+          cursor.next();
+        }
+        Assert.assertEquals(cursor.getEntryCount(), count);
+        Assert.assertEquals(cursor.getPageCount(), 3);
+      }
+      Assert.assertSame(request.getControls(), controls);
+      Assert.assertEquals(controls.length, 1);
+      Assert.assertEquals(((PagedResultsControl) controls[0]).getSize(), 100);
+      Assert.assertNull(((PagedResultsControl) controls[0]).getCookie());
+
+      // a caller's paged results control pages the search when the manager
+      // does not, and the handlers of the request are applied
+      manager.setPageSize(0);
+      request.setControls(new PagedResultsControl(10));
+      request.setSearchEntryHandlers(
+        new SearchEntryHandler() {
+          @Override
+          public HandlerResult<SearchEntry> handle(
+            final Connection conn,
+            final SearchRequest req,
+            final SearchEntry entry)
+          {
+            return new HandlerResult<SearchEntry>(
+              "search0".equals(
+                entry.getAttribute("uid").getStringValue()) ? null : entry);
+          }
+
+          @Override
+          public void initializeRequest(final SearchRequest req) {}
+        });
+      try (SearchCursor<PersonCustomObject> cursor = manager.search(
+          request, PersonCustomObject.class)) {
+        while (cursor.hasNext()) {
+          Assert.assertNotEquals(cursor.next().getUid(), "search0");
+        }
+        Assert.assertEquals(cursor.getEntryCount(), count - 1);
+        Assert.assertEquals(cursor.getPageCount(), 3);
+      }
+
+      // a handler that aborts ends the search after the current entry
+      request.setSearchEntryHandlers(
+        new SearchEntryHandler() {
+          @Override
+          public HandlerResult<SearchEntry> handle(
+            final Connection conn,
+            final SearchRequest req,
+            final SearchEntry entry)
+          {
+            return new HandlerResult<SearchEntry>(entry, true);
+          }
+
+          @Override
+          public void initializeRequest(final SearchRequest req) {}
+        });
+      try (SearchCursor<PersonCustomObject> cursor = manager.search(
+          request, PersonCustomObject.class)) {
+        Assert.assertNotNull(cursor.next());
+        Assert.assertFalse(cursor.hasNext());
+        Assert.assertTrue(cursor.isClosed());
+        Assert.assertEquals(cursor.getEntryCount(), 1);
+      }
+      Assert.assertEquals(source.getActiveCount(), 0);
+
+      // closing a partially read cursor releases its connection
+      final SearchCursor<PersonCustomObject> cursor = manager.search(
+        InMemoryLdapServer.PEOPLE_DN,
+        "(uid=search*)",
+        PersonCustomObject.class);
+      Assert.assertNotNull(cursor.next());
+      Assert.assertEquals(source.getActiveCount(), 1);
+      cursor.close();
+      Assert.assertTrue(cursor.isClosed());
+      Assert.assertFalse(cursor.hasNext());
+      Assert.assertEquals(source.getActiveCount(), 0);
+      Assert.assertEquals(pool.activeCount(), 0);
+    } finally {
+      manager.deleteAll(people);
+    }
+  }
+
+
+  /**
+   * Creates a person with the supplied uid.
+   *
+   * @param  uid  of the person
+   *
+   * @return  person
+   */
+  private static PersonCustomObject createPerson(final String uid)
+  {
+    final PersonCustomObject person = new PersonCustomObject(
+      "uid=" + uid + "," + InMemoryLdapServer.PEOPLE_DN);
+    person.setUid(uid);
+    person.setCn("Test " + uid);
+    person.setSn(uid);
+    // LDAP does not preserve value order, so use a single value
+    person.setMail(Arrays.asList(uid + "@ldaptive.org"));
+    return person;
+  }
+}
@@ -0,0 +1,216 @@
+/*
+  $Id$
+
+  Copyright (C) 2003-2014 Virginia Tech.
+  All rights reserved.
+
+  SEE LICENSE FOR MORE INFORMATION
+
+  Author:  Middleware Services
+  Email:   middleware@vt.edu
+  Version: $Revision$
+  Updated: $Date$
+*/
+package org.ldaptive.persistence;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import org.testng.Assert;
+import org.testng.annotations.Test;
+
+/**
+ * Unit tests for {@link EntryCache}.
+ *
+ * @author  Middleware Services
+ * @version  $Revision$ $Date$
+ */
+public class EntryCacheTest
+{
+
+
+  /**
+   * @throws  Exception  On test failure.
+   */
+  @Test(groups = {"beans"})
+  public void evictLeastRecentlyUsed()
+    throws Exception
+  {
+    final EntryCache<String> cache = new EntryCache<String>(
+      2, 0, TimeUnit.SECONDS);
+    cache.put("uid=1,dc=ldaptive,dc=org", "1");
+    cache.put("uid=2,dc=ldaptive,dc=org", "2");
+    Assert.assertEquals(cache.get("UID=1,DC=ldaptive,DC=org"), "1");
+    cache.put("uid=3,dc=ldaptive,dc=org", "3");
+    Assert.assertEquals(cache.size(), 2);
+    Assert.assertEquals(cache.getEvictionCount(), 1);
+    Assert.assertNull(cache.get("uid=2,dc=ldaptive,dc=org"));
+    Assert.assertEquals(cache.get("uid=1,dc=ldaptive,dc=org"), "1");
+    Assert.assertEquals(cache.get("uid=3,dc=ldaptive,dc=org"), "3");
+    Assert.assertEquals(cache.getHitCount(), 3);
+    Assert.assertEquals(cache.getMissCount(), 1);
+    Assert.assertEquals(cache.getHitRate(), 0.75);
+
+    cache.resetStatistics();
+    Assert.assertEquals(cache.getHitRate(), 0.0);
+    Assert.assertEquals(cache.getEvictionCount(), 0);
+  }
+
+
+  /**
+   * @throws  Exception  On test failure.
+   */
+  @Test(groups = {"beans"})
+  public void expire()
+    throws Exception
+  {
+    final EntryCache<String> cache = new EntryCache<String>(
+      10, 50, TimeUnit.MILLISECONDS);
+    Assert.assertEquals(cache.getTimeToLive(TimeUnit.MILLISECONDS), 50);
+    cache.put("uid=1,dc=ldaptive,dc=org", "1");
+    Assert.assertEquals(cache.get("uid=1,dc=ldaptive,dc=org"), "1");
+    Thread.sleep(100);
+    Assert.assertNull(cache.get("uid=1,dc=ldaptive,dc=org"));
+    Assert.assertEquals(cache.getExpirationCount(), 1);
+    Assert.assertEquals(cache.size(), 0);
+  }
+
+
+  /**
+   * @throws  Exception  On test failure.
+   */
+  @Test(groups = {"beans"})
+  public void removeSubtree()
+    throws Exception
+  {
+    final EntryCache<String> cache = new EntryCache<String>(
+      10, 0, TimeUnit.SECONDS);
+    cache.put("ou=people,dc=ldaptive,dc=org", "people");
+    cache.put("uid=1,ou=people,dc=ldaptive,dc=org", "1");
+    cache.put("uid=2,ou=People,dc=ldaptive,dc=org", "2");
+    cache.put("uid=4, ou=people, dc=ldaptive, dc=org", "4");
+    cache.put("uid=3,ou=groups,dc=ldaptive,dc=org", "3");
+    cache.put("ou=otherpeople,dc=ldaptive,dc=org", "other");
+    cache.removeSubtree("OU = people , dc=ldaptive,dc=org");
+    Assert.assertEquals(cache.size(), 2);
+    Assert.assertEquals(cache.get("uid=3,ou=groups,dc=ldaptive,dc=org"), "3");
+    Assert.assertEquals(
+      cache.get("ou=otherpeople,dc=ldaptive,dc=org"), "other");
+  }
+
+
+  /**
+   * @throws  Exception  On test failure.
+   */
+  @Test(groups = {"beans"})
+  public void normalizeDn()
+    throws Exception
+  {
+    final EntryCache<String> cache = new EntryCache<String>(
+      10, 0, TimeUnit.SECONDS);
+    cache.put("uid=a, ou=people,dc=ldaptive,dc=org", "a");
+    Assert.assertEquals(
+      cache.get(" UID = a,ou=People ,dc=ldaptive,dc=org "), "a");
+    cache.remove("uid=a,ou=people,dc=ldaptive,dc=org");
+    Assert.assertEquals(cache.size(), 0);
+
+    // spaces inside values, escaped spaces and quoted values are kept
+    cache.put("cn=John Smith+uid=js,dc=org", "js");
+    Assert.assertEquals(cache.get("cn=john smith + uid=js, dc=org"), "js");
+    Assert.assertNull(cache.get("cn=JohnSmith+uid=js,dc=org"));
+    cache.put("cn=trailing\\ ,dc=org", "escaped");
+    Assert.assertNull(cache.get("cn=trailing,dc=org"));
+    Assert.assertEquals(cache.get("cn=trailing\\ , dc=org"), "escaped");
+    cache.put("cn=\"a , b\",dc=org", "quoted");
+    Assert.assertNull(cache.get("cn=\"a,b\",dc=org"));
+    Assert.assertEquals(cache.get("cn = \"a , b\" ,dc=org"), "quoted");
+  }
+
+
+  /**
+   * @throws  Exception  On test failure.
+   */
+  @Test(groups = {"beans"})
+  public void stalePut()
+    throws Exception
+  {
+    final EntryCache<String> cache = new EntryCache<String>(
+      10, 0, TimeUnit.SECONDS);
+    final String dn = "uid=1,ou=people,dc=ldaptive,dc=org";
+
+    long version = cache.getVersion(dn);
+    Assert.assertTrue(cache.put(dn, "1", version));
+    Assert.assertEquals(cache.get(dn), "1");
+
+    version = cache.getVersion(dn);
+    cache.remove("UID=1,ou=people,dc=ldaptive,dc=org");
+    Assert.assertFalse(cache.put(dn, "stale", version));
+    Assert.assertNull(cache.get(dn));
+
+    version = cache.getVersion(dn);
+    cache.removeSubtree("ou=people,dc=ldaptive,dc=org");
+    Assert.assertFalse(cache.put(dn, "stale", version));
+    Assert.assertNull(cache.get(dn));
+
+    version = cache.getVersion(dn);
+    cache.clear();
+    Assert.assertFalse(cache.put(dn, "stale", version));
+    Assert.assertNull(cache.get(dn));
+
+    version = cache.getVersion(dn);
+    cache.put(dn, "2");
+    Assert.assertTrue(cache.put(dn, "3", version));
+    Assert.assertEquals(cache.get(dn), "3");
+  }
+
+
+  /**
+   * @throws  Exception  On test failure.
+   */
+  @Test(groups = {"beans"})
+  public void concurrentAccess()
+    throws Exception
+  {
+    final int size = 1000;
+    final EntryCache<String> cache = new EntryCache<String>(
+      size, 0, TimeUnit.SECONDS);
+    final ExecutorService executor = Executors.newFixedThreadPool(8);
+    try {
+      final List<Future<Void>> futures = new ArrayList<Future<Void>>();
+      for (int i = 0; i < 8; i++) {
+        final int thread = i;
+        futures.add(executor.submit(new Callable<Void>() {
+          @Override
+          public Void call()
+          {
+            for (int j = 0; j < 5000; j++) {
+              final String dn = String.format(
+                "uid=%s,dc=ldaptive,dc=org", j * 8 + thread);
+              final long version = cache.getVersion(dn);
+              if (cache.get(dn) == null) {
+                cache.put(dn, String.valueOf(j), version);
+              }
+              if (j % 100 == 0) {
+                cache.remove(dn);
+              }
+            }
+            return null;
+          }
+        }));
+      }
+      for (Future<Void> future : futures) {
+        future.get();
+      }
+    } finally {
+      executor.shutdown();
+    }
+    Assert.assertTrue(cache.size() <= size);
+    Assert.assertTrue(cache.size() > 0);
+    Assert.assertEquals(cache.getHitCount() + cache.getMissCount(), 40000);
+    Assert.assertTrue(cache.getEvictionCount() > 0);
+  }
+}
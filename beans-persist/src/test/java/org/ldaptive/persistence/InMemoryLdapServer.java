@@ -0,0 +1,205 @@
+/*
+  $Id$
+
+  Copyright (C) 2003-2014 Virginia Tech.
+  All rights reserved.
+
+  SEE LICENSE FOR MORE INFORMATION
+
+  Author:  Middleware Services
+  Email:   middleware@vt.edu
+  Version: $Revision$
+  Updated: $Date$
+*/
+package org.ldaptive.persistence;
+
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.logging.Handler;
+import java.util.logging.LogRecord;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import com.unboundid.ldap.listener.InMemoryDirectoryServer;
+import com.unboundid.ldap.listener.InMemoryDirectoryServerConfig;
+import com.unboundid.ldap.listener.InMemoryListenerConfig;
+
+/**
+ * In-process LDAP server for entry manager tests. Schema checking is disabled
+ * and the server counts the client connections it accepts and the requests it
+ * receives.
+ *
+ * @author  Middleware Services
+ * @version  $Revision$ $Date$
+ */
+public class InMemoryLdapServer
+{
+
+  /** Base DN of the directory. */
+  public static final String BASE_DN = "dc=ldaptive,dc=org";
+
+  /** DN of the container for person entries. */
+  public static final String PEOPLE_DN = "ou=people," + BASE_DN;
+
+  /** Matches the operation name of a request access log record. */
+  private static final Pattern REQUEST_PATTERN = Pattern.compile(
+    "\\b([A-Z]+) REQUEST\\b");
+
+  /** Number of client connections accepted. */
+  private final AtomicInteger connectCount = new AtomicInteger();
+
+  /** Number of requests received by operation name. */
+  private final ConcurrentMap<String, AtomicInteger> requestCounts =
+    new ConcurrentHashMap<String, AtomicInteger>();
+
+  /** Directory server. */
+  private InMemoryDirectoryServer server;
+
+
+  /**
+   * Starts the server on an ephemeral port.
+   *
+   * @throws  Exception  if the server cannot be started
+   */
+  public void start()
+    throws Exception
+  {
+    final InMemoryDirectoryServerConfig config =
+      new InMemoryDirectoryServerConfig(BASE_DN);
+    config.setSchema(null);
+    config.setListenerConfigs(
+      InMemoryListenerConfig.createLDAPConfig("default", 0));
+    config.setAccessLogHandler(
+      new Handler() {
+        @Override
+        public void publish(final LogRecord record)
+        {
+          if (record.getMessage().contains(" CONNECT ")) {
+            connectCount.incrementAndGet();
+          }
+          final Matcher m = REQUEST_PATTERN.matcher(record.getMessage());
+          if (m.find()) {
+            getRequestCounter(m.group(1)).incrementAndGet();
+          }
+        }
+
+        @Override
+        public void flush() {}
+
+        @Override
+        public void close() {}
+      });
+    server = new InMemoryDirectoryServer(config);
+    server.add(
+      "dn: " + BASE_DN,
+      "objectClass: top",
+      "objectClass: domain",
+      "dc: ldaptive");
+    server.add(
+      "dn: " + PEOPLE_DN,
+      "objectClass: top",
+      "objectClass: organizationalUnit",
+      "ou: people");
+    server.startListening();
+  }
+
+
+  /** Stops the server. */
+  public void stop()
+  {
+    if (server != null) {
+      server.shutDown(true);
+    }
+  }
+
+
+  /**
+   * Returns the LDAP URL of the server.
+   *
+   * @return  ldap url
+   */
+  public String getLdapUrl()
+  {
+    return "ldap://localhost:" + server.getListenPort();
+  }
+
+
+  /**
+   * Returns the number of client connections accepted since the last reset.
+   *
+   * @return  connect count
+   */
+  public int getConnectCount()
+  {
+    return connectCount.get();
+  }
+
+
+  /**
+   * Returns the number of requests of the supplied operation received since
+   * the last reset.
+   *
+   * @param  operation  name as it appears in the access log, such as SEARCH
+   *
+   * @return  request count
+   */
+  public int getRequestCount(final String operation)
+  {
+    return getRequestCounter(operation).get();
+  }
+
+
+  /** Resets the request counts. */
+  public void resetRequestCounts()
+  {
+    requestCounts.clear();
+  }
+
+
+  /**
+   * Returns the request counter for the supplied operation.
+   *
+   * @param  operation  name
+   *
+   * @return  request counter
+   */
+  private AtomicInteger getRequestCounter(final String operation)
+  {
+    AtomicInteger counter = requestCounts.get(operation);
+    if (counter == null) {
+      counter = new AtomicInteger();
+      final AtomicInteger existing = requestCounts.putIfAbsent(
+        operation, counter);
+      if (existing != null) {
+        counter = existing;
+      }
+    }
+    return counter;
+  }
+
+
+  /**
+   * Waits until the server has accepted at least the supplied number of
+   * connections. Connections are logged asynchronously, so a client that opens
+   * a connection without performing an operation may return before the server
+   * has counted it.
+   *
+   * @param  count  number of connections to wait for
+   *
+   * @throws  InterruptedException  if interrupted while waiting
+   */
+  public void awaitConnectCount(final int count)
+    throws InterruptedException
+  {
+    for (int i = 0; i < 100 && connectCount.get() < count; i++) {
+      Thread.sleep(10);
+    }
+  }
+
+
+  /** Resets the connect count. */
+  public void resetConnectCount()
+  {
+    connectCount.set(0);
+  }
+}
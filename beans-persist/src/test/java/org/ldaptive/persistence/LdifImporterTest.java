@@ -0,0 +1,400 @@
+/*
+  $Id$
+
+  Copyright (C) 2003-2014 Virginia Tech.
+  All rights reserved.
+
+  SEE LICENSE FOR MORE INFORMATION
+
+  Author:  Middleware Services
+  Email:   middleware@vt.edu
+  Version: $Revision$
+  Updated: $Date$
+*/
+package org.ldaptive.persistence;
+
+import java.io.File;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import org.ldaptive.DefaultConnectionFactory;
+import org.ldaptive.LdapEntry;
+import org.ldaptive.LdapUtils;
+import org.ldaptive.beans.RawLdapEntryMapper;
+import org.ldaptive.beans.ldif.LdifExporter;
+import org.ldaptive.beans.reflect.DefaultLdapEntryMapper;
+import org.testng.Assert;
+import org.testng.annotations.AfterClass;
+import org.testng.annotations.BeforeClass;
+import org.testng.annotations.Test;
+
+/**
+ * Unit tests for {@link LdifImporter} against an in-process LDAP server.
+ *
+ * @author  Middleware Services
+ * @version  $Revision$ $Date$
+ */
+public class LdifImporterTest
+{
+
+  /** LDAP server. */
+  private final InMemoryLdapServer server = new InMemoryLdapServer();
+
+
+  /**
+   * Starts the LDAP server.
+   *
+   * @throws  Exception  On test failure.
+   */
+  @BeforeClass(groups = {"beans"})
+  public void startServer()
+    throws Exception
+  {
+    server.start();
+  }
+
+
+  /** Stops the LDAP server. */
+  @AfterClass(groups = {"beans"}, alwaysRun = true)
+  public void stopServer()
+  {
+    server.stop();
+  }
+
+
+  /**
+   * @throws  Exception  On test failure.
+   */
+  @Test(groups = {"beans"})
+  public void importAndResume()
+    throws Exception
+  {
+    final List<PersonCustomObject> people = new ArrayList<PersonCustomObject>();
+    for (int i = 0; i < 300; i++) {
+      final PersonCustomObject person = new PersonCustomObject(
+        "uid=import" + i + "," + InMemoryLdapServer.PEOPLE_DN);
+      person.setUid("import" + i);
+      person.setCn(i % 7 == 0 ? " Import " + i : "Import " + i);
+      person.setSn("S\u00f8rensen");
+      person.setMail(Arrays.asList("import" + i + "@ldaptive.org"));
+      people.add(person);
+    }
+    final Path ldif = createTempFile(".ldif");
+    new LdifExporter(DefaultLdapEntryMapper.getClassDescriptorRegistry())
+      .export(people, ldif);
+    final Path checkpoint = createTempFile(".checkpoint");
+    Files.delete(checkpoint);
+
+    final LdapEntryManager<PersonCustomObject> manager =
+      new DefaultLdapEntryManager<PersonCustomObject>(
+        new DefaultLdapEntryMapper<PersonCustomObject>(),
+        new DefaultConnectionFactory(server.getLdapUrl()));
+    final LdifImporter<PersonCustomObject> importer =
+      new LdifImporter<PersonCustomObject>(
+        manager,
+        new DefaultLdapEntryMapper<PersonCustomObject>(),
+        PersonCustomObject.class);
+    importer.setChunkSize(2048);
+    importer.setBatchSize(10);
+    importer.setCheckpointPath(checkpoint);
+
+    server.resetRequestCounts();
+    LdifImporter.Result result = importer.importLdif(ldif);
+    Assert.assertTrue(result.isSuccess(), result.toString());
+    Assert.assertTrue(result.getChunkCount() > importer.getThreadCount());
+    Assert.assertEquals(result.getSkippedChunkCount(), 0);
+    Assert.assertEquals(result.getEntryCount(), 300);
+    Assert.assertEquals(result.getAddedCount(), 300);
+    Assert.assertEquals(server.getRequestCount("ADD"), 300);
+    for (PersonCustomObject person : people) {
+      Assert.assertEquals(
+        manager.find(new PersonCustomObject(person.getDn())), person);
+    }
+
+    // every chunk is checkpointed, nothing is imported again
+    final int chunkCount = result.getChunkCount();
+    server.resetRequestCounts();
+    result = importer.importLdif(ldif);
+    Assert.assertTrue(result.isSuccess(), result.toString());
+    Assert.assertEquals(result.getSkippedChunkCount(), chunkCount);
+    Assert.assertEquals(result.getEntryCount(), 0);
+    Assert.assertEquals(server.getRequestCount("ADD"), 0);
+
+    // simulate a failure after two chunks, with a partially written line
+    final String[] lines = new String(
+      Files.readAllBytes(checkpoint), StandardCharsets.US_ASCII).split("\n");
+    Assert.assertEquals(lines.length, chunkCount + 1);
+    Files.write(
+      checkpoint,
+      (lines[0] + "\n" + lines[1] + "\n" + lines[2] + "\n" + lines[3].charAt(0))
+        .getBytes(StandardCharsets.US_ASCII));
+    result = importer.importLdif(ldif);
+    Assert.assertTrue(result.isSuccess(), result.toString());
+    Assert.assertEquals(result.getSkippedChunkCount(), 2);
+    Assert.assertTrue(result.getEntryCount() > 0);
+    Assert.assertEquals(result.getAddedCount(), 0);
+    Assert.assertEquals(result.getExistingCount(), result.getEntryCount());
+
+    // a checkpoint cannot be used with a different chunk size
+    importer.setChunkSize(4096);
+    try {
+      importer.importLdif(ldif);
+      Assert.fail("Should have thrown IllegalStateException");
+    } catch (IllegalStateException e) {
+      Assert.assertEquals(e.getClass(), IllegalStateException.class);
+    }
+  }
+
+
+  /**
+   * @throws  Exception  On test failure.
+   */
+  @Test(groups = {"beans"})
+  public void resumeFailedAdds()
+    throws Exception
+  {
+    final List<PersonCustomObject> people = new ArrayList<PersonCustomObject>();
+    for (int i = 0; i < 50; i++) {
+      final PersonCustomObject person = new PersonCustomObject(
+        "uid=resume" + i + "," + InMemoryLdapServer.PEOPLE_DN);
+      person.setUid("resume" + i);
+      person.setCn("Resume " + i);
+      person.setSn("resume");
+      person.setMail(Arrays.asList("resume" + i + "@ldaptive.org"));
+      people.add(person);
+    }
+    final Path ldif = createTempFile(".ldif");
+    new LdifExporter(DefaultLdapEntryMapper.getClassDescriptorRegistry())
+      .export(people, ldif);
+    final Path checkpoint = createTempFile(".checkpoint");
+    Files.delete(checkpoint);
+
+    // no directory is listening, every add fails and no chunk is completed
+    final LdifImporter<PersonCustomObject> failing =
+      new LdifImporter<PersonCustomObject>(
+        new DefaultLdapEntryManager<PersonCustomObject>(
+          new DefaultLdapEntryMapper<PersonCustomObject>(),
+          new DefaultConnectionFactory("ldap://localhost:1")),
+        new DefaultLdapEntryMapper<PersonCustomObject>(),
+        PersonCustomObject.class);
+    failing.setChunkSize(1024);
+    failing.setCheckpointPath(checkpoint);
+    LdifImporter.Result result = failing.importLdif(ldif);
+    Assert.assertFalse(result.isSuccess());
+    Assert.assertTrue(result.getChunkCount() > 1);
+    Assert.assertEquals(result.getFailures().size(), 50);
+    Assert.assertEquals(
+      new String(Files.readAllBytes(checkpoint), StandardCharsets.US_ASCII)
+        .split("\n").length,
+      1);
+
+    // resuming imports every record
+    final LdapEntryManager<PersonCustomObject> manager =
+      new DefaultLdapEntryManager<PersonCustomObject>(
+        new DefaultLdapEntryMapper<PersonCustomObject>(),
+        new DefaultConnectionFactory(server.getLdapUrl()));
+    final LdifImporter<PersonCustomObject> importer =
+      new LdifImporter<PersonCustomObject>(
+        manager,
+        new DefaultLdapEntryMapper<PersonCustomObject>(),
+        PersonCustomObject.class);
+    importer.setChunkSize(1024);
+    importer.setCheckpointPath(checkpoint);
+    result = importer.importLdif(ldif);
+    Assert.assertTrue(result.isSuccess(), result.toString());
+    Assert.assertEquals(result.getSkippedChunkCount(), 0);
+    Assert.assertEquals(result.getAddedCount(), 50);
+    for (PersonCustomObject person : people) {
+      Assert.assertEquals(
+        manager.find(new PersonCustomObject(person.getDn())), person);
+    }
+  }
+
+
+  /**
+   * @throws  Exception  On test failure.
+   */
+  @Test(groups = {"beans"})
+  public void importRawEntries()
+    throws Exception
+  {
+    final String dn1 = "uid=raw1," + InMemoryLdapServer.PEOPLE_DN;
+    final String dn2 = "uid=raw2," + InMemoryLdapServer.PEOPLE_DN;
+    final Path ldif = createTempFile(".ldif");
+    Files.write(
+      ldif,
+      ("version: 1\r\n" +
+       "# raw entries\r\n" +
+       "dn: " + dn1 + "\r\n" +
+       "objectClass: inetOrgPerson\r\n" +
+       "uid: raw1\r\n" +
+       "cn: Raw\r\n" +
+       "  One\r\n" +
+       "sn:: " + LdapUtils.base64Encode(" leading") + "\r\n" +
+       "\r\n" +
+       "\r\n" +
+       "dn:: " + LdapUtils.base64Encode(dn2) + "\n" +
+       "changetype: add\n" +
+       "objectClass: inetOrgPerson\n" +
+       "uid: raw2\n" +
+       "cn: Raw Two\n" +
+       "sn: two\n" +
+       "jpegPhoto:: AAECAw==\n").getBytes(StandardCharsets.UTF_8));
+
+    final LdapEntryManager<LdapEntry> manager =
+      new DefaultLdapEntryManager<LdapEntry>(
+        new RawLdapEntryMapper(),
+        new DefaultConnectionFactory(server.getLdapUrl()));
+    final LdifImporter<LdapEntry> importer = new LdifImporter<LdapEntry>(
+      manager, new RawLdapEntryMapper(), LdapEntry.class);
+    importer.setChunkSize(1);
+    final LdifImporter.Result result = importer.importLdif(ldif);
+    Assert.assertTrue(result.isSuccess(), result.toString());
+    Assert.assertTrue(result.getChunkCount() > 1);
+    Assert.assertEquals(result.getAddedCount(), 2);
+
+    final LdapEntry entry1 = manager.find(new LdapEntry(dn1));
+    Assert.assertEquals(entry1.getAttribute("cn").getStringValue(), "Raw One");
+    Assert.assertEquals(
+      LdapUtils.utf8Encode(" leading"),
+      entry1.getAttribute("sn").getBinaryValue());
+    final LdapEntry entry2 = manager.find(new LdapEntry(dn2));
+    Assert.assertEquals(entry2.getAttribute("sn").getStringValue(), "two");
+    Assert.assertEquals(
+      entry2.getAttribute("jpegPhoto").getBinaryValue(),
+      new byte[] {0, 1, 2, 3});
+  }
+
+
+  /**
+   * @throws  Exception  On test failure.
+   */
+  @Test(groups = {"beans"})
+  public void importSubtree()
+    throws Exception
+  {
+    final String ouDn = "ou=nested," + InMemoryLdapServer.PEOPLE_DN;
+    final String subDn = "ou=sub," + ouDn;
+    final StringBuilder sb = new StringBuilder();
+    // a child before its parent, then the parents and their children
+    appendPerson(sb, "uid=early," + subDn, "early");
+    sb.append("dn: ").append(ouDn).append("\n")
+      .append("objectClass: organizationalUnit\nou: nested\n\n");
+    sb.append("dn: ").append(subDn).append("\n")
+      .append("objectClass: organizationalUnit\nou: sub\n\n");
+    for (int i = 0; i < 20; i++) {
+      appendPerson(sb, "uid=nested" + i + "," + subDn, "nested" + i);
+    }
+    appendPerson(sb, "uid=orphan,ou=missing," + ouDn, "orphan");
+    final Path ldif = createTempFile(".ldif");
+    Files.write(ldif, sb.toString().getBytes(StandardCharsets.UTF_8));
+    final Path checkpoint = createTempFile(".checkpoint");
+    Files.delete(checkpoint);
+
+    final LdapEntryManager<LdapEntry> manager =
+      new DefaultLdapEntryManager<LdapEntry>(
+        new RawLdapEntryMapper(),
+        new DefaultConnectionFactory(server.getLdapUrl()));
+    final LdifImporter<LdapEntry> importer = new LdifImporter<LdapEntry>(
+      manager, new RawLdapEntryMapper(), LdapEntry.class);
+    importer.setChunkSize(1);
+    importer.setThreadCount(4);
+    importer.setCheckpointPath(checkpoint);
+    try {
+      final LdifImporter.Result result = importer.importLdif(ldif);
+      Assert.assertTrue(result.getChunkCount() >= 24);
+      Assert.assertEquals(result.getAddedCount(), 23);
+      Assert.assertEquals(result.getFailures().size(), 1, result.toString());
+      Assert.assertTrue(
+        result.getFailures().keySet().iterator().next().startsWith(
+          "uid=orphan"));
+      Assert.assertTrue(result.getChunkFailures().isEmpty());
+      Assert.assertNotNull(manager.find(new LdapEntry("uid=early," + subDn)));
+      Assert.assertNotNull(
+        manager.find(new LdapEntry("uid=nested19," + subDn)));
+      // every chunk but the orphan's is checkpointed, after the header
+      Assert.assertEquals(
+        new String(Files.readAllBytes(checkpoint), StandardCharsets.US_ASCII)
+          .split("\n").length,
+        result.getChunkCount());
+    } finally {
+      manager.deleteSubtree(ouDn);
+    }
+  }
+
+
+  /**
+   * @throws  Exception  On test failure.
+   */
+  @Test(groups = {"beans"})
+  public void invalidRecord()
+    throws Exception
+  {
+    final Path ldif = createTempFile(".ldif");
+    Files.write(
+      ldif,
+      ("dn: uid=invalid1," + InMemoryLdapServer.PEOPLE_DN + "\n" +
+       "objectClass: inetOrgPerson\n" +
+       "uid: invalid1\n" +
+       "cn: Invalid\n" +
+       "sn: one\n" +
+       "\n" +
+       "objectClass: inetOrgPerson\n" +
+       "uid: invalid2\n").getBytes(StandardCharsets.UTF_8));
+    final LdifImporter<LdapEntry> importer = new LdifImporter<LdapEntry>(
+      new DefaultLdapEntryManager<LdapEntry>(
+        new RawLdapEntryMapper(),
+        new DefaultConnectionFactory(server.getLdapUrl())),
+      new RawLdapEntryMapper(),
+      LdapEntry.class);
+    importer.setChunkSize(1);
+    final LdifImporter.Result result = importer.importLdif(ldif);
+    Assert.assertFalse(result.isSuccess());
+    Assert.assertEquals(result.getAddedCount(), 1);
+    Assert.assertEquals(result.getChunkFailures().size(), 1);
+    Assert.assertEquals(
+      result.getChunkFailures().values().iterator().next().getClass(),
+      IllegalArgumentException.class);
+  }
+
+
+  /**
+   * Appends an LDIF record for a person.
+   *
+   * @param  sb  to append to
+   * @param  dn  of the person
+   * @param  uid  of the person
+   */
+  private static void appendPerson(
+    final StringBuilder sb,
+    final String dn,
+    final String uid)
+  {
+    sb.append("dn: ").append(dn).append("\n")
+      .append("objectClass: inetOrgPerson\n")
+      .append("uid: ").append(uid).append("\n")
+      .append("cn: ").append(uid).append("\n")
+      .append("sn: ").append(uid).append("\n\n");
+  }
+
+
+  /**
+   * Creates a temporary file that is deleted on exit.
+   *
+   * @param  suffix  of the file name
+   *
+   * @return  path of the file
+   *
+   * @throws  Exception  if the file cannot be created
+   */
+  private static Path createTempFile(final String suffix)
+    throws Exception
+  {
+    final File file = File.createTempFile("ldif-importer-", suffix);
+    file.deleteOnExit();
+    return file.toPath();
+  }
+}
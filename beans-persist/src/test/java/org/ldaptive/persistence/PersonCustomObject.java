@@ -0,0 +1,108 @@
+/*
+  $Id$
+
+  Copyright (C) 2003-2014 Virginia Tech.
+  All rights reserved.
+
+  SEE LICENSE FOR MORE INFORMATION
+
+  Author:  Middleware Services
+  Email:   middleware@vt.edu
+  Version: $Revision$
+  Updated: $Date$
+*/
+package org.ldaptive.persistence;
+
+import java.util.List;
+import org.ldaptive.LdapUtils;
+import org.ldaptive.SortBehavior;
+import org.ldaptive.beans.Attribute;
+import org.ldaptive.beans.Entry;
+
+/**
+ * Class for testing ldap entry managers.
+ *
+ * @author  Middleware Services
+ * @version  $Revision$ $Date$
+ */
+@Entry(
+  dn = "dn",
+  attributes = {
+    @Attribute(
+      name = "objectClass",
+      values = {"top", "person", "inetOrgPerson"}),
+    @Attribute(name = "uid", property = "uid"),
+    @Attribute(name = "cn", property = "cn"),
+    @Attribute(name = "sn", property = "sn"),
+    @Attribute(
+      name = "mail",
+      property = "mail",
+      sortBehavior = SortBehavior.ORDERED)
+    }
+)
+public class PersonCustomObject
+{
+
+  /** hash code seed. */
+  private static final int HASH_CODE_SEED = 73;
+
+  // CheckStyle:JavadocVariable OFF
+  private String dn;
+  private String uid;
+  private String cn;
+  private String sn;
+  private List<String> mail;
+  // CheckStyle:JavadocVariable ON
+
+
+  // CheckStyle:JavadocMethod OFF
+  // CheckStyle:LeftCurly OFF
+  public PersonCustomObject() {}
+  public PersonCustomObject(final String s) { setDn(s); }
+
+
+  public String getDn() { return dn; }
+  public void setDn(final String s) { dn = s; }
+  public String getUid() { return uid; }
+  public void setUid(final String s) { uid = s; }
+  public String getCn() { return cn; }
+  public void setCn(final String s) { cn = s; }
+  public String getSn() { return sn; }
+  public void setSn(final String s) { sn = s; }
+  public List<String> getMail() { return mail; }
+  public void setMail(final List<String> l) { mail = l; }
+  // CheckStyle:LeftCurly ON
+  // CheckStyle:JavadocMethod ON
+
+
+  /** {@inheritDoc} */
+  @Override
+  public boolean equals(final Object o)
+  {
+    return LdapUtils.areEqual(this, o);
+  }
+
+
+  /** {@inheritDoc} */
+  @Override
+  public int hashCode()
+  {
+    return LdapUtils.computeHashCode(HASH_CODE_SEED, dn, uid, cn, sn, mail);
+  }
+
+
+  /** {@inheritDoc} */
+  @Override
+  public String toString()
+  {
+    return String.format(
+      "[%s@%d::dn=%s, uid=%s, cn=%s, sn=%s, mail=%s]",
+      getClass().getSimpleName(),
+      hashCode(),
+      dn,
+      uid,
+      cn,
+      sn,
+      mail);
+  }
+}
@@ -0,0 +1,1049 @@
+/*
+  $Id$
+
+  Copyright (C) 2003-2014 Virginia Tech.
+  All rights reserved.
+
+  SEE LICENSE FOR MORE INFORMATION
+
+  Author:  Middleware Services
+  Email:   middleware@vt.edu
+  Version: $Revision$
+  Updated: $Date$
+*/
+package org.ldaptive.beans.processor;
+
+import java.beans.Introspector;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Set;
+import javax.lang.model.element.Element;
+import javax.lang.model.element.ExecutableElement;
+import javax.lang.model.element.Modifier;
+import javax.lang.model.element.NestingKind;
+import javax.lang.model.element.PackageElement;
+import javax.lang.model.element.TypeElement;
+import javax.lang.model.element.VariableElement;
+import javax.lang.model.type.ArrayType;
+import javax.lang.model.type.DeclaredType;
+import javax.lang.model.type.TypeKind;
+import javax.lang.model.type.TypeMirror;
+import javax.lang.model.util.ElementFilter;
+import javax.lang.model.util.Elements;
+import javax.lang.model.util.Types;
+import org.ldaptive.beans.Attribute;
+import org.ldaptive.beans.DnTemplate;
+import org.ldaptive.beans.Entry;
+import org.ldaptive.beans.generated.GeneratedLdapEntryMappers;
+
+/**
+ * Generates the source of an ldap entry mapper for a type annotated with
+ * {@link Entry}. Properties are resolved the same way as {@link
+ * org.ldaptive.beans.reflect.DefaultClassDescriptor}: a bean getter is
+ * preferred, then a field declared on the type, and attributes with only
+ * values are written as constants. Getters, setters and non-private fields
+ * are called directly; primitive values are formatted and parsed inline; all
+ * other values use the same reflection transcoders the runtime descriptor
+ * would select, constructed once per generated class.
+ *
+ * @author  Middleware Services
+ * @version  $Revision$ $Date$
+ */
+public class LdapEntryMapperGenerator
+{
+
+  /** Package of the reflection transcoders. */
+  private static final String REFLECT = "org.ldaptive.beans.reflect.";
+
+  /** Package of the value transcoders. */
+  private static final String IO = "org.ldaptive.io.";
+
+  /** Element utilities. */
+  private final Elements elements;
+
+  /** Type utilities. */
+  private final Types types;
+
+  /** Erasure of java.util.Collection. */
+  private final TypeMirror collectionType;
+
+  /** Erasure of java.util.List. */
+  private final TypeMirror listType;
+
+  /** Erasure of java.util.Set. */
+  private final TypeMirror setType;
+
+
+  /**
+   * Creates a new ldap entry mapper generator.
+   *
+   * @param  e  element utilities
+   * @param  t  type utilities
+   */
+  public LdapEntryMapperGenerator(final Elements e, final Types t)
+  {
+    elements = e;
+    types = t;
+    collectionType = erasure("java.util.Collection");
+    listType = erasure("java.util.List");
+    setType = erasure("java.util.Set");
+  }
+
+
+  /**
+   * Returns the fully qualified name of the mapper generated for the supplied
+   * type. See {@link GeneratedLdapEntryMappers#getMapperClassName(Class)}.
+   *
+   * @param  type  of bean
+   *
+   * @return  mapper class name
+   */
+  public String getMapperClassName(final TypeElement type)
+  {
+    return elements.getBinaryName(type).toString().replace('$', '_') +
+      GeneratedLdapEntryMappers.SUFFIX;
+  }
+
+
+  /**
+   * Generates the mapper source for the supplied type.
+   *
+   * @param  type  annotated with {@link Entry}
+   *
+   * @return  java source
+   *
+   * @throws  IllegalArgumentException  if the type cannot be mapped by
+   * generated code
+   */
+  public String generate(final TypeElement type)
+  {
+    checkAccessible(type);
+    final Entry entry = type.getAnnotation(Entry.class);
+    final String beanType = types.erasure(type.asType()).toString();
+    final String mapperName = getMapperClassName(type);
+    final String simpleName = mapperName.substring(
+      mapperName.lastIndexOf('.') + 1);
+
+    final DnTemplate dnTemplate = DnTemplate.isTemplate(entry.dn()) ?
+      DnTemplate.compile(entry.dn()) : null;
+    final Property dn = dnTemplate == null ?
+      resolve(type, entry.dn(), "dn") : null;
+    final List<Property> dnProperties = new ArrayList<Property>();
+    if (dnTemplate != null) {
+      for (String name : dnTemplate.getPropertyNames()) {
+        final Property p = resolve(type, name, "dn" + dnProperties.size());
+        if (p == null) {
+          throw new IllegalArgumentException(
+            "No property named '" + name + "' for DN template");
+        }
+        dnProperties.add(p);
+      }
+    }
+    final List<Property> properties = new ArrayList<Property>();
+    final List<Attribute> constants = new ArrayList<Attribute>();
+    final Set<String> names = new HashSet<String>();
+    for (Attribute attr : entry.attributes()) {
+      if ("".equals(attr.property())) {
+        if (!names.add(attr.name().toLowerCase(Locale.ENGLISH))) {
+          throw new IllegalArgumentException(
+            "Found duplicate attribute name '" + attr.name() + "'");
+        }
+        constants.add(attr);
+      } else {
+        final Property p = resolve(
+          type, attr.property(), String.valueOf(properties.size()));
+        if (p != null) {
+          p.attribute = attr;
+          if (!names.add(
+                p.getAttributeName().toLowerCase(Locale.ENGLISH))) {
+            throw new IllegalArgumentException(
+              "Found duplicate attribute name '" + p.getAttributeName() + "'");
+          }
+          properties.add(p);
+        }
+      }
+    }
+
+    final SourceBuilder src = new SourceBuilder();
+    final PackageElement pkg = elements.getPackageOf(type);
+    if (!pkg.isUnnamed()) {
+      src.line("package %s;", pkg.getQualifiedName());
+      src.line();
+    }
+    src.line("/**");
+    src.line(" * Ldap entry mapper for {@link %s}.", beanType);
+    src.line(" * Generated by %s; do not edit.", getClass().getName());
+    src.line(" */");
+    src.line(
+      "public final class %s extends " +
+      "org.ldaptive.beans.generated.AbstractGeneratedLdapEntryMapper<%s>",
+      simpleName,
+      beanType);
+    src.line("{");
+    src.indent();
+
+    // constants
+    if (dn != null) {
+      writeConstants(src, dn, beanType);
+    }
+    if (dnTemplate != null) {
+      src.line(
+        "private static final org.ldaptive.beans.DnTemplate DN_TEMPLATE =");
+      src.line(
+        "  org.ldaptive.beans.DnTemplate.compile(%s);",
+        literal(entry.dn()));
+      for (Property p : dnProperties) {
+        writeConstants(src, p, beanType);
+      }
+    }
+    for (Property p : properties) {
+      writeConstants(src, p, beanType);
+    }
+    for (int i = 0; i < constants.size(); i++) {
+      final Attribute attr = constants.get(i);
+      if (attr.binary()) {
+        src.line(
+          "private static final byte[][] VALUES_%s = base64Decode(%s);",
+          i,
+          literals(attr.values()));
+      } else {
+        src.line(
+          "private static final String[] VALUES_%s = new String[] {%s};",
+          i,
+          literals(attr.values()));
+      }
+    }
+    final List<String> attributeNames = new ArrayList<String>();
+    for (Property p : properties) {
+      attributeNames.add(p.getAttributeName());
+    }
+    for (Attribute attr : constants) {
+      attributeNames.add(attr.name());
+    }
+    src.line(
+      "private static final String[] ATTRIBUTE_NAMES = new String[] {%s};",
+      literals(attributeNames.toArray(new String[attributeNames.size()])));
+    src.line();
+
+    // getType
+    src.line("@Override");
+    src.line("public Class<%s> getType()", beanType);
+    src.line("{");
+    src.line("  return %s.class;", beanType);
+    src.line("}");
+    src.line();
+
+    // getDn
+    src.line("@Override");
+    src.line("public String getDn(final %s object)", beanType);
+    src.line("{");
+    src.indent();
+    if (dn != null) {
+      src.line(
+        "return firstValue(TRANSCODER_dn.encodeStringValues(%s));",
+        dn.getValue("object"));
+    } else if (dnTemplate != null) {
+      src.line("return DN_TEMPLATE.format(");
+      for (int i = 0; i < dnProperties.size(); i++) {
+        final Property p = dnProperties.get(i);
+        src.line(
+          "  firstValue(TRANSCODER_%s.encodeStringValues(%s))%s",
+          p.id,
+          p.getValue("object"),
+          i < dnProperties.size() - 1 ? "," : ");");
+      }
+    } else {
+      src.line("return %s;", literal(entry.dn()));
+    }
+    src.outdent();
+    src.line("}");
+    src.line();
+
+    // getAttributeNames
+    src.line("@Override");
+    src.line("public String[] getAttributeNames(final %s object)", beanType);
+    src.line("{");
+    src.line("  return ATTRIBUTE_NAMES.clone();");
+    src.line("}");
+    src.line();
+
+    // map object to entry
+    src.line("@Override");
+    src.line(
+      "public void map(final %s source, final org.ldaptive.LdapEntry dest)",
+      beanType);
+    src.line("{");
+    src.indent();
+    src.line("dest.setDn(getDn(source));");
+    for (Property p : properties) {
+      final Attribute attr = p.attribute;
+      if (p.isPrimitive()) {
+        src.line(
+          "addAttribute(dest, %s, %s, %s, String.valueOf(%s));",
+          literal(p.getAttributeName()),
+          sortBehavior(attr),
+          attr.binary(),
+          p.getValue("source"));
+      } else {
+        src.line(
+          "addAttribute(dest, %s, %s, %s, TRANSCODER_%s, %s);",
+          literal(p.getAttributeName()),
+          sortBehavior(attr),
+          attr.binary(),
+          p.id,
+          p.getValue("source"));
+      }
+    }
+    for (int i = 0; i < constants.size(); i++) {
+      final Attribute attr = constants.get(i);
+      src.line(
+        "add%sAttribute(dest, %s, %s, VALUES_%s);",
+        attr.binary() ? "Binary" : "String",
+        literal(attr.name()),
+        sortBehavior(attr),
+        i);
+    }
+    src.outdent();
+    src.line("}");
+    src.line();
+
+    // map entry to object
+    src.line("@Override");
+    src.line("@SuppressWarnings(\"unchecked\")");
+    src.line(
+      "public void map(final org.ldaptive.LdapEntry source, final %s dest)",
+      beanType);
+    src.line("{");
+    src.indent();
+    if (dn != null) {
+      src.line(
+        dn.setValue(
+          "dest",
+          "TRANSCODER_dn.decodeStringValues(" +
+          "java.util.Collections.singletonList(source.getDn()))",
+          false));
+    } else if (dnTemplate != null) {
+      src.line(
+        "final String[] dnValues = DN_TEMPLATE.parse(source.getDn());");
+      src.line("if (dnValues != null) {");
+      src.indent();
+      for (int i = 0; i < dnProperties.size(); i++) {
+        final Property p = dnProperties.get(i);
+        src.line(
+          p.setValue(
+            "dest",
+            "TRANSCODER_" + p.id + ".decodeStringValues(" +
+            "java.util.Collections.singletonList(dnValues[" + i + "]))",
+            false));
+      }
+      src.outdent();
+      src.line("}");
+    }
+    src.line(
+      "for (org.ldaptive.LdapAttribute attr : source.getAttributes()) {");
+    src.indent();
+    src.line("final String name = attr.getName();");
+    src.line("if (name == null) {");
+    src.line("  continue;");
+    src.line("}");
+    // attribute names are case insensitive
+    src.line("switch (name.toLowerCase(java.util.Locale.ENGLISH)) {");
+    for (Property p : properties) {
+      src.line(
+        "case %s:",
+        literal(p.getAttributeName().toLowerCase(Locale.ENGLISH)));
+      src.indent();
+      if (p.isPrimitive()) {
+        src.line(p.setValue("dest", parse(p.type, "singleValue(attr)"), true));
+      } else {
+        src.line(
+          p.setValue("dest", "decode(TRANSCODER_" + p.id + ", attr)", false));
+      }
+      src.line("break;");
+      src.outdent();
+    }
+    src.line("default:");
+    src.line("  break;");
+    src.line("}");
+    src.outdent();
+    src.line("}");
+    src.outdent();
+    src.line("}");
+    src.outdent();
+    src.line("}");
+    return src.toString();
+  }
+
+
+  /**
+   * Ensures the supplied type can be referenced from a class in its package.
+   *
+   * @param  type  to check
+   *
+   * @throws  IllegalArgumentException  if the type is not accessible
+   */
+  private void checkAccessible(final TypeElement type)
+  {
+    if (!type.getTypeParameters().isEmpty()) {
+      throw new IllegalArgumentException("Generic types are not supported");
+    }
+    Element e = type;
+    while (e instanceof TypeElement) {
+      final TypeElement te = (TypeElement) e;
+      if (te.getModifiers().contains(Modifier.PRIVATE)) {
+        throw new IllegalArgumentException("Type is not accessible");
+      }
+      if (te.getNestingKind() == NestingKind.MEMBER &&
+          !te.getModifiers().contains(Modifier.STATIC)) {
+        throw new IllegalArgumentException("Inner classes are not supported");
+      }
+      if (te.getNestingKind() == NestingKind.LOCAL ||
+          te.getNestingKind() == NestingKind.ANONYMOUS) {
+        throw new IllegalArgumentException("Local classes are not supported");
+      }
+      e = te.getEnclosingElement();
+    }
+  }
+
+
+  /**
+   * Resolves the supplied property name to a getter and setter or a field.
+   *
+   * @param  type  declaring the property
+   * @param  name  of the property
+   * @param  id  unique identifier for constants of this property
+   *
+   * @return  property or null if no method or field matches name
+   *
+   * @throws  IllegalArgumentException  if the property cannot be mapped
+   */
+  private Property resolve(
+    final TypeElement type,
+    final String name,
+    final String id)
+  {
+    ExecutableElement getter = null;
+    final List<ExecutableElement> setters = new ArrayList<ExecutableElement>();
+    for (ExecutableElement m :
+         ElementFilter.methodsIn(elements.getAllMembers(type))) {
+      final Set<Modifier> mods = m.getModifiers();
+      if (!mods.contains(Modifier.PUBLIC) || mods.contains(Modifier.STATIC)) {
+        continue;
+      }
+      final String methodName = m.getSimpleName().toString();
+      final TypeKind returnKind = m.getReturnType().getKind();
+      if (m.getParameters().isEmpty() && returnKind != TypeKind.VOID) {
+        if (methodName.length() > 2 && methodName.startsWith("is") &&
+            returnKind == TypeKind.BOOLEAN &&
+            name.equals(Introspector.decapitalize(methodName.substring(2)))) {
+          getter = m;
+        } else if (methodName.length() > 3 && methodName.startsWith("get") &&
+            name.equals(Introspector.decapitalize(methodName.substring(3))) &&
+            (getter == null ||
+             !getter.getSimpleName().toString().startsWith("is"))) {
+          getter = m;
+        }
+      } else if (m.getParameters().size() == 1 &&
+          returnKind == TypeKind.VOID && methodName.length() > 3 &&
+          methodName.startsWith("set") &&
+          name.equals(Introspector.decapitalize(methodName.substring(3)))) {
+        setters.add(m);
+      }
+    }
+    if (getter != null) {
+      final Property p = new Property(id, name, getter.getReturnType());
+      p.getter = getter;
+      for (ExecutableElement s : setters) {
+        if (types.isSameType(
+              types.erasure(s.getParameters().get(0).asType()),
+              types.erasure(p.type))) {
+          p.setter = s;
+        }
+      }
+      p.transcoder = transcoder(p.type);
+      return p;
+    }
+    if (!setters.isEmpty()) {
+      throw new IllegalArgumentException(
+        "Property '" + name + "' has no getter method");
+    }
+    final List<VariableElement> fields = ElementFilter.fieldsIn(
+      type.getEnclosedElements());
+    for (VariableElement f : fields) {
+      if (name.equals(f.getSimpleName().toString())) {
+        final Property p = new Property(id, name, f.asType());
+        p.field = f;
+        final Set<Modifier> mods = f.getModifiers();
+        p.directField = !mods.contains(Modifier.PRIVATE) &&
+          !mods.contains(Modifier.STATIC) && !mods.contains(Modifier.FINAL);
+        p.transcoder = transcoder(p.type);
+        return p;
+      }
+    }
+    return null;
+  }
+
+
+  /**
+   * Returns the source that creates a reflection transcoder for the supplied
+   * type. Mirrors {@link
+   * org.ldaptive.beans.reflect.DefaultReflectionTranscoder}.
+   *
+   * @param  type  to transcode
+   *
+   * @return  java expression
+   *
+   * @throws  IllegalArgumentException  if the type is not supported
+   */
+  private String transcoder(final TypeMirror type)
+  {
+    if (type.getKind() == TypeKind.ARRAY) {
+      final TypeMirror component = ((ArrayType) type).getComponentType();
+      if (component.getKind() == TypeKind.BYTE ||
+          component.getKind() == TypeKind.CHAR) {
+        return singleValue(type);
+      }
+      if (component.getKind().isPrimitive()) {
+        return primitiveArray(component);
+      }
+      return "new " + REFLECT + "ArrayReflectionTranscoder(" +
+        singleValue(component) + ")";
+    }
+    if (type.getKind() == TypeKind.DECLARED) {
+      final List<? extends TypeMirror> args =
+        ((DeclaredType) type).getTypeArguments();
+      final boolean isCollection = types.isAssignable(
+        types.erasure(type), collectionType);
+      if (args.isEmpty()) {
+        if (isCollection) {
+          return collection(type, singleValue(erasure("java.lang.Object")));
+        }
+        return singleValue(type);
+      }
+      if (args.size() != 1) {
+        throw new IllegalArgumentException(
+          "Unsupported type arguments: " + args);
+      }
+      if (!isCollection) {
+        throw new IllegalArgumentException("Unsupported type: " + type);
+      }
+      final TypeMirror arg = args.get(0);
+      if (arg.getKind() == TypeKind.ARRAY) {
+        final TypeMirror component = ((ArrayType) arg).getComponentType();
+        if (component.getKind() == TypeKind.BYTE ||
+            component.getKind() == TypeKind.CHAR) {
+          return collection(type, singleValue(arg));
+        }
+        return collection(
+          type,
+          "new " + REFLECT + "ArrayReflectionTranscoder(" +
+          singleValue(component) + ")");
+      }
+      if (arg.getKind() == TypeKind.DECLARED &&
+          ((DeclaredType) arg).getTypeArguments().isEmpty()) {
+        return collection(type, singleValue(arg));
+      }
+      throw new IllegalArgumentException("Unsupported type: " + type);
+    }
+    return singleValue(type);
+  }
+
+
+  /**
+   * Returns the source that creates a primitive array transcoder.
+   *
+   * @param  component  primitive component type of the array
+   *
+   * @return  java expression
+   *
+   * @throws  IllegalArgumentException  if the type is not supported
+   */
+  private String primitiveArray(final TypeMirror component)
+  {
+    final String prefix;
+    switch (component.getKind()) {
+    case BOOLEAN:
+      prefix = "Boolean";
+      break;
+    case DOUBLE:
+      prefix = "Double";
+      break;
+    case FLOAT:
+      prefix = "Float";
+      break;
+    case INT:
+      prefix = "Int";
+      break;
+    case LONG:
+      prefix = "Long";
+      break;
+    case SHORT:
+      prefix = "Short";
+      break;
+    default:
+      throw new IllegalArgumentException("Unsupported type: " + component);
+    }
+    return "new " + REFLECT + prefix + "ArrayReflectionTranscoder()";
+  }
+
+
+  /**
+   * Returns the source that creates a collection transcoder.
+   *
+   * @param  type  of collection
+   * @param  elementTranscoder  java expression for the element transcoder
+   *
+   * @return  java expression
+   *
+   * @throws  IllegalArgumentException  if the collection type is not supported
+   */
+  private String collection(
+    final TypeMirror type,
+    final String elementTranscoder)
+  {
+    final TypeMirror raw = types.erasure(type);
+    if (types.isSameType(raw, collectionType) ||
+        types.isAssignable(raw, listType)) {
+      return "new " + REFLECT + "ListReflectionTranscoder(" + raw + ".class, " +
+        elementTranscoder + ")";
+    } else if (types.isAssignable(raw, setType)) {
+      return "new " + REFLECT + "SetReflectionTranscoder(" + raw + ".class, " +
+        elementTranscoder + ")";
+    }
+    throw new IllegalArgumentException("Unsupported type: " + type);
+  }
+
+
+  /**
+   * Returns the source that creates a single value reflection transcoder.
+   *
+   * @param  type  to transcode
+   *
+   * @return  java expression
+   *
+   * @throws  IllegalArgumentException  if the type is not supported
+   */
+  private String singleValue(final TypeMirror type)
+  {
+    final String valueTranscoder;
+    final String valueType;
+    switch (type.getKind()) {
+    case BOOLEAN:
+      valueType = "Boolean";
+      valueTranscoder = "BooleanValueTranscoder(true)";
+      break;
+    case DOUBLE:
+      valueType = "Double";
+      valueTranscoder = "DoubleValueTranscoder(true)";
+      break;
+    case FLOAT:
+      valueType = "Float";
+      valueTranscoder = "FloatValueTranscoder(true)";
+      break;
+    case INT:
+      valueType = "Integer";
+      valueTranscoder = "IntegerValueTranscoder(true)";
+      break;
+    case LONG:
+      valueType = "Long";
+      valueTranscoder = "LongValueTranscoder(true)";
+      break;
+    case SHORT:
+      valueType = "Short";
+      valueTranscoder = "ShortValueTranscoder(true)";
+      break;
+    case ARRAY:
+      final TypeKind component = ((ArrayType) type).getComponentType()
+        .getKind();
+      if (component == TypeKind.BYTE) {
+        valueType = "byte[]";
+        valueTranscoder = "ByteArrayValueTranscoder()";
+      } else if (component == TypeKind.CHAR) {
+        valueType = "char[]";
+        valueTranscoder = "CharArrayValueTranscoder()";
+      } else {
+        throw new IllegalArgumentException("Unsupported type: " + type);
+      }
+      break;
+    case DECLARED:
+      final String name = types.erasure(type).toString();
+      if ("java.lang.Object".equals(name)) {
+        valueType = "Object";
+        valueTranscoder = "ObjectValueTranscoder()";
+      } else if ("java.lang.String".equals(name)) {
+        valueType = "String";
+        valueTranscoder = "StringValueTranscoder()";
+      } else if (name.startsWith("java.lang.") && isBoxed(name)) {
+        valueType = name.substring("java.lang.".length());
+        valueTranscoder =
+          ("Integer".equals(valueType) ? "Integer" : valueType) +
+          "ValueTranscoder()";
+      } else {
+        throw new IllegalArgumentException("Unsupported type: " + type);
+      }
+      break;
+    default:
+      throw new IllegalArgumentException("Unsupported type: " + type);
+    }
+    return "new " + REFLECT + "SingleValueReflectionTranscoder<" + valueType +
+      ">(new " + IO + valueTranscoder + ")";
+  }
+
+
+  /**
+   * Returns whether the supplied class name is a boxed primitive supported by
+   * the value transcoders.
+   *
+   * @param  name  fully qualified class name
+   *
+   * @return  whether name is a supported boxed primitive
+   */
+  private static boolean isBoxed(final String name)
+  {
+    return "java.lang.Boolean".equals(name) ||
+      "java.lang.Double".equals(name) ||
+      "java.lang.Float".equals(name) ||
+      "java.lang.Integer".equals(name) ||
+      "java.lang.Long".equals(name) ||
+      "java.lang.Short".equals(name);
+  }
+
+
+  /**
+   * Returns the source that parses a primitive from a string.
+   *
+   * @param  type  primitive type
+   * @param  value  java expression producing a string
+   *
+   * @return  java expression
+   */
+  private static String parse(final TypeMirror type, final String value)
+  {
+    switch (type.getKind()) {
+    case BOOLEAN:
+      return "Boolean.parseBoolean(" + value + ")";
+    case DOUBLE:
+      return "Double.parseDouble(" + value + ")";
+    case FLOAT:
+      return "Float.parseFloat(" + value + ")";
+    case INT:
+      return "Integer.parseInt(" + value + ")";
+    case LONG:
+      return "Long.parseLong(" + value + ")";
+    case SHORT:
+      return "Short.parseShort(" + value + ")";
+    default:
+      throw new IllegalArgumentException("Unsupported type: " + type);
+    }
+  }
+
+
+  /**
+   * Writes the static constants used by a property.
+   *
+   * @param  src  to write to
+   * @param  p  property
+   * @param  beanType  name of the bean type
+   */
+  private static void writeConstants(
+    final SourceBuilder src,
+    final Property p,
+    final String beanType)
+  {
+    // primitive attributes are formatted and parsed inline
+    if (p.attribute == null || !p.isPrimitive()) {
+      src.line(
+        "private static final %sReflectionTranscoder TRANSCODER_%s =",
+        REFLECT,
+        p.id);
+      src.line("  %s;", p.transcoder);
+    }
+    if (p.field != null && !p.directField) {
+      src.line(
+        "private static final %sPropertyAccessor ACCESSOR_%s =",
+        REFLECT,
+        p.id);
+      src.line(
+        "  createFieldAccessor(%s.class, %s);",
+        beanType,
+        literal(p.name));
+    }
+  }
+
+
+  /**
+   * Returns the sort behavior constant of the supplied attribute.
+   *
+   * @param  attr  attribute
+   *
+   * @return  java expression
+   */
+  private static String sortBehavior(final Attribute attr)
+  {
+    return "org.ldaptive.SortBehavior." + attr.sortBehavior().name();
+  }
+
+
+  /**
+   * Returns the supplied strings as comma separated java literals.
+   *
+   * @param  values  to convert
+   *
+   * @return  java literals
+   */
+  private static String literals(final String[] values)
+  {
+    final StringBuilder sb = new StringBuilder();
+    for (int i = 0; i < values.length; i++) {
+      if (i > 0) {
+        sb.append(", ");
+      }
+      sb.append(literal(values[i]));
+    }
+    return sb.toString();
+  }
+
+
+  /**
+   * Returns the supplied string as a java literal.
+   *
+   * @param  s  to convert
+   *
+   * @return  java literal
+   */
+  private static String literal(final String s)
+  {
+    final StringBuilder sb = new StringBuilder("\"");
+    for (int i = 0; i < s.length(); i++) {
+      final char c = s.charAt(i);
+      switch (c) {
+      case '"':
+        sb.append("\\\"");
+        break;
+      case '\\':
+        sb.append("\\\\");
+        break;
+      case '\n':
+        sb.append("\\n");
+        break;
+      case '\r':
+        sb.append("\\r");
+        break;
+      case '\t':
+        sb.append("\\t");
+        break;
+      default:
+        if (c < ' ' || c > '~') {
+          sb.append(String.format("\\u%04x", (int) c));
+        } else {
+          sb.append(c);
+        }
+        break;
+      }
+    }
+    return sb.append('"').toString();
+  }
+
+
+  /**
+   * Returns the erasure of the type with the supplied name.
+   *
+   * @param  name  fully qualified type name
+   *
+   * @return  erased type
+   */
+  private TypeMirror erasure(final String name)
+  {
+    return types.erasure(elements.getTypeElement(name).asType());
+  }
+
+
+  /** Describes how a single property is read and written. */
+  private static class Property
+  {
+
+    /** Unique identifier used to name constants. */
+    private final String id;
+
+    /** Name of the property. */
+    private final String name;
+
+    /** Type of the property. */
+    private final TypeMirror type;
+
+    /** Attribute configuration, null for the DN. */
+    private Attribute attribute;
+
+    /** Getter method. */
+    private ExecutableElement getter;
+
+    /** Setter method. */
+    private ExecutableElement setter;
+
+    /** Field. */
+    private VariableElement field;
+
+    /** Whether the field can be accessed directly. */
+    private boolean directField;
+
+    /** Java expression that creates the reflection transcoder. */
+    private String transcoder;
+
+
+    /**
+     * Creates a new property.
+     *
+     * @param  i  unique identifier
+     * @param  n  name
+     * @param  t  type
+     */
+    Property(final String i, final String n, final TypeMirror t)
+    {
+      id = i;
+      name = n;
+      type = t;
+    }
+
+
+    /**
+     * Returns the name of the attribute this property maps to.
+     *
+     * @return  attribute name
+     */
+    public String getAttributeName()
+    {
+      return "".equals(attribute.name()) ? name : attribute.name();
+    }
+
+
+    /**
+     * Returns whether this property is a primitive that is transcoded inline.
+     *
+     * @return  whether this property is a primitive
+     */
+    public boolean isPrimitive()
+    {
+      return type.getKind().isPrimitive();
+    }
+
+
+    /**
+     * Returns the java expression that reads this property.
+     *
+     * @param  object  variable name of the bean
+     *
+     * @return  java expression
+     */
+    public String getValue(final String object)
+    {
+      if (getter != null) {
+        return object + "." + getter.getSimpleName() + "()";
+      } else if (directField) {
+        return object + "." + field.getSimpleName();
+      }
+      return "ACCESSOR_" + id + ".getValue(" + object + ")";
+    }
+
+
+    /**
+     * Returns the java statement that writes this property.
+     *
+     * @param  object  variable name of the bean
+     * @param  value  java expression producing the value
+     * @param  typed  whether value already has the property type
+     *
+     * @return  java statement
+     */
+    public String setValue(
+      final String object,
+      final String value,
+      final boolean typed)
+    {
+      if (getter != null) {
+        // a throw statement would make the following break unreachable
+        if (setter == null) {
+          return "noSetterMethod();";
+        }
+        return object + "." + setter.getSimpleName() + "(" +
+          (typed ? value : cast(value)) + ");";
+      } else if (directField) {
+        return object + "." + field.getSimpleName() + " = " +
+          (typed ? value : cast(value)) + ";";
+      }
+      return "ACCESSOR_" + id + ".setValue(" + object + ", " + value + ");";
+    }
+
+
+    /**
+     * Returns the supplied expression cast to the type of this property.
+     *
+     * @param  value  java expression producing an object
+     *
+     * @return  java expression
+     */
+    private String cast(final String value)
+    {
+      if (type.getKind().isPrimitive()) {
+        return "(" + type + ") (Object) " + value;
+      }
+      return "(" + type + ") " + value;
+    }
+  }
+
+
+  /** Accumulates indented source lines. */
+  private static class SourceBuilder
+  {
+
+    /** Source. */
+    private final StringBuilder source = new StringBuilder();
+
+    /** Current indentation. */
+    private String indentation = "";
+
+
+    /** Increases the indentation. */
+    public void indent()
+    {
+      indentation += "  ";
+    }
+
+
+    /** Decreases the indentation. */
+    public void outdent()
+    {
+      indentation = indentation.substring(2);
+    }
+
+
+    /** Appends an empty line. */
+    public void line()
+    {
+      source.append('\n');
+    }
+
+
+    /**
+     * Appends a formatted line at the current indentation.
+     *
+     * @param  format  of the line
+     * @param  args  to format
+     */
+    public void line(final String format, final Object... args)
+    {
+      source.append(indentation);
+      source.append(args.length > 0 ? String.format(format, args) : format);
+      source.append('\n');
+    }
+
+
+    /** {@inheritDoc} */
+    @Override
+    public String toString()
+    {
+      return source.toString();
+    }
+  }
+}
@@ -0,0 +1,225 @@
+/*
+  $Id$
+
+  Copyright (C) 2003-2014 Virginia Tech.
+  All rights reserved.
+
+  SEE LICENSE FOR MORE INFORMATION
+
+  Author:  Middleware Services
+  Email:   middleware@vt.edu
+  Version: $Revision$
+  Updated: $Date$
+*/
+package org.ldaptive.beans.processor;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.util.Set;
+import java.util.TreeSet;
+import javax.annotation.processing.AbstractProcessor;
+import javax.annotation.processing.RoundEnvironment;
+import javax.annotation.processing.SupportedAnnotationTypes;
+import javax.lang.model.SourceVersion;
+import javax.lang.model.element.Element;
+import javax.lang.model.element.ElementKind;
+import javax.lang.model.element.TypeElement;
+import javax.tools.Diagnostic;
+import javax.tools.FileObject;
+import javax.tools.JavaFileObject;
+import javax.tools.StandardLocation;
+import org.ldaptive.beans.Entry;
+import org.ldaptive.beans.EntryIndex;
+
+/**
+ * Annotation processor that generates an ldap entry mapper for every class
+ * annotated with {@link Entry}. Generated mappers are found at runtime by
+ * {@link org.ldaptive.beans.generated.GeneratedLdapEntryMappers}. Classes that
+ * cannot be mapped without reflection-only features are skipped with a
+ * warning and continue to use the runtime class descriptor. Every annotated
+ * class, whether or not a mapper was generated for it, is listed in the
+ * {@link EntryIndex} resource written at the end of processing. Classes listed
+ * by an index left in the output directory by a previous compilation are kept
+ * if they are still annotated, so incremental compilation of a subset of the
+ * entry classes does not drop the others from the index.
+ *
+ * @author  Middleware Services
+ * @version  $Revision$ $Date$
+ */
+@SupportedAnnotationTypes("org.ldaptive.beans.Entry")
+public class LdapEntryMapperProcessor extends AbstractProcessor
+{
+
+  /** Binary names of the entry classes seen in all rounds. */
+  private final Set<String> entryClasses = new TreeSet<String>();
+
+
+  /** {@inheritDoc} */
+  @Override
+  public SourceVersion getSupportedSourceVersion()
+  {
+    return SourceVersion.latestSupported();
+  }
+
+
+  /** {@inheritDoc} */
+  @Override
+  public boolean process(
+    final Set<? extends TypeElement> annotations,
+    final RoundEnvironment roundEnv)
+  {
+    final LdapEntryMapperGenerator generator = new LdapEntryMapperGenerator(
+      processingEnv.getElementUtils(),
+      processingEnv.getTypeUtils());
+    for (Element e : roundEnv.getElementsAnnotatedWith(Entry.class)) {
+      if (e.getKind() != ElementKind.CLASS) {
+        continue;
+      }
+      final TypeElement type = (TypeElement) e;
+      entryClasses.add(
+        processingEnv.getElementUtils().getBinaryName(type).toString());
+      final String source;
+      try {
+        source = generator.generate(type);
+      } catch (IllegalArgumentException ex) {
+        processingEnv.getMessager().printMessage(
+          Diagnostic.Kind.WARNING,
+          String.format(
+            "No ldap entry mapper generated for %s: %s",
+            type.getQualifiedName(),
+            ex.getMessage()),
+          type);
+        continue;
+      }
+      write(generator.getMapperClassName(type), source, type);
+    }
+    if (roundEnv.processingOver() && !entryClasses.isEmpty()) {
+      writeIndex();
+    }
+    return false;
+  }
+
+
+  /**
+   * Writes the supplied source file.
+   *
+   * @param  name  of the class
+   * @param  source  of the class
+   * @param  type  that the class was generated from
+   */
+  private void write(
+    final String name,
+    final String source,
+    final TypeElement type)
+  {
+    try {
+      final JavaFileObject file = processingEnv.getFiler().createSourceFile(
+        name, type);
+      final Writer writer = file.openWriter();
+      try {
+        writer.write(source);
+      } finally {
+        writer.close();
+      }
+    } catch (IOException e) {
+      processingEnv.getMessager().printMessage(
+        Diagnostic.Kind.ERROR,
+        String.format("Could not write %s: %s", name, e.getMessage()),
+        type);
+    }
+  }
+
+
+  /**
+   * Writes the entry index resource listing every entry class seen, together
+   * with the entry classes of any existing index that are still annotated.
+   */
+  private void writeIndex()
+  {
+    final Set<String> names = new TreeSet<String>(entryClasses);
+    for (String name : readIndex()) {
+      if (!names.contains(name) && isEntryClass(name)) {
+        names.add(name);
+      }
+    }
+    try {
+      final FileObject file = processingEnv.getFiler().createResource(
+        StandardLocation.CLASS_OUTPUT, "", EntryIndex.RESOURCE_NAME);
+      final Writer writer = new OutputStreamWriter(
+        file.openOutputStream(), StandardCharsets.UTF_8);
+      try {
+        for (String name : names) {
+          writer.write(name);
+          writer.write('\n');
+        }
+      } finally {
+        writer.close();
+      }
+    } catch (IOException e) {
+      processingEnv.getMessager().printMessage(
+        Diagnostic.Kind.ERROR,
+        String.format(
+          "Could not write %s: %s", EntryIndex.RESOURCE_NAME, e.getMessage()));
+    }
+  }
+
+
+  /**
+   * Reads the entry index left in the output directory by a previous
+   * compilation.
+   *
+   * @return  class names in the existing index, empty if there is none
+   */
+  private Set<String> readIndex()
+  {
+    final Set<String> names = new TreeSet<String>();
+    try {
+      final FileObject file = processingEnv.getFiler().getResource(
+        StandardLocation.CLASS_OUTPUT, "", EntryIndex.RESOURCE_NAME);
+      final BufferedReader reader = new BufferedReader(
+        new InputStreamReader(file.openInputStream(), StandardCharsets.UTF_8));
+      try {
+        String line = reader.readLine();
+        while (line != null) {
+          line = line.trim();
+          if (!line.isEmpty() && !line.startsWith("#")) {
+            names.add(line);
+          }
+          line = reader.readLine();
+        }
+      } finally {
+        reader.close();
+      }
+    } catch (IOException e) {
+      // no previous index
+      return names;
+    } catch (IllegalArgumentException e) {
+      // filer does not support reading from the output location
+      return names;
+    }
+    return names;
+  }
+
+
+  /**
+   * Returns whether the supplied binary name resolves to a class that is
+   * annotated with {@link Entry}.
+   *
+   * @param  name  binary name of the class
+   *
+   * @return  whether the class is an entry class
+   */
+  private boolean isEntryClass(final String name)
+  {
+    final TypeElement type = processingEnv.getElementUtils().getTypeElement(
+      name.replace('$', '.'));
+    return type != null &&
+      type.getKind() == ElementKind.CLASS &&
+      type.getAnnotation(Entry.class) != null &&
+      processingEnv.getElementUtils().getBinaryName(type).contentEquals(name);
+  }
+}
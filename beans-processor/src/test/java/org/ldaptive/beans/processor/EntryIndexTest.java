@@ -0,0 +1,67 @@
+/*
+  $Id$
+
+  Copyright (C) 2003-2014 Virginia Tech.
+  All rights reserved.
+
+  SEE LICENSE FOR MORE INFORMATION
+
+  Author:  Middleware Services
+  Email:   middleware@vt.edu
+  Version: $Revision$
+  Updated: $Date$
+*/
+package org.ldaptive.beans.processor;
+
+import java.util.List;
+import org.ldaptive.beans.ClassDescriptorRegistry;
+import org.ldaptive.beans.ClassDescriptorWarmer;
+import org.ldaptive.beans.EntryIndex;
+import org.ldaptive.beans.generated.GeneratedLdapEntryMappers;
+import org.ldaptive.beans.reflect.DefaultLdapEntryMapper;
+import org.ldaptive.beans.reflect.IntCustomObject;
+import org.ldaptive.beans.reflect.StringCustomObject;
+import org.ldaptive.persistence.PersonCustomObject;
+import org.testng.Assert;
+import org.testng.annotations.Test;
+
+/**
+ * Unit tests for the entry index written by {@link LdapEntryMapperProcessor}.
+ *
+ * @author  Middleware Services
+ * @version  $Revision$ $Date$
+ */
+public class EntryIndexTest
+{
+
+
+  /**
+   * @throws  Exception  On test failure.
+   */
+  @Test(groups = {"beans"})
+  public void warmIndexedClasses()
+    throws Exception
+  {
+    final List<Class<?>> classes = EntryIndex.getClasses(
+      getClass().getClassLoader());
+    Assert.assertTrue(classes.contains(StringCustomObject.class));
+    Assert.assertTrue(classes.contains(IntCustomObject.class));
+    Assert.assertTrue(classes.contains(PersonCustomObject.class));
+
+    final ClassDescriptorRegistry registry =
+      DefaultLdapEntryMapper.getClassDescriptorRegistry();
+    for (Class<?> type : classes) {
+      registry.remove(type);
+    }
+    final ClassDescriptorWarmer warmer = new ClassDescriptorWarmer(registry);
+    final ClassDescriptorWarmer.Result result = warmer.warm(
+      getClass().getClassLoader());
+    Assert.assertTrue(result.isSuccess(), result.toString());
+    Assert.assertEquals(result.getTimes().keySet().size(), classes.size());
+    for (Class<?> type : classes) {
+      Assert.assertTrue(registry.contains(type));
+    }
+    Assert.assertNotNull(
+      GeneratedLdapEntryMappers.getLdapEntryMapper(PersonCustomObject.class));
+  }
+}
@@ -0,0 +1,117 @@
+/*
+  $Id$
+
+  Copyright (C) 2003-2014 Virginia Tech.
+  All rights reserved.
+
+  SEE LICENSE FOR MORE INFORMATION
+
+  Author:  Middleware Services
+  Email:   middleware@vt.edu
+  Version: $Revision$
+  Updated: $Date$
+*/
+package org.ldaptive.beans.processor;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import org.ldaptive.LdapEntry;
+import org.ldaptive.beans.LdapEntryMapper;
+import org.ldaptive.beans.generated.GeneratedLdapEntryMappers;
+import org.ldaptive.beans.reflect.BinaryLdapEntryMapperTest;
+import org.ldaptive.beans.reflect.CharLdapEntryMapperTest;
+import org.ldaptive.beans.reflect.CustomObject;
+import org.ldaptive.beans.reflect.DefaultLdapEntryMapper;
+import org.ldaptive.beans.reflect.IntLdapEntryMapperTest;
+import org.ldaptive.beans.reflect.IntegerLdapEntryMapperTest;
+import org.ldaptive.beans.reflect.StringLdapEntryMapperTest;
+import org.ldaptive.beans.reflect.TemplateDnLdapEntryMapperTest;
+import org.testng.Assert;
+import org.testng.annotations.DataProvider;
+import org.testng.annotations.Test;
+
+/**
+ * Unit tests for mappers generated by {@link LdapEntryMapperProcessor}.
+ *
+ * @author  Middleware Services
+ * @version  $Revision$ $Date$
+ */
+public class GeneratedLdapEntryMapperTest
+{
+
+  /** Mapper that uses runtime class descriptors only. */
+  private final DefaultLdapEntryMapper<CustomObject> descriptorMapper =
+    new DefaultLdapEntryMapper<CustomObject>(false);
+
+
+  /**
+   * Test data from the default ldap entry mapper tests.
+   *
+   * @return  custom objects and entries
+   */
+  @DataProvider(name = "objects")
+  public Object[][] createCustomObjects()
+  {
+    final List<Object[]> objects = new ArrayList<Object[]>();
+    objects.addAll(
+      Arrays.asList(new BinaryLdapEntryMapperTest().createCustomObjects()));
+    objects.addAll(
+      Arrays.asList(new CharLdapEntryMapperTest().createCustomObjects()));
+    objects.addAll(
+      Arrays.asList(new IntLdapEntryMapperTest().createCustomObjects()));
+    objects.addAll(
+      Arrays.asList(new IntegerLdapEntryMapperTest().createCustomObjects()));
+    objects.addAll(
+      Arrays.asList(new StringLdapEntryMapperTest().createCustomObjects()));
+    objects.addAll(
+      Arrays.asList(
+        new TemplateDnLdapEntryMapperTest().createCustomObjects()));
+    return objects.toArray(new Object[objects.size()][]);
+  }
+
+
+  /**
+   * @param  object  initialized with data
+   * @param  entry  initialized with data
+   *
+   * @throws  Exception  On test failure.
+   */
+  @Test(groups = {"beans"}, dataProvider = "objects")
+  public void mapToLdapEntry(final CustomObject object, final LdapEntry entry)
+    throws Exception
+  {
+    final LdapEntryMapper<CustomObject> mapper =
+      GeneratedLdapEntryMappers.getLdapEntryMapper(object.getClass());
+    Assert.assertNotNull(mapper, "No generated mapper for " + object);
+
+    final LdapEntry generated = new LdapEntry();
+    mapper.map(object, generated);
+    final LdapEntry described = new LdapEntry();
+    descriptorMapper.map(object, described);
+    Assert.assertEquals(generated, described);
+    Assert.assertEquals(mapper.getDn(object), descriptorMapper.getDn(object));
+  }
+
+
+  /**
+   * @param  object  initialized with data
+   * @param  entry  initialized with data
+   *
+   * @throws  Exception  On test failure.
+   */
+  @Test(groups = {"beans"}, dataProvider = "objects")
+  public void mapToObject(final CustomObject object, final LdapEntry entry)
+    throws Exception
+  {
+    final LdapEntryMapper<CustomObject> mapper =
+      GeneratedLdapEntryMappers.getLdapEntryMapper(object.getClass());
+    Assert.assertNotNull(mapper, "No generated mapper for " + object);
+
+    final CustomObject generated = object.getClass().newInstance();
+    mapper.map(entry, generated);
+    final CustomObject described = object.getClass().newInstance();
+    descriptorMapper.map(entry, described);
+    Assert.assertEquals(generated, described);
+  }
+}
@@ -0,0 +1,178 @@
+/*
+  $Id$
+
+  Copyright (C) 2003-2014 Virginia Tech.
+  All rights reserved.
+
+  SEE LICENSE FOR MORE INFORMATION
+
+  Author:  Middleware Services
+  Email:   middleware@vt.edu
+  Version: $Revision$
+  Updated: $Date$
+*/
+package org.ldaptive.beans.processor;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.FileVisitResult;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.SimpleFileVisitor;
+import java.nio.file.StandardOpenOption;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import javax.tools.JavaCompiler;
+import javax.tools.ToolProvider;
+import org.ldaptive.beans.EntryIndex;
+import org.testng.Assert;
+import org.testng.annotations.Test;
+
+/**
+ * Unit tests for {@link LdapEntryMapperProcessor}.
+ *
+ * @author  Middleware Services
+ * @version  $Revision$ $Date$
+ */
+public class LdapEntryMapperProcessorTest
+{
+
+
+  /**
+   * @throws  Exception  On test failure.
+   */
+  @Test(groups = {"beans"})
+  public void incrementalIndex()
+    throws Exception
+  {
+    final Path dir = Files.createTempDirectory("entry-processor");
+    try {
+      final Path src = Files.createDirectories(dir.resolve("src/test"));
+      final Path out = Files.createDirectories(dir.resolve("out"));
+      Files.createDirectories(dir.resolve("gen"));
+      final Path a = writeEntry(src, "A", true);
+      final Path b = writeEntry(src, "B", true);
+      final Path index = out.resolve(EntryIndex.RESOURCE_NAME);
+
+      compile(out, a, b);
+      Assert.assertEquals(
+        Files.readAllLines(index, StandardCharsets.UTF_8),
+        Arrays.asList("test.A", "test.B"));
+
+      // recompiling A keeps B, and drops classes that no longer resolve
+      Files.write(
+        index,
+        "test.Gone\n".getBytes(StandardCharsets.UTF_8),
+        StandardOpenOption.APPEND);
+      compile(out, a);
+      Assert.assertEquals(
+        Files.readAllLines(index, StandardCharsets.UTF_8),
+        Arrays.asList("test.A", "test.B"));
+
+      // B is no longer an entry class
+      compile(out, a, writeEntry(src, "B", false));
+      Assert.assertEquals(
+        Files.readAllLines(index, StandardCharsets.UTF_8),
+        Arrays.asList("test.A"));
+    } finally {
+      delete(dir);
+    }
+  }
+
+
+  /**
+   * Writes the source of a class in the test package.
+   *
+   * @param  dir  to write the source to
+   * @param  name  of the class
+   * @param  entry  whether the class is annotated with entry
+   *
+   * @return  source file
+   *
+   * @throws  IOException  if the file cannot be written
+   */
+  private static Path writeEntry(
+    final Path dir,
+    final String name,
+    final boolean entry)
+    throws IOException
+  {
+    final String source = String.format(
+      "package test;%n%s%npublic class %s%n{%n" +
+      "  private String dn;%n" +
+      "  public String getDn() { return dn; }%n" +
+      "  public void setDn(final String s) { dn = s; }%n}%n",
+      entry ? "@org.ldaptive.beans.Entry(dn = \"dn\")" : "",
+      name);
+    return Files.write(
+      dir.resolve(name + ".java"), source.getBytes(StandardCharsets.UTF_8));
+  }
+
+
+  /**
+   * Compiles the supplied sources with the processor into the supplied
+   * directory, which is also on the class path. Generated sources are written
+   * to a sibling gen directory.
+   *
+   * @param  out  output directory
+   * @param  sources  to compile
+   */
+  private static void compile(final Path out, final Path... sources)
+  {
+    final JavaCompiler compiler = ToolProvider.getSystemJavaCompiler();
+    final List<String> args = new ArrayList<String>();
+    args.add("-processor");
+    args.add(LdapEntryMapperProcessor.class.getName());
+    args.add("-d");
+    args.add(out.toString());
+    args.add("-s");
+    args.add(out.resolveSibling("gen").toString());
+    args.add("-cp");
+    args.add(out + File.pathSeparator + System.getProperty("java.class.path"));
+    for (Path source : sources) {
+      args.add(source.toString());
+    }
+    Assert.assertEquals(
+      compiler.run(null, null, null, args.toArray(new String[args.size()])),
+      0);
+  }
+
+
+  /**
+   * Deletes the supplied directory and everything in it.
+   *
+   * @param  dir  to delete
+   *
+   * @throws  IOException  if a file cannot be deleted
+   */
+  private static void delete(final Path dir)
+    throws IOException
+  {
+    Files.walkFileTree(
+      dir,
+      new SimpleFileVisitor<Path>() {
+        @Override
+        public FileVisitResult visitFile(
+          final Path file,
+          final BasicFileAttributes attrs)
+          throws IOException
+        {
+          Files.delete(file);
+          return FileVisitResult.CONTINUE;
+        }
+
+        @Override
+        public FileVisitResult postVisitDirectory(
+          final Path d,
+          final IOException e)
+          throws IOException
+        {
+          Files.delete(d);
+          return FileVisitResult.CONTINUE;
+        }
+      });
+  }
+}
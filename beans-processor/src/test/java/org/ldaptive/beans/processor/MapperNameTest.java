@@ -0,0 +1,68 @@
+/*
+  $Id$
+
+  Copyright (C) 2003-2014 Virginia Tech.
+  All rights reserved.
+
+  SEE LICENSE FOR MORE INFORMATION
+
+  Author:  Middleware Services
+  Email:   middleware@vt.edu
+  Version: $Revision$
+  Updated: $Date$
+*/
+package org.ldaptive.beans.processor;
+
+import org.ldaptive.beans.LdapEntryMapper;
+import org.ldaptive.beans.generated.AbstractGeneratedLdapEntryMapper;
+import org.ldaptive.beans.generated.GeneratedLdapEntryMappers;
+import org.testng.Assert;
+import org.testng.annotations.Test;
+
+/**
+ * Unit tests for generated mapper names that are shared by more than one type.
+ *
+ * @author  Middleware Services
+ * @version  $Revision$ $Date$
+ */
+public class MapperNameTest
+{
+
+
+  /** @throws  Exception  On test failure. */
+  @Test(groups = {"beans"})
+  public void sharedMapperName()
+    throws Exception
+  {
+    Assert.assertEquals(
+      GeneratedLdapEntryMappers.getMapperClassName(Bean.class),
+      GeneratedLdapEntryMappers.getMapperClassName(MapperNameTest_Bean.class));
+
+    final LdapEntryMapper<MapperNameTest_Bean> mapper =
+      GeneratedLdapEntryMappers.getLdapEntryMapper(MapperNameTest_Bean.class);
+    Assert.assertNotNull(mapper);
+    Assert.assertEquals(
+      ((AbstractGeneratedLdapEntryMapper<?>) mapper).getType(),
+      MapperNameTest_Bean.class);
+
+    // the mapper of the top level class is not used for the nested class
+    Assert.assertNull(GeneratedLdapEntryMappers.getLdapEntryMapper(Bean.class));
+  }
+
+
+  /** Nested bean without a generated mapper. */
+  public static class Bean
+  {
+
+    /** Entry DN. */
+    private String dn;
+
+
+    // CheckStyle:JavadocMethod OFF
+    // CheckStyle:LeftCurly OFF
+    public String getDn() { return dn; }
+    public void setDn(final String s) { dn = s; }
+    // CheckStyle:LeftCurly ON
+    // CheckStyle:JavadocMethod ON
+  }
+}
@@ -0,0 +1,50 @@
+/*
+  $Id$
+
+  Copyright (C) 2003-2014 Virginia Tech.
+  All rights reserved.
+
+  SEE LICENSE FOR MORE INFORMATION
+
+  Author:  Middleware Services
+  Email:   middleware@vt.edu
+  Version: $Revision$
+  Updated: $Date$
+*/
+package org.ldaptive.beans.processor;
+
+import org.ldaptive.beans.Attribute;
+import org.ldaptive.beans.Entry;
+
+/**
+ * Top level bean whose generated mapper name is also derived for the nested
+ * class {@link MapperNameTest.Bean}.
+ *
+ * @author  Middleware Services
+ * @version  $Revision$ $Date$
+ */
+@Entry(
+  dn = "dn",
+  attributes = {
+    @Attribute(name = "uid", property = "uid")
+  }
+)
+public class MapperNameTest_Bean
+{
+
+  /** Entry DN. */
+  private String dn;
+
+  /** Entry uid. */
+  private String uid;
+
+
+  // CheckStyle:JavadocMethod OFF
+  // CheckStyle:LeftCurly OFF
+  public String getDn() { return dn; }
+  public void setDn(final String s) { dn = s; }
+  public String getUid() { return uid; }
+  public void setUid(final String s) { uid = s; }
+  // CheckStyle:LeftCurly ON
+  // CheckStyle:JavadocMethod ON
+}
@@ -0,0 +1,126 @@
+/*
+  $Id$
+
+  Copyright (C) 2003-2014 Virginia Tech.
+  All rights reserved.
+
+  SEE LICENSE FOR MORE INFORMATION
+
+  Author:  Middleware Services
+  Email:   middleware@vt.edu
+  Version: $Revision$
+  Updated: $Date$
+*/
+package org.ldaptive.beans.processor;
+
+import java.util.Arrays;
+import org.ldaptive.LdapEntry;
+import org.ldaptive.beans.Attribute;
+import org.ldaptive.beans.Entry;
+import org.ldaptive.beans.LdapEntryMapper;
+import org.ldaptive.beans.generated.GeneratedLdapEntryMappers;
+import org.ldaptive.beans.reflect.DefaultLdapEntryMapper;
+import org.testng.Assert;
+import org.testng.annotations.DataProvider;
+import org.testng.annotations.Test;
+
+/**
+ * Unit tests for mappers generated for beans with read only properties.
+ *
+ * @author  Middleware Services
+ * @version  $Revision$ $Date$
+ */
+public class ReadOnlyLdapEntryMapperTest
+{
+
+  /** Mapper that uses runtime class descriptors only. */
+  private final DefaultLdapEntryMapper<Object> descriptorMapper =
+    new DefaultLdapEntryMapper<Object>(false);
+
+
+  /**
+   * Read only beans.
+   *
+   * @return  beans
+   */
+  @DataProvider(name = "objects")
+  public Object[][] createObjects()
+  {
+    return new Object[][] {
+      new Object[] {new ReadOnlyObject()},
+      new Object[] {new ReadOnlyTemplateObject()},
+    };
+  }
+
+
+  /**
+   * @param  object  read only bean
+   *
+   * @throws  Exception  On test failure.
+   */
+  @Test(groups = {"beans"}, dataProvider = "objects")
+  public void mapReadOnly(final Object object)
+    throws Exception
+  {
+    final LdapEntryMapper<Object> mapper =
+      GeneratedLdapEntryMappers.getLdapEntryMapper(object.getClass());
+    Assert.assertNotNull(mapper, "No generated mapper for " + object);
+
+    final LdapEntry generated = new LdapEntry();
+    mapper.map(object, generated);
+    final LdapEntry described = new LdapEntry();
+    descriptorMapper.map(object, described);
+    Assert.assertEquals(generated, described);
+
+    // read only properties cannot be decoded, as with reflection
+    for (LdapEntryMapper<Object> m :
+         Arrays.<LdapEntryMapper<Object>>asList(mapper, descriptorMapper)) {
+      try {
+        m.map(described, object.getClass().getDeclaredConstructor()
+          .newInstance());
+        Assert.fail("Should have thrown IllegalArgumentException");
+      } catch (IllegalArgumentException e) {
+        Assert.assertEquals(e.getClass(), IllegalArgumentException.class);
+      }
+    }
+  }
+
+
+  /** Bean with a read only DN and attribute. */
+  @Entry(
+    dn = "dn",
+    attributes = {
+      @Attribute(name = "uid", property = "uid"),
+      @Attribute(name = "cn", property = "cn")
+    }
+  )
+  public static class ReadOnlyObject
+  {
+
+    // CheckStyle:JavadocMethod OFF
+    // CheckStyle:LeftCurly OFF
+    public String getDn() { return "uid=ro,ou=people,dc=ldaptive,dc=org"; }
+    public String getUid() { return "ro"; }
+    public String getCn() { return "Read Only"; }
+    // CheckStyle:LeftCurly ON
+    // CheckStyle:JavadocMethod ON
+  }
+
+
+  /** Bean with a template DN over a read only property. */
+  @Entry(
+    dn = "uid={uid},ou=people,dc=ldaptive,dc=org",
+    attributes = {
+      @Attribute(name = "uid", property = "uid")
+    }
+  )
+  public static class ReadOnlyTemplateObject
+  {
+
+    // CheckStyle:JavadocMethod OFF
+    // CheckStyle:LeftCurly OFF
+    public String getUid() { return "ro"; }
+    // CheckStyle:LeftCurly ON
+    // CheckStyle:JavadocMethod ON
+  }
+}